@@ -335,6 +335,14 @@ public class AndroidUIUtil {
 		}
 	}
 
+	/**
+	 * posts <code>run</code> to the message queue of the UI thread, even from
+	 * the UI thread, so that it runs after the current message.
+	 */
+	public static void postOnUiThread(final Runnable run) {
+		ActivityManager.mainHandler.post(run);
+	}
+
 	public static void runOnUiThreadAndWait(Runnable run) {
 		if (run == null) {
 			return;
@@ -34,6 +34,7 @@ public class BitmapGraphics extends CanvasGraphics {
 
 		bitmap.getPixels(copyBuf, 0, width, x_src, y_src, width, height);
 
+		beforeDrawAdAPI();
 		canvas.drawBitmap(copyBuf, 0, width, x_dest, y_dest, width, height, true, null);
 	}
 
@@ -0,0 +1,93 @@
+package hc.android;
+
+/**
+ * the image formats decoded by {@link android.graphics.BitmapFactory}, with
+ * the names, suffixes and MIME types used to look them up, and the signature
+ * recognized from the first bytes of the encoded data.
+ */
+enum BitmapImageFormat {
+	PNG(new String[] { "png", "PNG" }, new String[] { "png" },
+			new String[] { "image/png", "image/x-png" }, 16) {
+		@Override
+		boolean matches(final byte[] b) {
+			// signature followed by the IHDR chunk, a truncated file stops here.
+			return (b[0] & 0xFF) == 0x89 && b[1] == 'P' && b[2] == 'N' && b[3] == 'G'
+					&& b[4] == 0x0D && b[5] == 0x0A && b[6] == 0x1A && b[7] == 0x0A
+					&& b[12] == 'I' && b[13] == 'H' && b[14] == 'D' && b[15] == 'R';
+		}
+	},
+	JPEG(new String[] { "JPEG", "jpeg", "JPG", "jpg" }, new String[] { "jpg", "jpeg" },
+			new String[] { "image/jpeg" }, 3) {
+		@Override
+		boolean matches(final byte[] b) {
+			// SOI followed by a marker.
+			return (b[0] & 0xFF) == 0xFF && (b[1] & 0xFF) == 0xD8 && (b[2] & 0xFF) == 0xFF;
+		}
+	},
+	GIF(new String[] { "gif", "GIF" }, new String[] { "gif" }, new String[] { "image/gif" }, 6) {
+		@Override
+		boolean matches(final byte[] b) {
+			return b[0] == 'G' && b[1] == 'I' && b[2] == 'F' && b[3] == '8'
+					&& (b[4] == '7' || b[4] == '9') && b[5] == 'a';
+		}
+	},
+	BMP(new String[] { "bmp", "BMP" }, new String[] { "bmp" },
+			new String[] { "image/bmp", "image/x-bmp", "image/x-windows-bmp" }, 18) {
+		@Override
+		boolean matches(final byte[] b) {
+			if (b[0] != 'B' || b[1] != 'M') {
+				return false;
+			}
+			// size of the DIB header, one of the known versions.
+			final int dibSize = (b[14] & 0xFF) | ((b[15] & 0xFF) << 8) | ((b[16] & 0xFF) << 16)
+					| ((b[17] & 0xFF) << 24);
+			return dibSize == 12 || dibSize == 40 || dibSize == 52 || dibSize == 56
+					|| dibSize == 64 || dibSize == 108 || dibSize == 124;
+		}
+	},
+	WEBP(new String[] { "webp", "WEBP" }, new String[] { "webp" }, new String[] { "image/webp" },
+			12) {
+		@Override
+		boolean matches(final byte[] b) {
+			// RIFF container, the 4 bytes between are its size.
+			return b[0] == 'R' && b[1] == 'I' && b[2] == 'F' && b[3] == 'F' && b[8] == 'W'
+					&& b[9] == 'E' && b[10] == 'B' && b[11] == 'P';
+		}
+	};
+
+	final String[] names;
+	final String[] suffixes;
+	final String[] MIMETypes;
+
+	/**
+	 * the number of leading bytes required by {@link #matches(byte[])}.
+	 */
+	final int headerLength;
+
+	BitmapImageFormat(final String[] names, final String[] suffixes, final String[] MIMETypes,
+			final int headerLength) {
+		this.names = names;
+		this.suffixes = suffixes;
+		this.MIMETypes = MIMETypes;
+		this.headerLength = headerLength;
+	}
+
+	/**
+	 * @param header
+	 *            at least {@link #headerLength} bytes.
+	 */
+	abstract boolean matches(final byte[] header);
+
+	static BitmapImageFormat forName(final String formatName) {
+		final BitmapImageFormat[] all = values();
+		for (int i = 0; i < all.length; i++) {
+			final String[] names = all[i].names;
+			for (int j = 0; j < names.length; j++) {
+				if (names[j].equalsIgnoreCase(formatName)) {
+					return all[i];
+				}
+			}
+		}
+		throw new IllegalArgumentException("unsupported image format : " + formatName);
+	}
+}
@@ -0,0 +1,457 @@
+package hc.android;
+
+import java.awt.Dimension;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Iterator;
+
+import javax.imageio.IIOException;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.spi.ImageReaderSpi;
+import javax.imageio.stream.FileImageInputStream;
+import javax.imageio.stream.ImageInputStream;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.Rect;
+
+/**
+ * <code>ImageReader</code> over the Android decoders ({@link BitmapFactory}
+ * and {@link BitmapRegionDecoder}).
+ * <p>
+ * The width, height and format are probed from the header only. A read with a
+ * source region, subsampling or source render size decodes just the tiles of
+ * the region, at the largest power of 2 sample size that keeps the requested
+ * resolution, so the memory used follows the size of the result, not of the
+ * encoded image.
+ * <p>
+ * The input may be a {@link File} (decoded from the path, nothing is
+ * buffered), a <code>byte[]</code>, an {@link InputStream}, an
+ * {@link ImageInputStream} or a {@link URL}. An <code>ImageInputStream</code>
+ * is decoded in place from its current position, it is seeked back there
+ * between the probe and the decoding, so its own cache (a file for
+ * {@link javax.imageio.stream.FileCacheImageInputStream}) holds the encoded
+ * data; a {@link FileImageInputStream} over a file is decoded from the path.
+ * An {@link InputStream}, or the stream of a non file <code>URL</code>, is
+ * decoded in one pass: the header is probed under a mark and the stream reset
+ * before the pixels are decoded, so only the header is buffered. Such an input
+ * can be read once, a source region is cropped from the subsampled image.
+ */
+public class BitmapImageReader extends ImageReader {
+	private String path;
+	private byte[] data;
+	private ImageInputStream stream;
+	private long streamStart;
+	private InputStream inStream;
+	private boolean isOwnInStream;
+	private boolean isInStreamRead;
+
+	private int srcWidth = -1;
+	private int srcHeight;
+	private String mimeType;
+
+	public BitmapImageReader(ImageReaderSpi originatingProvider) {
+		super(originatingProvider);
+	}
+
+	/**
+	 * the input types are those of {@link BitmapImageReaderSpi}, a reader
+	 * without provider accepts an <code>ImageInputStream</code> only.
+	 */
+	@Override
+	public void setInput(Object input, boolean seekForwardOnly, boolean ignoreMetadata) {
+		super.setInput(input, seekForwardOnly, ignoreMetadata);
+		if (isOwnInStream && isInStreamRead == false) {
+			try {
+				inStream.close();
+			} catch (IOException e) {
+			}
+		}
+		path = null;
+		data = null;
+		stream = null;
+		inStream = null;
+		isOwnInStream = false;
+		isInStreamRead = false;
+		srcWidth = -1;
+		mimeType = null;
+	}
+
+	@Override
+	public String getFormatName() throws IOException {
+		if (originatingProvider != null) {
+			return super.getFormatName();
+		}
+		probeHeader();
+		final String prefix = "image/";
+		if (mimeType != null && mimeType.startsWith(prefix)) {
+			return mimeType.substring(prefix.length());
+		}
+		return mimeType;
+	}
+
+	@Override
+	public int getNumImages(boolean allowSearch) throws IOException {
+		if (input == null) {
+			throw new IllegalStateException("No input source set!");
+		}
+		return 1;
+	}
+
+	@Override
+	public int getWidth(int imageIndex) throws IOException {
+		checkIndex(imageIndex);
+		probeHeader();
+		return srcWidth;
+	}
+
+	@Override
+	public int getHeight(int imageIndex) throws IOException {
+		checkIndex(imageIndex);
+		probeHeader();
+		return srcHeight;
+	}
+
+	@Override
+	public Iterator<ImageTypeSpecifier> getImageTypes(int imageIndex) throws IOException {
+		checkIndex(imageIndex);
+		final ArrayList<ImageTypeSpecifier> list = new ArrayList<ImageTypeSpecifier>(1);
+		list.add(ImageTypeSpecifier.createFromBufferedImageType(BufferedImage.TYPE_INT_ARGB));
+		return list.iterator();
+	}
+
+	/**
+	 * the returned parameter supports
+	 * {@link ImageReadParam#setSourceRenderSize(Dimension)}.
+	 */
+	@Override
+	public ImageReadParam getDefaultReadParam() {
+		return new ImageReadParam() {
+			{
+				canSetSourceRenderSize = true;
+			}
+		};
+	}
+
+	@Override
+	public IIOMetadata getStreamMetadata() throws IOException {
+		return null;
+	}
+
+	@Override
+	public IIOMetadata getImageMetadata(int imageIndex) throws IOException {
+		checkIndex(imageIndex);
+		return null;
+	}
+
+	@Override
+	public BufferedImage read(int imageIndex, ImageReadParam param) throws IOException {
+		checkIndex(imageIndex);
+		probeHeader();
+		clearAbortRequest();
+		processImageStarted(imageIndex);
+
+		// region and subsampling are in the coordinates of the render size, if
+		// one is set.
+		final Dimension renderSize = (param == null) ? null : param.getSourceRenderSize();
+		final int virtualWidth = (renderSize == null) ? srcWidth : renderSize.width;
+		final int virtualHeight = (renderSize == null) ? srcHeight : renderSize.height;
+
+		final BufferedImage dest = (param == null) ? null : param.getDestination();
+		final Rectangle srcRegion = new Rectangle();
+		final Rectangle destRegion = new Rectangle();
+		computeRegions(param, virtualWidth, virtualHeight, dest, srcRegion, destRegion);
+
+		final Rect rect = new Rect(scale(srcRegion.x, srcWidth, virtualWidth, false),
+				scale(srcRegion.y, srcHeight, virtualHeight, false),
+				scale(srcRegion.x + srcRegion.width, srcWidth, virtualWidth, true),
+				scale(srcRegion.y + srcRegion.height, srcHeight, virtualHeight, true));
+		final int destWidth = destRegion.width;
+		final int destHeight = destRegion.height;
+
+		final int ratio = Math.min(rect.width() / destWidth, rect.height() / destHeight);
+		final int sampleSize = Integer.highestOneBit(Math.max(1, ratio));
+
+		Bitmap bitmap = decodeRect(rect, sampleSize);
+		if (bitmap == null) {
+			throw new IIOException("fail to decode image : " + mimeType);
+		}
+		processImageProgress(50.0F);
+
+		if (bitmap.getWidth() != destWidth || bitmap.getHeight() != destHeight) {
+			// subsampling picks pixels, a render size is a real rescale.
+			final Bitmap scaled = Bitmap.createScaledBitmap(bitmap, destWidth, destHeight,
+					renderSize != null);
+			if (scaled != bitmap) {
+				bitmap.recycle();
+				bitmap = scaled;
+			}
+		}
+
+		final BufferedImage out;
+		if (dest == null && destRegion.x == 0 && destRegion.y == 0) {
+			out = new BufferedImage(bitmap);
+		} else {
+			out = (dest != null) ? dest
+					: new BufferedImage(destRegion.x + destWidth, destRegion.y + destHeight,
+							BufferedImage.TYPE_INT_ARGB);
+			final int[] row = new int[destWidth];
+			for (int y = 0; y < destHeight; y++) {
+				bitmap.getPixels(row, 0, destWidth, 0, y, destWidth, 1);
+				out.setRGB(destRegion.x, destRegion.y + y, destWidth, 1, row, 0, destWidth);
+			}
+			bitmap.recycle();
+		}
+
+		if (abortRequested()) {
+			processReadAborted();
+		} else {
+			processImageComplete();
+		}
+		return out;
+	}
+
+	@Override
+	public void dispose() {
+		setInput(null, false, false);
+	}
+
+	private void checkIndex(int imageIndex) {
+		if (input == null) {
+			throw new IllegalStateException("No input source set!");
+		}
+		if (imageIndex != 0 || imageIndex < minIndex) {
+			throw new IndexOutOfBoundsException("imageIndex : " + imageIndex);
+		}
+	}
+
+	/**
+	 * maps a coordinate of the render size to the encoded image.
+	 */
+	private static int scale(int v, int size, int virtualSize, boolean isCeil) {
+		if (size == virtualSize) {
+			return v;
+		}
+		final long scaled = isCeil ? (((long) v * size + virtualSize - 1) / virtualSize)
+				: ((long) v * size / virtualSize);
+		return (int) Math.min(scaled, size);
+	}
+
+	/**
+	 * reads width, height and format without decoding any pixel.
+	 */
+	private void probeHeader() throws IOException {
+		if (srcWidth >= 0) {
+			return;
+		}
+		resolveSource();
+
+		final BitmapFactory.Options opts = new BitmapFactory.Options();
+		opts.inJustDecodeBounds = true;
+		decode(opts);
+		if (opts.outWidth <= 0 || opts.outHeight <= 0) {
+			throw new IIOException("Unsupported Image Type");
+		}
+		srcWidth = opts.outWidth;
+		srcHeight = opts.outHeight;
+		mimeType = opts.outMimeType;
+	}
+
+	private Bitmap decode(final BitmapFactory.Options opts) throws IOException {
+		if (path != null) {
+			return BitmapFactory.decodeFile(path, opts);
+		} else if (stream != null) {
+			stream.seek(streamStart);
+			return BitmapFactory.decodeStream(new ImageInputStreamAdapter(stream), null, opts);
+		} else if (inStream != null) {
+			return decodeInStream(opts);
+		} else {
+			return BitmapFactory.decodeByteArray(data, 0, data.length, opts);
+		}
+	}
+
+	/**
+	 * the bounds pass is reset to the mark, the pixels pass consumes the
+	 * stream.
+	 */
+	private Bitmap decodeInStream(final BitmapFactory.Options opts) throws IOException {
+		if (isInStreamRead) {
+			throw new IIOException("input stream is already decoded!");
+		}
+		if (opts.inJustDecodeBounds) {
+			// the mark keeps just the bytes read by the probe.
+			inStream.mark(Integer.MAX_VALUE);
+			try {
+				return BitmapFactory.decodeStream(inStream, null, opts);
+			} finally {
+				inStream.reset();
+				// the pixels pass must not grow the buffer of the mark.
+				inStream.mark(0);
+			}
+		}
+
+		isInStreamRead = true;
+		try {
+			return BitmapFactory.decodeStream(inStream, null, opts);
+		} finally {
+			if (isOwnInStream) {
+				inStream.close();
+			}
+		}
+	}
+
+	private Bitmap decodeRect(final Rect rect, final int sampleSize) throws IOException {
+		final BitmapFactory.Options opts = new BitmapFactory.Options();
+		opts.inSampleSize = sampleSize;
+		opts.inPreferredConfig = Bitmap.Config.ARGB_8888;
+
+		final boolean isWhole = rect.left == 0 && rect.top == 0 && rect.right == srcWidth
+				&& rect.bottom == srcHeight;
+		// a one pass stream has no fall back if the region decoder fails.
+		if (isWhole == false && inStream == null && isRegionDecodable()) {
+			BitmapRegionDecoder decoder = null;
+			try {
+				if (path != null) {
+					decoder = BitmapRegionDecoder.newInstance(path, false);
+				} else if (stream != null) {
+					stream.seek(streamStart);
+					decoder = BitmapRegionDecoder.newInstance(new ImageInputStreamAdapter(stream),
+							false);
+				} else {
+					decoder = BitmapRegionDecoder.newInstance(data, 0, data.length, false);
+				}
+				final Bitmap bitmap = decoder.decodeRegion(rect, opts);
+				if (bitmap != null) {
+					return bitmap;
+				}
+			} catch (IOException e) {
+				// fall back to full decode and crop.
+			} finally {
+				if (decoder != null) {
+					decoder.recycle();
+				}
+			}
+		}
+
+		final Bitmap bitmap = decode(opts);
+		if (bitmap == null || isWhole) {
+			return bitmap;
+		}
+
+		final int x = Math.min(rect.left / sampleSize, bitmap.getWidth() - 1);
+		final int y = Math.min(rect.top / sampleSize, bitmap.getHeight() - 1);
+		final int w = Math.max(1, Math.min(rect.width() / sampleSize, bitmap.getWidth() - x));
+		final int h = Math.max(1, Math.min(rect.height() / sampleSize, bitmap.getHeight() - y));
+		final Bitmap cropped = Bitmap.createBitmap(bitmap, x, y, w, h);
+		if (cropped != bitmap) {
+			bitmap.recycle();
+		}
+		return cropped;
+	}
+
+	private boolean isRegionDecodable() {
+		return "image/jpeg".equals(mimeType) || "image/png".equals(mimeType)
+				|| "image/webp".equals(mimeType);
+	}
+
+	/**
+	 * files are decoded from their path, image input streams in place and
+	 * other streams in one pass behind a mark.
+	 */
+	private void resolveSource() throws IOException {
+		if (path != null || data != null || stream != null || inStream != null) {
+			return;
+		}
+		if (input == null) {
+			throw new IllegalStateException("No input source set!");
+		}
+
+		if (input instanceof File) {
+			path = ((File) input).getPath();
+		} else if (input instanceof byte[]) {
+			data = (byte[]) input;
+		} else if (input instanceof InputStream) {
+			inStream = toMarkable((InputStream) input);
+		} else if (input instanceof ImageInputStream) {
+			final ImageInputStream iis = (ImageInputStream) input;
+			final File file = (iis instanceof FileImageInputStream) ? ((FileImageInputStream) iis)
+					.getFileAdAPI() : null;
+			if (file != null && iis.getStreamPosition() == 0) {
+				path = file.getPath();
+			} else {
+				stream = iis;
+				streamStart = iis.getStreamPosition();
+			}
+		} else if (input instanceof URL) {
+			final URL url = (URL) input;
+			if ("file".equals(url.getProtocol())) {
+				try {
+					path = new File(url.toURI()).getPath();
+					return;
+				} catch (URISyntaxException e) {
+				} catch (IllegalArgumentException e) {
+					// file URL with authority or query, read as stream.
+				}
+			}
+			inStream = toMarkable(url.openStream());
+			isOwnInStream = true;
+		}
+	}
+
+	private static InputStream toMarkable(final InputStream is) {
+		return is.markSupported() ? is : new BufferedInputStream(is);
+	}
+
+	/**
+	 * <code>InputStream</code> view of an <code>ImageInputStream</code> for the
+	 * Android decoders, mark and reset seek in the stream.
+	 */
+	static class ImageInputStreamAdapter extends InputStream {
+		private final ImageInputStream iis;
+		private long markPos;
+
+		ImageInputStreamAdapter(final ImageInputStream iis) throws IOException {
+			this.iis = iis;
+			this.markPos = iis.getStreamPosition();
+		}
+
+		@Override
+		public int read() throws IOException {
+			return iis.read();
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			return iis.read(b, off, len);
+		}
+
+		@Override
+		public boolean markSupported() {
+			return true;
+		}
+
+		@Override
+		public synchronized void mark(int readlimit) {
+			try {
+				markPos = iis.getStreamPosition();
+			} catch (IOException e) {
+			}
+		}
+
+		@Override
+		public synchronized void reset() throws IOException {
+			iis.seek(markPos);
+		}
+	}
+}
@@ -0,0 +1,179 @@
+package hc.android;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Locale;
+
+import javax.imageio.ImageReader;
+import javax.imageio.spi.ImageReaderSpi;
+import javax.imageio.stream.ImageInputStream;
+
+/**
+ * provider of {@link BitmapImageReader} for one of the formats decoded by
+ * Android. The format is recognized from its signature, reading no more than
+ * the first 18 bytes of the input.
+ * <p>
+ * Each format has its own subclass, so that
+ * {@link javax.imageio.spi.IIORegistry#getServiceProviderByClass(Class)}
+ * finds the provider of that format.
+ */
+public abstract class BitmapImageReaderSpi extends ImageReaderSpi {
+	private static final String[] SUPPORTED_FORMATS = { "png", "jpeg", "gif", "bmp", "webp" };
+
+	private final BitmapImageFormat format;
+
+	public static final class PNGImageReaderSpi extends BitmapImageReaderSpi {
+		public PNGImageReaderSpi() {
+			super(BitmapImageFormat.PNG);
+		}
+	}
+
+	public static final class JPEGImageReaderSpi extends BitmapImageReaderSpi {
+		public JPEGImageReaderSpi() {
+			super(BitmapImageFormat.JPEG);
+		}
+	}
+
+	public static final class GIFImageReaderSpi extends BitmapImageReaderSpi {
+		public GIFImageReaderSpi() {
+			super(BitmapImageFormat.GIF);
+		}
+	}
+
+	public static final class BMPImageReaderSpi extends BitmapImageReaderSpi {
+		public BMPImageReaderSpi() {
+			super(BitmapImageFormat.BMP);
+		}
+	}
+
+	public static final class WEBPImageReaderSpi extends BitmapImageReaderSpi {
+		public WEBPImageReaderSpi() {
+			super(BitmapImageFormat.WEBP);
+		}
+	}
+
+	/**
+	 * @param formatName
+	 *            one of {@link #getSupportedFormatsAdAPI()}.
+	 * @return the provider of the subclass for <code>formatName</code>.
+	 */
+	public static BitmapImageReaderSpi createAdAPI(final String formatName) {
+		switch (BitmapImageFormat.forName(formatName)) {
+		case PNG:
+			return new PNGImageReaderSpi();
+		case JPEG:
+			return new JPEGImageReaderSpi();
+		case GIF:
+			return new GIFImageReaderSpi();
+		case BMP:
+			return new BMPImageReaderSpi();
+		default:
+			return new WEBPImageReaderSpi();
+		}
+	}
+
+	private BitmapImageReaderSpi(final BitmapImageFormat format) {
+		super("Android", "1.0", format.names, format.suffixes, format.MIMETypes,
+				BitmapImageReader.class.getName(), new Class[] { ImageInputStream.class,
+						File.class, InputStream.class, URL.class, byte[].class },
+				null, false, null, null, null, null, false, null, null, null, null);
+		this.format = format;
+	}
+
+	public static String[] getSupportedFormatsAdAPI() {
+		return (String[]) SUPPORTED_FORMATS.clone();
+	}
+
+	@Override
+	public String getDescription(Locale locale) {
+		return "Android " + format.names[0] + " image reader";
+	}
+
+	@Override
+	public boolean canDecodeInput(Object source) throws IOException {
+		final byte[] header = new byte[format.headerLength];
+		if (source instanceof ImageInputStream) {
+			final ImageInputStream stream = (ImageInputStream) source;
+			stream.mark();
+			try {
+				if (readHeader(stream, header) == false) {
+					return false;
+				}
+			} finally {
+				stream.reset();
+			}
+		} else if (source instanceof byte[]) {
+			final byte[] data = (byte[]) source;
+			if (data.length < header.length) {
+				return false;
+			}
+			System.arraycopy(data, 0, header, 0, header.length);
+		} else if (source instanceof File) {
+			final InputStream is = new FileInputStream((File) source);
+			try {
+				if (readHeader(is, header) == false) {
+					return false;
+				}
+			} finally {
+				is.close();
+			}
+		} else if (source instanceof InputStream && ((InputStream) source).markSupported()) {
+			final InputStream is = (InputStream) source;
+			is.mark(header.length);
+			try {
+				if (readHeader(is, header) == false) {
+					return false;
+				}
+			} finally {
+				is.reset();
+			}
+		} else {
+			return false;
+		}
+		return format.matches(header);
+	}
+
+	private static boolean readHeader(final ImageInputStream stream, final byte[] header)
+			throws IOException {
+		int off = 0;
+		while (off < header.length) {
+			final int len = stream.read(header, off, header.length - off);
+			if (len < 0) {
+				return false;
+			}
+			off += len;
+		}
+		return true;
+	}
+
+	private static boolean readHeader(final InputStream is, final byte[] header)
+			throws IOException {
+		int off = 0;
+		while (off < header.length) {
+			final int len = is.read(header, off, header.length - off);
+			if (len < 0) {
+				return false;
+			}
+			off += len;
+		}
+		return true;
+	}
+
+	@Override
+	public ImageReader createReaderInstance(Object extension) throws IOException {
+		return new BitmapImageReader(this);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		return obj instanceof BitmapImageReaderSpi && ((BitmapImageReaderSpi) obj).format == format;
+	}
+
+	@Override
+	public int hashCode() {
+		return format.hashCode();
+	}
+}
@@ -0,0 +1,277 @@
+package hc.android;
+
+import java.awt.image.RenderedImage;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.Deflater;
+
+import javax.imageio.IIOException;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.stream.ImageOutputStream;
+
+import android.graphics.Bitmap;
+
+/**
+ * <code>ImageWriter</code> encoding PNG and JPEG by {@link Bitmap#compress},
+ * and BMP (24 bits, uncompressed) row by row.
+ * <p>
+ * The compression of {@link #getDefaultWriteParam()} is honoured : the JPEG
+ * quality is that of the param (0.75 by default, as the JDK), a PNG written
+ * with {@link ImageWriteParam#MODE_EXPLICIT} or
+ * {@link ImageWriteParam#MODE_DISABLED} is encoded by {@link PNGEncoder} at
+ * the deflate level of the quality, other PNG by the native encoder.
+ * <p>
+ * The output may be an {@link ImageOutputStream}, an {@link OutputStream} or
+ * a {@link File}, the encoded data is streamed to it.
+ */
+public class BitmapImageWriter extends ImageWriter {
+	private final BitmapImageFormat format;
+
+	public BitmapImageWriter(BitmapImageWriterSpi originatingProvider) {
+		super(originatingProvider);
+		this.format = originatingProvider.getFormat();
+	}
+
+	/**
+	 * the returned param can write compressed for JPEG and PNG, it can not
+	 * write progressive.
+	 */
+	@Override
+	public ImageWriteParam getDefaultWriteParam() {
+		return new BitmapImageWriteParam(format, getLocale());
+	}
+
+	@Override
+	public IIOMetadata getDefaultStreamMetadata(ImageWriteParam param) {
+		return null;
+	}
+
+	@Override
+	public IIOMetadata getDefaultImageMetadata(ImageTypeSpecifier imageType,
+			ImageWriteParam param) {
+		return null;
+	}
+
+	@Override
+	public IIOMetadata convertStreamMetadata(IIOMetadata inData, ImageWriteParam param) {
+		return null;
+	}
+
+	@Override
+	public IIOMetadata convertImageMetadata(IIOMetadata inData, ImageTypeSpecifier imageType,
+			ImageWriteParam param) {
+		return null;
+	}
+
+	@Override
+	public void write(IIOMetadata streamMetadata, IIOImage image, ImageWriteParam param)
+			throws IOException {
+		if (output == null) {
+			throw new IllegalStateException("output == null!");
+		}
+		if (image == null) {
+			throw new IllegalArgumentException("image == null!");
+		}
+		final RenderedImage im = image.getRenderedImage();
+		if (im == null) {
+			throw new IllegalArgumentException("image has no RenderedImage!");
+		}
+		final Bitmap bitmap = im.getBitmapAdAPI();
+		if (bitmap == null) {
+			throw new IIOException("no bitmap for image : " + im);
+		}
+
+		clearAbortRequest();
+		processImageStarted(0);
+
+		OutputStream os = null;
+		boolean isOwnStream = false;
+		if (output instanceof OutputStream) {
+			os = (OutputStream) output;
+		} else if (output instanceof ImageOutputStream) {
+			os = new ImageOutputStreamAdapter((ImageOutputStream) output);
+		} else if (output instanceof File) {
+			os = new FileOutputStream((File) output);
+			isOwnStream = true;
+		}
+
+		try {
+			if (format == BitmapImageFormat.BMP) {
+				writeBMP(bitmap, os);
+			} else if (format == BitmapImageFormat.JPEG) {
+				final int quality = Math.round(getQuality(param,
+						BitmapImageWriteParam.DEFAULT_JPEG_QUALITY) * 100);
+				if (bitmap.compress(Bitmap.CompressFormat.JPEG, quality, os) == false) {
+					throw new IIOException("fail to encode image as " + format.names[0]);
+				}
+			} else {
+				final int mode = getCompressionMode(param);
+				if (mode == ImageWriteParam.MODE_EXPLICIT || mode == ImageWriteParam.MODE_DISABLED) {
+					final float quality = getQuality(param, 1.0F);
+					final int level = (int) (Deflater.BEST_COMPRESSION * (1.0F - quality));
+					PNGEncoder.write(bitmap, os, level);
+				} else if (bitmap.compress(Bitmap.CompressFormat.PNG, 100, os) == false) {
+					throw new IIOException("fail to encode image as " + format.names[0]);
+				}
+			}
+			os.flush();
+		} finally {
+			if (isOwnStream) {
+				os.close();
+			}
+		}
+
+		if (abortRequested()) {
+			processWriteAborted();
+		} else {
+			processImageComplete();
+		}
+	}
+
+	private static int getCompressionMode(final ImageWriteParam param) {
+		if (param == null || param.canWriteCompressed() == false) {
+			return ImageWriteParam.MODE_DEFAULT;
+		}
+		return param.getCompressionMode();
+	}
+
+	/**
+	 * @return 1.0 (least loss, no deflate) if compression is disabled.
+	 */
+	private static float getQuality(final ImageWriteParam param, final float defaultQuality) {
+		final int mode = getCompressionMode(param);
+		if (mode == ImageWriteParam.MODE_DISABLED) {
+			return 1.0F;
+		} else if (mode == ImageWriteParam.MODE_EXPLICIT) {
+			return param.getCompressionQuality();
+		} else {
+			return defaultQuality;
+		}
+	}
+
+	/**
+	 * writes a bottom-up 24 bits BMP, one row of the bitmap at a time.
+	 */
+	private static void writeBMP(final Bitmap bitmap, final OutputStream os) throws IOException {
+		final int width = bitmap.getWidth();
+		final int height = bitmap.getHeight();
+		final int rowSize = (width * 3 + 3) & ~3;
+		final int imageSize = rowSize * height;
+		final int headerSize = 14 + 40;
+
+		final byte[] header = new byte[headerSize];
+		header[0] = 'B';
+		header[1] = 'M';
+		putInt(header, 2, headerSize + imageSize);
+		putInt(header, 10, headerSize);
+		putInt(header, 14, 40);
+		putInt(header, 18, width);
+		putInt(header, 22, height);
+		header[26] = 1;// planes
+		header[28] = 24;// bits per pixel
+		putInt(header, 34, imageSize);
+		putInt(header, 38, 2835);// 72 dpi
+		putInt(header, 42, 2835);
+		os.write(header);
+
+		final int[] pixels = new int[width];
+		final byte[] row = new byte[rowSize];
+		for (int y = height - 1; y >= 0; y--) {
+			bitmap.getPixels(pixels, 0, width, 0, y, width, 1);
+			for (int x = 0, i = 0; x < width; x++) {
+				final int argb = pixels[x];
+				row[i++] = (byte) argb;
+				row[i++] = (byte) (argb >> 8);
+				row[i++] = (byte) (argb >> 16);
+			}
+			os.write(row);
+		}
+	}
+
+	private static void putInt(final byte[] b, final int off, final int v) {
+		b[off] = (byte) v;
+		b[off + 1] = (byte) (v >> 8);
+		b[off + 2] = (byte) (v >> 16);
+		b[off + 3] = (byte) (v >> 24);
+	}
+
+	/**
+	 * compression settings of the Android encoders. Progressive JPEG is not
+	 * available from {@link Bitmap#compress}, so
+	 * {@link #canWriteProgressive()} is false.
+	 */
+	static class BitmapImageWriteParam extends ImageWriteParam {
+		static final float DEFAULT_JPEG_QUALITY = 0.75F;
+
+		/**
+		 * deflate level 6, the zlib default.
+		 */
+		static final float DEFAULT_PNG_QUALITY = 1.0F - 6.0F / Deflater.BEST_COMPRESSION;
+
+		private final BitmapImageFormat format;
+
+		BitmapImageWriteParam(final BitmapImageFormat format, final Locale locale) {
+			super(locale);
+			this.format = format;
+			if (format == BitmapImageFormat.JPEG) {
+				canWriteCompressed = true;
+				compressionTypes = new String[] { "JPEG" };
+			} else if (format == BitmapImageFormat.PNG) {
+				canWriteCompressed = true;
+				compressionTypes = new String[] { "Deflate" };
+			}
+			if (canWriteCompressed) {
+				setDefaultCompression();
+			}
+		}
+
+		private void setDefaultCompression() {
+			compressionType = compressionTypes[0];
+			compressionQuality = (format == BitmapImageFormat.JPEG) ? DEFAULT_JPEG_QUALITY
+					: DEFAULT_PNG_QUALITY;
+		}
+
+		/**
+		 * resets to the only compression type and its default quality.
+		 */
+		@Override
+		public void unsetCompression() {
+			super.unsetCompression();
+			setDefaultCompression();
+		}
+
+		@Override
+		public boolean isCompressionLossless() {
+			super.isCompressionLossless();
+			return format != BitmapImageFormat.JPEG;
+		}
+	}
+
+	/**
+	 * lets the encoders write to an <code>ImageOutputStream</code>.
+	 */
+	static class ImageOutputStreamAdapter extends OutputStream {
+		private final ImageOutputStream stream;
+
+		ImageOutputStreamAdapter(final ImageOutputStream stream) {
+			this.stream = stream;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			stream.write(b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			stream.write(b, off, len);
+		}
+	}
+}
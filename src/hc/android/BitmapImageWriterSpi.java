@@ -0,0 +1,113 @@
+package hc.android;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriter;
+import javax.imageio.spi.ImageWriterSpi;
+import javax.imageio.stream.ImageOutputStream;
+
+/**
+ * provider of {@link BitmapImageWriter} for PNG, JPEG or BMP. Android has no
+ * GIF encoder, so there is no GIF writer.
+ * <p>
+ * Each format has its own subclass, so that
+ * {@link javax.imageio.spi.IIORegistry#getServiceProviderByClass(Class)}
+ * finds the provider of that format.
+ */
+public abstract class BitmapImageWriterSpi extends ImageWriterSpi {
+	private static final String[] SUPPORTED_FORMATS = { "png", "jpeg", "bmp" };
+
+	private final BitmapImageFormat format;
+
+	public static final class PNGImageWriterSpi extends BitmapImageWriterSpi {
+		public PNGImageWriterSpi() {
+			super(BitmapImageFormat.PNG);
+		}
+	}
+
+	public static final class JPEGImageWriterSpi extends BitmapImageWriterSpi {
+		public JPEGImageWriterSpi() {
+			super(BitmapImageFormat.JPEG);
+		}
+	}
+
+	public static final class BMPImageWriterSpi extends BitmapImageWriterSpi {
+		public BMPImageWriterSpi() {
+			super(BitmapImageFormat.BMP);
+		}
+	}
+
+	/**
+	 * @param formatName
+	 *            one of {@link #getSupportedFormatsAdAPI()}.
+	 * @return the provider of the subclass for <code>formatName</code>.
+	 */
+	public static BitmapImageWriterSpi createAdAPI(final String formatName) {
+		switch (BitmapImageFormat.forName(formatName)) {
+		case PNG:
+			return new PNGImageWriterSpi();
+		case JPEG:
+			return new JPEGImageWriterSpi();
+		case BMP:
+			return new BMPImageWriterSpi();
+		default:
+			throw new IllegalArgumentException("unsupported image format : " + formatName);
+		}
+	}
+
+	private BitmapImageWriterSpi(final BitmapImageFormat format) {
+		super("Android", "1.0", format.names, format.suffixes, format.MIMETypes,
+				BitmapImageWriter.class.getName(), new Class[] { ImageOutputStream.class,
+						OutputStream.class, File.class },
+				null, false, null, null, null, null, false, null, null, null, null);
+		if (format == BitmapImageFormat.GIF) {
+			throw new IllegalArgumentException("unsupported image format : " + format.names[0]);
+		}
+		this.format = format;
+	}
+
+	public static String[] getSupportedFormatsAdAPI() {
+		return (String[]) SUPPORTED_FORMATS.clone();
+	}
+
+	final BitmapImageFormat getFormat() {
+		return format;
+	}
+
+	@Override
+	public String getDescription(Locale locale) {
+		return "Android " + format.names[0] + " image writer";
+	}
+
+	@Override
+	public boolean isFormatLossless() {
+		return format != BitmapImageFormat.JPEG;
+	}
+
+	/**
+	 * images are encoded from their ARGB bitmap, any type is accepted.
+	 */
+	@Override
+	public boolean canEncodeImage(ImageTypeSpecifier type) {
+		return true;
+	}
+
+	@Override
+	public ImageWriter createWriterInstance(Object extension) throws IOException {
+		return new BitmapImageWriter(this);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		return obj instanceof BitmapImageWriterSpi && ((BitmapImageWriterSpi) obj).format == format;
+	}
+
+	@Override
+	public int hashCode() {
+		return format.hashCode();
+	}
+}
@@ -22,8 +22,12 @@ import java.awt.geom.AffineTransform;
 import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
 import java.awt.image.BufferedImageOp;
+import java.awt.image.ColorConvertOp;
+import java.awt.image.ConvolveOp;
 import java.awt.image.ImageObserver;
+import java.awt.image.LookupOp;
 import java.awt.image.RenderedImage;
+import java.awt.image.RescaleOp;
 import java.awt.image.renderable.RenderableImage;
 import java.text.AttributedCharacterIterator;
 import java.util.Iterator;
@@ -40,7 +44,7 @@ import android.graphics.RectF;
 public class CanvasGraphics extends Graphics2D {
 	final RenderingHints renderingHint = new RenderingHints(null);
 
-	final Canvas canvas;
+	Canvas canvas;
 	final ScreenAdapter screenAdapter;
 	final Paint paint;
 	Color c;
@@ -49,10 +53,42 @@ public class CanvasGraphics extends Graphics2D {
 	final Paint paintLine;
 	Bitmap bitmap;
 
+	/**
+	 * returns the target canvas to read its size or state, use
+	 * {@link #getCanvasForDrawAdAPI()} to draw on it.
+	 */
 	public Canvas getCanvasAdAPI() {
 		return canvas;
 	}
 
+	/**
+	 * returns the target canvas for drawing on it directly, after
+	 * {@link #beforeDrawAdAPI()}, so that the owner of the target sees the
+	 * change as for the drawing operations of this class.
+	 */
+	public final Canvas getCanvasForDrawAdAPI() {
+		beforeDrawAdAPI();
+		return canvas;
+	}
+
+	/**
+	 * draws on <code>canvas</code> from now on, so that one instance serves
+	 * the canvases passed to the <code>draw</code> of the views, in UI
+	 * thread.
+	 */
+	public void setCanvasAdAPI(final Canvas canvas) {
+		this.canvas = canvas;
+		bitmap = null;
+	}
+
+	/**
+	 * invoked before a drawing operation writes to the target canvas. Owners
+	 * which keep a copy of the target pixels override it to mark the copy as
+	 * stale.
+	 */
+	protected void beforeDrawAdAPI() {
+	}
+
 	public CanvasGraphics(final Object[] canvas, final ScreenAdapter screenAdapter) {
 		this((Canvas) canvas[1], screenAdapter);
 		bitmap = (Bitmap) canvas[0];
@@ -188,6 +224,7 @@ public class CanvasGraphics extends Graphics2D {
 
 	@Override
 	public void drawLine(final int x1, final int y1, final int x2, final int y2) {
+		beforeDrawAdAPI();
 		paintLine.setColor(paint.getColor());
 		canvas.drawPoint(x1, y1, paintLine);
 		canvas.drawLine(x1, y1, x2, y2, paintLine);
@@ -196,6 +233,7 @@ public class CanvasGraphics extends Graphics2D {
 
 	@Override
 	public void fillRect(final int x, final int y, final int width, final int height) {
+		beforeDrawAdAPI();
 		final Paint.Style oldStyle = paint.getStyle();
 		final boolean anti = paint.isAntiAlias();
 		paint.setStyle(Paint.Style.FILL);
@@ -216,6 +254,7 @@ public class CanvasGraphics extends Graphics2D {
 	@Override
 	public void drawRoundRect(final int x, final int y, final int width, final int height,
 			final int arcWidth, final int arcHeight) {
+		beforeDrawAdAPI();
 		paint.setStyle(Paint.Style.STROKE);
 		canvas.drawRoundRect(new RectF(x, y, x + width - 1, y + height - 1), arcWidth / 2,
 				arcHeight / 2, paint);
@@ -224,6 +263,7 @@ public class CanvasGraphics extends Graphics2D {
 	@Override
 	public void fillRoundRect(final int x, final int y, final int width, final int height,
 			final int arcWidth, final int arcHeight) {
+		beforeDrawAdAPI();
 		final Paint.Style oldStyle = paint.getStyle();
 		paint.setStyle(Paint.Style.FILL);
 		canvas.drawRoundRect(new RectF(x, y, x + width, y + height), arcWidth / 2, arcHeight / 2,
@@ -233,6 +273,7 @@ public class CanvasGraphics extends Graphics2D {
 
 	@Override
 	public void drawOval(final int x, final int y, final int width, final int height) {
+		beforeDrawAdAPI();
 		final RectF rf = new RectF(x, y, x + width, y + height);
 		paint.setStyle(Paint.Style.STROKE);
 		canvas.drawOval(rf, paint);
@@ -240,6 +281,7 @@ public class CanvasGraphics extends Graphics2D {
 
 	@Override
 	public void fillOval(final int x, final int y, final int width, final int height) {
+		beforeDrawAdAPI();
 		final Paint.Style oldStyle = paint.getStyle();
 		paint.setStyle(Paint.Style.FILL);
 		canvas.drawOval(new RectF(x, y, x + width, y + height), paint);
@@ -249,6 +291,7 @@ public class CanvasGraphics extends Graphics2D {
 	@Override
 	public void drawArc(final int x, final int y, final int width, final int height,
 			final int startAngle, final int arcAngle) {
+		beforeDrawAdAPI();
 		paint.setStyle(Paint.Style.STROKE);
 		canvas.drawArc(new RectF(x, y, x + width - 1, y + height - 1), startAngle, arcAngle, true,
 				paint);
@@ -257,6 +300,7 @@ public class CanvasGraphics extends Graphics2D {
 	@Override
 	public void fillArc(final int x, final int y, final int width, final int height,
 			final int startAngle, final int arcAngle) {
+		beforeDrawAdAPI();
 		final Paint.Style oldStyle = paint.getStyle();
 		paint.setStyle(Paint.Style.FILL);
 		canvas.drawArc(new RectF(x, y, x + width, y + height), startAngle, arcAngle, true, paint);
@@ -270,6 +314,7 @@ public class CanvasGraphics extends Graphics2D {
 
 	@Override
 	public void drawPolygon(final int[] xPoints, final int[] yPoints, final int nPoints) {
+		beforeDrawAdAPI();
 		final float[] drawxy = new float[nPoints * 2];
 		for (int i = 0, j = 0; i < nPoints; i++) {
 			drawxy[j++] = xPoints[i];
@@ -281,6 +326,7 @@ public class CanvasGraphics extends Graphics2D {
 
 	@Override
 	public void fillPolygon(final int[] xPoints, final int[] yPoints, final int nPoints) {
+		beforeDrawAdAPI();
 		final Paint.Style oldStyle = paint.getStyle();
 		paint.setStyle(Paint.Style.FILL);
 
@@ -301,6 +347,7 @@ public class CanvasGraphics extends Graphics2D {
 
 	private void drawSubString(final String str, final int offset, final int len, final float x,
 			final float y) {
+		beforeDrawAdAPI();
 		final Paint.Cap oldCap = paint.getStrokeCap();
 		final Paint.Style oldStyle = paint.getStyle();
 		final boolean isOldAnti = paint.isAntiAlias();
@@ -337,6 +384,10 @@ public class CanvasGraphics extends Graphics2D {
 	@Override
 	public boolean drawImage(final Image img, final int x, final int y,
 			final ImageObserver observer) {
+		if (isReady(img, observer) == false) {
+			return false;
+		}
+		beforeDrawAdAPI();
 		canvas.drawBitmap(img.getBitmapAdAPI(), x, y, null);// 去掉paint，因为会产生重影
 		return true;
 	}
@@ -344,6 +395,10 @@ public class CanvasGraphics extends Graphics2D {
 	@Override
 	public boolean drawImage(final Image img, final int x, final int y, final int width,
 			final int height, final ImageObserver observer) {
+		if (isReady(img, observer) == false) {
+			return false;
+		}
+		beforeDrawAdAPI();
 		final Bitmap bm = img.getBitmapAdAPI();
 		final Rect src = new Rect(0, 0, bm.getWidth(), bm.getHeight());
 		final Rect dst = new Rect(x, y, x + width, y + height);
@@ -354,6 +409,9 @@ public class CanvasGraphics extends Graphics2D {
 	@Override
 	public boolean drawImage(final Image img, final int x, final int y, final Color bgcolor,
 			final ImageObserver observer) {
+		if (isReady(img, observer) == false) {
+			return false;
+		}
 		// Color oldColor = getColor();
 		//
 		// canvas.drawColor(bgcolor.toAndroid());
@@ -367,6 +425,10 @@ public class CanvasGraphics extends Graphics2D {
 	@Override
 	public boolean drawImage(final Image img, final int x, final int y, final int width,
 			final int height, final Color bgcolor, final ImageObserver observer) {
+		if (isReady(img, observer) == false) {
+			return false;
+		}
+		beforeDrawAdAPI();
 		final Color oldColor = getColor();
 
 		final Path path = new Path();
@@ -396,6 +458,10 @@ public class CanvasGraphics extends Graphics2D {
 	public boolean drawImage(final Image img, final int dx1, final int dy1, final int dx2,
 			final int dy2, final int sx1, final int sy1, final int sx2, final int sy2,
 			final ImageObserver observer) {
+		if (isReady(img, observer) == false) {
+			return false;
+		}
+		beforeDrawAdAPI();
 		final Bitmap bm = img.getBitmapAdAPI();
 
 		drawBitmap(dx1, dy1, dx2, dy2, sx1, sy1, sx2, sy2, bm);
@@ -403,6 +469,17 @@ public class CanvasGraphics extends Graphics2D {
 		return true;
 	}
 
+	/**
+	 * false while <code>img</code> is decoded in the background, the observer
+	 * is notified once it can be drawn.
+	 */
+	private static boolean isReady(final Image img, final ImageObserver observer) {
+		if (img instanceof ToolkitImage) {
+			return ((ToolkitImage) img).prepare(observer);
+		}
+		return true;
+	}
+
 	private void drawBitmap(final int dx1, final int dy1, final int dx2, final int dy2,
 			final int sx1, final int sy1, final int sx2, final int sy2, final Bitmap bm) {
 		final Rect src = new Rect(sx1, sy1, sx2, sy2);
@@ -414,6 +491,10 @@ public class CanvasGraphics extends Graphics2D {
 	public boolean drawImage(final Image img, final int dx1, final int dy1, final int dx2,
 			final int dy2, final int sx1, final int sy1, final int sx2, final int sy2,
 			final Color bgcolor, final ImageObserver observer) {
+		if (isReady(img, observer) == false) {
+			return false;
+		}
+		beforeDrawAdAPI();
 		final Color oldColor = getColor();
 
 		final Path path = new Path();
@@ -452,10 +533,36 @@ public class CanvasGraphics extends Graphics2D {
 		return false;
 	}
 
+	/**
+	 * destination of the ops keeping the size of the image, reused from one
+	 * {@link #drawImage(BufferedImage, BufferedImageOp, int, int)} to the next,
+	 * such as for the frames of a camera.
+	 */
+	private BufferedImage opDest;
+
 	@Override
 	public void drawImage(final BufferedImage img, final BufferedImageOp op, final int x,
 			final int y) {
-		AndroidClassUtil.callEmptyMethod();
+		final BufferedImage filtered = (op == null) ? img : op.filter(img, getOpDest(img, op));
+		drawImage(filtered, x, y, null);
+	}
+
+	/**
+	 * @return null if the op creates its destination : ops of other packages
+	 *         may not write every pixel.
+	 */
+	private BufferedImage getOpDest(final BufferedImage img, final BufferedImageOp op) {
+		if ((op instanceof ConvolveOp || op instanceof RescaleOp || op instanceof LookupOp
+				|| op instanceof ColorConvertOp) == false) {
+			return null;
+		}
+		final int type = (img.getType() == BufferedImage.TYPE_INT_RGB) ? BufferedImage.TYPE_INT_RGB
+				: BufferedImage.TYPE_INT_ARGB;
+		if (opDest == null || opDest.getWidth() != img.getWidth()
+				|| opDest.getHeight() != img.getHeight() || opDest.getType() != type) {
+			opDest = new BufferedImage(img.getWidth(), img.getHeight(), type);
+		}
+		return opDest;
 	}
 
 	@Override
@@ -524,6 +631,7 @@ public class CanvasGraphics extends Graphics2D {
 	}
 
 	public void drawRect(final int x, final int y, final int width, final int height) {
+		beforeDrawAdAPI();
 		canvas.drawRect(x, y, x + width, y + height, paint);
 	}
 
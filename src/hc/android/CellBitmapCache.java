@@ -0,0 +1,328 @@
+package hc.android;
+
+import android.graphics.Bitmap;
+
+/**
+ * cache of the rendered cells of a table, keyed by a packed
+ * <code>long</code> of row, column and selection (see
+ * {@link #keyOf(int, int, boolean)}), so that a lookup builds no key object.
+ * <p>
+ * The bitmaps are held up to a byte budget ({@link #setMaxBytes(long)}), the
+ * least recently used beyond it are dropped. The rows of a changed range are
+ * dropped by {@link #invalidate(int, int, int)}, the rows after inserted or
+ * deleted ones are moved by {@link #insertRows(int, int)} and
+ * {@link #deleteRows(int, int)}; a change of the whole table is a new version
+ * (see {@link #setVersion(int)}), which drops all the entries.
+ * <p>
+ * It is used on the UI thread only and is not synchronized.
+ */
+public final class CellBitmapCache {
+	/**
+	 * the column of the keys of a cell out of the columns of the model, such
+	 * as the selection column.
+	 */
+	public static final int EXTRA_COLUMN = -1;
+
+	private static final int COLUMN_MASK = 0x7FFFFFFF;
+
+	private static final class Entry {
+		long key;
+		final Bitmap bitmap;
+		final long bytes;
+
+		Entry nextInBucket;
+
+		/**
+		 * the LRU list, {@link CellBitmapCache#head} is the most recently used.
+		 */
+		Entry prev, next;
+
+		Entry(final long key, final Bitmap bitmap, final long bytes) {
+			this.key = key;
+			this.bitmap = bitmap;
+			this.bytes = bytes;
+		}
+	}
+
+	private Entry[] buckets = new Entry[256];
+	private int size;
+	private Entry head, tail;
+
+	private long maxBytes;
+	private long usedBytes;
+
+	/**
+	 * not less than the highest cached row, so that the rows appended after
+	 * all of them move nothing.
+	 */
+	private int maxRow = -1;
+
+	private int version;
+
+	/**
+	 * @param maxBytes
+	 *            the byte budget of the bitmaps.
+	 */
+	public CellBitmapCache(final long maxBytes) {
+		this.maxBytes = maxBytes;
+	}
+
+	/**
+	 * packs row (32 bits), column plus one (31 bits, so that
+	 * {@link #EXTRA_COLUMN} is 0) and selection (1 bit), any column of a
+	 * model fits.
+	 */
+	public static long keyOf(final int row, final int column, final boolean isSelected) {
+		return ((long) row << 32) | ((long) ((column + 1) & COLUMN_MASK) << 1)
+				| (isSelected ? 1L : 0L);
+	}
+
+	private static int rowOf(final long key) {
+		return (int) (key >> 32);
+	}
+
+	private static int columnOf(final long key) {
+		return ((int) (key >>> 1) & COLUMN_MASK) - 1;
+	}
+
+	/**
+	 * the entries cached before a different <code>version</code> are stale,
+	 * they are all dropped. The version is compared in full, it never aliases
+	 * an old one.
+	 */
+	public void setVersion(final int version) {
+		if (version != this.version) {
+			this.version = version;
+			clear();
+		}
+	}
+
+	private static int hash(final long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+
+	/**
+	 * @return null if not cached.
+	 */
+	public Bitmap get(final long key) {
+		final Entry e = find(key);
+		if (e == null) {
+			return null;
+		}
+		if (e != head) {
+			unlink(e);
+			linkFirst(e);
+		}
+		return e.bitmap;
+	}
+
+	public void put(final long key, final Bitmap bitmap) {
+		remove(key);
+
+		final long bytes = (long) bitmap.getRowBytes() * bitmap.getHeight();
+		if (bytes > maxBytes) {
+			return;
+		}
+		final Entry e = new Entry(key, bitmap, bytes);
+		final int index = hash(key) & (buckets.length - 1);
+		e.nextInBucket = buckets[index];
+		buckets[index] = e;
+		linkFirst(e);
+		size++;
+		usedBytes += bytes;
+		final int row = rowOf(key);
+		if (row > maxRow) {
+			maxRow = row;
+		}
+
+		if (size > buckets.length) {
+			rehash();
+		}
+		trim();
+	}
+
+	public void remove(final long key) {
+		final int index = hash(key) & (buckets.length - 1);
+		Entry prevInBucket = null;
+		for (Entry e = buckets[index]; e != null; e = e.nextInBucket) {
+			if (e.key == key) {
+				removeEntry(e, index, prevInBucket);
+				return;
+			}
+			prevInBucket = e;
+		}
+	}
+
+	/**
+	 * drops the cells of the rows <code>firstRow</code> to
+	 * <code>lastRow</code> included.
+	 *
+	 * @param column
+	 *            the column of the cells, a negative value for all the
+	 *            columns.
+	 */
+	public void invalidate(final int firstRow, final int lastRow, final int column) {
+		Entry e = head;
+		while (e != null) {
+			final Entry next = e.next;
+			final int row = rowOf(e.key);
+			if (row >= firstRow && row <= lastRow && (column < 0 || columnOf(e.key) == column)) {
+				remove(e.key);
+			}
+			e = next;
+		}
+	}
+
+	/**
+	 * <code>count</code> rows are inserted at <code>firstRow</code>, the
+	 * cells from there move down.
+	 */
+	public void insertRows(final int firstRow, final int count) {
+		shiftRows(firstRow, count);
+	}
+
+	/**
+	 * the rows <code>firstRow</code> to <code>firstRow + count - 1</code> are
+	 * deleted, the cells after them move up.
+	 */
+	public void deleteRows(final int firstRow, final int count) {
+		invalidate(firstRow, firstRow + count - 1, -1);
+		shiftRows(firstRow + count, -count);
+	}
+
+	/**
+	 * moves the cells of the rows from <code>fromRow</code> by
+	 * <code>delta</code> rows, keeping their place in the LRU order.
+	 */
+	private void shiftRows(final int fromRow, final int delta) {
+		if (fromRow > maxRow || delta == 0) {
+			return;
+		}
+		final long rowDelta = (long) delta << 32;
+		for (Entry e = head; e != null; e = e.next) {
+			if (rowOf(e.key) >= fromRow) {
+				unlinkFromBucket(e);
+				e.key += rowDelta;
+				final int index = hash(e.key) & (buckets.length - 1);
+				e.nextInBucket = buckets[index];
+				buckets[index] = e;
+			}
+		}
+		if (delta > 0) {
+			maxRow += delta;
+		}
+	}
+
+	private void unlinkFromBucket(final Entry entry) {
+		final int index = hash(entry.key) & (buckets.length - 1);
+		Entry prevInBucket = null;
+		for (Entry e = buckets[index]; e != null; e = e.nextInBucket) {
+			if (e == entry) {
+				if (prevInBucket == null) {
+					buckets[index] = e.nextInBucket;
+				} else {
+					prevInBucket.nextInBucket = e.nextInBucket;
+				}
+				e.nextInBucket = null;
+				return;
+			}
+			prevInBucket = e;
+		}
+	}
+
+	public void clear() {
+		for (int i = 0; i < buckets.length; i++) {
+			buckets[i] = null;
+		}
+		head = tail = null;
+		size = 0;
+		usedBytes = 0;
+		maxRow = -1;
+	}
+
+	public void setMaxBytes(final long bytes) {
+		maxBytes = bytes;
+		trim();
+	}
+
+	public long getMaxBytes() {
+		return maxBytes;
+	}
+
+	public long getUsedBytes() {
+		return usedBytes;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	private Entry find(final long key) {
+		for (Entry e = buckets[hash(key) & (buckets.length - 1)]; e != null; e = e.nextInBucket) {
+			if (e.key == key) {
+				return e;
+			}
+		}
+		return null;
+	}
+
+	private void removeEntry(final Entry e, final int index, final Entry prevInBucket) {
+		if (prevInBucket == null) {
+			buckets[index] = e.nextInBucket;
+		} else {
+			prevInBucket.nextInBucket = e.nextInBucket;
+		}
+		unlink(e);
+		size--;
+		usedBytes -= e.bytes;
+	}
+
+	private void trim() {
+		while (usedBytes > maxBytes && tail != null) {
+			remove(tail.key);
+		}
+	}
+
+	private void rehash() {
+		final Entry[] old = buckets;
+		buckets = new Entry[old.length * 2];
+		final int mask = buckets.length - 1;
+		for (int i = 0; i < old.length; i++) {
+			Entry e = old[i];
+			while (e != null) {
+				final Entry next = e.nextInBucket;
+				final int index = hash(e.key) & mask;
+				e.nextInBucket = buckets[index];
+				buckets[index] = e;
+				e = next;
+			}
+		}
+	}
+
+	private void linkFirst(final Entry e) {
+		e.prev = null;
+		e.next = head;
+		if (head != null) {
+			head.prev = e;
+		}
+		head = e;
+		if (tail == null) {
+			tail = e;
+		}
+	}
+
+	private void unlink(final Entry e) {
+		if (e.prev != null) {
+			e.prev.next = e.next;
+		} else {
+			head = e.next;
+		}
+		if (e.next != null) {
+			e.next.prev = e.prev;
+		} else {
+			tail = e.prev;
+		}
+		e.prev = e.next = null;
+	}
+}
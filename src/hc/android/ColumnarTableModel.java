@@ -0,0 +1,542 @@
+package hc.android;
+
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.TableModel;
+
+/**
+ * a {@link TableModel} storing each column in one array : <code>int[]</code>
+ * for <code>Integer</code>, <code>long[]</code> for <code>Long</code>,
+ * <code>double[]</code> for <code>Double</code>, <code>boolean[]</code> for
+ * <code>Boolean</code> and <code>Object[]</code> for the other classes, so
+ * that a row of numbers costs its bytes only, with no boxed value and no row
+ * object.
+ * <p>
+ * The rows are added by batches, {@link #appendRows(Object[][])} and
+ * {@link #appendColumnArrays(Object[], int, int)}, and removed by
+ * {@link #removeRange(int, int)}, each of them firing one
+ * <code>TableModelEvent</code>. Removing the first rows moves nothing, so a
+ * table keeping the last rows of a stream costs the appended rows only.
+ * <p>
+ * A null set in a primitive column is stored as <code>0</code> or
+ * <code>false</code>.
+ * <p>
+ * The methods are synchronized, the events are fired out of the lock on the
+ * calling thread. A reader out of the thread of the changes may take a
+ * {@link #snapshot()}, which shares the arrays until a change overwrites one
+ * of its rows.
+ */
+public class ColumnarTableModel extends AbstractTableModel {
+	private static final int TYPE_INT = 0;
+	private static final int TYPE_LONG = 1;
+	private static final int TYPE_DOUBLE = 2;
+	private static final int TYPE_BOOLEAN = 3;
+	private static final int TYPE_OBJECT = 4;
+
+	private static final int MIN_CAPACITY = 16;
+
+	private final String[] columnNames;
+	private final Class<?>[] columnClasses;
+	private final int[] types;
+
+	private final Object[] columns;
+	private int capacity;
+
+	/**
+	 * the rows are stored from <code>start</code> to
+	 * <code>start + rowCount - 1</code> of the arrays.
+	 */
+	private int start;
+	private int rowCount;
+
+	/**
+	 * the arrays are shared with a snapshot below this index, 0 if not
+	 * shared.
+	 */
+	private int sharedEnd;
+
+	/**
+	 * @param columnNames
+	 *            the names of the columns.
+	 * @param columnClasses
+	 *            the classes of the columns, <code>int.class</code> is taken as
+	 *            <code>Integer.class</code> and so on.
+	 */
+	public ColumnarTableModel(final String[] columnNames, final Class<?>[] columnClasses) {
+		this(columnNames, columnClasses, MIN_CAPACITY);
+	}
+
+	public ColumnarTableModel(final String[] columnNames, final Class<?>[] columnClasses,
+			final int initialCapacity) {
+		if (columnNames.length != columnClasses.length) {
+			throw new IllegalArgumentException("columnNames and columnClasses differ in length");
+		}
+		if (initialCapacity < 0) {
+			throw new IllegalArgumentException("initialCapacity : " + initialCapacity);
+		}
+		final int columnCount = columnNames.length;
+		this.columnNames = columnNames.clone();
+		this.columnClasses = new Class<?>[columnCount];
+		this.types = new int[columnCount];
+		for (int i = 0; i < columnCount; i++) {
+			final Class<?> c = toObjectClass(columnClasses[i]);
+			this.columnClasses[i] = c;
+			this.types[i] = typeOf(c);
+		}
+
+		capacity = initialCapacity;
+		columns = new Object[columnCount];
+		for (int i = 0; i < columnCount; i++) {
+			columns[i] = newArray(types[i], capacity);
+		}
+	}
+
+	private static Class<?> toObjectClass(final Class<?> c) {
+		if (c == null) {
+			return Object.class;
+		} else if (c == int.class) {
+			return Integer.class;
+		} else if (c == long.class) {
+			return Long.class;
+		} else if (c == double.class) {
+			return Double.class;
+		} else if (c == boolean.class) {
+			return Boolean.class;
+		}
+		return c;
+	}
+
+	private static int typeOf(final Class<?> c) {
+		if (c == Integer.class) {
+			return TYPE_INT;
+		} else if (c == Long.class) {
+			return TYPE_LONG;
+		} else if (c == Double.class) {
+			return TYPE_DOUBLE;
+		} else if (c == Boolean.class) {
+			return TYPE_BOOLEAN;
+		}
+		return TYPE_OBJECT;
+	}
+
+	private static Object newArray(final int type, final int length) {
+		switch (type) {
+		case TYPE_INT:
+			return new int[length];
+		case TYPE_LONG:
+			return new long[length];
+		case TYPE_DOUBLE:
+			return new double[length];
+		case TYPE_BOOLEAN:
+			return new boolean[length];
+		default:
+			return new Object[length];
+		}
+	}
+
+	private static Object valueAt(final Object column, final int type, final int index) {
+		switch (type) {
+		case TYPE_INT:
+			return Integer.valueOf(((int[]) column)[index]);
+		case TYPE_LONG:
+			return Long.valueOf(((long[]) column)[index]);
+		case TYPE_DOUBLE:
+			return Double.valueOf(((double[]) column)[index]);
+		case TYPE_BOOLEAN:
+			return Boolean.valueOf(((boolean[]) column)[index]);
+		default:
+			return ((Object[]) column)[index];
+		}
+	}
+
+	private static void store(final Object column, final int type, final int index,
+			final Object value) {
+		switch (type) {
+		case TYPE_INT:
+			((int[]) column)[index] = (value == null) ? 0 : ((Number) value).intValue();
+			break;
+		case TYPE_LONG:
+			((long[]) column)[index] = (value == null) ? 0 : ((Number) value).longValue();
+			break;
+		case TYPE_DOUBLE:
+			((double[]) column)[index] = (value == null) ? 0 : ((Number) value).doubleValue();
+			break;
+		case TYPE_BOOLEAN:
+			((boolean[]) column)[index] = (value != null) && ((Boolean) value).booleanValue();
+			break;
+		default:
+			((Object[]) column)[index] = value;
+		}
+	}
+
+	private static void checkRow(final int row, final int rowCount) {
+		if (row < 0 || row >= rowCount) {
+			throw new ArrayIndexOutOfBoundsException(row + " >= " + rowCount);
+		}
+	}
+
+	public synchronized int getRowCount() {
+		return rowCount;
+	}
+
+	public int getColumnCount() {
+		return columns.length;
+	}
+
+	public String getColumnName(final int column) {
+		final String name = columnNames[column];
+		return (name == null) ? super.getColumnName(column) : name;
+	}
+
+	public Class<?> getColumnClass(final int column) {
+		return columnClasses[column];
+	}
+
+	public synchronized Object getValueAt(final int row, final int column) {
+		checkRow(row, rowCount);
+		return valueAt(columns[column], types[column], start + row);
+	}
+
+	/**
+	 * @throws ClassCastException
+	 *             if <code>column</code> is not of <code>Integer</code>.
+	 */
+	public synchronized int getInt(final int row, final int column) {
+		checkRow(row, rowCount);
+		return ((int[]) columns[column])[start + row];
+	}
+
+	public synchronized long getLong(final int row, final int column) {
+		checkRow(row, rowCount);
+		return ((long[]) columns[column])[start + row];
+	}
+
+	public synchronized double getDouble(final int row, final int column) {
+		checkRow(row, rowCount);
+		return ((double[]) columns[column])[start + row];
+	}
+
+	public synchronized boolean getBoolean(final int row, final int column) {
+		checkRow(row, rowCount);
+		return ((boolean[]) columns[column])[start + row];
+	}
+
+	public void setValueAt(final Object value, final int row, final int column) {
+		synchronized (this) {
+			final int index = prepareWrite(row);
+			store(columns[column], types[column], index, value);
+		}
+		fireTableCellUpdated(row, column);
+	}
+
+	public void setInt(final int row, final int column, final int value) {
+		synchronized (this) {
+			final int index = prepareWrite(row);
+			((int[]) columns[column])[index] = value;
+		}
+		fireTableCellUpdated(row, column);
+	}
+
+	public void setLong(final int row, final int column, final long value) {
+		synchronized (this) {
+			final int index = prepareWrite(row);
+			((long[]) columns[column])[index] = value;
+		}
+		fireTableCellUpdated(row, column);
+	}
+
+	public void setDouble(final int row, final int column, final double value) {
+		synchronized (this) {
+			final int index = prepareWrite(row);
+			((double[]) columns[column])[index] = value;
+		}
+		fireTableCellUpdated(row, column);
+	}
+
+	public void setBoolean(final int row, final int column, final boolean value) {
+		synchronized (this) {
+			final int index = prepareWrite(row);
+			((boolean[]) columns[column])[index] = value;
+		}
+		fireTableCellUpdated(row, column);
+	}
+
+	/**
+	 * unshares the arrays if a snapshot holds <code>row</code>, so
+	 * <code>columns</code> is to be read after it.
+	 *
+	 * @return the index of <code>row</code> in the arrays.
+	 */
+	private int prepareWrite(final int row) {
+		checkRow(row, rowCount);
+		if (start + row < sharedEnd) {
+			relocate(capacity);
+		}
+		return start + row;
+	}
+
+	public void addRow(final Object[] rowData) {
+		appendRows(new Object[][] { rowData });
+	}
+
+	/**
+	 * appends the rows, then fires one event.
+	 *
+	 * @param rows
+	 *            the values of each row by column, a missing value is null.
+	 */
+	public void appendRows(final Object[][] rows) {
+		final int count = rows.length;
+		if (count == 0) {
+			return;
+		}
+		final int firstRow;
+		synchronized (this) {
+			firstRow = rowCount;
+			final int from = prepareAppend(count);
+			for (int c = 0; c < columns.length; c++) {
+				final Object column = columns[c];
+				final int type = types[c];
+				for (int i = 0; i < count; i++) {
+					final Object[] row = rows[i];
+					store(column, type, from + i, (row != null && c < row.length) ? row[c] : null);
+				}
+			}
+			rowCount += count;
+		}
+		fireTableRowsInserted(firstRow, firstRow + count - 1);
+	}
+
+	/**
+	 * appends <code>count</code> rows copied from arrays of the columns, then
+	 * fires one event.
+	 *
+	 * @param columnArrays
+	 *            an array by column, of the type of its storage :
+	 *            <code>int[]</code>, <code>long[]</code>, <code>double[]</code>,
+	 *            <code>boolean[]</code> or <code>Object[]</code>.
+	 * @param offset
+	 *            the index of the first row in each of the arrays.
+	 * @throws ArrayStoreException
+	 *             if an array is not of the type of its column.
+	 */
+	public void appendColumnArrays(final Object[] columnArrays, final int offset, final int count) {
+		if (columnArrays.length != columns.length) {
+			throw new IllegalArgumentException("expected " + columns.length + " columns, get "
+					+ columnArrays.length);
+		}
+		if (count <= 0) {
+			return;
+		}
+		final int firstRow;
+		synchronized (this) {
+			firstRow = rowCount;
+			final int from = prepareAppend(count);
+			for (int c = 0; c < columns.length; c++) {
+				System.arraycopy(columnArrays[c], offset, columns[c], from, count);
+			}
+			rowCount += count;
+		}
+		fireTableRowsInserted(firstRow, firstRow + count - 1);
+	}
+
+	/**
+	 * @return the index in the arrays of the first appended row.
+	 */
+	private int prepareAppend(final int count) {
+		final int needed = rowCount + count;
+		if (needed < 0) {
+			throw new OutOfMemoryError("too many rows");
+		}
+		if (start + needed > capacity) {
+			int newCapacity = capacity;
+			// grows if the compacted rows would still fill three quarters.
+			if (needed > capacity - (capacity >> 2)) {
+				newCapacity = Math.max(MIN_CAPACITY, Math.max(needed, capacity + (capacity >> 1)));
+			}
+			relocate(newCapacity);
+		}
+		if (start + rowCount < sharedEnd) {
+			relocate(capacity);
+		}
+		return start + rowCount;
+	}
+
+	/**
+	 * removes the rows <code>fromRow</code> to <code>toRow - 1</code>, then
+	 * fires one event.
+	 */
+	public void removeRange(final int fromRow, final int toRow) {
+		synchronized (this) {
+			if (fromRow < 0 || toRow > rowCount || fromRow > toRow) {
+				throw new ArrayIndexOutOfBoundsException("fromRow : " + fromRow + ", toRow : "
+						+ toRow + ", rowCount : " + rowCount);
+			}
+			if (fromRow == toRow) {
+				return;
+			}
+			final int count = toRow - fromRow;
+			final int tailCount = rowCount - toRow;
+			if (fromRow == 0) {
+				// the first rows, nothing moves.
+				clearObjects(start, start + count);
+				start += count;
+			} else if (tailCount == 0) {
+				clearObjects(start + fromRow, start + rowCount);
+			} else if (sharedEnd > start) {
+				removeToNewArrays(fromRow, toRow);
+			} else if (fromRow < tailCount) {
+				for (int c = 0; c < columns.length; c++) {
+					System.arraycopy(columns[c], start, columns[c], start + count, fromRow);
+				}
+				clearObjects(start, start + count);
+				start += count;
+			} else {
+				for (int c = 0; c < columns.length; c++) {
+					System.arraycopy(columns[c], start + toRow, columns[c], start + fromRow,
+							tailCount);
+				}
+				clearObjects(start + rowCount - count, start + rowCount);
+			}
+			rowCount -= count;
+			if (rowCount == 0 && sharedEnd == 0) {
+				start = 0;
+			}
+		}
+		fireTableRowsDeleted(fromRow, toRow - 1);
+	}
+
+	/**
+	 * drops the references of the <code>Object</code> columns from
+	 * <code>from</code> to <code>to - 1</code>, unless shared.
+	 */
+	private void clearObjects(final int from, final int to) {
+		if (from < sharedEnd) {
+			return;
+		}
+		for (int c = 0; c < columns.length; c++) {
+			if (types[c] == TYPE_OBJECT) {
+				final Object[] column = (Object[]) columns[c];
+				for (int i = from; i < to; i++) {
+					column[i] = null;
+				}
+			}
+		}
+	}
+
+	private void removeToNewArrays(final int fromRow, final int toRow) {
+		for (int c = 0; c < columns.length; c++) {
+			final Object column = newArray(types[c], capacity);
+			System.arraycopy(columns[c], start, column, 0, fromRow);
+			System.arraycopy(columns[c], start + toRow, column, fromRow, rowCount - toRow);
+			columns[c] = column;
+		}
+		start = 0;
+		sharedEnd = 0;
+	}
+
+	/**
+	 * moves the rows to the head of arrays of <code>newCapacity</code>, new
+	 * ones if shared or of another capacity.
+	 */
+	private void relocate(final int newCapacity) {
+		if (newCapacity == capacity && sharedEnd == 0) {
+			if (start == 0) {
+				return;
+			}
+			for (int c = 0; c < columns.length; c++) {
+				System.arraycopy(columns[c], start, columns[c], 0, rowCount);
+			}
+			clearObjects(Math.max(rowCount, start), start + rowCount);
+		} else {
+			for (int c = 0; c < columns.length; c++) {
+				final Object column = newArray(types[c], newCapacity);
+				System.arraycopy(columns[c], start, column, 0, rowCount);
+				columns[c] = column;
+			}
+			capacity = newCapacity;
+			sharedEnd = 0;
+		}
+		start = 0;
+	}
+
+	/**
+	 * reduces the arrays to the rows.
+	 */
+	public synchronized void trimToSize() {
+		if (capacity != rowCount) {
+			relocate(rowCount);
+		}
+	}
+
+	/**
+	 * a read-only copy of the rows, which the later changes do not alter.
+	 * <p>
+	 * It shares the arrays of this model, the first change overwriting one of
+	 * its rows copies them.
+	 */
+	public synchronized Snapshot snapshot() {
+		sharedEnd = Math.max(sharedEnd, start + rowCount);
+		return new Snapshot(this, columns.clone(), start, rowCount);
+	}
+
+	/**
+	 * the rows of a {@link ColumnarTableModel} at the time of
+	 * {@link ColumnarTableModel#snapshot()}, which never changes and fires no
+	 * event.
+	 */
+	public static final class Snapshot extends AbstractTableModel {
+		private final ColumnarTableModel model;
+		private final Object[] columns;
+		private final int start;
+		private final int rowCount;
+
+		Snapshot(final ColumnarTableModel model, final Object[] columns, final int start,
+				final int rowCount) {
+			this.model = model;
+			this.columns = columns;
+			this.start = start;
+			this.rowCount = rowCount;
+		}
+
+		public int getRowCount() {
+			return rowCount;
+		}
+
+		public int getColumnCount() {
+			return columns.length;
+		}
+
+		public String getColumnName(final int column) {
+			return model.getColumnName(column);
+		}
+
+		public Class<?> getColumnClass(final int column) {
+			return model.getColumnClass(column);
+		}
+
+		public Object getValueAt(final int row, final int column) {
+			checkRow(row, rowCount);
+			return valueAt(columns[column], model.types[column], start + row);
+		}
+
+		public int getInt(final int row, final int column) {
+			checkRow(row, rowCount);
+			return ((int[]) columns[column])[start + row];
+		}
+
+		public long getLong(final int row, final int column) {
+			checkRow(row, rowCount);
+			return ((long[]) columns[column])[start + row];
+		}
+
+		public double getDouble(final int row, final int column) {
+			checkRow(row, rowCount);
+			return ((double[]) columns[column])[start + row];
+		}
+
+		public boolean getBoolean(final int row, final int column) {
+			checkRow(row, rowCount);
+			return ((boolean[]) columns[column])[start + row];
+		}
+	}
+}
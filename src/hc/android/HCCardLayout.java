@@ -220,7 +220,12 @@ public class HCCardLayout extends BaseLayoutManager2 implements Serializable {
 		tabHost.setLeftToRight(parent.getComponentOrientation().isLeftToRight());
 		tabHost.clearAllTabs();
 
-		synchronized (parent.getTreeLock()) {
+		final Object treeLock = parent.getTreeLock();
+		synchronized (treeLock) {
+			if (parent.isTreeLockChangedAdAPI(treeLock)) {
+				layoutContainerUI(parent);
+				return;
+			}
 			Insets insets = parent.getInsets();
 			int ncomponents = parent.getComponentCount();
 			Component comp = null;
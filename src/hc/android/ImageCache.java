@@ -0,0 +1,181 @@
+package hc.android;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import android.graphics.Bitmap;
+
+/**
+ * process-wide cache of the decoded bitmaps of {@link ToolkitImage}, keyed by
+ * canonical source (see {@link #keyOf(URL)} and {@link #keyOf(File)}).
+ * <p>
+ * The most recently used bitmaps are held strongly up to a byte budget
+ * ({@link #setMaxBytes(long)}, one eighth of the heap by default); the least
+ * recently used ones beyond it are kept by <code>SoftReference</code> only,
+ * so that they are reclaimed under memory pressure and found again
+ * otherwise.
+ * <p>
+ * Only immutable bitmaps are cached, the images sharing one copy it before
+ * any change.
+ */
+public final class ImageCache {
+	private static long maxBytes = Runtime.getRuntime().maxMemory() / 8;
+	private static long usedBytes;
+
+	private static final LinkedHashMap<String, Bitmap> strong = new LinkedHashMap<String, Bitmap>(
+			32, 0.75F, true);
+	private static final HashMap<String, KeyedSoftReference> soft = new HashMap<String, KeyedSoftReference>();
+	private static final ReferenceQueue<Bitmap> queue = new ReferenceQueue<Bitmap>();
+
+	private ImageCache() {
+	}
+
+	private static class KeyedSoftReference extends SoftReference<Bitmap> {
+		final String key;
+
+		KeyedSoftReference(final String key, final Bitmap bitmap) {
+			super(bitmap, queue);
+			this.key = key;
+		}
+	}
+
+	/**
+	 * the URL with normalized path, a <code>file</code> URL is keyed as its
+	 * file.
+	 */
+	public static String keyOf(final URL url) {
+		if ("file".equalsIgnoreCase(url.getProtocol())) {
+			try {
+				return keyOf(new File(url.toURI()));
+			} catch (URISyntaxException e) {
+			} catch (IllegalArgumentException e) {
+				// file URL with authority or query, keyed as URL.
+			}
+		}
+		try {
+			return url.toURI().normalize().toString();
+		} catch (URISyntaxException e) {
+			return url.toExternalForm();
+		}
+	}
+
+	public static String keyOf(final File file) {
+		try {
+			return "file:" + file.getCanonicalPath();
+		} catch (IOException e) {
+			return "file:" + file.getAbsolutePath();
+		}
+	}
+
+	private static long sizeOf(final Bitmap bitmap) {
+		return (long) bitmap.getRowBytes() * bitmap.getHeight();
+	}
+
+	/**
+	 * @return null if <code>key</code> is not cached or its bitmap has been
+	 *         reclaimed.
+	 */
+	public static synchronized Bitmap get(final String key) {
+		purgeReclaimed();
+		Bitmap bitmap = strong.get(key);
+		if (bitmap != null) {
+			return bitmap;
+		}
+
+		final KeyedSoftReference ref = soft.remove(key);
+		if (ref != null) {
+			bitmap = ref.get();
+			if (bitmap != null && bitmap.isRecycled() == false) {
+				putStrong(key, bitmap);
+				return bitmap;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * caches <code>bitmap</code> as the most recently used, a mutable bitmap
+	 * is not cached.
+	 */
+	public static synchronized void put(final String key, final Bitmap bitmap) {
+		if (bitmap.isMutable()) {
+			return;
+		}
+		purgeReclaimed();
+		removeEntry(key);
+		putStrong(key, bitmap);
+	}
+
+	/**
+	 * invalidates <code>key</code>, for {@link java.awt.Image#flush()}.
+	 */
+	public static synchronized void remove(final String key) {
+		removeEntry(key);
+	}
+
+	public static synchronized void clear() {
+		strong.clear();
+		soft.clear();
+		usedBytes = 0;
+	}
+
+	/**
+	 * sets the byte budget of the strongly held bitmaps, the least recently
+	 * used beyond it are demoted to soft references.
+	 */
+	public static synchronized void setMaxBytes(final long bytes) {
+		maxBytes = bytes;
+		trim();
+	}
+
+	public static synchronized long getMaxBytes() {
+		return maxBytes;
+	}
+
+	private static void removeEntry(final String key) {
+		final Bitmap old = strong.remove(key);
+		if (old != null) {
+			usedBytes -= sizeOf(old);
+		}
+		soft.remove(key);
+	}
+
+	private static void putStrong(final String key, final Bitmap bitmap) {
+		final long size = sizeOf(bitmap);
+		if (size > maxBytes) {
+			soft.put(key, new KeyedSoftReference(key, bitmap));
+			return;
+		}
+		strong.put(key, bitmap);
+		usedBytes += size;
+		trim();
+	}
+
+	private static void trim() {
+		final Iterator<Map.Entry<String, Bitmap>> it = strong.entrySet().iterator();
+		while (usedBytes > maxBytes && it.hasNext()) {
+			final Map.Entry<String, Bitmap> eldest = it.next();
+			it.remove();
+			final Bitmap bitmap = eldest.getValue();
+			usedBytes -= sizeOf(bitmap);
+			soft.put(eldest.getKey(), new KeyedSoftReference(eldest.getKey(), bitmap));
+		}
+	}
+
+	private static void purgeReclaimed() {
+		KeyedSoftReference ref;
+		while ((ref = (KeyedSoftReference) queue.poll()) != null) {
+			if (soft.get(ref.key) == ref) {
+				soft.remove(ref.key);
+			}
+		}
+	}
+}
@@ -0,0 +1,215 @@
+package hc.android;
+
+import hc.core.util.LogManager;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+
+import android.graphics.Bitmap;
+
+/**
+ * decodes the {@link ToolkitImage}s on a bounded pool of daemon threads.
+ * <p>
+ * The images of the same source requested while it is being decoded share
+ * the decoding, each of them gets the same immutable <code>Bitmap</code>,
+ * which is then kept by {@link ImageCache}, so a later load of the source is
+ * served without decoding.
+ */
+final class ImageLoader {
+	private static final int POOL_SIZE = Math.max(2,
+			Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+	private static final ThreadPoolExecutor pool = buildPool();
+
+	/**
+	 * the decodings in progress by source key, guarded by itself.
+	 */
+	private static final HashMap<String, LoadTask> inFlight = new HashMap<String, LoadTask>();
+
+	private ImageLoader() {
+	}
+
+	private static ThreadPoolExecutor buildPool() {
+		final ThreadPoolExecutor executor = new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE, 30,
+				TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+					int count;
+
+					@Override
+					public Thread newThread(final Runnable r) {
+						final Thread t = new Thread(r, "ImageLoader-" + (++count));
+						t.setDaemon(true);
+						t.setPriority(Thread.NORM_PRIORITY - 1);
+						return t;
+					}
+				});
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
+	static void load(final ToolkitImage image) {
+		synchronized (inFlight) {
+			LoadTask task = inFlight.get(image.key);
+			if (task == null) {
+				task = new LoadTask(image.key, image.getSourceObject());
+				inFlight.put(image.key, task);
+				pool.execute(task);
+			}
+			task.images.add(image);
+		}
+	}
+
+	private static class LoadTask implements Runnable {
+		final String key;
+		final Object source;
+
+		/**
+		 * guarded by {@link ImageLoader#inFlight}.
+		 */
+		final ArrayList<ToolkitImage> images = new ArrayList<ToolkitImage>(2);
+
+		LoadTask(final String key, final Object source) {
+			this.key = key;
+			this.source = source;
+		}
+
+		private ToolkitImage[] getImages(final boolean isDone) {
+			synchronized (inFlight) {
+				if (isDone) {
+					inFlight.remove(key);
+				}
+				return images.toArray(new ToolkitImage[images.size()]);
+			}
+		}
+
+		@Override
+		public void run() {
+			Bitmap bitmap = ImageCache.get(key);
+			if (bitmap == null) {
+				try {
+					bitmap = decode();
+				} catch (Throwable e) {
+					LogManager.errToLog("fail to load image : " + key + ", " + e.toString());
+				}
+				if (bitmap != null) {
+					ImageCache.put(key, bitmap);
+				}
+			}
+
+			final ToolkitImage[] targets = getImages(true);
+			for (int i = 0; i < targets.length; i++) {
+				if (bitmap != null) {
+					targets[i].setLoaded(bitmap);
+				} else {
+					targets[i].setError();
+				}
+			}
+		}
+
+		/**
+		 * the decoded <code>Bitmap</code> is immutable and kept as is, so that
+		 * {@link ImageCache} accepts it. A mutable one (a reader which does
+		 * not decode with <code>BitmapFactory</code>) is copied once.
+		 */
+		private static Bitmap toShared(final Bitmap bitmap) {
+			if (bitmap == null || bitmap.isMutable() == false) {
+				return bitmap;
+			}
+			final Bitmap shared = bitmap.copy(bitmap.getConfig(), false);
+			if (shared == null) {
+				return bitmap;
+			}
+			bitmap.recycle();
+			return shared;
+		}
+
+		/**
+		 * @return null if <code>url</code> is not a valid file URL, which is
+		 *         then read as stream.
+		 */
+		private static File toFile(final URL url) {
+			if ("file".equals(url.getProtocol()) == false) {
+				return null;
+			}
+			try {
+				return new File(url.toURI());
+			} catch (URISyntaxException e) {
+			} catch (IllegalArgumentException e) {
+				// file URL with authority or query.
+			}
+			return null;
+		}
+
+		/**
+		 * probes the header first, so that the observers get the size before
+		 * the pixels.
+		 */
+		private Bitmap decode() throws IOException {
+			InputStream is = null;
+			ImageInputStream iis = null;
+			try {
+				if (source instanceof File) {
+					iis = ImageIO.createImageInputStream(source);
+				} else {
+					final URL url = (URL) source;
+					final File file = toFile(url);
+					if (file != null) {
+						iis = ImageIO.createImageInputStream(file);
+					} else if ("jar".equals(url.getProtocol())) {
+						// resources are small, no cache file for them.
+						is = url.openStream();
+						iis = new MemoryCacheImageInputStream(is);
+					} else {
+						is = url.openStream();
+						iis = ImageIO.createImageInputStream(is);
+					}
+				}
+				if (iis == null) {
+					return null;
+				}
+
+				final Iterator<ImageReader> it = ImageIO.getImageReaders(iis);
+				if (it.hasNext() == false) {
+					return null;
+				}
+				final ImageReader reader = it.next();
+				try {
+					reader.setInput(iis, true, true);
+					final int w = reader.getWidth(0);
+					final int h = reader.getHeight(0);
+					final ToolkitImage[] targets = getImages(false);
+					for (int i = 0; i < targets.length; i++) {
+						targets[i].setDimensions(w, h);
+					}
+
+					final BufferedImage bi = reader.read(0, null);
+					return (bi == null) ? null : toShared(bi.getBitmapAdAPI());
+				} finally {
+					reader.dispose();
+				}
+			} finally {
+				if (iis != null) {
+					iis.close();
+				}
+				if (is != null) {
+					is.close();
+				}
+			}
+		}
+	}
+}
@@ -4,6 +4,8 @@ import hc.core.L;
 import hc.core.util.LogManager;
 
 import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+
 import android.graphics.Bitmap;
 import android.graphics.Bitmap.Config;
 import android.graphics.BitmapFactory;
@@ -23,10 +25,30 @@ public class ImageUtil {
 
 	public static byte[] Bitmap2PNGBytes(Bitmap bm) {
 		ByteArrayOutputStream baos = new ByteArrayOutputStream();
-		bm.compress(Bitmap.CompressFormat.PNG, 100, baos);
+		writePNG(bm, baos);
 		return baos.toByteArray();
 	}
 
+	/**
+	 * encodes straight to <code>os</code>, no intermediate byte array.
+	 * 
+	 * @return false if the bitmap can not be encoded.
+	 */
+	public static boolean writePNG(Bitmap bm, OutputStream os) {
+		return bm.compress(Bitmap.CompressFormat.PNG, 100, os);
+	}
+
+	/**
+	 * encodes straight to <code>os</code>, no intermediate byte array.
+	 * 
+	 * @param quality
+	 *            0 to 100, 70 to 85 is fair for thumbnails and screenshots.
+	 * @return false if the bitmap can not be encoded.
+	 */
+	public static boolean writeJPEG(Bitmap bm, int quality, OutputStream os) {
+		return bm.compress(Bitmap.CompressFormat.JPEG, quality, os);
+	}
+
 	public static Bitmap PNGBytes2Bimap(byte[] b, int offset, int len) {
 		if (b.length != 0) {
 			return BitmapFactory.decodeByteArray(b, offset, len);
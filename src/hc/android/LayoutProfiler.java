@@ -0,0 +1,361 @@
+package hc.android;
+
+import hc.core.util.LogManager;
+
+import java.awt.Component;
+import java.awt.Container;
+import java.awt.Dimension;
+import java.awt.LayoutManager;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import android.view.View;
+
+/**
+ * opt-in profiler of the layout passes, see {@link #setEnabled(boolean)}.
+ * <p>
+ * It records the calls and the time of {@link Container#doLayout()},
+ * {@link LayoutManager#layoutContainer(Container)},
+ * {@link LayoutManager#preferredLayoutSize(Container)},
+ * {@link LayoutManager#minimumLayoutSize(Container)} and of the measure of
+ * the peers, the hits of the cached sizes, and the repeated layouts : a
+ * container laid out again at the same size within
+ * {@link #REPEAT_WINDOW_MS}. The figures are kept by class and by instance,
+ * {@link #dump()} logs them ranked by self time.
+ * <p>
+ * The timed calls nest (a <code>doLayout</code> runs the
+ * <code>layoutContainer</code>, which asks the preferred sizes of the
+ * children...), so each call records its time and its self time : its time
+ * less the time of the timed calls nested in it on the same thread. The self
+ * times do not overlap, their sum is the time spent in the layout.
+ * <p>
+ * When disabled, the cost of a call site is the test of
+ * {@link #isEnabled()}.
+ */
+public final class LayoutProfiler {
+	public static final int DO_LAYOUT = 0;
+	public static final int LAYOUT_CONTAINER = 1;
+	public static final int PREFERRED_SIZE = 2;
+	public static final int MINIMUM_SIZE = 3;
+	public static final int MEASURE = 4;
+	private static final int KIND_COUNT = 5;
+
+	private static final String[] KIND_NAMES = { "doLayout", "layoutContainer", "preferred",
+			"minimum", "measure" };
+
+	/**
+	 * a container laid out again at the same size within this delay is
+	 * counted as a repeated layout.
+	 */
+	public static final long REPEAT_WINDOW_MS = 500;
+
+	/**
+	 * the number of instances listed by {@link #dump()}.
+	 */
+	private static final int MAX_DUMP_INSTANCES = 20;
+
+	private static volatile boolean isEnabled;
+
+	/**
+	 * guarded by <code>LayoutProfiler.class</code>.
+	 */
+	private static final HashMap<String, Stats> byClass = new HashMap<String, Stats>();
+	private static final WeakHashMap<Component, Stats> byInstance = new WeakHashMap<Component, Stats>();
+
+	/**
+	 * the timed calls in progress of a thread, for the self times.
+	 */
+	private static final ThreadLocal<Nesting> nesting = new ThreadLocal<Nesting>() {
+		@Override
+		protected Nesting initialValue() {
+			return new Nesting();
+		}
+	};
+
+	private LayoutProfiler() {
+	}
+
+	/**
+	 * the time spent in the nested timed calls, by depth of the calls in
+	 * progress.
+	 */
+	private static final class Nesting {
+		long[] childNanos = new long[16];
+		int depth;
+	}
+
+	private static class Stats {
+		final String name;
+		final long[] calls = new long[KIND_COUNT];
+		final long[] nanos = new long[KIND_COUNT];
+		final long[] selfNanos = new long[KIND_COUNT];
+		final long[] hits = new long[KIND_COUNT];
+		long repeats;
+
+		long lastLayoutNanos;
+		int lastWidth = -1, lastHeight = -1;
+
+		Stats(final String name) {
+			this.name = name;
+		}
+
+		/**
+		 * the sum of the self times, the time of a kind nested in another is
+		 * not counted twice.
+		 */
+		long totalSelfNanos() {
+			long total = 0;
+			for (int i = 0; i < KIND_COUNT; i++) {
+				total += selfNanos[i];
+			}
+			return total;
+		}
+
+		void add(final int kind, final long elapsed, final long self) {
+			calls[kind]++;
+			nanos[kind] += elapsed;
+			selfNanos[kind] += self;
+		}
+
+		@Override
+		public String toString() {
+			final StringBuilder sb = new StringBuilder(160);
+			sb.append(name).append(" : self ").append(toMillis(totalSelfNanos())).append("ms");
+			for (int i = 0; i < KIND_COUNT; i++) {
+				if (calls[i] == 0 && hits[i] == 0) {
+					continue;
+				}
+				sb.append(", ").append(KIND_NAMES[i]).append(' ').append(calls[i]).append('/')
+						.append(toMillis(nanos[i])).append("ms (self ")
+						.append(toMillis(selfNanos[i])).append("ms)");
+				if (hits[i] != 0) {
+					sb.append(" hit ").append(hits[i]);
+				}
+			}
+			if (repeats != 0) {
+				sb.append(", repeated ").append(repeats);
+			}
+			return sb.toString();
+		}
+	}
+
+	private static String toMillis(final long nanos) {
+		final long tenth = nanos / 100000;
+		return (tenth / 10) + "." + (tenth % 10);
+	}
+
+	public static boolean isEnabled() {
+		return isEnabled;
+	}
+
+	/**
+	 * starts or stops the recording, the figures recorded so far are kept
+	 * until {@link #reset()}.
+	 */
+	public static void setEnabled(final boolean enabled) {
+		isEnabled = enabled;
+	}
+
+	public static synchronized void reset() {
+		byClass.clear();
+		byInstance.clear();
+	}
+
+	/**
+	 * {@link Container#doLayout()} of <code>target</code>, timed.
+	 */
+	public static void doLayout(final Container target) {
+		final Nesting n = enter();
+		final long start = System.nanoTime();
+		try {
+			target.doLayout();
+		} finally {
+			final long end = System.nanoTime();
+			final long self = exit(n, end - start);
+			synchronized (LayoutProfiler.class) {
+				record(DO_LAYOUT, target, end - start, self);
+
+				final Stats stats = instanceStats(target);
+				final int w = target.getWidth();
+				final int h = target.getHeight();
+				if (stats.lastWidth == w && stats.lastHeight == h
+						&& (start - stats.lastLayoutNanos) < REPEAT_WINDOW_MS * 1000000) {
+					stats.repeats++;
+					classStats(target).repeats++;
+				}
+				stats.lastLayoutNanos = end;
+				stats.lastWidth = w;
+				stats.lastHeight = h;
+			}
+		}
+	}
+
+	public static void layoutContainer(final LayoutManager layout, final Container target) {
+		final Nesting n = enter();
+		final long start = System.nanoTime();
+		try {
+			layout.layoutContainer(target);
+		} finally {
+			final long elapsed = System.nanoTime() - start;
+			record(LAYOUT_CONTAINER, target, elapsed, exit(n, elapsed));
+		}
+	}
+
+	public static Dimension preferredLayoutSize(final LayoutManager layout,
+			final Container target) {
+		final Nesting n = enter();
+		final long start = System.nanoTime();
+		try {
+			return layout.preferredLayoutSize(target);
+		} finally {
+			final long elapsed = System.nanoTime() - start;
+			record(PREFERRED_SIZE, target, elapsed, exit(n, elapsed));
+		}
+	}
+
+	public static Dimension minimumLayoutSize(final LayoutManager layout, final Container target) {
+		final Nesting n = enter();
+		final long start = System.nanoTime();
+		try {
+			return layout.minimumLayoutSize(target);
+		} finally {
+			final long elapsed = System.nanoTime() - start;
+			record(MINIMUM_SIZE, target, elapsed, exit(n, elapsed));
+		}
+	}
+
+	/**
+	 * {@link AndroidUIUtil#getViewWidthAndHeight(View, Dimension)} of the
+	 * peer of <code>target</code>, timed.
+	 */
+	public static void measure(final Component target, final View view, final Dimension size) {
+		final Nesting n = enter();
+		final long start = System.nanoTime();
+		try {
+			AndroidUIUtil.getViewWidthAndHeight(view, size);
+		} finally {
+			final long elapsed = System.nanoTime() - start;
+			record(MEASURE, target, elapsed, exit(n, elapsed));
+		}
+	}
+
+	/**
+	 * a size of <code>kind</code> served from the cache of
+	 * <code>target</code>.
+	 */
+	public static synchronized void hit(final int kind, final Component target) {
+		classStats(target).hits[kind]++;
+		instanceStats(target).hits[kind]++;
+	}
+
+	private static Nesting enter() {
+		final Nesting n = nesting.get();
+		if (n.depth == n.childNanos.length) {
+			final long[] grown = new long[n.depth * 2];
+			System.arraycopy(n.childNanos, 0, grown, 0, n.depth);
+			n.childNanos = grown;
+		}
+		n.childNanos[n.depth++] = 0;
+		return n;
+	}
+
+	/**
+	 * ends the timed call entered last, its time is added to the nested time
+	 * of the enclosing one.
+	 *
+	 * @return the self time of the call.
+	 */
+	private static long exit(final Nesting n, final long elapsed) {
+		final long self = elapsed - n.childNanos[--n.depth];
+		if (n.depth > 0) {
+			n.childNanos[n.depth - 1] += elapsed;
+		}
+		return self;
+	}
+
+	private static synchronized void record(final int kind, final Component target,
+			final long elapsed, final long self) {
+		classStats(target).add(kind, elapsed, self);
+		instanceStats(target).add(kind, elapsed, self);
+	}
+
+	private static Stats classStats(final Component target) {
+		final String name = target.getClass().getName();
+		Stats stats = byClass.get(name);
+		if (stats == null) {
+			stats = new Stats(name);
+			byClass.put(name, stats);
+		}
+		return stats;
+	}
+
+	private static Stats instanceStats(final Component target) {
+		Stats stats = byInstance.get(target);
+		if (stats == null) {
+			stats = new Stats(target.getClass().getName() + "@"
+					+ Integer.toHexString(System.identityHashCode(target)));
+			byInstance.put(target, stats);
+		}
+		return stats;
+	}
+
+	/**
+	 * logs the classes, then the {@link #MAX_DUMP_INSTANCES} instances taking
+	 * the most self time.
+	 */
+	public static void dump() {
+		final ArrayList<Stats> classes;
+		final ArrayList<Stats> instances = new ArrayList<Stats>();
+		synchronized (LayoutProfiler.class) {
+			classes = new ArrayList<Stats>(byClass.values());
+			final Iterator<Map.Entry<Component, Stats>> it = byInstance.entrySet().iterator();
+			while (it.hasNext()) {
+				final Map.Entry<Component, Stats> entry = it.next();
+				final Component comp = entry.getKey();
+				if (comp != null) {
+					final Container parent = comp.getParent();
+					final String parentName = (parent == null) ? "" : ", in "
+							+ parent.getClass().getName();
+					final Stats copy = new Stats(entry.getValue().name + " [" + comp.getWidth()
+							+ "x" + comp.getHeight() + parentName + "]");
+					copyTo(entry.getValue(), copy);
+					instances.add(copy);
+				}
+			}
+		}
+
+		final Comparator<Stats> byTime = new Comparator<Stats>() {
+			@Override
+			public int compare(final Stats s1, final Stats s2) {
+				final long t1 = s1.totalSelfNanos();
+				final long t2 = s2.totalSelfNanos();
+				return (t1 < t2) ? 1 : ((t1 == t2) ? 0 : -1);
+			}
+		};
+		Collections.sort(classes, byTime);
+		Collections.sort(instances, byTime);
+
+		LogManager.log("layout profile, " + classes.size() + " classes, " + instances.size()
+				+ " instances :");
+		for (int i = 0; i < classes.size(); i++) {
+			LogManager.log("  " + classes.get(i).toString());
+		}
+		final int count = Math.min(MAX_DUMP_INSTANCES, instances.size());
+		for (int i = 0; i < count; i++) {
+			LogManager.log("  " + (i + 1) + ". " + instances.get(i).toString());
+		}
+	}
+
+	private static void copyTo(final Stats from, final Stats to) {
+		System.arraycopy(from.calls, 0, to.calls, 0, KIND_COUNT);
+		System.arraycopy(from.nanos, 0, to.nanos, 0, KIND_COUNT);
+		System.arraycopy(from.selfNanos, 0, to.selfNanos, 0, KIND_COUNT);
+		System.arraycopy(from.hits, 0, to.hits, 0, KIND_COUNT);
+		to.repeats = from.repeats;
+	}
+}
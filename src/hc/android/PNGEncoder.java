@@ -0,0 +1,255 @@
+package hc.android;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import android.graphics.Bitmap;
+
+/**
+ * PNG encoder with a chosen deflate level, for the writes where
+ * {@link Bitmap#compress} (which ignores the quality for PNG) does not fit.
+ * <p>
+ * The bitmap is read and filtered one row at a time, the compressed data goes
+ * to the output in <code>IDAT</code> chunks of {@link #CHUNK_LENGTH} bytes,
+ * so the memory used does not follow the size of the image.
+ */
+final class PNGEncoder {
+	private static final byte[] SIGNATURE = { (byte) 137, 80, 78, 71, 13, 10, 26, 10 };
+	private static final int CHUNK_LENGTH = 32 * 1024;
+
+	private static final int FILTER_NONE = 0;
+	private static final int FILTER_SUB = 1;
+	private static final int FILTER_UP = 2;
+	private static final int FILTER_AVERAGE = 3;
+	private static final int FILTER_PAETH = 4;
+
+	private PNGEncoder() {
+	}
+
+	/**
+	 * @param level
+	 *            deflate level from {@link Deflater#NO_COMPRESSION} to
+	 *            {@link Deflater#BEST_COMPRESSION}; the rows are not filtered
+	 *            at level 0.
+	 */
+	static void write(final Bitmap bitmap, final OutputStream os, final int level)
+			throws IOException {
+		final int width = bitmap.getWidth();
+		final int height = bitmap.getHeight();
+		final boolean hasAlpha = bitmap.hasAlpha();
+		final int bpp = hasAlpha ? 4 : 3;
+
+		os.write(SIGNATURE);
+
+		final byte[] ihdr = new byte[13];
+		putInt(ihdr, 0, width);
+		putInt(ihdr, 4, height);
+		ihdr[8] = 8;// bit depth
+		ihdr[9] = (byte) (hasAlpha ? 6 : 2);// RGBA or RGB
+		writeChunk(os, "IHDR", ihdr, ihdr.length);
+
+		final IDATOutputStream idat = new IDATOutputStream(os);
+		final Deflater deflater = new Deflater(level);
+		try {
+			final DeflaterOutputStream dos = new DeflaterOutputStream(idat, deflater, 8192);
+
+			final int rowBytes = width * bpp;
+			final int[] pixels = new int[width];
+			byte[] prev = new byte[rowBytes];
+			byte[] cur = new byte[rowBytes];
+			final byte[][] filtered = new byte[5][rowBytes + 1];
+			for (int i = 0; i < filtered.length; i++) {
+				filtered[i][0] = (byte) i;
+			}
+
+			for (int y = 0; y < height; y++) {
+				bitmap.getPixels(pixels, 0, width, 0, y, width, 1);
+				toBytes(pixels, cur, hasAlpha);
+				final byte[] row = (level == Deflater.NO_COMPRESSION) ? filterNone(cur,
+						filtered[FILTER_NONE]) : filterAdaptive(cur, prev, bpp, filtered);
+				dos.write(row, 0, rowBytes + 1);
+
+				final byte[] swap = prev;
+				prev = cur;
+				cur = swap;
+			}
+			dos.finish();
+			idat.flushChunk();
+		} finally {
+			deflater.end();
+		}
+
+		writeChunk(os, "IEND", null, 0);
+	}
+
+	private static void toBytes(final int[] pixels, final byte[] row, final boolean hasAlpha) {
+		int i = 0;
+		if (hasAlpha) {
+			for (int x = 0; x < pixels.length; x++) {
+				final int argb = pixels[x];
+				row[i++] = (byte) (argb >> 16);
+				row[i++] = (byte) (argb >> 8);
+				row[i++] = (byte) argb;
+				row[i++] = (byte) (argb >>> 24);
+			}
+		} else {
+			for (int x = 0; x < pixels.length; x++) {
+				final int argb = pixels[x];
+				row[i++] = (byte) (argb >> 16);
+				row[i++] = (byte) (argb >> 8);
+				row[i++] = (byte) argb;
+			}
+		}
+	}
+
+	private static byte[] filterNone(final byte[] cur, final byte[] out) {
+		System.arraycopy(cur, 0, out, 1, cur.length);
+		return out;
+	}
+
+	/**
+	 * applies the five filters and keeps the one with the smallest sum of
+	 * absolute values, the heuristic recommended by the PNG specification.
+	 */
+	private static byte[] filterAdaptive(final byte[] cur, final byte[] prev, final int bpp,
+			final byte[][] out) {
+		final int len = cur.length;
+		final byte[] none = out[FILTER_NONE];
+		final byte[] sub = out[FILTER_SUB];
+		final byte[] up = out[FILTER_UP];
+		final byte[] avg = out[FILTER_AVERAGE];
+		final byte[] paeth = out[FILTER_PAETH];
+		int sumNone = 0, sumSub = 0, sumUp = 0, sumAvg = 0, sumPaeth = 0;
+
+		for (int i = 0; i < len; i++) {
+			final int x = cur[i] & 0xff;
+			final int a = (i >= bpp) ? (cur[i - bpp] & 0xff) : 0;
+			final int b = prev[i] & 0xff;
+			final int c = (i >= bpp) ? (prev[i - bpp] & 0xff) : 0;
+
+			final byte vNone = (byte) x;
+			final byte vSub = (byte) (x - a);
+			final byte vUp = (byte) (x - b);
+			final byte vAvg = (byte) (x - ((a + b) >> 1));
+			final byte vPaeth = (byte) (x - paethPredictor(a, b, c));
+
+			none[i + 1] = vNone;
+			sub[i + 1] = vSub;
+			up[i + 1] = vUp;
+			avg[i + 1] = vAvg;
+			paeth[i + 1] = vPaeth;
+
+			sumNone += Math.abs((int) vNone);
+			sumSub += Math.abs((int) vSub);
+			sumUp += Math.abs((int) vUp);
+			sumAvg += Math.abs((int) vAvg);
+			sumPaeth += Math.abs((int) vPaeth);
+		}
+
+		int best = FILTER_NONE;
+		int min = sumNone;
+		if (sumSub < min) {
+			best = FILTER_SUB;
+			min = sumSub;
+		}
+		if (sumUp < min) {
+			best = FILTER_UP;
+			min = sumUp;
+		}
+		if (sumAvg < min) {
+			best = FILTER_AVERAGE;
+			min = sumAvg;
+		}
+		if (sumPaeth < min) {
+			best = FILTER_PAETH;
+		}
+		return out[best];
+	}
+
+	private static int paethPredictor(final int a, final int b, final int c) {
+		final int p = a + b - c;
+		final int pa = Math.abs(p - a);
+		final int pb = Math.abs(p - b);
+		final int pc = Math.abs(p - c);
+		if (pa <= pb && pa <= pc) {
+			return a;
+		} else if (pb <= pc) {
+			return b;
+		} else {
+			return c;
+		}
+	}
+
+	private static void writeChunk(final OutputStream os, final String type, final byte[] data,
+			final int len) throws IOException {
+		final byte[] head = new byte[8];
+		putInt(head, 0, len);
+		for (int i = 0; i < 4; i++) {
+			head[4 + i] = (byte) type.charAt(i);
+		}
+		os.write(head);
+
+		final CRC32 crc = new CRC32();
+		crc.update(head, 4, 4);
+		if (len > 0) {
+			os.write(data, 0, len);
+			crc.update(data, 0, len);
+		}
+
+		final byte[] tail = new byte[4];
+		putInt(tail, 0, (int) crc.getValue());
+		os.write(tail);
+	}
+
+	private static void putInt(final byte[] b, final int off, final int v) {
+		b[off] = (byte) (v >> 24);
+		b[off + 1] = (byte) (v >> 16);
+		b[off + 2] = (byte) (v >> 8);
+		b[off + 3] = (byte) v;
+	}
+
+	/**
+	 * cuts the deflated stream in <code>IDAT</code> chunks.
+	 */
+	private static class IDATOutputStream extends OutputStream {
+		private final OutputStream os;
+		private final byte[] buf = new byte[CHUNK_LENGTH];
+		private int count;
+
+		IDATOutputStream(final OutputStream os) {
+			this.os = os;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			if (count == buf.length) {
+				flushChunk();
+			}
+			buf[count++] = (byte) b;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			while (len > 0) {
+				if (count == buf.length) {
+					flushChunk();
+				}
+				final int n = Math.min(len, buf.length - count);
+				System.arraycopy(b, off, buf, count, n);
+				count += n;
+				off += n;
+				len -= n;
+			}
+		}
+
+		void flushChunk() throws IOException {
+			if (count > 0) {
+				writeChunk(os, "IDAT", buf, count);
+				count = 0;
+			}
+		}
+	}
+}
@@ -0,0 +1,263 @@
+package hc.android;
+
+import hc.core.util.LogManager;
+
+import java.awt.Graphics;
+import java.awt.Image;
+import java.awt.image.ImageObserver;
+import java.awt.image.ImageProducer;
+import java.io.File;
+import java.net.URL;
+import java.util.ArrayList;
+
+import android.graphics.Bitmap;
+
+/**
+ * <code>Image</code> of {@link java.awt.Toolkit#getImage(URL)} and
+ * {@link java.awt.Toolkit#createImage(URL)}, decoded on the pool of
+ * {@link ImageLoader}.
+ * <p>
+ * The decoding is started by the first request for the width, the height,
+ * {@link #prepare(ImageObserver)} or the pixels. The observers of these
+ * requests get {@link ImageObserver#WIDTH}, {@link ImageObserver#HEIGHT} once
+ * the header is read, then {@link ImageObserver#ALLBITS} or
+ * {@link ImageObserver#ERROR}. {@link #getBitmapAdAPI()} waits for the end of
+ * the decoding, drawing does not.
+ * <p>
+ * A source decoded before is taken from {@link ImageCache} at once;
+ * {@link #flush()} removes it from there.
+ */
+public class ToolkitImage extends Image {
+	private static final int DONE = ImageObserver.ALLBITS | ImageObserver.ERROR
+			| ImageObserver.ABORT;
+
+	private final Object source;
+	final String key;
+
+	/**
+	 * the <code>ImageObserver</code> flags known so far.
+	 */
+	private int status;
+	private boolean isLoading;
+	private int width = -1;
+	private int height = -1;
+	private final ArrayList<ImageObserver> observers = new ArrayList<ImageObserver>(2);
+
+	public ToolkitImage(final URL url) {
+		this.source = url;
+		this.key = ImageCache.keyOf(url);
+	}
+
+	public ToolkitImage(final File file) {
+		this.source = file;
+		this.key = ImageCache.keyOf(file);
+	}
+
+	Object getSourceObject() {
+		return source;
+	}
+
+	@Override
+	public synchronized int getWidth(final ImageObserver observer) {
+		startLoad();
+		if ((status & ImageObserver.WIDTH) == 0) {
+			addObserver(observer);
+		}
+		return width;
+	}
+
+	@Override
+	public synchronized int getHeight(final ImageObserver observer) {
+		startLoad();
+		if ((status & ImageObserver.HEIGHT) == 0) {
+			addObserver(observer);
+		}
+		return height;
+	}
+
+	@Override
+	public synchronized Object getProperty(final String name, final ImageObserver observer) {
+		if (name == null) {
+			throw new NullPointerException("null property name is not allowed");
+		}
+		startLoad();
+		if ((status & DONE) == 0) {
+			addObserver(observer);
+			return null;
+		}
+		return UndefinedProperty;
+	}
+
+	@Override
+	public ImageProducer getSource() {
+		return null;
+	}
+
+	@Override
+	public Graphics getGraphics() {
+		throw new UnsupportedOperationException(
+				"getGraphics() not valid for images created with createImage(producer)");
+	}
+
+	/**
+	 * waits for the end of the decoding.
+	 *
+	 * @return null if the image can not be decoded.
+	 */
+	@Override
+	public Bitmap getBitmapAdAPI() {
+		synchronized (this) {
+			boolean isInterrupted = false;
+			while ((status & DONE) == 0) {
+				startLoad();
+				try {
+					wait();
+				} catch (InterruptedException e) {
+					isInterrupted = true;
+				}
+			}
+			if (isInterrupted) {
+				Thread.currentThread().interrupt();
+			}
+			return bitmap;
+		}
+	}
+
+	/**
+	 * @return the <code>ImageObserver</code> flags known so far, the decoding
+	 *         is not started.
+	 */
+	public synchronized int check() {
+		return status;
+	}
+
+	/**
+	 * starts the decoding if needed.
+	 *
+	 * @param observer
+	 *            notified of the progress, may be null.
+	 * @return true if the image is decoded.
+	 */
+	public synchronized boolean prepare(final ImageObserver observer) {
+		startLoad();
+		if ((status & DONE) != 0) {
+			return (status & ImageObserver.ALLBITS) != 0;
+		}
+		addObserver(observer);
+		return false;
+	}
+
+	/**
+	 * releases the decoded pixels and their cache entry, they are decoded
+	 * again on the next use.
+	 */
+	@Override
+	public synchronized void flush() {
+		ImageCache.remove(key);
+		if (isLoading) {
+			return;
+		}
+		bitmap = null;
+		bitmapDrawableAdapter = null;
+		status = 0;
+		width = -1;
+		height = -1;
+	}
+
+	private void addObserver(final ImageObserver observer) {
+		if (observer != null && observers.contains(observer) == false) {
+			observers.add(observer);
+		}
+	}
+
+	/**
+	 * a cached bitmap is taken at once, without notifying the observers : the
+	 * caller sees the result on return.
+	 */
+	private void startLoad() {
+		if (isLoading || (status & DONE) != 0) {
+			return;
+		}
+		final Bitmap cached = ImageCache.get(key);
+		if (cached != null) {
+			bitmap = cached;
+			width = cached.getWidth();
+			height = cached.getHeight();
+			status |= ImageObserver.WIDTH | ImageObserver.HEIGHT | ImageObserver.PROPERTIES
+					| ImageObserver.ALLBITS;
+			return;
+		}
+		isLoading = true;
+		ImageLoader.load(this);
+	}
+
+	void setDimensions(final int w, final int h) {
+		synchronized (this) {
+			width = w;
+			height = h;
+			status |= ImageObserver.WIDTH | ImageObserver.HEIGHT;
+		}
+		notifyObservers(ImageObserver.WIDTH | ImageObserver.HEIGHT, false);
+	}
+
+	void setLoaded(final Bitmap bm) {
+		synchronized (this) {
+			bitmap = bm;
+			width = bm.getWidth();
+			height = bm.getHeight();
+			status |= ImageObserver.WIDTH | ImageObserver.HEIGHT | ImageObserver.PROPERTIES
+					| ImageObserver.ALLBITS;
+			isLoading = false;
+			notifyAll();
+		}
+		notifyObservers(ImageObserver.WIDTH | ImageObserver.HEIGHT | ImageObserver.PROPERTIES
+				| ImageObserver.ALLBITS, true);
+	}
+
+	void setError() {
+		synchronized (this) {
+			status |= ImageObserver.ERROR | ImageObserver.ABORT;
+			isLoading = false;
+			notifyAll();
+		}
+		notifyObservers(ImageObserver.ERROR | ImageObserver.ABORT, true);
+	}
+
+	/**
+	 * calls the observers out of the lock of the image, an observer returning
+	 * false is removed, all are removed once the decoding is done.
+	 */
+	private void notifyObservers(final int infoflags, final boolean isDone) {
+		final ImageObserver[] snapshot;
+		final int w, h;
+		synchronized (this) {
+			snapshot = observers.toArray(new ImageObserver[observers.size()]);
+			if (isDone) {
+				observers.clear();
+			}
+			w = width;
+			h = height;
+		}
+
+		for (int i = 0; i < snapshot.length; i++) {
+			boolean isMore;
+			try {
+				isMore = snapshot[i].imageUpdate(this, infoflags, 0, 0, w, h);
+			} catch (Throwable e) {
+				LogManager.errToLog("fail to notify ImageObserver of image : " + key + ", "
+						+ e.toString());
+				isMore = false;
+			}
+			if (isMore == false && isDone == false) {
+				synchronized (this) {
+					observers.remove(snapshot[i]);
+				}
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "ToolkitImage[" + key + "]";
+	}
+}
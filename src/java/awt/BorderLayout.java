@@ -430,7 +430,12 @@ public class BorderLayout implements LayoutManager2, java.io.Serializable {
 	 * @since JDK1.1
 	 */
 	public void addLayoutComponent(Component comp, Object constraints) {
-		synchronized (comp.getTreeLock()) {
+		final Object treeLock = comp.getTreeLock();
+		synchronized (treeLock) {
+			if (comp.isTreeLockChangedAdAPI(treeLock)) {
+				addLayoutComponent(comp, constraints);
+				return;
+			}
 			if ((constraints == null) || (constraints instanceof String)) {
 				addLayoutComponent((String) constraints, comp);
 			} else {
@@ -446,7 +451,12 @@ public class BorderLayout implements LayoutManager2, java.io.Serializable {
 	 */
 	@Deprecated
 	public void addLayoutComponent(String name, Component comp) {
-		synchronized (comp.getTreeLock()) {
+		final Object treeLock = comp.getTreeLock();
+		synchronized (treeLock) {
+			if (comp.isTreeLockChangedAdAPI(treeLock)) {
+				addLayoutComponent(name, comp);
+				return;
+			}
 			/* Special case: treat null the same as "Center". */
 			if (name == null) {
 				name = "Center";
@@ -492,7 +502,12 @@ public class BorderLayout implements LayoutManager2, java.io.Serializable {
 	 * @see java.awt.Container#removeAll()
 	 */
 	public void removeLayoutComponent(Component comp) {
-		synchronized (comp.getTreeLock()) {
+		final Object treeLock = comp.getTreeLock();
+		synchronized (treeLock) {
+			if (comp.isTreeLockChangedAdAPI(treeLock)) {
+				removeLayoutComponent(comp);
+				return;
+			}
 			if (comp == center) {
 				center = null;
 			} else if (comp == north) {
@@ -669,7 +684,11 @@ public class BorderLayout implements LayoutManager2, java.io.Serializable {
 	 * @see java.awt.Container#getMinimumSize()
 	 */
 	public Dimension minimumLayoutSize(Container target) {
-		synchronized (target.getTreeLock()) {
+		final Object treeLock = target.getTreeLock();
+		synchronized (treeLock) {
+			if (target.isTreeLockChangedAdAPI(treeLock)) {
+				return minimumLayoutSize(target);
+			}
 			Dimension dim = new Dimension(0, 0);
 
 			boolean ltr = target.getComponentOrientation().isLeftToRight();
@@ -725,7 +744,11 @@ public class BorderLayout implements LayoutManager2, java.io.Serializable {
 	 * @see java.awt.Container#getPreferredSize()
 	 */
 	public Dimension preferredLayoutSize(Container target) {
-		synchronized (target.getTreeLock()) {
+		final Object treeLock = target.getTreeLock();
+		synchronized (treeLock) {
+			if (target.isTreeLockChangedAdAPI(treeLock)) {
+				return preferredLayoutSize(target);
+			}
 			Dimension dim = new Dimension(0, 0);
 
 			boolean ltr = target.getComponentOrientation().isLeftToRight();
@@ -828,7 +851,12 @@ public class BorderLayout implements LayoutManager2, java.io.Serializable {
 	 * @see java.awt.Container#doLayout()
 	 */
 	public void layoutContainer(Container target) {
-		synchronized (target.getTreeLock()) {
+		final Object treeLock = target.getTreeLock();
+		synchronized (treeLock) {
+			if (target.isTreeLockChangedAdAPI(treeLock)) {
+				layoutContainer(target);
+				return;
+			}
 			Insets insets = target.getInsets();
 			int top = insets.top;
 			int bottom = target.getHeight() - insets.bottom;
@@ -209,7 +209,12 @@ public class CardLayout implements LayoutManager2, Serializable {
 	 *                if the constraint is not a string.
 	 */
 	public void addLayoutComponent(Component comp, Object constraints) {
-		synchronized (comp.getTreeLock()) {
+		final Object treeLock = comp.getTreeLock();
+		synchronized (treeLock) {
+			if (comp.isTreeLockChangedAdAPI(treeLock)) {
+				addLayoutComponent(comp, constraints);
+				return;
+			}
 			if (constraints == null) {
 				constraints = "";
 			}
@@ -228,7 +233,12 @@ public class CardLayout implements LayoutManager2, Serializable {
 	 */
 	@Deprecated
 	public void addLayoutComponent(String name, Component comp) {
-		synchronized (comp.getTreeLock()) {
+		final Object treeLock = comp.getTreeLock();
+		synchronized (treeLock) {
+			if (comp.isTreeLockChangedAdAPI(treeLock)) {
+				addLayoutComponent(name, comp);
+				return;
+			}
 			if (!vector.isEmpty()) {
 				comp.setVisible(false);
 			}
@@ -252,7 +262,12 @@ public class CardLayout implements LayoutManager2, Serializable {
 	 * @see java.awt.Container#removeAll()
 	 */
 	public void removeLayoutComponent(Component comp) {
-		synchronized (comp.getTreeLock()) {
+		final Object treeLock = comp.getTreeLock();
+		synchronized (treeLock) {
+			if (comp.isTreeLockChangedAdAPI(treeLock)) {
+				removeLayoutComponent(comp);
+				return;
+			}
 			for (int i = 0; i < vector.size(); i++) {
 				if (((Card) vector.get(i)).comp == comp) {
 					// if we remove current component we should show next one
@@ -284,7 +299,11 @@ public class CardLayout implements LayoutManager2, Serializable {
 	 * @see java.awt.CardLayout#minimumLayoutSize
 	 */
 	public Dimension preferredLayoutSize(Container parent) {
-		synchronized (parent.getTreeLock()) {
+		final Object treeLock = parent.getTreeLock();
+		synchronized (treeLock) {
+			if (parent.isTreeLockChangedAdAPI(treeLock)) {
+				return preferredLayoutSize(parent);
+			}
 			Insets insets = parent.getInsets();
 			int ncomponents = parent.getComponentCount();
 			int w = 0;
@@ -316,7 +335,11 @@ public class CardLayout implements LayoutManager2, Serializable {
 	 * @see java.awt.CardLayout#preferredLayoutSize
 	 */
 	public Dimension minimumLayoutSize(Container parent) {
-		synchronized (parent.getTreeLock()) {
+		final Object treeLock = parent.getTreeLock();
+		synchronized (treeLock) {
+			if (parent.isTreeLockChangedAdAPI(treeLock)) {
+				return minimumLayoutSize(parent);
+			}
 			Insets insets = parent.getInsets();
 			int ncomponents = parent.getComponentCount();
 			int w = 0;
@@ -392,7 +415,12 @@ public class CardLayout implements LayoutManager2, Serializable {
 	 * @see java.awt.Container#doLayout
 	 */
 	public void layoutContainer(Container parent) {
-		synchronized (parent.getTreeLock()) {
+		final Object treeLock = parent.getTreeLock();
+		synchronized (treeLock) {
+			if (parent.isTreeLockChangedAdAPI(treeLock)) {
+				layoutContainer(parent);
+				return;
+			}
 			Insets insets = parent.getInsets();
 			int ncomponents = parent.getComponentCount();
 			Component comp = null;
@@ -432,7 +460,12 @@ public class CardLayout implements LayoutManager2, Serializable {
 	 * @see java.awt.CardLayout#last
 	 */
 	public void first(Container parent) {
-		synchronized (parent.getTreeLock()) {
+		final Object treeLock = parent.getTreeLock();
+		synchronized (treeLock) {
+			if (parent.isTreeLockChangedAdAPI(treeLock)) {
+				first(parent);
+				return;
+			}
 			checkLayout(parent);
 			int ncomponents = parent.getComponentCount();
 			for (int i = 0; i < ncomponents; i++) {
@@ -460,7 +493,12 @@ public class CardLayout implements LayoutManager2, Serializable {
 	 * @see java.awt.CardLayout#previous
 	 */
 	public void next(Container parent) {
-		synchronized (parent.getTreeLock()) {
+		final Object treeLock = parent.getTreeLock();
+		synchronized (treeLock) {
+			if (parent.isTreeLockChangedAdAPI(treeLock)) {
+				next(parent);
+				return;
+			}
 			checkLayout(parent);
 			int ncomponents = parent.getComponentCount();
 			for (int i = 0; i < ncomponents; i++) {
@@ -488,7 +526,12 @@ public class CardLayout implements LayoutManager2, Serializable {
 	 * @see java.awt.CardLayout#next
 	 */
 	public void previous(Container parent) {
-		synchronized (parent.getTreeLock()) {
+		final Object treeLock = parent.getTreeLock();
+		synchronized (treeLock) {
+			if (parent.isTreeLockChangedAdAPI(treeLock)) {
+				previous(parent);
+				return;
+			}
 			checkLayout(parent);
 			int ncomponents = parent.getComponentCount();
 			for (int i = 0; i < ncomponents; i++) {
@@ -522,7 +565,12 @@ public class CardLayout implements LayoutManager2, Serializable {
 	 * @see java.awt.CardLayout#first
 	 */
 	public void last(Container parent) {
-		synchronized (parent.getTreeLock()) {
+		final Object treeLock = parent.getTreeLock();
+		synchronized (treeLock) {
+			if (parent.isTreeLockChangedAdAPI(treeLock)) {
+				last(parent);
+				return;
+			}
 			checkLayout(parent);
 			int ncomponents = parent.getComponentCount();
 			for (int i = 0; i < ncomponents; i++) {
@@ -553,7 +601,12 @@ public class CardLayout implements LayoutManager2, Serializable {
 	 *      java.lang.Object)
 	 */
 	public void show(Container parent, String name) {
-		synchronized (parent.getTreeLock()) {
+		final Object treeLock = parent.getTreeLock();
+		synchronized (treeLock) {
+			if (parent.isTreeLockChangedAdAPI(treeLock)) {
+				show(parent, name);
+				return;
+			}
 			checkLayout(parent);
 			Component next = null;
 			int ncomponents = vector.size();
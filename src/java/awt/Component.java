@@ -29,6 +29,7 @@ import hc.android.AndroidClassUtil;
 import hc.android.AndroidUIUtil;
 import hc.android.HCTabHost;
 import hc.android.J2SEInitor;
+import hc.android.LayoutProfiler;
 import hc.android.ScreenAdapter;
 import hc.android.UICore;
 import hc.core.ConfigManager;
@@ -55,6 +56,7 @@ import java.awt.peer.ComponentPeer;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.EventListener;
 import java.util.Locale;
 
@@ -66,6 +68,7 @@ import javax.swing.border.Border;
 import javax.swing.event.EventListenerList;
 
 import android.view.View;
+import android.view.ViewGroup;
 import android.widget.AbsoluteLayout;
 
 /**
@@ -163,7 +166,7 @@ import android.widget.AbsoluteLayout;
  */
 public abstract class Component implements ImageObserver, MenuContainer, Serializable {
 	private View peer;
-	public Container parent;
+	public volatile Container parent;
 	protected final EventListenerList list = new EventListenerList();
 	protected AccessibleContext accessibleContext = null;
 
@@ -190,13 +193,70 @@ public abstract class Component implements ImageObserver, MenuContainer, Seriali
 
 	public void setPeerAdAPI(final View peer) {
 		this.peer = peer;
+		clearSizeCaches();
 		addViewToParentAdAPI();
 	}
 
-	static final Object LOCK = new Object();
+	/**
+	 * the tree lock of the tree this component is the root of.
+	 */
+	final Object rootLock = new Object();
+
+	/**
+	 * the lock of the tree of this component, the {@link #rootLock} of its
+	 * root. It is set holding both the old and the new lock when the
+	 * component changes of tree, see
+	 * {@link Container#addImpl(Component, Object, int)}.
+	 */
+	private volatile Object treeLock = rootLock;
 
+	/**
+	 * taken before two tree locks of the same identity hash, see
+	 * {@link Container#addImpl(Component, Object, int)}.
+	 */
+	static final Object TREE_LOCK_TIE = new Object();
+
+	/**
+	 * Gets this component's locking object (the object that owns the thread
+	 * synchronization monitor) for AWT component-tree and layout operations.
+	 * <p>
+	 * Each tree has its own lock, the one of its root : a window, or the
+	 * topmost container of a tree not shown yet, so that the trees of
+	 * different windows and sessions are changed and laid out concurrently.
+	 * <p>
+	 * A component added to or removed from a container changes of lock,
+	 * {@link Container} changes its parent holding both the old and the new
+	 * lock, so that no operation holding the old lock is still running
+	 * against the new tree. The two locks are taken in the order of their
+	 * identity hash, and checked once held to be still those of their trees.
+	 * <p>
+	 * The lock is kept by each component of the tree, not searched from the
+	 * root. A thread which gets it just before the component changes of
+	 * tree may lock the old one; once it is held, this is checked by
+	 * {@link #isTreeLockChangedAdAPI(Object)}.
+	 *
+	 * @return this component's locking object
+	 */
 	public final Object getTreeLock() {
-		return LOCK;
+		return treeLock;
+	}
+
+	/**
+	 * true if <code>lock</code>, got by {@link #getTreeLock()} then locked by
+	 * the caller, is no longer the lock of the tree of this component, which
+	 * was moved meanwhile. The caller then releases it and runs again with
+	 * the new lock.
+	 */
+	public final boolean isTreeLockChangedAdAPI(final Object lock) {
+		return treeLock != lock;
+	}
+
+	/**
+	 * sets the lock of the tree of this component and of its children to
+	 * <code>lock</code>, the caller holds the old and the new lock.
+	 */
+	void setTreeLockAdAPI(final Object lock) {
+		treeLock = lock;
 	}
 
 	private int boundsOp = ComponentPeer.DEFAULT_OPERATION;
@@ -223,7 +283,7 @@ public abstract class Component implements ImageObserver, MenuContainer, Seriali
 	}
 
 	Point getLocationOnWindow() {
-		if (isValid() == false) {
+		if (isRealized() == false) {
 			return new Point(0, 0);
 		} else {
 			final int[] xy = new int[2];
@@ -240,7 +300,7 @@ public abstract class Component implements ImageObserver, MenuContainer, Seriali
 	}
 
 	public boolean hasFocus() {
-		if (isValid() == false) {
+		if (isRealized() == false) {
 			return false;
 		} else {
 			return peer.isFocused();
@@ -291,7 +351,7 @@ public abstract class Component implements ImageObserver, MenuContainer, Seriali
 		if (width < 0 || height < 0) {
 			throw new IllegalArgumentException("Width and height must be >= 0");
 		}
-		if (isValid() == false) {
+		if (isRealized() == false) {
 			return -1;
 		} else {
 			return peer.getBaseline();
@@ -310,8 +370,16 @@ public abstract class Component implements ImageObserver, MenuContainer, Seriali
 		return (peer != null) && valid;
 	}
 
+	/**
+	 * true once the peer has been validated, whether this component is valid
+	 * since or not.
+	 */
+	private final boolean isRealized() {
+		return (peer != null) && realized;
+	}
+
 	public boolean isDisplayable() {
-		if (isValid() == false) {
+		if (isRealized() == false) {
 			return false;
 		} else {
 			return true;
@@ -319,7 +387,7 @@ public abstract class Component implements ImageObserver, MenuContainer, Seriali
 	}
 
 	public boolean isVisible() {
-		if (isValid() == false) {
+		if (isRealized() == false) {
 			return true;
 		} else {
 			return (peer.getVisibility() == View.VISIBLE);
@@ -417,7 +485,7 @@ public abstract class Component implements ImageObserver, MenuContainer, Seriali
 	 * @return
 	 */
 	public boolean inside(final int x, final int y) {
-		if (isValid()) {
+		if (isRealized()) {
 			return containsAdAPI(peer, x, y);
 		} else {
 			return false;
@@ -425,6 +493,7 @@ public abstract class Component implements ImageObserver, MenuContainer, Seriali
 	}
 
 	private volatile boolean valid = false;
+	private volatile boolean realized = false;
 	protected boolean isEnable = true;
 	protected boolean isVisible = true;
 
@@ -456,8 +525,13 @@ public abstract class Component implements ImageObserver, MenuContainer, Seriali
 
 	public void setVisible(final boolean b) {
 		final boolean isChanged = (isVisible == b);
+		final boolean isShowingChanged = (isVisible != b);
 		isVisible = b;
 
+		if (isShowingChanged && parent != null) {
+			parent.invalidateIfValid();
+		}
+
 		if (isChanged) {// 必须要变动
 			if (isVisible) {
 				fireComponentShowAdAPI();
@@ -486,7 +560,7 @@ public abstract class Component implements ImageObserver, MenuContainer, Seriali
 	}
 
 	public void hide() {
-		if (isValid()) {
+		if (isRealized()) {
 			peer.setVisibility(View.GONE);
 		}
 	}
@@ -531,7 +605,7 @@ public abstract class Component implements ImageObserver, MenuContainer, Seriali
 
 	public void setBackground(final Color c) {
 		isBackgroundSet = true;
-		if (isValid()) {
+		if (isRealized()) {
 			peer.setBackgroundColor(c.toAndroid());
 			return;
 		}
@@ -557,9 +631,13 @@ public abstract class Component implements ImageObserver, MenuContainer, Seriali
 			return;
 		}
 
+		final boolean isChanged = (f != font);
 		font = f;
 		// f.screenAdapter = getScreenAdapterAdAPI();
 		isFontSet = true;
+		if (isChanged) {
+			invalidate();
+		}
 		// if(isValid()){
 		// if(peer instanceof TextView){
 		// }
@@ -585,7 +663,7 @@ public abstract class Component implements ImageObserver, MenuContainer, Seriali
 	}
 
 	public Point getLocationOnScreen() {
-		if (isValid() == false) {
+		if (isRealized() == false) {
 			return new Point(0, 0);
 		} else {
 			Point pt = getLocation();
@@ -673,12 +751,140 @@ public abstract class Component implements ImageObserver, MenuContainer, Seriali
 		}
 
 		if (peer != null) {
-			addViewToParentAdAPI();
+			if (deferBounds() == false) {
+				addViewToParentAdAPI();
+			}
 			return;
 		}
 		LogManager.log("skip setBounds for Component : " + this.getClass().getName());
 	}
 
+	/**
+	 * the components whose bounds are set by the layout pass running on the
+	 * current thread, null out of a pass.
+	 */
+	private static final ThreadLocal<ArrayList<Component>> boundsDiff = new ThreadLocal<ArrayList<Component>>();
+	private boolean isBoundsPending;
+
+	/**
+	 * starts a layout pass on the current thread : the bounds set until
+	 * {@link #endLayoutPass()} are committed to the peers at once.
+	 *
+	 * @return false if a pass is already running, which ends it.
+	 */
+	static boolean beginLayoutPass() {
+		if (boundsDiff.get() != null) {
+			return false;
+		}
+		boundsDiff.set(new ArrayList<Component>());
+		return true;
+	}
+
+	/**
+	 * ends the layout pass of the current thread, the new bounds are taken on
+	 * this thread and applied by one runnable on the UI thread.
+	 */
+	static void endLayoutPass() {
+		final ArrayList<Component> diff = boundsDiff.get();
+		boundsDiff.set(null);
+
+		final int size = diff.size();
+		final View[] views = new View[size];
+		final AbsoluteLayout[] containerViews = new AbsoluteLayout[size];
+		final int[] bounds = new int[size * 4];
+		int count = 0;
+		for (int i = 0; i < size; i++) {
+			final Component comp = diff.get(i);
+			comp.isBoundsPending = false;
+
+			final View view = comp.peer;
+			final Container parent = comp.parent;
+			final View containerView = (parent == null) ? null : parent.getContainerViewAdAPI();
+			if (view == null || (containerView instanceof AbsoluteLayout) == false) {
+				continue;
+			}
+			final Insets insets = getBorderInsets(parent);
+			views[count] = view;
+			containerViews[count] = (AbsoluteLayout) containerView;
+			final int offset = count * 4;
+			bounds[offset] = comp.width;
+			bounds[offset + 1] = comp.height;
+			bounds[offset + 2] = comp.x - ((insets != null) ? insets.left : 0);
+			bounds[offset + 3] = comp.y - ((insets != null) ? insets.top : 0);
+			count++;
+		}
+
+		if (count > 0) {
+			final int total = count;
+			AndroidUIUtil.runOnUiThread(new Runnable() {
+				@Override
+				public void run() {
+					commitBounds(views, containerViews, bounds, total);
+				}
+			});
+		}
+	}
+
+	/**
+	 * records this component in the layout pass of the current thread. The
+	 * parent of its peer is read by {@link #commitBounds} in UI thread, which
+	 * skips a peer in place with the same bounds, so that the views are not
+	 * read out of the UI thread.
+	 *
+	 * @return false if there is no pass running.
+	 */
+	private boolean deferBounds() {
+		final ArrayList<Component> diff = boundsDiff.get();
+		if (diff == null) {
+			return false;
+		}
+		if (isBoundsPending == false) {
+			isBoundsPending = true;
+			diff.add(this);
+		}
+		return true;
+	}
+
+	/**
+	 * updates the <code>LayoutParams</code> of the views already in place
+	 * when their bounds changed, the other views are added. The parents of
+	 * the views are read here, in UI thread.
+	 */
+	private static void commitBounds(final View[] views, final AbsoluteLayout[] containerViews,
+			final int[] bounds, final int count) {
+		for (int i = 0; i < count; i++) {
+			final View view = views[i];
+			final AbsoluteLayout vg = containerViews[i];
+			final int offset = i * 4;
+			final int w = bounds[offset];
+			final int h = bounds[offset + 1];
+			final int x = bounds[offset + 2];
+			final int y = bounds[offset + 3];
+
+			final ViewGroup.LayoutParams params = view.getLayoutParams();
+			if (view.getParent() == vg && params instanceof AbsoluteLayout.LayoutParams) {
+				final AbsoluteLayout.LayoutParams lp = (AbsoluteLayout.LayoutParams) params;
+				if (lp.width != w || lp.height != h || lp.x != x || lp.y != y) {
+					lp.width = w;
+					lp.height = h;
+					lp.x = x;
+					lp.y = y;
+					// coalesced by Android in one traversal for all the views.
+					vg.requestLayout();
+				}
+			} else {
+				AndroidUIUtil.removeFromParent(view);
+				vg.addView(view, new AbsoluteLayout.LayoutParams(w, h, x, y));
+			}
+		}
+	}
+
+	private static Insets getBorderInsets(final Container parent) {
+		final Border border = (parent instanceof JComponent) ? ((JComponent) parent).getBorder()
+				: null;
+		return (border != null) ? border.getBorderInsets(parent) : null;
+	}
+
 	public final void addViewToParentAdAPI() {
 		if (parent != null) {
 			final View containerView = parent.getContainerViewAdAPI();
@@ -690,10 +896,7 @@ public abstract class Component implements ImageObserver, MenuContainer, Seriali
 
 					// LogManager.log("AbsoluteLayout addView for " +
 					// this.toString());
-					final Border border = (parent instanceof JComponent)
-							? ((JComponent) parent).getBorder()
-							: null;
-					final Insets insets = (border != null) ? border.getBorderInsets(parent) : null;
+					final Insets insets = getBorderInsets(parent);
 					vg.addView(peer,
 							new AbsoluteLayout.LayoutParams(width, height,
 									x - ((insets != null) ? insets.left : 0),
@@ -909,19 +1112,13 @@ public abstract class Component implements ImageObserver, MenuContainer, Seriali
 			return new Dimension(preSize);
 		}
 
-		if (preSize == null || !(isPreferredSizeSet() || isValid())) {
-			if (peer == null) {
-				preSize = getMinimumSize();
-			} else {
-				if (preSize == null) {
-					preSize = new Dimension();
-				}
-				preSize.width = peer.getMeasuredWidth();
-				preSize.height = peer.getMeasuredHeight();
-				if (preSize.width == 0 || preSize.height == 0) {
-					AndroidUIUtil.getViewWidthAndHeight(peer, preSize);
-				}
+		Dimension dim = preSize;
+		if (dim == null) {
+			dim = measureSize(peer);
+			if (dim == null) {
+				dim = getMinimumSize();
 			}
+			preSize = dim;
 			// if(getScreenAdapterAdAPI().type == ScreenAdapter.TYPE_SERVER){
 			// if(preSize.width > Window.getMaxWindowPreferredWidth()){
 			// preSize.width = Window.getMaxWindowPreferredWidth();
@@ -930,10 +1127,12 @@ public abstract class Component implements ImageObserver, MenuContainer, Seriali
 			// preSize.height = Window.getMaxWindowPreferredHeight();
 			// }
 			// }
+			L.V = L.WShop ? false
+					: LogManager.log("preferredSize() -- " + toString() + " : " + dim.toString());
+		} else if (LayoutProfiler.isEnabled()) {
+			LayoutProfiler.hit(LayoutProfiler.PREFERRED_SIZE, this);
 		}
-		L.V = L.WShop ? false
-				: LogManager.log("preferredSize() -- " + toString() + " : " + preSize.toString());
-		return new Dimension(preSize);
+		return new Dimension(dim);
 	}
 
 	public void setMinimumSize(final Dimension minimumSize) {
@@ -964,24 +1163,121 @@ public abstract class Component implements ImageObserver, MenuContainer, Seriali
 	}
 
 	public Dimension minimumSize() {
-		if (minSize == null || !(isMinimumSizeSet() || isValid())) {
-			if (peer == null) {
-				minSize = size();
-			} else {
-				if (minSize == null) {
-					minSize = new Dimension();
-				}
-				minSize.width = peer.getMeasuredWidth();
-				minSize.height = peer.getMeasuredHeight();
-				if (minSize.width == 0 || minSize.height == 0) {
-					AndroidUIUtil.getViewWidthAndHeight(peer, minSize);
+		Dimension dim = minSize;
+		if (dim == null) {
+			dim = measureSize(peer);
+			if (dim == null) {
+				dim = size();
+			}
+			minSize = dim;
+			L.V = L.WShop ? false
+					: LogManager.log("minimumSize() -- " + toString() + " : " + dim.toString());
+		} else if (LayoutProfiler.isEnabled()) {
+			LayoutProfiler.hit(LayoutProfiler.MINIMUM_SIZE, this);
+		}
+		return new Dimension(dim);
+	}
+
+	/**
+	 * the size the peer is laid out at if it has been, else its unconstrained
+	 * size.
+	 *
+	 * @return null if there is no peer.
+	 */
+	private Dimension measureSize(final View view) {
+		if (view == null) {
+			return null;
+		}
+		final int width = view.getMeasuredWidth();
+		final int height = view.getMeasuredHeight();
+		if (width == 0 || height == 0) {
+			return new Dimension(getPeerSizeAdAPI());
+		}
+		return new Dimension(width, height);
+	}
+
+	/**
+	 * the unconstrained size of the peer, measured once until the next
+	 * {@link #invalidate()}, null if not measured yet.
+	 */
+	private volatile Dimension peerSize;
+
+	/**
+	 * the unconstrained size of the peer, measured at most once between two
+	 * {@link #invalidate()}. The sizes needed by a layout are measured in one
+	 * pass before it, see {@link Container#validate()}; a size missed by that
+	 * pass is measured at once, not by waiting for the UI thread.
+	 *
+	 * @return the cached instance, which must not be changed; null if there
+	 *         is no peer.
+	 */
+	protected final Dimension getPeerSizeAdAPI() {
+		Dimension size = peerSize;
+		if (size == null && peer != null) {
+			measurePeer();
+			size = peerSize;
+		}
+		return size;
+	}
+
+	/**
+	 * true if the size of this component comes from its peer and has not been
+	 * measured since the last {@link #invalidate()}.
+	 */
+	boolean isPeerSizeNeeded() {
+		return peerSize == null && peer != null;
+	}
+
+	/**
+	 * measures the peers of <code>comps</code> in one pass on the UI thread.
+	 * The caller holding the tree lock, which the UI thread may be waiting
+	 * for, measures them at once instead.
+	 */
+	static void measurePeers(final Component[] comps, final int count) {
+		final Runnable measure = new Runnable() {
+			@Override
+			public void run() {
+				for (int i = 0; i < count; i++) {
+					comps[i].measurePeer();
 				}
 			}
+		};
+		if (count > 0 && Thread.holdsLock(comps[0].getTreeLock())) {
+			measure.run();
+		} else {
+			AndroidUIUtil.runOnUiThreadAndWait(measure);
 		}
+	}
 
-		L.V = L.WShop ? false
-				: LogManager.log("minimumSize() -- " + toString() + " : " + minSize.toString());
-		return new Dimension(minSize);
+	private void measurePeer() {
+		final View view = peer;
+		if (view == null || peerSize != null) {
+			return;
+		}
+		final Dimension size = new Dimension();
+		if (LayoutProfiler.isEnabled()) {
+			LayoutProfiler.measure(this, view, size);
+		} else {
+			AndroidUIUtil.getViewWidthAndHeight(view, size);
+		}
+		peerSize = size;
+	}
+
+	/**
+	 * drops the sizes computed since the last {@link #invalidate()}, but those
+	 * set by the application.
+	 */
+	final void clearSizeCaches() {
+		peerSize = null;
+		if (isPreferredSizeSet() == false) {
+			preSize = null;
+		}
+		if (isMinimumSizeSet() == false) {
+			minSize = null;
+		}
+		if (isMaximumSizeSet() == false) {
+			maxSize = null;
+		}
 	}
 
 	public void setFocusable(final boolean focusable) {
@@ -1279,7 +1575,7 @@ public abstract class Component implements ImageObserver, MenuContainer, Seriali
 	}
 
 	public void requestFocus() {
-		if (isValid()) {
+		if (isRealized()) {
 			if (getFocusablePeerViewAdAPI() != null) {
 				AndroidUIUtil.runOnUiThread(new Runnable() {
 					@Override
@@ -1340,7 +1636,7 @@ public abstract class Component implements ImageObserver, MenuContainer, Seriali
 
 	public void repaint() {
 		// repaint(0, 0, 0, width, height);
-		if (isValid()) {
+		if (isRealized()) {
 			AndroidUIUtil.runOnUiThread(new Runnable() {
 				@Override
 				public void run() {
@@ -1355,6 +1651,58 @@ public abstract class Component implements ImageObserver, MenuContainer, Seriali
 		repaint();
 	}
 
+	/**
+	 * Repaints the component when the image has changed. This
+	 * <code>imageUpdate</code> method of an <code>ImageObserver</code> is
+	 * called when more information about an image which had been previously
+	 * requested using an asynchronous routine such as the
+	 * <code>drawImage</code> method of <code>Graphics</code> becomes
+	 * available.
+	 *
+	 * @return <code>false</code> if the infoflags indicate that the image is
+	 *         completely loaded; <code>true</code> otherwise.
+	 */
+	public boolean imageUpdate(final Image img, final int infoflags, final int x, final int y,
+			final int w, final int h) {
+		if ((infoflags & (FRAMEBITS | ALLBITS)) != 0) {
+			repaint();
+		}
+		return (infoflags & (ALLBITS | ABORT)) == 0;
+	}
+
+	public boolean prepareImage(final Image image, final ImageObserver observer) {
+		return prepareImage(image, -1, -1, observer);
+	}
+
+	/**
+	 * Prepares an image for rendering on this component, the image is
+	 * decoded in the background.
+	 *
+	 * @return <code>true</code> if the image has already been fully prepared;
+	 *         <code>false</code> otherwise
+	 */
+	public boolean prepareImage(final Image image, final int width, final int height,
+			final ImageObserver observer) {
+		return getToolkit().prepareImage(image, width, height, observer);
+	}
+
+	public int checkImage(final Image image, final ImageObserver observer) {
+		return checkImage(image, -1, -1, observer);
+	}
+
+	/**
+	 * Returns the status of the construction of a screen representation of
+	 * the specified image, it does not start the loading.
+	 *
+	 * @return the bitwise inclusive <b>OR</b> of <code>ImageObserver</code>
+	 *         flags indicating what information about the image is currently
+	 *         available
+	 */
+	public int checkImage(final Image image, final int width, final int height,
+			final ImageObserver observer) {
+		return getToolkit().checkImage(image, width, height, observer);
+	}
+
 	public Component getComponentAt(final int x, final int y) {
 		return locate(x, y);
 	}
@@ -1405,7 +1753,7 @@ public abstract class Component implements ImageObserver, MenuContainer, Seriali
 
 	public void repaint(final long tm, final int x, final int y, final int width,
 			final int height) {
-		if (isValid()) {
+		if (isRealized()) {
 			AndroidUIUtil.runOnUiThread(new Runnable() {
 				@Override
 				public void run() {
@@ -1442,13 +1790,14 @@ public abstract class Component implements ImageObserver, MenuContainer, Seriali
 	}
 
 	public void layout() {
-		if (isValid()) {
+		if (isRealized()) {
 			peer.requestLayout();
 		}
 	}
 
 	public void validate() {
 		valid = true;
+		realized = true;
 		if (peer != null) {
 			peer.requestLayout();
 		}
@@ -1456,19 +1805,14 @@ public abstract class Component implements ImageObserver, MenuContainer, Seriali
 
 	public void invalidate() {
 		valid = false;
-
-		if (isPreferredSizeSet() == false) {
-			preSize = null;
-		}
-		if (isMinimumSizeSet() == false) {
-			minSize = null;
-		}
-		if (isMaximumSizeSet() == false) {
-			maxSize = null;
-		}
+		clearSizeCaches();
 
 		if (parent != null) {
-			parent.invalidateIfValid();
+			if (parent.isValid()) {
+				parent.invalidate();
+			} else {
+				parent.invalidateLayoutCaches();
+			}
 		}
 	}
 
@@ -1494,7 +1838,12 @@ public abstract class Component implements ImageObserver, MenuContainer, Seriali
 	 * @since 1.7
 	 */
 	public void revalidate() {
-		synchronized (getTreeLock()) {
+		final Object treeLock = getTreeLock();
+		synchronized (treeLock) {
+			if (isTreeLockChangedAdAPI(treeLock)) {
+				revalidate();
+				return;
+			}
 			invalidate();
 
 			Container root = getContainer();
@@ -31,6 +31,7 @@ import hc.android.CanvasGraphics;
 import hc.android.FocusManager;
 import hc.android.HCCardLayout;
 import hc.android.HCTabHost;
+import hc.android.LayoutProfiler;
 import hc.android.AndroidUIUtil;
 import hc.core.L;
 import hc.core.util.LogManager;
@@ -38,6 +39,7 @@ import hc.util.PropertiesManager;
 
 import java.awt.event.ContainerEvent;
 import java.awt.event.ContainerListener;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -120,13 +122,36 @@ public class Container extends Component {
 	// void setGraphicsConfiguration(GraphicsConfiguration gc) {
 	// }
 
+	/**
+	 * drops the cached information of the layout manager, then invalidates
+	 * the parents, so that the layouts caching the sizes of this container
+	 * drop them too.
+	 */
 	public void invalidate() {
 
 		if (layout != null && layout instanceof LayoutManager2) {
 			final LayoutManager2 lm = (LayoutManager2) layout;
 			lm.invalidateLayout(this);
 		}
-		// super.invalidate();
+		super.invalidate();
+	}
+
+	/**
+	 * a child changed while this container is already invalid: the sizes
+	 * computed since by the layouts of this container and of its parents are
+	 * stale all the same.
+	 */
+	final void invalidateLayoutCaches() {
+		for (Container c = this; c != null; c = c.parent) {
+			c.clearSizeCaches();
+			if (c.layout instanceof LayoutManager2) {
+				((LayoutManager2) c.layout).invalidateLayout(c);
+			}
+			if (c.parent != null && c.parent.isValid()) {
+				c.parent.invalidate();
+				return;
+			}
+		}
 	}
 
 	public void setVisible(final boolean b) {
@@ -286,16 +311,22 @@ public class Container extends Component {
 			comp.parent.remove(comp);
 		}
 
-		if (components == null) {
-			components = new java.util.ArrayList<Component>();
-		}
+		// comp leaves the tree of its own lock for the tree of this.
+		changeTreesAdAPI(comp, false, new Runnable() {
+			@Override
+			public void run() {
+				if (components == null) {
+					components = new java.util.ArrayList<Component>();
+				}
 
-		if (index == -1 || index > components.size()) {
-			components.add(comp);
-		} else {
-			components.add(index, comp);
-		}
-		comp.parent = this;
+				if (index == -1 || index > components.size()) {
+					components.add(comp);
+				} else {
+					components.add(index, comp);
+				}
+				comp.parent = Container.this;
+			}
+		});
 
 		{
 			final ContainerEvent event = new ContainerEvent(this, ContainerEvent.COMPONENT_ADDED,
@@ -320,6 +351,90 @@ public class Container extends Component {
 				layout.addLayoutComponent((String) constraints, comp);
 			}
 		}
+
+		invalidateIfValid();
+	}
+
+	/**
+	 * runs <code>change</code> holding the tree lock of this and the one of
+	 * <code>comp</code> : the lock of its tree to attach it, or its own root
+	 * lock to detach it, which it has once detached.
+	 * <p>
+	 * The two locks are taken in the order of their identity hash, the tie
+	 * broken by {@link Component#TREE_LOCK_TIE}, so that two threads locking
+	 * the same two trees do not deadlock. Once held, they are checked to be
+	 * still those of their trees; if a tree was attached to another one
+	 * meanwhile, the locks are taken again.
+	 */
+	private void changeTreesAdAPI(final Component comp, final boolean isDetach,
+			final Runnable change) {
+		while (true) {
+			final Object lock = getTreeLock();
+			final Object compLock = isDetach ? comp.rootLock : comp.getTreeLock();
+			final int hash = System.identityHashCode(lock);
+			final int compHash = System.identityHashCode(compLock);
+			if (lock == compLock) {
+				synchronized (lock) {
+					if (isTreeLocksAdAPI(comp, isDetach, lock, compLock)) {
+						changeTreeAdAPI(comp, isDetach, lock, change);
+						return;
+					}
+				}
+			} else if (hash == compHash) {
+				synchronized (Component.TREE_LOCK_TIE) {
+					synchronized (lock) {
+						synchronized (compLock) {
+							if (isTreeLocksAdAPI(comp, isDetach, lock, compLock)) {
+								changeTreeAdAPI(comp, isDetach, lock, change);
+								return;
+							}
+						}
+					}
+				}
+			} else {
+				final Object first = (hash < compHash) ? lock : compLock;
+				final Object second = (hash < compHash) ? compLock : lock;
+				synchronized (first) {
+					synchronized (second) {
+						if (isTreeLocksAdAPI(comp, isDetach, lock, compLock)) {
+							changeTreeAdAPI(comp, isDetach, lock, change);
+							return;
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * runs <code>change</code>, then moves the components of the tree of
+	 * <code>comp</code> to the lock of its new tree, the caller holding both
+	 * locks.
+	 */
+	private static void changeTreeAdAPI(final Component comp, final boolean isDetach,
+			final Object lock, final Runnable change) {
+		change.run();
+		if (isDetach) {
+			if (comp.parent == null) {
+				comp.setTreeLockAdAPI(comp.rootLock);
+			}
+		} else if (comp.parent != null) {
+			comp.setTreeLockAdAPI(lock);
+		}
+	}
+
+	@Override
+	void setTreeLockAdAPI(final Object lock) {
+		super.setTreeLockAdAPI(lock);
+		final int size = (components == null) ? 0 : components.size();
+		for (int i = 0; i < size; i++) {
+			components.get(i).setTreeLockAdAPI(lock);
+		}
+	}
+
+	private boolean isTreeLocksAdAPI(final Component comp, final boolean isDetach,
+			final Object lock, final Object compLock) {
+		return getTreeLock() == lock && (isDetach || comp.getTreeLock() == compLock);
 	}
 
 	public void remove(final int index) {
@@ -339,10 +454,21 @@ public class Container extends Component {
 			return;
 		}
 
-		final int index = components.indexOf(comp);
+		// comp leaves the tree of this for the tree of its own lock.
+		final int[] removed = { -1 };
+		changeTreesAdAPI(comp, true, new Runnable() {
+			@Override
+			public void run() {
+				final int index = components.indexOf(comp);
+				if (index >= 0) {
+					components.remove(index);
+					comp.parent = null;
+				}
+				removed[0] = index;
+			}
+		});
+		final int index = removed[0];
 		if (index >= 0) {
-			components.remove(index);
-			comp.parent = null;
 
 			final ViewGroup layoutView = (ViewGroup) getContainerViewAdAPI();
 			final View subView = comp.getPeerAdAPI();
@@ -368,6 +494,8 @@ public class Container extends Component {
 		if (layout != null) {
 			layout.removeLayoutComponent(comp);
 		}
+
+		invalidateIfValid();
 	}
 
 	public synchronized void removeAll() {
@@ -558,8 +686,21 @@ public class Container extends Component {
 
 		super.setPeerAdAPI(layoutView);
 		addOnLayoutChangeListenerAdAPI(layoutView);
+		invalidateIfValid();
 	}
 
+	/**
+	 * the size this container was last laid out at.
+	 */
+	private int layoutWidth = -1, layoutHeight = -1;
+
+	/**
+	 * lays out this container, then the children which are invalid or have
+	 * been resized by the layout, the valid subtrees are not visited.
+	 * <p>
+	 * The bounds set by the whole pass are applied to the peers at its end,
+	 * see {@link Component#setBounds(int, int, int, int)}.
+	 */
 	protected void validateTree() {
 		final boolean isSimu = PropertiesManager.isSimu();
 
@@ -567,30 +708,50 @@ public class Container extends Component {
 			LogManager.log(toString() + " begin validateTree.");
 		}
 
-		if (AndroidUIUtil.isJViewportInstance(this)) {
-			((JViewport) this).getView().validate();
-			return;
-		}
+		final boolean isPassOwner = beginLayoutPass();
+		try {
+			if (AndroidUIUtil.isJViewportInstance(this)) {
+				validateChild(((JViewport) this).getView());
+				return;
+			}
 
-		doLayout();
+			layoutWidth = getWidth();
+			layoutHeight = getHeight();
+			if (LayoutProfiler.isEnabled()) {
+				LayoutProfiler.doLayout(this);
+			} else {
+				doLayout();
+			}
 
-		if (components != null) {
-			for (int i = 0; i < components.size(); i++) {
-				final Component comp = components.get(i);
-				if (comp instanceof Container) {
-					((Container) comp).validateTree();
-				} else {
-					comp.validate();
+			if (components != null) {
+				for (int i = 0; i < components.size(); i++) {
+					validateChild(components.get(i));
 				}
 			}
+			super.validate();
+		} finally {
+			if (isPassOwner) {
+				endLayoutPass();
+			}
 		}
-		super.validate();
 
 		if (isSimu) {
 			LogManager.log(toString() + " end validateTree.");
 		}
 	}
 
+	private static void validateChild(final Component comp) {
+		if (comp instanceof Container) {
+			final Container c = (Container) comp;
+			if (c.isValid() == false || c.layoutWidth != c.getWidth()
+					|| c.layoutHeight != c.getHeight()) {
+				c.validateTree();
+			}
+		} else if (comp.isValid() == false) {
+			comp.validate();
+		}
+	}
+
 	private final void switchParent(final ViewGroup oldView, final ViewGroup newView) {
 		final ViewGroup parent = (ViewGroup) oldView.getParent();
 		if (parent != null) {
@@ -612,7 +773,9 @@ public class Container extends Component {
 			layout();
 		} else if (layoutView != null) {// 不含组件，仅使用Container.paint(g)
 			if (isDisablePaintGAdAPI == false) {
-				AndroidUIUtil.runOnUiThreadAndWait(new Runnable() {
+				// the paint view is switched in UI thread, nothing of the layout
+				// waits for it.
+				AndroidUIUtil.runOnUiThread(new Runnable() {
 					@Override
 					public void run() {
 						if (isUsePaintView == false) {
@@ -644,7 +807,18 @@ public class Container extends Component {
 			if (layoutMgr != null) {
 				L.V = L.WShop ? false
 						: LogManager.log("layoutContainer() -- " + layoutMgr.toString());
-				layoutMgr.layoutContainer(this);// TODO
+				final boolean isPassOwner = beginLayoutPass();
+				try {
+					if (LayoutProfiler.isEnabled()) {
+						LayoutProfiler.layoutContainer(layoutMgr, this);
+					} else {
+						layoutMgr.layoutContainer(this);// TODO
+					}
+				} finally {
+					if (isPassOwner) {
+						endLayoutPass();
+					}
+				}
 			}
 		}
 	}
@@ -657,9 +831,26 @@ public class Container extends Component {
 		doLayout();
 	}
 
-	//
+	/**
+	 * lays out this container if it is invalid, see {@link #validateTree()}.
+	 * The layout runs on the calling thread under the tree lock, the UI
+	 * thread only gets the bounds of the pass to commit to the peers.
+	 */
 	public void validate() {
-		validateTree();
+		if (isValid()) {
+			return;
+		}
+		measureComponents();
+		final Object treeLock = getTreeLock();
+		synchronized (treeLock) {
+			if (isTreeLockChangedAdAPI(treeLock)) {
+				validate();
+				return;
+			}
+			if (isValid() == false) {
+				validateTree();
+			}
+		}
 	}
 
 	public void setFont(final Font f) {
@@ -691,22 +882,79 @@ public class Container extends Component {
 	}
 
 	public Dimension preferredSize() {
-		if (preSize == null || !(isPreferredSizeSet() || isValid())) {
+		Dimension dim = preSize;
+		if (dim == null) {
 			if (layout != null) {
 				// final Dimension rect = new Dimension();
 				// UIUtil.getViewWidthAndHeight(this.getContainerViewAdAPI(),
 				// rect);//layout.preferredLayoutSize(this);
 				// return rect;
-				synchronized (getTreeLock()) {
-					preSize = layout.preferredLayoutSize(this);
+				measureComponents();
+				final Object treeLock = getTreeLock();
+				synchronized (treeLock) {
+					if (isTreeLockChangedAdAPI(treeLock)) {
+						return preferredSize();
+					}
+					dim = LayoutProfiler.isEnabled()
+							? LayoutProfiler.preferredLayoutSize(layout, this)
+							: layout.preferredLayoutSize(this);
+					preSize = dim;
 				}
 			} else {
 				return super.preferredSize();
 			}
+			L.V = L.WShop ? false
+					: LogManager.log("preferredSize() -- " + toString() + " : " + dim.toString());
+		} else if (LayoutProfiler.isEnabled()) {
+			LayoutProfiler.hit(LayoutProfiler.PREFERRED_SIZE, this);
+		}
+		return new Dimension(dim);
+	}
+
+	/**
+	 * the size of a container with a layout comes from its children, not from
+	 * its peer.
+	 */
+	@Override
+	boolean isPeerSizeNeeded() {
+		return layout == null && (getPeerAdAPI() instanceof AbsoluteLayout) == false
+				&& super.isPeerSizeNeeded();
+	}
+
+	/**
+	 * measures the peers not measured since they were invalidated, of the
+	 * children and of the invalid subtrees below, in one pass on the UI
+	 * thread, before the layout queries their sizes one by one. A caller
+	 * holding the tree lock measures them at once, see
+	 * {@link Component#measurePeers(Component[], int)}.
+	 */
+	private void measureComponents() {
+		final ArrayList<Component> pending = new ArrayList<Component>();
+		final Object treeLock = getTreeLock();
+		synchronized (treeLock) {
+			if (isTreeLockChangedAdAPI(treeLock)) {
+				measureComponents();
+				return;
+			}
+			collectPeerSizeNeeded(pending);
+		}
+		final int count = pending.size();
+		if (count > 0) {
+			measurePeers(pending.toArray(new Component[count]), count);
+		}
+	}
+
+	private void collectPeerSizeNeeded(final ArrayList<Component> pending) {
+		final int size = (components == null) ? 0 : components.size();
+		for (int i = 0; i < size; i++) {
+			final Component comp = components.get(i);
+			if (comp.isPeerSizeNeeded()) {
+				pending.add(comp);
+			}
+			if (comp instanceof Container && comp.isValid() == false) {
+				((Container) comp).collectPeerSizeNeeded(pending);
+			}
 		}
-		L.V = L.WShop ? false
-				: LogManager.log("preferredSize() -- " + toString() + " : " + preSize.toString());
-		return new Dimension(preSize);
 	}
 
 	public Component searchComponentByViewAdAPI(final View view) {
@@ -735,20 +983,31 @@ public class Container extends Component {
 	}
 
 	public Dimension minimumSize() {
-		if (minSize == null || !isMinimumSizeSet()) {
+		Dimension dim = minSize;
+		if (dim == null) {
 			if (layout != null) {
 				// final Dimension dimension = new Dimension();
 				// AndroidUIUtil.getViewWidthAndHeight(layoutView, dimension);
-				synchronized (getTreeLock()) {
-					minSize = layout.minimumLayoutSize(this);
+				measureComponents();
+				final Object treeLock = getTreeLock();
+				synchronized (treeLock) {
+					if (isTreeLockChangedAdAPI(treeLock)) {
+						return minimumSize();
+					}
+					dim = LayoutProfiler.isEnabled()
+							? LayoutProfiler.minimumLayoutSize(layout, this)
+							: layout.minimumLayoutSize(this);
+					minSize = dim;
 				}
 			} else {
 				return super.minimumSize();
 			}
+			L.V = L.WShop ? false
+					: LogManager.log("minimumSize() -- " + toString() + " : " + dim.toString());
+		} else if (LayoutProfiler.isEnabled()) {
+			LayoutProfiler.hit(LayoutProfiler.MINIMUM_SIZE, this);
 		}
-		L.V = L.WShop ? false
-				: LogManager.log("minimumSize() -- " + toString() + " : " + minSize.toString());
-		return new Dimension(minSize);
+		return new Dimension(dim);
 	}
 
 	protected final boolean isLayoutValidAdAPI() {
@@ -759,8 +1018,12 @@ public class Container extends Component {
 
 	public Dimension getMaximumSize() {
 		Dimension dim = maxSize;
-		if (dim == null || !(isMaximumSizeSet() || isValid())) {
-			synchronized (getTreeLock()) {
+		if (dim == null) {
+			final Object treeLock = getTreeLock();
+			synchronized (treeLock) {
+				if (isTreeLockChangedAdAPI(treeLock)) {
+					return getMaximumSize();
+				}
 				if (layout != null && layout instanceof LayoutManager2) {
 					LayoutManager2 lm = (LayoutManager2) layout;
 					maxSize = lm.maximumLayoutSize(this);
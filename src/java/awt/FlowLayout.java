@@ -397,7 +397,11 @@ public class FlowLayout implements LayoutManager, java.io.Serializable {
 	 * @see java.awt.Container#getPreferredSize
 	 */
 	public Dimension preferredLayoutSize(Container target) {
-		synchronized (target.getTreeLock()) {
+		final Object treeLock = target.getTreeLock();
+		synchronized (treeLock) {
+			if (target.isTreeLockChangedAdAPI(treeLock)) {
+				return preferredLayoutSize(target);
+			}
 			Dimension dim = new Dimension(0, 0);
 			int nmembers = target.getComponentCount();
 			boolean firstVisibleComponent = true;
@@ -448,7 +452,11 @@ public class FlowLayout implements LayoutManager, java.io.Serializable {
 	 * @see java.awt.Container#doLayout
 	 */
 	public Dimension minimumLayoutSize(Container target) {
-		synchronized (target.getTreeLock()) {
+		final Object treeLock = target.getTreeLock();
+		synchronized (treeLock) {
+			if (target.isTreeLockChangedAdAPI(treeLock)) {
+				return minimumLayoutSize(target);
+			}
 			boolean useBaseline = getAlignOnBaseline();
 			Dimension dim = new Dimension(0, 0);
 			int nmembers = target.getComponentCount();
@@ -585,7 +593,12 @@ public class FlowLayout implements LayoutManager, java.io.Serializable {
 	 * @see java.awt.Container#doLayout
 	 */
 	public void layoutContainer(Container target) {
-		synchronized (target.getTreeLock()) {
+		final Object treeLock = target.getTreeLock();
+		synchronized (treeLock) {
+			if (target.isTreeLockChangedAdAPI(treeLock)) {
+				layoutContainer(target);
+				return;
+			}
 			Insets insets = target.getInsets();
 			int maxwidth = target.getWidth() - (insets.left + insets.right + hgap * 2);
 			int nmembers = target.getComponentCount();
@@ -26,6 +26,7 @@ package java.awt;
 
 import java.util.Arrays;
 import java.util.Hashtable;
+import java.util.WeakHashMap;
 
 /**
  * The <code>GridBagLayout</code> class is a flexible layout manager that aligns
@@ -462,6 +463,95 @@ public class GridBagLayout implements LayoutManager2, java.io.Serializable {
 	 */
 	private Component componentAdjusting;
 
+	/**
+	 * the layout infos of {@link #getLayoutInfo(Container, int)} by parent,
+	 * so that a layout shared by several containers keeps one for each,
+	 * guarded by itself. The infos of a parent are dropped by
+	 * {@link #invalidateLayout(Container)} and {@link #setConstraints} for
+	 * it, all of them by the removal of a component, and they are not used
+	 * once the visible components or the overrides of the columns and rows
+	 * have changed.
+	 */
+	private transient WeakHashMap<Container, ParentLayoutInfos> cachedInfos;
+
+	/**
+	 * the layout infos of a parent, by size flag.
+	 */
+	private static final class ParentLayoutInfos {
+		final CachedLayoutInfo[] infos = new CachedLayoutInfo[PREFERREDSIZE + 1];
+
+		/**
+		 * the size flag the temporary fields of the constraints of the
+		 * components of the parent were last computed for.
+		 */
+		int sizeflag;
+	}
+
+	/**
+	 * a layout info with what it was computed from, and the fields it left in
+	 * the constraints which depend on the size flag.
+	 */
+	private static final class CachedLayoutInfo {
+		final GridBagLayoutInfo info;
+		final Component[] components;
+		final GridBagConstraints[] constraints;
+		final int[] sizes;
+		final Component.BaselineResizeBehavior[] behaviors;
+		final int[] columnWidths;
+		final int[] rowHeights;
+		final double[] columnWeights;
+		final double[] rowWeights;
+
+		CachedLayoutInfo(final GridBagLayout layout, final GridBagLayoutInfo info,
+				final Component[] components) {
+			this.info = info;
+			this.components = components;
+			constraints = new GridBagConstraints[components.length];
+			sizes = new int[components.length * 6];
+			behaviors = new Component.BaselineResizeBehavior[components.length];
+			for (int i = 0, j = 0; i < components.length; i++) {
+				final GridBagConstraints c = layout.lookupConstraints(components[i]);
+				constraints[i] = c;
+				sizes[j++] = c.minWidth;
+				sizes[j++] = c.minHeight;
+				sizes[j++] = c.ascent;
+				sizes[j++] = c.descent;
+				sizes[j++] = c.centerPadding;
+				sizes[j++] = c.centerOffset;
+				behaviors[i] = c.baselineResizeBehavior;
+			}
+			columnWidths = (layout.columnWidths == null) ? null : layout.columnWidths.clone();
+			rowHeights = (layout.rowHeights == null) ? null : layout.rowHeights.clone();
+			columnWeights = (layout.columnWeights == null) ? null : layout.columnWeights.clone();
+			rowWeights = (layout.rowWeights == null) ? null : layout.rowWeights.clone();
+		}
+
+		boolean matches(final GridBagLayout layout, final Component[] visible) {
+			return Arrays.equals(components, visible)
+					&& Arrays.equals(columnWidths, layout.columnWidths)
+					&& Arrays.equals(rowHeights, layout.rowHeights)
+					&& Arrays.equals(columnWeights, layout.columnWeights)
+					&& Arrays.equals(rowWeights, layout.rowWeights);
+		}
+
+		/**
+		 * puts back the sizes of the constraints, computed since for the other
+		 * size flag.
+		 */
+		void restore() {
+			for (int i = 0, j = 0; i < constraints.length; i++) {
+				final GridBagConstraints c = constraints[i];
+				c.minWidth = sizes[j++];
+				c.minHeight = sizes[j++];
+				c.ascent = sizes[j++];
+				c.descent = sizes[j++];
+				c.centerPadding = sizes[j++];
+				c.centerOffset = sizes[j++];
+				c.baselineResizeBehavior = behaviors[i];
+			}
+		}
+	}
+
 	/**
 	 * Creates a grid bag layout manager.
 	 */
@@ -480,6 +570,10 @@ public class GridBagLayout implements LayoutManager2, java.io.Serializable {
 	 */
 	public void setConstraints(Component comp, GridBagConstraints constraints) {
 		comptable.put(comp, (GridBagConstraints) constraints.clone());
+		final Container parent = comp.getParent();
+		if (parent != null) {
+			dropLayoutInfos(parent);
+		}
 	}
 
 	/**
@@ -705,6 +799,8 @@ public class GridBagLayout implements LayoutManager2, java.io.Serializable {
 	 */
 	public void removeLayoutComponent(Component comp) {
 		removeConstraints(comp);
+		// the component has left its parent already.
+		dropLayoutInfos(null);
 	}
 
 	/**
@@ -787,6 +883,41 @@ public class GridBagLayout implements LayoutManager2, java.io.Serializable {
 	 * information it should be discarded.
 	 */
 	public void invalidateLayout(Container target) {
+		dropLayoutInfos(target);
+	}
+
+	/**
+	 * @param parent
+	 *            null for all the parents.
+	 */
+	private void dropLayoutInfos(final Container parent) {
+		final WeakHashMap<Container, ParentLayoutInfos> byParent = getLayoutInfosByParent();
+		synchronized (byParent) {
+			if (parent == null) {
+				byParent.clear();
+			} else {
+				byParent.remove(parent);
+			}
+		}
+	}
+
+	private ParentLayoutInfos getLayoutInfos(final Container parent) {
+		final WeakHashMap<Container, ParentLayoutInfos> byParent = getLayoutInfosByParent();
+		synchronized (byParent) {
+			ParentLayoutInfos infos = byParent.get(parent);
+			if (infos == null) {
+				infos = new ParentLayoutInfos();
+				byParent.put(parent, infos);
+			}
+			return infos;
+		}
+	}
+
+	private synchronized WeakHashMap<Container, ParentLayoutInfos> getLayoutInfosByParent() {
+		if (cachedInfos == null) {
+			cachedInfos = new WeakHashMap<Container, ParentLayoutInfos>();
+		}
+		return cachedInfos;
 	}
 
 	/**
@@ -874,7 +1005,62 @@ public class GridBagLayout implements LayoutManager2, java.io.Serializable {
 	 * @since 1.4
 	 */
 	protected GridBagLayoutInfo getLayoutInfo(Container parent, int sizeflag) {
-		return GetLayoutInfo(parent, sizeflag);
+		if (sizeflag != MINSIZE && sizeflag != PREFERREDSIZE) {
+			return GetLayoutInfo(parent, sizeflag);
+		}
+
+		final Object treeLock = parent.getTreeLock();
+		synchronized (treeLock) {
+			if (parent.isTreeLockChangedAdAPI(treeLock)) {
+				return getLayoutInfo(parent, sizeflag);
+			}
+			final Component[] visible = getVisibleComponents(parent);
+			final ParentLayoutInfos infos = getLayoutInfos(parent);
+			final CachedLayoutInfo cached = infos.infos[sizeflag];
+			if (cached != null && cached.matches(this, visible)) {
+				if (infos.sizeflag != sizeflag) {
+					cached.restore();
+					infos.sizeflag = sizeflag;
+				}
+				return cached.info;
+			}
+
+			final GridBagLayoutInfo info = GetLayoutInfo(parent, sizeflag);
+			infos.infos[sizeflag] = new CachedLayoutInfo(this, info, visible);
+			infos.sizeflag = sizeflag;
+			return info;
+		}
+	}
+
+	private static Component[] getVisibleComponents(Container parent) {
+		final Component[] components = parent.getComponents();
+		int count = 0;
+		for (int i = 0; i < components.length; i++) {
+			if (components[i].isVisible()) {
+				components[count++] = components[i];
+			}
+		}
+		return (count == components.length) ? components : Arrays.copyOf(components, count);
+	}
+
+	/**
+	 * a copy of the sizes of the rows and columns, for
+	 * {@link #ArrangeGrid(Container)} to stretch them without changing the
+	 * cached info.
+	 */
+	private static GridBagLayoutInfo copyForArrange(GridBagLayoutInfo info) {
+		final GridBagLayoutInfo copy = new GridBagLayoutInfo(info.width, info.height);
+		copy.startx = info.startx;
+		copy.starty = info.starty;
+		copy.minWidth = info.minWidth.clone();
+		copy.minHeight = info.minHeight.clone();
+		copy.weightX = info.weightX;
+		copy.weightY = info.weightY;
+		copy.hasBaseline = info.hasBaseline;
+		copy.baselineType = info.baselineType;
+		copy.maxAscent = info.maxAscent;
+		copy.maxDescent = info.maxDescent;
+		return copy;
 	}
 
 	/*
@@ -953,7 +1139,11 @@ public class GridBagLayout implements LayoutManager2, java.io.Serializable {
 	 * details on parameters and return value.
 	 */
 	protected GridBagLayoutInfo GetLayoutInfo(Container parent, int sizeflag) {
-		synchronized (parent.getTreeLock()) {
+		final Object treeLock = parent.getTreeLock();
+		synchronized (treeLock) {
+			if (parent.isTreeLockChangedAdAPI(treeLock)) {
+				return GetLayoutInfo(parent, sizeflag);
+			}
 			GridBagLayoutInfo r;
 			Component comp;
 			GridBagConstraints constraints;
@@ -1984,6 +2174,7 @@ public class GridBagLayout implements LayoutManager2, java.io.Serializable {
 			d = getMinSize(parent, info);
 		}
 
+		info = copyForArrange(info);
 		layoutInfo = info;
 		r.width = d.width;
 		r.height = d.height;
@@ -347,7 +347,11 @@ public class GridLayout implements LayoutManager, java.io.Serializable {
 	 * @see java.awt.Container#getPreferredSize()
 	 */
 	public Dimension preferredLayoutSize(Container parent) {
-		synchronized (parent.getTreeLock()) {
+		final Object treeLock = parent.getTreeLock();
+		synchronized (treeLock) {
+			if (parent.isTreeLockChangedAdAPI(treeLock)) {
+				return preferredLayoutSize(parent);
+			}
 			Insets insets = parent.getInsets();
 			int ncomponents = parent.getComponentCount();
 			int nrows = rows;
@@ -397,7 +401,11 @@ public class GridLayout implements LayoutManager, java.io.Serializable {
 	 * @see java.awt.Container#doLayout
 	 */
 	public Dimension minimumLayoutSize(Container parent) {
-		synchronized (parent.getTreeLock()) {
+		final Object treeLock = parent.getTreeLock();
+		synchronized (treeLock) {
+			if (parent.isTreeLockChangedAdAPI(treeLock)) {
+				return minimumLayoutSize(parent);
+			}
 			Insets insets = parent.getInsets();
 			int ncomponents = parent.getComponentCount();
 			int nrows = rows;
@@ -444,7 +452,12 @@ public class GridLayout implements LayoutManager, java.io.Serializable {
 	 * @see java.awt.Container#doLayout
 	 */
 	public void layoutContainer(Container parent) {
-		synchronized (parent.getTreeLock()) {
+		final Object treeLock = parent.getTreeLock();
+		synchronized (treeLock) {
+			if (parent.isTreeLockChangedAdAPI(treeLock)) {
+				layoutContainer(parent);
+				return;
+			}
 			Insets insets = parent.getInsets();
 			int ncomponents = parent.getComponentCount();
 			int nrows = rows;
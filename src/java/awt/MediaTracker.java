@@ -24,7 +24,7 @@
  */
 package java.awt;
 
-import hc.android.AndroidClassUtil;
+import java.awt.image.ImageObserver;
 
 /**
  * The <code>MediaTracker</code> class is a utility class to track the status of
@@ -158,116 +158,546 @@ import hc.android.AndroidClassUtil;
  */
 public class MediaTracker implements java.io.Serializable {
 
+	/**
+	 * A given <code>Component</code> that will be tracked by a media tracker
+	 * where the image will eventually be drawn. May be null, the images are
+	 * then prepared by the default <code>Toolkit</code>.
+	 *
+	 * @see #MediaTracker(Component)
+	 */
 	Component target;
+
+	/**
+	 * The head of the list of <code>Images</code> that is being tracked by
+	 * the <code>MediaTracker</code>, sorted by ID.
+	 *
+	 * @see #addImage(Image, int)
+	 * @see #removeImage(Image)
+	 */
 	MediaEntry head;
 
+	/**
+	 * Creates a media tracker to track images for a given component.
+	 *
+	 * @param comp
+	 *            the component on which the images will eventually be drawn
+	 */
 	public MediaTracker(Component comp) {
 		target = comp;
 	}
 
+	/**
+	 * Adds an image to the list of images being tracked by this media
+	 * tracker. The image will eventually be rendered at its default
+	 * (unscaled) size.
+	 *
+	 * @param image
+	 *            the image to be tracked
+	 * @param id
+	 *            an identifier used to track this image
+	 */
 	public void addImage(Image image, int id) {
 		addImage(image, id, -1, -1);
 	}
 
+	/**
+	 * Adds a scaled image to the list of images being tracked by this media
+	 * tracker. The image will eventually be rendered at the indicated width
+	 * and height.
+	 *
+	 * @param image
+	 *            the image to be tracked
+	 * @param id
+	 *            an identifier that can be used to track this image
+	 * @param w
+	 *            the width at which the image is rendered
+	 * @param h
+	 *            the height at which the image is rendered
+	 */
 	public synchronized void addImage(Image image, int id, int w, int h) {
-		AndroidClassUtil.callEmptyMethod();
+		head = MediaEntry.insert(head, new ImageMediaEntry(this, image, id, w, h));
 	}
 
+	/**
+	 * Flag indicating that media is currently being loaded.
+	 *
+	 * @see java.awt.MediaTracker#statusAll
+	 * @see java.awt.MediaTracker#statusID
+	 */
 	public static final int LOADING = 1;
+
+	/**
+	 * Flag indicating that the downloading of media was aborted.
+	 *
+	 * @see java.awt.MediaTracker#statusAll
+	 * @see java.awt.MediaTracker#statusID
+	 */
 	public static final int ABORTED = 2;
+
+	/**
+	 * Flag indicating that the downloading of media encountered an error.
+	 *
+	 * @see java.awt.MediaTracker#statusAll
+	 * @see java.awt.MediaTracker#statusID
+	 */
 	public static final int ERRORED = 4;
+
+	/**
+	 * Flag indicating that the downloading of media was completed
+	 * successfully.
+	 *
+	 * @see java.awt.MediaTracker#statusAll
+	 * @see java.awt.MediaTracker#statusID
+	 */
 	public static final int COMPLETE = 8;
 
 	static final int DONE = (ABORTED | ERRORED | COMPLETE);
 
+	/**
+	 * Checks to see if all images being tracked by this media tracker have
+	 * finished loading.
+	 * <p>
+	 * This method does not start loading the images if they are not already
+	 * loading.
+	 *
+	 * @return <code>true</code> if all images have finished loading, have
+	 *         been aborted, or have encountered an error; <code>false</code>
+	 *         otherwise
+	 */
 	public boolean checkAll() {
-		return false;
+		return checkAll(false, true);
 	}
 
+	/**
+	 * Checks to see if all images being tracked by this media tracker have
+	 * finished loading.
+	 * <p>
+	 * If the value of the <code>load</code> flag is <code>true</code>, then
+	 * this method starts loading any images that are not yet being loaded.
+	 *
+	 * @param load
+	 *            if <code>true</code>, start loading any images that are not
+	 *            yet being loaded
+	 * @return <code>true</code> if all images have finished loading, have
+	 *         been aborted, or have encountered an error; <code>false</code>
+	 *         otherwise
+	 */
 	public boolean checkAll(boolean load) {
-		return false;
+		return checkAll(load, true);
+	}
+
+	private synchronized boolean checkAll(boolean load, boolean verify) {
+		MediaEntry cur = head;
+		boolean done = true;
+		while (cur != null) {
+			if ((cur.getStatus(load, verify) & DONE) == 0) {
+				done = false;
+			}
+			cur = cur.next;
+		}
+		return done;
 	}
 
+	/**
+	 * Checks the error status of all of the images.
+	 *
+	 * @return <code>true</code> if any of the images tracked by this media
+	 *         tracker had an error during loading; <code>false</code>
+	 *         otherwise
+	 */
 	public synchronized boolean isErrorAny() {
-		AndroidClassUtil.callEmptyMethod();
+		MediaEntry cur = head;
+		while (cur != null) {
+			if ((cur.getStatus(false, true) & ERRORED) != 0) {
+				return true;
+			}
+			cur = cur.next;
+		}
 		return false;
 	}
 
+	/**
+	 * Returns a list of all media that have encountered an error.
+	 *
+	 * @return an array of media objects tracked by this media tracker that
+	 *         have encountered an error, or <code>null</code> if there are
+	 *         none with errors
+	 */
 	public synchronized Object[] getErrorsAny() {
-		AndroidClassUtil.callEmptyMethod();
-		Object errors[] = new Object[0];
+		MediaEntry cur = head;
+		int numerrors = 0;
+		while (cur != null) {
+			if ((cur.getStatus(false, true) & ERRORED) != 0) {
+				numerrors++;
+			}
+			cur = cur.next;
+		}
+		if (numerrors == 0) {
+			return null;
+		}
+		Object errors[] = new Object[numerrors];
+		cur = head;
+		numerrors = 0;
+		while (cur != null) {
+			if ((cur.getStatus(false, false) & ERRORED) != 0) {
+				errors[numerrors++] = cur.getMedia();
+			}
+			cur = cur.next;
+		}
 		return errors;
 	}
 
+	/**
+	 * Starts loading all images tracked by this media tracker. This method
+	 * waits until all the images being tracked have finished loading.
+	 *
+	 * @exception InterruptedException
+	 *                if any thread has interrupted this thread
+	 */
 	public void waitForAll() throws InterruptedException {
 		waitForAll(0);
 	}
 
+	/**
+	 * Starts loading all images tracked by this media tracker. This method
+	 * waits until all the images being tracked have finished loading, or
+	 * until the length of time specified in milliseconds by the
+	 * <code>ms</code> argument has passed.
+	 *
+	 * @param ms
+	 *            the number of milliseconds to wait for the loading to
+	 *            complete
+	 * @return <code>true</code> if all images were successfully loaded;
+	 *         <code>false</code> otherwise
+	 * @exception InterruptedException
+	 *                if any thread has interrupted this thread.
+	 */
 	public synchronized boolean waitForAll(long ms) throws InterruptedException {
-		AndroidClassUtil.callEmptyMethod();
-		return false;
+		long end = System.currentTimeMillis() + ms;
+		boolean first = true;
+		while (true) {
+			int status = statusAll(first, first);
+			if ((status & LOADING) == 0) {
+				return (status == COMPLETE);
+			}
+			first = false;
+			long timeout;
+			if (ms == 0) {
+				timeout = 0;
+			} else {
+				timeout = end - System.currentTimeMillis();
+				if (timeout <= 0) {
+					return false;
+				}
+			}
+			wait(timeout);
+		}
 	}
 
+	/**
+	 * Calculates and returns the bitwise inclusive <b>OR</b> of the status of
+	 * all media that are tracked by this media tracker.
+	 *
+	 * @param load
+	 *            if <code>true</code>, start loading any images that are not
+	 *            yet being loaded
+	 * @return the bitwise inclusive <b>OR</b> of the status of all of the
+	 *         media being tracked
+	 */
 	public int statusAll(boolean load) {
-		AndroidClassUtil.callEmptyMethod();
-		return 0;
+		return statusAll(load, true);
 	}
 
+	private synchronized int statusAll(boolean load, boolean verify) {
+		MediaEntry cur = head;
+		int status = 0;
+		while (cur != null) {
+			status = status | cur.getStatus(load, verify);
+			cur = cur.next;
+		}
+		return status;
+	}
+
+	/**
+	 * Checks to see if all images tracked by this media tracker that are
+	 * tagged with the specified identifier have finished loading.
+	 * <p>
+	 * This method does not start loading the images if they are not already
+	 * loading.
+	 *
+	 * @param id
+	 *            the identifier of the images to check
+	 * @return <code>true</code> if all images have finished loading, have
+	 *         been aborted, or have encountered an error; <code>false</code>
+	 *         otherwise
+	 */
 	public boolean checkID(int id) {
 		return checkID(id, false, true);
 	}
 
+	/**
+	 * Checks to see if all images tracked by this media tracker that are
+	 * tagged with the specified identifier have finished loading.
+	 * <p>
+	 * If the value of the <code>load</code> flag is <code>true</code>, then
+	 * this method starts loading any images that are not yet being loaded.
+	 *
+	 * @param id
+	 *            the identifier of the images to check
+	 * @param load
+	 *            if <code>true</code>, start loading any images that are not
+	 *            yet being loaded
+	 * @return <code>true</code> if all images have finished loading, have
+	 *         been aborted, or have encountered an error; <code>false</code>
+	 *         otherwise
+	 */
 	public boolean checkID(int id, boolean load) {
 		return checkID(id, load, true);
 	}
 
 	private synchronized boolean checkID(int id, boolean load, boolean verify) {
-		AndroidClassUtil.callEmptyMethod();
-		return true;
+		MediaEntry cur = head;
+		boolean done = true;
+		while (cur != null) {
+			if (cur.getID() == id && (cur.getStatus(load, verify) & DONE) == 0) {
+				done = false;
+			}
+			cur = cur.next;
+		}
+		return done;
 	}
 
+	/**
+	 * Checks the error status of all of the images tracked by this media
+	 * tracker with the specified identifier.
+	 *
+	 * @param id
+	 *            the identifier of the images to check
+	 * @return <code>true</code> if any of the images with the specified
+	 *         identifier had an error during loading; <code>false</code>
+	 *         otherwise
+	 */
 	public synchronized boolean isErrorID(int id) {
-		AndroidClassUtil.callEmptyMethod();
+		MediaEntry cur = head;
+		while (cur != null) {
+			if (cur.getID() == id && (cur.getStatus(false, true) & ERRORED) != 0) {
+				return true;
+			}
+			cur = cur.next;
+		}
 		return false;
 	}
 
+	/**
+	 * Returns a list of media with the specified ID that have encountered an
+	 * error.
+	 *
+	 * @param id
+	 *            the identifier of the images to check
+	 * @return an array of media objects tracked by this media tracker with
+	 *         the specified identifier that have encountered an error, or
+	 *         <code>null</code> if there are none with errors
+	 */
 	public synchronized Object[] getErrorsID(int id) {
-		Object errors[] = new Object[0];
+		MediaEntry cur = head;
+		int numerrors = 0;
+		while (cur != null) {
+			if (cur.getID() == id && (cur.getStatus(false, true) & ERRORED) != 0) {
+				numerrors++;
+			}
+			cur = cur.next;
+		}
+		if (numerrors == 0) {
+			return null;
+		}
+		Object errors[] = new Object[numerrors];
+		cur = head;
+		numerrors = 0;
+		while (cur != null) {
+			if (cur.getID() == id && (cur.getStatus(false, false) & ERRORED) != 0) {
+				errors[numerrors++] = cur.getMedia();
+			}
+			cur = cur.next;
+		}
 		return errors;
 	}
 
+	/**
+	 * Starts loading all images tracked by this media tracker with the
+	 * specified identifier. This method waits until all the images with the
+	 * specified identifier have finished loading.
+	 *
+	 * @param id
+	 *            the identifier of the images to check
+	 * @exception InterruptedException
+	 *                if any thread has interrupted this thread.
+	 */
 	public void waitForID(int id) throws InterruptedException {
 		waitForID(id, 0);
 	}
 
+	/**
+	 * Starts loading all images tracked by this media tracker with the
+	 * specified identifier. This method waits until all the images with the
+	 * specified identifier have finished loading, or until the length of
+	 * time specified in milliseconds by the <code>ms</code> argument has
+	 * passed.
+	 *
+	 * @param id
+	 *            the identifier of the images to check
+	 * @param ms
+	 *            the length of time, in milliseconds, to wait for the loading
+	 *            to complete
+	 * @return <code>true</code> if the loading completed in time;
+	 *         <code>false</code> otherwise
+	 * @exception InterruptedException
+	 *                if any thread has interrupted this thread.
+	 */
 	public synchronized boolean waitForID(int id, long ms) throws InterruptedException {
-		AndroidClassUtil.callEmptyMethod();
-		return false;
+		long end = System.currentTimeMillis() + ms;
+		boolean first = true;
+		while (true) {
+			int status = statusID(id, first, first);
+			if ((status & LOADING) == 0) {
+				return (status == COMPLETE);
+			}
+			first = false;
+			long timeout;
+			if (ms == 0) {
+				timeout = 0;
+			} else {
+				timeout = end - System.currentTimeMillis();
+				if (timeout <= 0) {
+					return false;
+				}
+			}
+			wait(timeout);
+		}
 	}
 
+	/**
+	 * Calculates and returns the bitwise inclusive <b>OR</b> of the status of
+	 * all media with the specified identifier that are tracked by this media
+	 * tracker.
+	 *
+	 * @param id
+	 *            the identifier of the images to check
+	 * @param load
+	 *            if <code>true</code>, start loading any images that are not
+	 *            yet being loaded
+	 * @return the bitwise inclusive <b>OR</b> of the status of all of the
+	 *         media with the specified identifier that are being tracked
+	 */
 	public int statusID(int id, boolean load) {
 		return statusID(id, load, true);
 	}
 
 	private synchronized int statusID(int id, boolean load, boolean verify) {
-		AndroidClassUtil.callEmptyMethod();
-		return 0;
+		MediaEntry cur = head;
+		int status = 0;
+		while (cur != null) {
+			if (cur.getID() == id) {
+				status = status | cur.getStatus(load, verify);
+			}
+			cur = cur.next;
+		}
+		return status;
 	}
 
+	/**
+	 * Removes the specified image from this media tracker. All instances of
+	 * the specified image are removed, regardless of scale or ID.
+	 *
+	 * @param image
+	 *            the image to be removed
+	 */
 	public synchronized void removeImage(Image image) {
-		AndroidClassUtil.callEmptyMethod();
+		MediaEntry cur = head;
+		MediaEntry prev = null;
+		while (cur != null) {
+			MediaEntry next = cur.next;
+			if (cur.getMedia() == image) {
+				if (prev == null) {
+					head = next;
+				} else {
+					prev.next = next;
+				}
+				cur.cancel();
+			} else {
+				prev = cur;
+			}
+			cur = next;
+		}
+		notifyAll(); // Notify in case remaining images are "done".
 	}
 
+	/**
+	 * Removes the specified image from the specified tracking ID of this
+	 * media tracker. All instances of <code>Image</code> being tracked under
+	 * the specified ID are removed regardless of scale.
+	 *
+	 * @param image
+	 *            the image to be removed
+	 * @param id
+	 *            the tracking ID from which to remove the image
+	 */
 	public synchronized void removeImage(Image image, int id) {
-		AndroidClassUtil.callEmptyMethod();
+		MediaEntry cur = head;
+		MediaEntry prev = null;
+		while (cur != null) {
+			MediaEntry next = cur.next;
+			if (cur.getID() == id && cur.getMedia() == image) {
+				if (prev == null) {
+					head = next;
+				} else {
+					prev.next = next;
+				}
+				cur.cancel();
+			} else {
+				prev = cur;
+			}
+			cur = next;
+		}
+		notifyAll(); // Notify in case remaining images are "done".
 	}
 
+	/**
+	 * Removes the specified image with the specified width, height, and ID
+	 * from this media tracker. Only the specified instance (with any
+	 * duplicates) is removed.
+	 *
+	 * @param image
+	 *            the image to be removed
+	 * @param id
+	 *            the tracking ID from which to remove the image
+	 * @param width
+	 *            the width to remove (-1 for unscaled)
+	 * @param height
+	 *            the height to remove (-1 for unscaled)
+	 */
 	public synchronized void removeImage(Image image, int id, int width, int height) {
-		AndroidClassUtil.callEmptyMethod();
+		MediaEntry cur = head;
+		MediaEntry prev = null;
+		while (cur != null) {
+			MediaEntry next = cur.next;
+			if (cur.getID() == id && cur instanceof ImageMediaEntry
+					&& ((ImageMediaEntry) cur).matches(image, width, height)) {
+				if (prev == null) {
+					head = next;
+				} else {
+					prev.next = next;
+				}
+				cur.cancel();
+			} else {
+				prev = cur;
+			}
+			cur = next;
+		}
+		notifyAll(); // Notify in case remaining images are "done".
 	}
 
 	synchronized void setDone() {
-		AndroidClassUtil.callEmptyMethod();
+		notifyAll();
 	}
 }
 
@@ -287,7 +717,21 @@ abstract class MediaEntry {
 	abstract Object getMedia();
 
 	static MediaEntry insert(MediaEntry head, MediaEntry me) {
-		AndroidClassUtil.callEmptyMethod();
+		MediaEntry cur = head;
+		MediaEntry prev = null;
+		while (cur != null) {
+			if (cur.ID > me.ID) {
+				break;
+			}
+			prev = cur;
+			cur = cur.next;
+		}
+		me.next = cur;
+		if (prev == null) {
+			head = me;
+		} else {
+			prev.next = me;
+		}
 		return head;
 	}
 
@@ -310,11 +754,91 @@ abstract class MediaEntry {
 	static final int DONE = (ABORTED | ERRORED | COMPLETE);
 
 	synchronized int getStatus(boolean doLoad, boolean doVerify) {
-		AndroidClassUtil.callEmptyMethod();
+		if (doLoad && ((status & LOADSTARTED) == 0)) {
+			status = (status & ~ABORTED) | LOADING;
+			startLoad();
+		}
 		return status;
 	}
 
 	void setStatus(int flag) {
-		AndroidClassUtil.callEmptyMethod();
+		synchronized (this) {
+			status = flag;
+		}
+		tracker.setDone();
+	}
+}
+
+/**
+ * the entry of an image, it observes the image through the
+ * <code>Toolkit</code> of the target component (or the default one if there
+ * is no target), which decodes it in the background.
+ */
+class ImageMediaEntry extends MediaEntry implements ImageObserver, java.io.Serializable {
+	Image image;
+	int width;
+	int height;
+
+	ImageMediaEntry(MediaTracker mt, Image img, int c, int w, int h) {
+		super(mt, c);
+		image = img;
+		width = w;
+		height = h;
+	}
+
+	boolean matches(Image img, int w, int h) {
+		return (image == img && width == w && height == h);
+	}
+
+	Object getMedia() {
+		return image;
+	}
+
+	private Toolkit getToolkit() {
+		final Component target = tracker.target;
+		return (target == null) ? Toolkit.getDefaultToolkit() : target.getToolkit();
+	}
+
+	synchronized int getStatus(boolean doLoad, boolean doVerify) {
+		if (doVerify) {
+			int flags = getToolkit().checkImage(image, width, height, null);
+			int s = parseflags(flags);
+			if (s == 0) {
+				if ((status & (ERRORED | COMPLETE)) != 0) {
+					setStatus(ABORTED);
+				}
+			} else if (s != status) {
+				setStatus(s);
+			}
+		}
+		return super.getStatus(doLoad, doVerify);
+	}
+
+	void startLoad() {
+		if (getToolkit().prepareImage(image, width, height, this)) {
+			setStatus(COMPLETE);
+		}
+	}
+
+	int parseflags(int infoflags) {
+		if ((infoflags & ERROR) != 0) {
+			return ERRORED;
+		} else if ((infoflags & ABORT) != 0) {
+			return ABORTED;
+		} else if ((infoflags & (ALLBITS | FRAMEBITS)) != 0) {
+			return COMPLETE;
+		}
+		return 0;
+	}
+
+	public boolean imageUpdate(Image img, int infoflags, int x, int y, int w, int h) {
+		if (cancelled) {
+			return false;
+		}
+		int s = parseflags(infoflags);
+		if (s != 0 && s != status) {
+			setStatus(s);
+		}
+		return ((status & LOADING) != 0);
 	}
 }
@@ -27,15 +27,16 @@ package java.awt;
 import hc.android.ActivityManager;
 import hc.android.ImageUtil;
 import hc.android.J2SEInitor;
+import hc.android.ToolkitImage;
 import hc.android.UICore;
 
 import java.awt.datatransfer.Clipboard;
 import java.awt.event.AWTEventListener;
 import java.awt.image.BufferedImage;
-import java.io.InputStream;
+import java.awt.image.ImageObserver;
+import java.io.File;
 import java.net.URL;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.media.AudioManager;
 import android.media.ToneGenerator;
 
@@ -108,29 +109,14 @@ public abstract class Toolkit {
 
 		@Override
 		public Image getImage(URL url) {
-			InputStream is = null;
-			try {
-				is = url.openStream();
-				Bitmap bitmap = BitmapFactory.decodeStream(is);
-				BufferedImage bi = new BufferedImage(bitmap);
-				return bi;
-			} catch (Throwable e) {
-			} finally {
-				try {
-					is.close();
-				} catch (Throwable e) {
-				}
-			}
-			return null;
+			return new ToolkitImage(url);
 		}
 
 		@Override
 		public Image getImage(String filename) {
-			InputStream is = J2SEInitor.class.getResourceAsStream(filename);
-			Bitmap bitmap = BitmapFactory.decodeStream(is);
-
-			BufferedImage bi = new BufferedImage(bitmap);
-			return bi;
+			// shares the decoded bitmap of the resource through ImageCache.
+			final URL url = J2SEInitor.class.getResource(filename);
+			return (url == null) ? null : new ToolkitImage(url);
 		}
 
 		@Override
@@ -142,12 +128,29 @@ public abstract class Toolkit {
 
 		@Override
 		public Image createImage(URL url) {
-			return null;
+			return new ToolkitImage(url);
 		}
 
 		@Override
 		public Image createImage(String filename) {
-			return null;
+			return new ToolkitImage(new File(filename));
+		}
+
+		@Override
+		public boolean prepareImage(Image image, int width, int height, ImageObserver observer) {
+			if (image instanceof ToolkitImage) {
+				return ((ToolkitImage) image).prepare(observer);
+			}
+			return true;
+		}
+
+		@Override
+		public int checkImage(Image image, int width, int height, ImageObserver observer) {
+			if (image instanceof ToolkitImage) {
+				return ((ToolkitImage) image).check();
+			}
+			return ImageObserver.WIDTH | ImageObserver.HEIGHT | ImageObserver.PROPERTIES
+					| ImageObserver.ALLBITS;
 		}
 
 		@Override
@@ -185,6 +188,26 @@ public abstract class Toolkit {
 
 	public abstract Image createImage(URL url);
 
+	/**
+	 * Prepares an image for rendering. The image of
+	 * {@link #getImage(URL)} or {@link #createImage(URL)} is decoded in the
+	 * background, <code>observer</code> is notified of the progress.
+	 *
+	 * @return <code>true</code> if the image has already been fully prepared;
+	 *         <code>false</code> otherwise.
+	 */
+	public abstract boolean prepareImage(Image image, int width, int height,
+			ImageObserver observer);
+
+	/**
+	 * Indicates the construction status of a specified image that is being
+	 * prepared for display, it does not start the loading.
+	 *
+	 * @return the bitwise inclusive <b>OR</b> of the <code>ImageObserver</code>
+	 *         flags for the image data that is currently available.
+	 */
+	public abstract int checkImage(Image image, int width, int height, ImageObserver observer);
+
 	public Image createImage(byte[] imagedata) {
 		return createImage(imagedata, 0, imagedata.length);
 	}
@@ -1577,7 +1577,12 @@ public class Window extends Container implements Accessible {
 	}
 
 	public void setBounds(int x, int y, int width, int height) {
-		synchronized (getTreeLock()) {
+		final Object treeLock = getTreeLock();
+		synchronized (treeLock) {
+			if (isTreeLockChangedAdAPI(treeLock)) {
+				setBounds(x, y, width, height);
+				return;
+			}
 			// if (getBoundsOp() == ComponentPeer.SET_LOCATION ||
 			// getBoundsOp() == ComponentPeer.SET_BOUNDS)
 			// {
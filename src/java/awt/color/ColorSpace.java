@@ -105,8 +105,33 @@ public abstract class ColorSpace implements java.io.Serializable {
 		this.numComponents = numcomponents;
 	}
 
+	private static ColorSpace sRGBspace;
+	private static ColorSpace GRAYspace;
+
+	/**
+	 * only {@link #CS_sRGB} and {@link #CS_GRAY} (linear gray) are available.
+	 */
 	public static ColorSpace getInstance(int colorspace) {
-		return null;
+		synchronized (ColorSpace.class) {
+			switch (colorspace) {
+			case CS_sRGB:
+				if (sRGBspace == null) {
+					sRGBspace = new BuiltinColorSpace(TYPE_RGB, 3);
+				}
+				return sRGBspace;
+			case CS_GRAY:
+				if (GRAYspace == null) {
+					GRAYspace = new BuiltinColorSpace(TYPE_GRAY, 1);
+				}
+				return GRAYspace;
+			default:
+				throw new IllegalArgumentException("Unknown color space");
+			}
+		}
+	}
+
+	public boolean isCS_sRGB() {
+		return this == sRGBspace;
 	}
 
 	public abstract float[] toRGB(float[] colorvalue);
@@ -165,4 +190,99 @@ public abstract class ColorSpace implements java.io.Serializable {
 		}
 		return 1.0f;
 	}
+
+	/**
+	 * sRGB and linear gray, converted to CIEXYZ with the D50 white point of the
+	 * ICC profile connection space.
+	 */
+	private static final class BuiltinColorSpace extends ColorSpace {
+		private static final float[][] RGB_TO_XYZ = {
+				{ 0.4360747f, 0.3850649f, 0.1430804f },
+				{ 0.2225045f, 0.7168786f, 0.0606169f },
+				{ 0.0139322f, 0.0971045f, 0.7141733f } };
+		private static final float[][] XYZ_TO_RGB = {
+				{ 3.1338561f, -1.6168667f, -0.4906146f },
+				{ -0.9787684f, 1.9161415f, 0.0334540f },
+				{ 0.0719453f, -0.2289914f, 1.4052427f } };
+		private static final float D50_X = 0.9642f;
+		private static final float D50_Z = 0.8249f;
+
+		BuiltinColorSpace(final int type, final int numComponents) {
+			super(type, numComponents);
+		}
+
+		private boolean isGray() {
+			return getType() == TYPE_GRAY;
+		}
+
+		@Override
+		public float[] toRGB(final float[] colorvalue) {
+			if (isGray()) {
+				final float v = encode(clamp(colorvalue[0]));
+				return new float[] { v, v, v };
+			}
+			return new float[] { colorvalue[0], colorvalue[1], colorvalue[2] };
+		}
+
+		@Override
+		public float[] fromRGB(final float[] rgbvalue) {
+			if (isGray()) {
+				return new float[] { clamp(luminance(rgbvalue)) };
+			}
+			return new float[] { rgbvalue[0], rgbvalue[1], rgbvalue[2] };
+		}
+
+		@Override
+		public float[] toCIEXYZ(final float[] colorvalue) {
+			if (isGray()) {
+				final float y = colorvalue[0];
+				return new float[] { D50_X * y, y, D50_Z * y };
+			}
+			final float r = decode(colorvalue[0]);
+			final float g = decode(colorvalue[1]);
+			final float b = decode(colorvalue[2]);
+			final float[] xyz = new float[3];
+			for (int i = 0; i < 3; i++) {
+				xyz[i] = RGB_TO_XYZ[i][0] * r + RGB_TO_XYZ[i][1] * g + RGB_TO_XYZ[i][2] * b;
+			}
+			return xyz;
+		}
+
+		@Override
+		public float[] fromCIEXYZ(final float[] colorvalue) {
+			if (isGray()) {
+				return new float[] { clamp(colorvalue[1]) };
+			}
+			final float[] rgb = new float[3];
+			for (int i = 0; i < 3; i++) {
+				rgb[i] = encode(clamp(XYZ_TO_RGB[i][0] * colorvalue[0] + XYZ_TO_RGB[i][1]
+						* colorvalue[1] + XYZ_TO_RGB[i][2] * colorvalue[2]));
+			}
+			return rgb;
+		}
+
+		private static float luminance(final float[] rgb) {
+			return RGB_TO_XYZ[1][0] * decode(rgb[0]) + RGB_TO_XYZ[1][1] * decode(rgb[1])
+					+ RGB_TO_XYZ[1][2] * decode(rgb[2]);
+		}
+
+		private static float clamp(final float v) {
+			return (v < 0.0f) ? 0.0f : ((v > 1.0f) ? 1.0f : v);
+		}
+
+		/**
+		 * the sRGB transfer function, from linear to encoded.
+		 */
+		static float encode(final float c) {
+			return (c <= 0.0031308f) ? c * 12.92f
+					: (float) (1.055 * Math.pow(c, 1.0 / 2.4) - 0.055);
+		}
+
+		/**
+		 * the inverse of {@link #encode(float)}.
+		 */
+		static float decode(final float c) {
+			return (c <= 0.04045f) ? c / 12.92f : (float) Math.pow((c + 0.055) / 1.055, 2.4);
+		}
+	}
 }
\ No newline at end of file
@@ -271,13 +271,96 @@ public class AffineTransform implements Cloneable, java.io.Serializable {
 	}
 
 	private void calculateType() {
+		int ret = TYPE_IDENTITY;
+		if (m02 != 0.0 || m12 != 0.0) {
+			ret |= TYPE_TRANSLATION;
+		}
+		boolean sgn0, sgn1;
+		if (m01 == 0.0 && m10 == 0.0) {
+			sgn0 = (m00 >= 0.0);
+			sgn1 = (m11 >= 0.0);
+			if (sgn0 == sgn1) {
+				if (sgn0) {
+					if (m00 != m11) {
+						ret |= TYPE_GENERAL_SCALE;
+					} else if (m00 != 1.0) {
+						ret |= TYPE_UNIFORM_SCALE;
+					}
+				} else {
+					ret |= TYPE_QUADRANT_ROTATION;
+					if (m00 != m11) {
+						ret |= TYPE_GENERAL_SCALE;
+					} else if (m00 != -1.0) {
+						ret |= TYPE_UNIFORM_SCALE;
+					}
+				}
+			} else {
+				ret |= TYPE_FLIP;
+				if (m00 != -m11) {
+					ret |= TYPE_GENERAL_SCALE;
+				} else if (m00 != 1.0 && m00 != -1.0) {
+					ret |= TYPE_UNIFORM_SCALE;
+				}
+			}
+		} else if (m00 == 0.0 && m11 == 0.0) {
+			sgn0 = (m01 >= 0.0);
+			sgn1 = (m10 >= 0.0);
+			if (sgn0 != sgn1) {
+				ret |= TYPE_QUADRANT_ROTATION;
+				if (m01 != -m10) {
+					ret |= TYPE_GENERAL_SCALE;
+				} else if (m01 != 1.0 && m01 != -1.0) {
+					ret |= TYPE_UNIFORM_SCALE;
+				}
+			} else {
+				ret |= TYPE_QUADRANT_ROTATION | TYPE_FLIP;
+				if (m01 != m10) {
+					ret |= TYPE_GENERAL_SCALE;
+				} else if (m01 != 1.0 && m01 != -1.0) {
+					ret |= TYPE_UNIFORM_SCALE;
+				}
+			}
+		} else if (m00 * m01 + m10 * m11 != 0.0) {
+			ret |= TYPE_GENERAL_TRANSFORM;
+		} else {
+			sgn0 = (m00 >= 0.0);
+			sgn1 = (m11 >= 0.0);
+			ret |= TYPE_GENERAL_ROTATION;
+			if (sgn0 == sgn1) {
+				if (m00 != m11 || m01 != -m10) {
+					ret |= TYPE_GENERAL_SCALE;
+				} else if (m00 * m11 - m01 * m10 != 1.0) {
+					ret |= TYPE_UNIFORM_SCALE;
+				}
+			} else {
+				ret |= TYPE_FLIP;
+				if (m00 != -m11 || m01 != m10) {
+					ret |= TYPE_GENERAL_SCALE;
+				} else if (m00 * m11 - m01 * m10 != -1.0) {
+					ret |= TYPE_UNIFORM_SCALE;
+				}
+			}
+		}
+		type = ret;
 	}
 
 	public double getDeterminant() {
-		return 1.0;
+		return m00 * m11 - m01 * m10;
 	}
 
 	void updateState() {
+		int s = APPLY_IDENTITY;
+		if (m01 != 0.0 || m10 != 0.0) {
+			s |= APPLY_SHEAR;
+		}
+		if (m00 != 1.0 || m11 != 1.0) {
+			s |= APPLY_SCALE;
+		}
+		if (m02 != 0.0 || m12 != 0.0) {
+			s |= APPLY_TRANSLATE;
+		}
+		state = s;
+		type = TYPE_UNKNOWN;
 	}
 
 	private void stateError() {
@@ -320,131 +403,306 @@ public class AffineTransform implements Cloneable, java.io.Serializable {
 	}
 
 	public void translate(double tx, double ty) {
-	}
-
-	private final void rotate90() {
-	}
-
-	private final void rotate180() {
-	}
-
-	private final void rotate270() {
+		m02 = tx * m00 + ty * m01 + m02;
+		m12 = tx * m10 + ty * m11 + m12;
+		updateState();
 	}
 
 	public void rotate(double theta) {
+		concatenate(getRotateInstance(theta));
 	}
 
 	public void rotate(double theta, double anchorx, double anchory) {
+		concatenate(getRotateInstance(theta, anchorx, anchory));
 	}
 
 	public void rotate(double vecx, double vecy) {
+		concatenate(getRotateInstance(vecx, vecy));
 	}
 
 	public void rotate(double vecx, double vecy, double anchorx, double anchory) {
+		concatenate(getRotateInstance(vecx, vecy, anchorx, anchory));
 	}
 
 	public void quadrantRotate(int numquadrants) {
+		concatenate(getQuadrantRotateInstance(numquadrants));
 	}
 
 	public void quadrantRotate(int numquadrants, double anchorx, double anchory) {
+		concatenate(getQuadrantRotateInstance(numquadrants, anchorx, anchory));
 	}
 
 	public void scale(double sx, double sy) {
+		m00 *= sx;
+		m10 *= sx;
+		m01 *= sy;
+		m11 *= sy;
+		updateState();
 	}
 
 	public void shear(double shx, double shy) {
+		concatenate(getShearInstance(shx, shy));
 	}
 
 	public void setToIdentity() {
+		setTransform(1.0, 0.0, 0.0, 1.0, 0.0, 0.0);
 	}
 
 	public void setToTranslation(double tx, double ty) {
+		setTransform(1.0, 0.0, 0.0, 1.0, tx, ty);
 	}
 
 	public void setToRotation(double theta) {
+		double sin = Math.sin(theta);
+		double cos = Math.cos(theta);
+		// exact values for the quadrants, as the rounding of sin and cos
+		// would not classify them as quadrant rotations.
+		if (sin == 1.0 || sin == -1.0) {
+			cos = 0.0;
+		} else if (cos == 1.0 || cos == -1.0) {
+			sin = 0.0;
+		}
+		setRotation(sin, cos, 0.0, 0.0);
 	}
 
 	public void setToRotation(double theta, double anchorx, double anchory) {
+		setToRotation(theta);
+		setRotation(m10, m00, anchorx, anchory);
 	}
 
 	public void setToRotation(double vecx, double vecy) {
+		double sin, cos;
+		if (vecy == 0.0) {
+			sin = 0.0;
+			cos = (vecx < 0.0) ? -1.0 : 1.0;
+		} else if (vecx == 0.0) {
+			cos = 0.0;
+			sin = (vecy > 0.0) ? 1.0 : -1.0;
+		} else {
+			final double len = Math.sqrt(vecx * vecx + vecy * vecy);
+			cos = vecx / len;
+			sin = vecy / len;
+		}
+		setRotation(sin, cos, 0.0, 0.0);
 	}
 
 	public void setToRotation(double vecx, double vecy, double anchorx, double anchory) {
+		setToRotation(vecx, vecy);
+		setRotation(m10, m00, anchorx, anchory);
 	}
 
 	public void setToQuadrantRotation(int numquadrants) {
+		setToQuadrantRotation(numquadrants, 0.0, 0.0);
 	}
 
 	public void setToQuadrantRotation(int numquadrants, double anchorx, double anchory) {
+		switch (numquadrants & 3) {
+		case 0:
+			setRotation(0.0, 1.0, anchorx, anchory);
+			break;
+		case 1:
+			setRotation(1.0, 0.0, anchorx, anchory);
+			break;
+		case 2:
+			setRotation(0.0, -1.0, anchorx, anchory);
+			break;
+		default:
+			setRotation(-1.0, 0.0, anchorx, anchory);
+			break;
+		}
+	}
+
+	/**
+	 * sets a rotation of the given sine and cosine about the anchor.
+	 */
+	private void setRotation(final double sin, final double cos, final double anchorx,
+			final double anchory) {
+		setTransform(cos, sin, -sin, cos, anchorx * (1.0 - cos) + anchory * sin,
+				anchory * (1.0 - cos) - anchorx * sin);
 	}
 
 	public void setToScale(double sx, double sy) {
+		setTransform(sx, 0.0, 0.0, sy, 0.0, 0.0);
 	}
 
 	public void setToShear(double shx, double shy) {
+		setTransform(1.0, shy, shx, 1.0, 0.0, 0.0);
 	}
 
 	public void setTransform(AffineTransform Tx) {
+		setTransform(Tx.m00, Tx.m10, Tx.m01, Tx.m11, Tx.m02, Tx.m12);
 	}
 
 	public void setTransform(double m00, double m10, double m01, double m11, double m02,
 			double m12) {
+		this.m00 = m00;
+		this.m10 = m10;
+		this.m01 = m01;
+		this.m11 = m11;
+		this.m02 = m02;
+		this.m12 = m12;
+		updateState();
 	}
 
 	public void concatenate(AffineTransform Tx) {
+		setTransform(m00 * Tx.m00 + m01 * Tx.m10, m10 * Tx.m00 + m11 * Tx.m10,
+				m00 * Tx.m01 + m01 * Tx.m11, m10 * Tx.m01 + m11 * Tx.m11,
+				m00 * Tx.m02 + m01 * Tx.m12 + m02, m10 * Tx.m02 + m11 * Tx.m12 + m12);
 	}
 
 	public void preConcatenate(AffineTransform Tx) {
+		setTransform(Tx.m00 * m00 + Tx.m01 * m10, Tx.m10 * m00 + Tx.m11 * m10,
+				Tx.m00 * m01 + Tx.m01 * m11, Tx.m10 * m01 + Tx.m11 * m11,
+				Tx.m00 * m02 + Tx.m01 * m12 + Tx.m02, Tx.m10 * m02 + Tx.m11 * m12 + Tx.m12);
 	}
 
 	public AffineTransform createInverse() throws NoninvertibleTransformException {
-		return null;
+		final double det = checkDeterminant();
+		return new AffineTransform(m11 / det, -m10 / det, -m01 / det, m00 / det,
+				(m01 * m12 - m11 * m02) / det, (m10 * m02 - m00 * m12) / det);
 	}
 
 	public void invert() throws NoninvertibleTransformException {
+		setTransform(createInverse());
+	}
+
+	private double checkDeterminant() throws NoninvertibleTransformException {
+		final double det = getDeterminant();
+		if (Math.abs(det) <= Double.MIN_VALUE) {
+			throw new NoninvertibleTransformException("Determinant is " + det);
+		}
+		return det;
 	}
 
 	public Point2D transform(Point2D ptSrc, Point2D ptDst) {
-		return null;
+		if (ptDst == null) {
+			if (ptSrc instanceof Point2D.Double) {
+				ptDst = new Point2D.Double();
+			} else {
+				ptDst = new Point2D.Float();
+			}
+		}
+		final double x = ptSrc.getX();
+		final double y = ptSrc.getY();
+		ptDst.setLocation(x * m00 + y * m01 + m02, x * m10 + y * m11 + m12);
+		return ptDst;
 	}
 
 	public void transform(Point2D[] ptSrc, int srcOff, Point2D[] ptDst, int dstOff, int numPts) {
+		while (--numPts >= 0) {
+			final Point2D src = ptSrc[srcOff++];
+			Point2D dst = ptDst[dstOff];
+			if (dst == null) {
+				dst = (src instanceof Point2D.Double) ? new Point2D.Double()
+						: new Point2D.Float();
+				ptDst[dstOff] = dst;
+			}
+			transform(src, dst);
+			dstOff++;
+		}
 	}
 
 	public void transform(float[] srcPts, int srcOff, float[] dstPts, int dstOff, int numPts) {
-		return;
+		if (dstPts == srcPts && dstOff > srcOff && dstOff < srcOff + numPts * 2) {
+			System.arraycopy(srcPts, srcOff, dstPts, dstOff, numPts * 2);
+			srcOff = dstOff;
+		}
+		while (--numPts >= 0) {
+			final double x = srcPts[srcOff++];
+			final double y = srcPts[srcOff++];
+			dstPts[dstOff++] = (float) (x * m00 + y * m01 + m02);
+			dstPts[dstOff++] = (float) (x * m10 + y * m11 + m12);
+		}
 	}
 
 	public void transform(double[] srcPts, int srcOff, double[] dstPts, int dstOff, int numPts) {
-		return;
+		if (dstPts == srcPts && dstOff > srcOff && dstOff < srcOff + numPts * 2) {
+			System.arraycopy(srcPts, srcOff, dstPts, dstOff, numPts * 2);
+			srcOff = dstOff;
+		}
+		while (--numPts >= 0) {
+			final double x = srcPts[srcOff++];
+			final double y = srcPts[srcOff++];
+			dstPts[dstOff++] = x * m00 + y * m01 + m02;
+			dstPts[dstOff++] = x * m10 + y * m11 + m12;
+		}
 	}
 
 	public void transform(float[] srcPts, int srcOff, double[] dstPts, int dstOff, int numPts) {
-		return;
+		while (--numPts >= 0) {
+			final double x = srcPts[srcOff++];
+			final double y = srcPts[srcOff++];
+			dstPts[dstOff++] = x * m00 + y * m01 + m02;
+			dstPts[dstOff++] = x * m10 + y * m11 + m12;
+		}
 	}
 
 	public void transform(double[] srcPts, int srcOff, float[] dstPts, int dstOff, int numPts) {
-		return;
+		while (--numPts >= 0) {
+			final double x = srcPts[srcOff++];
+			final double y = srcPts[srcOff++];
+			dstPts[dstOff++] = (float) (x * m00 + y * m01 + m02);
+			dstPts[dstOff++] = (float) (x * m10 + y * m11 + m12);
+		}
 	}
 
 	public Point2D inverseTransform(Point2D ptSrc, Point2D ptDst)
 			throws NoninvertibleTransformException {
-		return null;
+		final double det = checkDeterminant();
+		if (ptDst == null) {
+			if (ptSrc instanceof Point2D.Double) {
+				ptDst = new Point2D.Double();
+			} else {
+				ptDst = new Point2D.Float();
+			}
+		}
+		final double x = ptSrc.getX() - m02;
+		final double y = ptSrc.getY() - m12;
+		ptDst.setLocation((x * m11 - y * m01) / det, (y * m00 - x * m10) / det);
+		return ptDst;
 	}
 
 	public void inverseTransform(double[] srcPts, int srcOff, double[] dstPts, int dstOff,
 			int numPts) throws NoninvertibleTransformException {
-		return;
+		final double det = checkDeterminant();
+		if (dstPts == srcPts && dstOff > srcOff && dstOff < srcOff + numPts * 2) {
+			System.arraycopy(srcPts, srcOff, dstPts, dstOff, numPts * 2);
+			srcOff = dstOff;
+		}
+		while (--numPts >= 0) {
+			final double x = srcPts[srcOff++] - m02;
+			final double y = srcPts[srcOff++] - m12;
+			dstPts[dstOff++] = (x * m11 - y * m01) / det;
+			dstPts[dstOff++] = (y * m00 - x * m10) / det;
+		}
 	}
 
 	public Point2D deltaTransform(Point2D ptSrc, Point2D ptDst) {
-		return null;
+		if (ptDst == null) {
+			if (ptSrc instanceof Point2D.Double) {
+				ptDst = new Point2D.Double();
+			} else {
+				ptDst = new Point2D.Float();
+			}
+		}
+		final double x = ptSrc.getX();
+		final double y = ptSrc.getY();
+		ptDst.setLocation(x * m00 + y * m01, x * m10 + y * m11);
+		return ptDst;
 	}
 
 	public void deltaTransform(double[] srcPts, int srcOff, double[] dstPts, int dstOff,
 			int numPts) {
-		return;
+		if (dstPts == srcPts && dstOff > srcOff && dstOff < srcOff + numPts * 2) {
+			System.arraycopy(srcPts, srcOff, dstPts, dstOff, numPts * 2);
+			srcOff = dstOff;
+		}
+		while (--numPts >= 0) {
+			final double x = srcPts[srcOff++];
+			final double y = srcPts[srcOff++];
+			dstPts[dstOff++] = x * m00 + y * m01;
+			dstPts[dstOff++] = x * m10 + y * m11;
+		}
 	}
 
 	public Shape createTransformedShape(Shape pSrc) {
@@ -0,0 +1,330 @@
+/*
+ * Copyright (c) 1999, 2007, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package java.awt.image;
+
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.NoninvertibleTransformException;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+
+/**
+ * This class uses an affine transform to perform a linear mapping from 2D
+ * coordinates in the source image to 2D coordinates in the destination image.
+ * The type of interpolation that is used is specified through a constructor,
+ * either by a <code>RenderingHints</code> object or by one of the integer
+ * interpolation types defined in this class.
+ * <p>
+ * Each destination pixel is mapped back to the source by the inverse
+ * transform, stepped incrementally along the row; the rows are processed in
+ * tiles on all the processors. The destination pixels which map outside of
+ * the source are left unchanged. A source with alpha is interpolated
+ * premultiplied.
+ */
+public class AffineTransformOp implements BufferedImageOp {
+	private AffineTransform xform;
+	RenderingHints hints;
+
+	public static final int TYPE_NEAREST_NEIGHBOR = 1;
+
+	public static final int TYPE_BILINEAR = 2;
+
+	public static final int TYPE_BICUBIC = 3;
+
+	int interpolationType = TYPE_NEAREST_NEIGHBOR;
+
+	public AffineTransformOp(AffineTransform xform, RenderingHints hints) {
+		validateTransform(xform);
+		this.xform = (AffineTransform) xform.clone();
+		this.hints = hints;
+
+		if (hints != null) {
+			Object value = hints.get(RenderingHints.KEY_INTERPOLATION);
+			if (value == null) {
+				value = hints.get(RenderingHints.KEY_RENDERING);
+				if (value == RenderingHints.VALUE_RENDER_SPEED) {
+					interpolationType = TYPE_NEAREST_NEIGHBOR;
+				} else if (value == RenderingHints.VALUE_RENDER_QUALITY) {
+					interpolationType = TYPE_BILINEAR;
+				}
+			} else if (value == RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR) {
+				interpolationType = TYPE_NEAREST_NEIGHBOR;
+			} else if (value == RenderingHints.VALUE_INTERPOLATION_BILINEAR) {
+				interpolationType = TYPE_BILINEAR;
+			} else if (value == RenderingHints.VALUE_INTERPOLATION_BICUBIC) {
+				interpolationType = TYPE_BICUBIC;
+			}
+		}
+	}
+
+	public AffineTransformOp(AffineTransform xform, int interpolationType) {
+		validateTransform(xform);
+		this.xform = (AffineTransform) xform.clone();
+		switch (interpolationType) {
+		case TYPE_NEAREST_NEIGHBOR:
+		case TYPE_BILINEAR:
+		case TYPE_BICUBIC:
+			break;
+		default:
+			throw new IllegalArgumentException("Unknown interpolation type: "
+					+ interpolationType);
+		}
+		this.interpolationType = interpolationType;
+	}
+
+	public final int getInterpolationType() {
+		return interpolationType;
+	}
+
+	public final AffineTransform getTransform() {
+		return (AffineTransform) xform.clone();
+	}
+
+	void validateTransform(AffineTransform xform) {
+		if (Math.abs(xform.getDeterminant()) <= Double.MIN_VALUE) {
+			throw new ImagingOpException("Unable to invert transform " + xform);
+		}
+	}
+
+	public final BufferedImage filter(BufferedImage src, BufferedImage dst) {
+		if (src == null) {
+			throw new NullPointerException("src image is null");
+		}
+		if (src == dst) {
+			throw new IllegalArgumentException("src image cannot be the " + "same as the dst image");
+		}
+		if (dst == null) {
+			dst = createCompatibleDestImage(src, null);
+		}
+
+		final AffineTransform inverse;
+		try {
+			inverse = xform.createInverse();
+		} catch (NoninvertibleTransformException e) {
+			throw new ImagingOpException("Unable to invert transform " + xform);
+		}
+
+		final int sw = src.getWidth();
+		final int sh = src.getHeight();
+		final int dw = dst.getWidth();
+		final int dh = dst.getHeight();
+		final int[] srcPixels = src.getPixelsForOp();
+		final int[] dstPixels = dst.getPixelsForOp();
+		final boolean isOpaque = ImageOpTiles.isOpaque(src, srcPixels);
+		final int[] in = (isOpaque || interpolationType == TYPE_NEAREST_NEIGHBOR) ? srcPixels
+				: ImageOpTiles.premultiply(srcPixels, sw, sh);
+
+		final double[] m = new double[6];
+		inverse.getMatrix(m);
+
+		ImageOpTiles.forEachTile(dw, dh, new ImageOpTiles.RowTask() {
+			@Override
+			public void run(final int minY, final int maxY) {
+				for (int y = minY; y < maxY; y++) {
+					// the source position of the center of the first pixel of
+					// the row, then one step per pixel.
+					double sx = m[0] * 0.5 + m[2] * (y + 0.5) + m[4];
+					double sy = m[1] * 0.5 + m[3] * (y + 0.5) + m[5];
+					for (int x = 0, di = y * dw; x < dw; x++, di++, sx += m[0], sy += m[1]) {
+						if (sx < 0 || sy < 0 || sx >= sw || sy >= sh) {
+							continue;
+						}
+						final int p;
+						switch (interpolationType) {
+						case TYPE_BILINEAR:
+							p = bilinear(in, sw, sh, sx - 0.5, sy - 0.5, isOpaque);
+							break;
+						case TYPE_BICUBIC:
+							p = bicubic(in, sw, sh, sx - 0.5, sy - 0.5, isOpaque);
+							break;
+						default:
+							p = in[(int) sy * sw + (int) sx];
+							break;
+						}
+						dstPixels[di] = isOpaque ? (p | 0xFF000000) : p;
+					}
+				}
+			}
+		});
+
+		dst.pixelsChangedByOp();
+		return dst;
+	}
+
+	private static int bilinear(final int[] in, final int sw, final int sh, final double fx,
+			final double fy, final boolean isOpaque) {
+		final int x0 = (int) Math.floor(fx);
+		final int y0 = (int) Math.floor(fy);
+		final float wx = (float) (fx - x0);
+		final float wy = (float) (fy - y0);
+		final int xa = clampIndex(x0, sw);
+		final int xb = clampIndex(x0 + 1, sw);
+		final int ya = clampIndex(y0, sh) * sw;
+		final int yb = clampIndex(y0 + 1, sh) * sw;
+
+		final int p00 = in[ya + xa];
+		final int p10 = in[ya + xb];
+		final int p01 = in[yb + xa];
+		final int p11 = in[yb + xb];
+		final float w00 = (1 - wx) * (1 - wy);
+		final float w10 = wx * (1 - wy);
+		final float w01 = (1 - wx) * wy;
+		final float w11 = wx * wy;
+
+		final float a = w00 * (p00 >>> 24) + w10 * (p10 >>> 24) + w01 * (p01 >>> 24) + w11
+				* (p11 >>> 24);
+		final float r = w00 * ((p00 >> 16) & 0xFF) + w10 * ((p10 >> 16) & 0xFF) + w01
+				* ((p01 >> 16) & 0xFF) + w11 * ((p11 >> 16) & 0xFF);
+		final float g = w00 * ((p00 >> 8) & 0xFF) + w10 * ((p10 >> 8) & 0xFF) + w01
+				* ((p01 >> 8) & 0xFF) + w11 * ((p11 >> 8) & 0xFF);
+		final float b = w00 * (p00 & 0xFF) + w10 * (p10 & 0xFF) + w01 * (p01 & 0xFF) + w11
+				* (p11 & 0xFF);
+		return isOpaque ? ImageOpTiles.pack(255, r, g, b) : ImageOpTiles.unpremultiply(a, r, g,
+				b);
+	}
+
+	private static int bicubic(final int[] in, final int sw, final int sh, final double fx,
+			final double fy, final boolean isOpaque) {
+		final int x0 = (int) Math.floor(fx);
+		final int y0 = (int) Math.floor(fy);
+		final float[] wx = cubicWeights((float) (fx - x0));
+		final float[] wy = cubicWeights((float) (fy - y0));
+
+		float a = 0, r = 0, g = 0, b = 0;
+		for (int j = 0; j < 4; j++) {
+			final int row = clampIndex(y0 - 1 + j, sh) * sw;
+			for (int i = 0; i < 4; i++) {
+				final float f = wx[i] * wy[j];
+				final int p = in[row + clampIndex(x0 - 1 + i, sw)];
+				a += f * (p >>> 24);
+				r += f * ((p >> 16) & 0xFF);
+				g += f * ((p >> 8) & 0xFF);
+				b += f * (p & 0xFF);
+			}
+		}
+		if (isOpaque) {
+			return ImageOpTiles.pack(255, r, g, b);
+		}
+		// the overshoot of the cubic must not leave a color above its alpha.
+		final int ia = ImageOpTiles.clamp(a);
+		return ImageOpTiles.unpremultiply(ia, Math.min(r, ia), Math.min(g, ia), Math.min(b, ia));
+	}
+
+	/**
+	 * the cubic convolution weights (a = -0.5) of the four samples around a
+	 * position at <code>t</code> from the second one.
+	 */
+	private static float[] cubicWeights(final float t) {
+		final float t2 = t * t;
+		final float t3 = t2 * t;
+		return new float[] { -0.5f * t3 + t2 - 0.5f * t, 1.5f * t3 - 2.5f * t2 + 1,
+				-1.5f * t3 + 2 * t2 + 0.5f * t, 0.5f * t3 - 0.5f * t2 };
+	}
+
+	private static int clampIndex(final int i, final int size) {
+		return (i < 0) ? 0 : ((i >= size) ? size - 1 : i);
+	}
+
+	/**
+	 * the bounding box of the transformed corners of <code>src</code>.
+	 */
+	public final Rectangle2D getBounds2D(BufferedImage src) {
+		final int w = src.getWidth();
+		final int h = src.getHeight();
+		final float[] pts = { 0, 0, w, 0, w, h, 0, h };
+		xform.transform(pts, 0, pts, 0, 4);
+
+		float fmaxX = pts[0];
+		float fmaxY = pts[1];
+		float fminX = pts[0];
+		float fminY = pts[1];
+		for (int i = 2; i < 8; i += 2) {
+			if (pts[i] > fmaxX) {
+				fmaxX = pts[i];
+			} else if (pts[i] < fminX) {
+				fminX = pts[i];
+			}
+			if (pts[i + 1] > fmaxY) {
+				fmaxY = pts[i + 1];
+			} else if (pts[i + 1] < fminY) {
+				fminY = pts[i + 1];
+			}
+		}
+
+		return new Rectangle2D.Float(fminX, fminY, fmaxX - fminX, fmaxY - fminY);
+	}
+
+	/**
+	 * a destination covering the transformed source from the origin, ARGB if
+	 * the transform rotates or shears, so that the uncovered corners are
+	 * transparent.
+	 */
+	public BufferedImage createCompatibleDestImage(BufferedImage src, ColorModel destCM) {
+		final Rectangle2D r = getBounds2D(src);
+
+		final int w = (int) r.getX() + (int) r.getWidth();
+		final int h = (int) r.getY() + (int) r.getHeight();
+		if (w <= 0) {
+			throw new RasterFormatException("Transformed width (" + w
+					+ ") is less than or equal to 0.");
+		}
+		if (h <= 0) {
+			throw new RasterFormatException("Transformed height (" + h
+					+ ") is less than or equal to 0.");
+		}
+
+		if (destCM == null && src.getType() == BufferedImage.TYPE_INT_RGB
+				&& (xform.getShearX() != 0 || xform.getShearY() != 0)) {
+			return new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+		}
+		return ImageOpTiles.createCompatibleDestImage(src, w, h, destCM);
+	}
+
+	public final Point2D getPoint2D(Point2D srcPt, Point2D dstPt) {
+		return xform.transform(srcPt, dstPt);
+	}
+
+	public final RenderingHints getRenderingHints() {
+		if (hints == null) {
+			Object val;
+			switch (interpolationType) {
+			case TYPE_NEAREST_NEIGHBOR:
+				val = RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR;
+				break;
+			case TYPE_BILINEAR:
+				val = RenderingHints.VALUE_INTERPOLATION_BILINEAR;
+				break;
+			case TYPE_BICUBIC:
+				val = RenderingHints.VALUE_INTERPOLATION_BICUBIC;
+				break;
+			default:
+				throw new InternalError("Unknown interpolation type " + interpolationType);
+			}
+			hints = new RenderingHints(RenderingHints.KEY_INTERPOLATION, val);
+		}
+
+		return hints;
+	}
+}
@@ -185,30 +185,20 @@ public final class BandedSampleModel extends ComponentSampleModel {
 	public DataBuffer createDataBuffer() {
 		DataBuffer dataBuffer = null;
 
-		// int size = scanlineStride * height;
-		// switch (dataType) {
-		// case DataBuffer.TYPE_BYTE:
-		// dataBuffer = new DataBufferByte(size, numBanks);
-		// break;
-		// case DataBuffer.TYPE_USHORT:
-		// dataBuffer = new DataBufferUShort(size, numBanks);
-		// break;
-		// case DataBuffer.TYPE_SHORT:
-		// dataBuffer = new DataBufferShort(size, numBanks);
-		// break;
-		// case DataBuffer.TYPE_INT:
-		// dataBuffer = new DataBufferInt(size, numBanks);
-		// break;
-		// case DataBuffer.TYPE_FLOAT:
-		// dataBuffer = new DataBufferFloat(size, numBanks);
-		// break;
-		// case DataBuffer.TYPE_DOUBLE:
-		// dataBuffer = new DataBufferDouble(size, numBanks);
-		// break;
-		// default:
-		// throw new IllegalArgumentException("dataType is not one " +
-		// "of the supported types.");
-		// }
+		int size = scanlineStride * height;
+		switch (dataType) {
+		case DataBuffer.TYPE_BYTE:
+			dataBuffer = new DataBufferByte(size, numBanks);
+			break;
+		case DataBuffer.TYPE_USHORT:
+			dataBuffer = new DataBufferUShort(size, numBanks);
+			break;
+		case DataBuffer.TYPE_INT:
+			dataBuffer = new DataBufferInt(size, numBanks);
+			break;
+		default:
+			throw new IllegalArgumentException("dataType is not one of the supported types.");
+		}
 
 		return dataBuffer;
 	}
@@ -429,18 +419,7 @@ public final class BandedSampleModel extends ComponentSampleModel {
 		}
 
 		for (int k = 0; k < numBands; k++) {
-			int lineOffset = y * scanlineStride + x + bandOffsets[k];
-			int srcOffset = k;
-			int bank = bankIndices[k];
-
-			for (int i = 0; i < h; i++) {
-				int pixelOffset = lineOffset;
-				for (int j = 0; j < w; j++) {
-					pixels[srcOffset] = data.getElem(bank, pixelOffset++);
-					srcOffset += numBands;
-				}
-				lineOffset += scanlineStride;
-			}
+			readBand(x, y, w, h, k, pixels, k, numBands, data);
 		}
 		return pixels;
 	}
@@ -558,17 +537,7 @@ public final class BandedSampleModel extends ComponentSampleModel {
 			samples = new int[w * h];
 		}
 
-		int lineOffset = y * scanlineStride + x + bandOffsets[b];
-		int srcOffset = 0;
-		int bank = bankIndices[b];
-
-		for (int i = 0; i < h; i++) {
-			int sampleOffset = lineOffset;
-			for (int j = 0; j < w; j++) {
-				samples[srcOffset++] = data.getElem(bank, sampleOffset++);
-			}
-			lineOffset += scanlineStride;
-		}
+		readBand(x, y, w, h, b, samples, 0, 1, data);
 		return samples;
 	}
 
@@ -724,18 +693,7 @@ public final class BandedSampleModel extends ComponentSampleModel {
 		}
 
 		for (int k = 0; k < numBands; k++) {
-			int lineOffset = y * scanlineStride + x + bandOffsets[k];
-			int srcOffset = k;
-			int bank = bankIndices[k];
-
-			for (int i = 0; i < h; i++) {
-				int pixelOffset = lineOffset;
-				for (int j = 0; j < w; j++) {
-					data.setElem(bank, pixelOffset++, iArray[srcOffset]);
-					srcOffset += numBands;
-				}
-				lineOffset += scanlineStride;
-			}
+			writeBand(x, y, w, h, k, iArray, k, numBands, data);
 		}
 	}
 
@@ -841,17 +799,7 @@ public final class BandedSampleModel extends ComponentSampleModel {
 		if ((x < 0) || (y < 0) || (x + w > width) || (y + h > height)) {
 			throw new ArrayIndexOutOfBoundsException("Coordinate out of bounds!");
 		}
-		int lineOffset = y * scanlineStride + x + bandOffsets[b];
-		int srcOffset = 0;
-		int bank = bankIndices[b];
-
-		for (int i = 0; i < h; i++) {
-			int sampleOffset = lineOffset;
-			for (int j = 0; j < w; j++) {
-				data.setElem(bank, sampleOffset++, iArray[srcOffset++]);
-			}
-			lineOffset += scanlineStride;
-		}
+		writeBand(x, y, w, h, b, iArray, 0, 1, data);
 	}
 
 	private static int[] createOffsetArray(int numBands) {
@@ -32,7 +32,12 @@ import java.awt.Graphics2D;
 import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.Transparency;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Hashtable;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Vector;
 import android.graphics.Bitmap;
 import android.graphics.Canvas;
@@ -105,24 +110,97 @@ public class BufferedImage extends java.awt.Image implements WritableRenderedIma
 
 	public BufferedImage(Drawable drawable) {
 		this.bitmapDrawableAdapter = drawable;
+		this.width = drawable.getIntrinsicWidth();
+		this.height = drawable.getIntrinsicHeight();
 	}
 
 	public BufferedImage(Bitmap bitmap) {
 		this.bitmap = bitmap;
+		this.width = bitmap.getWidth();
+		this.height = bitmap.getHeight();
 	}
 
-	WritableRaster raster;
+	private int width;
+	private int height;
+
+	/**
+	 * ARGB copy of the pixels, allocated by the pixel accesses which need the
+	 * whole image only. While <code>isPixelsSynced</code> is true it is
+	 * authoritative, rows [dirtyMinY, dirtyMaxY] are newer than the bitmap and
+	 * are copied to it in bulk before it is used. Drawing makes the bitmap
+	 * authoritative again and drops the copy, unless {@link #raster} shares
+	 * it.
+	 */
+	private int[] pixels;
+	private boolean isPixelsSynced;
+	private int dirtyMinY = Integer.MAX_VALUE;
+	private int dirtyMaxY = -1;
+
+	/**
+	 * one row of the bitmap, serves per-pixel getRGB while the pixels copy is
+	 * not in use.
+	 */
+	private int[] rowCache;
+	private int rowCacheY = -1;
+
+	/**
+	 * raster over <code>pixels</code>, created by {@link #getRaster()}. Its
+	 * writes, and those of its children, mark their rows dirty. Writes to the
+	 * array of its data buffer, or to a raster passed to the constructor, can
+	 * not be tracked, every flush copies all rows then. After drawing with
+	 * {@link #getGraphics()}, call {@link #getRaster()} again to refresh its
+	 * samples.
+	 */
+	private WritableRaster raster;
+
+	/**
+	 * the data buffer of a raster created by {@link #getRaster()}, null for a
+	 * raster passed to the constructor.
+	 */
+	private DataBufferInt rasterBuffer;
+
+	/**
+	 * size of the tiles, the whole image unless set by
+	 * {@link #setTileSizeAdAPI(int, int)}.
+	 */
+	private int tileWidth;
+	private int tileHeight;
+
+	/**
+	 * tiles read from the bitmap while there is no pixels copy, so that a
+	 * large image is accessed tile by tile instead of copied whole. By tile
+	 * index in access order, the least recently used are dropped beyond
+	 * <code>maxTileCacheBytes</code>. Once the pixels copy is made, tiles are
+	 * children of {@link #getRaster()} instead, sharing its buffer; tiles read
+	 * from the bitmap and still being written are written back to it first,
+	 * later writes to them are lost.
+	 */
+	private LinkedHashMap<Integer, WritableRaster> tileCache;
+	private long tileCacheBytes;
+	private long maxTileCacheBytes = 8 * 1024 * 1024;
+
+	/**
+	 * tiles read from the bitmap and checked out by
+	 * {@link #getWritableTile(int, int)}, written back to the bitmap by the
+	 * last {@link #releaseWritableTile(int, int)}.
+	 */
+	private HashMap<Integer, WritableRaster> writableTiles;
+	private HashMap<Integer, Integer> tileWriters;
+	private ArrayList<TileObserver> tileObservers;
 
 	public BufferedImage(int width, int height, int imageType) {
+		if (width <= 0 || height <= 0) {
+			throw new IllegalArgumentException(
+					"Width (" + width + ") and height (" + height + ") cannot be <= 0");
+		}
+
 		switch (imageType) {
 		case TYPE_INT_ARGB: {
 			colorModel = ColorModel.getRGBdefault();
-			raster = colorModel.createCompatibleWritableRaster(width, height);
 			break;
 		}
 		case TYPE_INT_RGB: {
-			colorModel = ColorModel.getRGBdefault();
-			raster = colorModel.createCompatibleWritableRaster(width, height);
+			colorModel = new DirectColorModel(24, DCM_RED_MASK, DCM_GREEN_MASK, DCM_BLUE_MASK);
 			break;
 		}
 		default:
@@ -130,13 +208,194 @@ public class BufferedImage extends java.awt.Image implements WritableRenderedIma
 		}
 
 		this.imageType = imageType;
-		bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+		this.width = width;
+		this.height = height;
+		// bitmap and pixels are both allocated lazily, only the one in use is
+		// created.
 	}
 
 	public BufferedImage(ColorModel cm, WritableRaster raster, boolean isRasterPremultiplied,
 			Hashtable<?, ?> properties) {
-		this.bitmap = null;
+		if ((raster.minX != 0) || (raster.minY != 0)) {
+			throw new IllegalArgumentException("Raster " + raster
+					+ " has minX or minY not equal to zero: " + raster.minX + " " + raster.minY);
+		}
+
+		this.colorModel = cm;
+		this.width = raster.getWidth();
+		this.height = raster.getHeight();
+
+		final SampleModel sm = raster.getSampleModel();
+		final DataBuffer db = raster.getDataBuffer();
+		if (isRasterPremultiplied == false && sm instanceof SinglePixelPackedSampleModel
+				&& db instanceof DataBufferInt && db.getNumBanks() == 1 && db.getOffset() == 0
+				&& raster.getSampleModelTranslateX() == 0 && raster.getSampleModelTranslateY() == 0
+				&& ((SinglePixelPackedSampleModel) sm).getScanlineStride() == width) {
+			final int[] masks = ((SinglePixelPackedSampleModel) sm).getBitMasks();
+			if (masks.length == 3 && masks[0] == DCM_RED_MASK && masks[1] == DCM_GREEN_MASK
+					&& masks[2] == DCM_BLUE_MASK) {
+				imageType = TYPE_INT_RGB;
+			} else if (masks.length == 4 && masks[0] == DCM_RED_MASK && masks[1] == DCM_GREEN_MASK
+					&& masks[2] == DCM_BLUE_MASK && masks[3] == DCM_ALPHA_MASK) {
+				imageType = TYPE_INT_ARGB;
+			} else {
+				imageType = TYPE_CUSTOM;
+			}
+			if (imageType != TYPE_CUSTOM) {
+				// same layout as the pixels copy, share the array instead of
+				// converting it.
+				this.pixels = ((DataBufferInt) db).getData();
+				this.raster = raster;
+				isPixelsSynced = true;
+				markDirtyRows(0, height - 1);
+				return;
+			}
+		}
+
+		// other layouts are converted once to ARGB through the color model, a
+		// row at a time for the layouts of one element per pixel.
+		imageType = TYPE_CUSTOM;
+		pixels = new int[width * height];
+		Object data = null;
+		if (raster.getNumDataElements() == 1) {
+			for (int y = 0; y < height; y++) {
+				data = raster.getDataElements(0, y, width, 1, data);
+				cm.getRGBsAdAPI(data, 0, pixels, y * width, width);
+			}
+		} else {
+			for (int y = 0, i = 0; y < height; y++) {
+				for (int x = 0; x < width; x++) {
+					data = raster.getDataElements(x, y, data);
+					pixels[i++] = cm.getRGB(data);
+				}
+			}
+		}
+		isPixelsSynced = true;
+		markDirtyRows(0, height - 1);
+	}
+
+	/**
+	 * returns the bitmap, creating it on first use. Images built from
+	 * {@link Drawable} are rendered into it.
+	 */
+	private final Bitmap ensureBitmap() {
+		if (bitmap == null) {
+			bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+			if (bitmapDrawableAdapter != null) {
+				bitmapDrawableAdapter.setBounds(0, 0, width, height);
+				bitmapDrawableAdapter.draw(new Canvas(bitmap));
+			}
+		} else if (bitmap.isMutable() == false) {
+			// decoded bitmaps are immutable, Canvas and setPixels require a mutable one.
+			bitmap = bitmap.copy(Bitmap.Config.ARGB_8888, true);
+		}
+		return bitmap;
+	}
+
+	/**
+	 * returns the ARGB pixels, copying them in bulk from the bitmap if it is
+	 * newer.
+	 */
+	private final int[] syncPixels() {
+		if (pixels == null) {
+			releaseBitmapTiles();
+			pixels = new int[width * height];
+		}
+		if (isPixelsSynced == false) {
+			if (bitmap != null || bitmapDrawableAdapter != null) {
+				ensureBitmap().getPixels(pixels, 0, width, 0, 0, width, height);
+			}
+			isPixelsSynced = true;
+		}
+		return pixels;
+	}
+
+	private final void markDirtyRows(final int minY, final int maxY) {
+		if (minY < dirtyMinY) {
+			dirtyMinY = minY;
+		}
+		if (maxY > dirtyMaxY) {
+			dirtyMaxY = maxY;
+		}
+	}
+
+	private final boolean isRasterTracked() {
+		return rasterBuffer != null && rasterBuffer.isDataExposedAdAPI() == false;
+	}
+
+	/**
+	 * rows written through {@link #raster} or one of its children.
+	 */
+	final synchronized void rasterRowsWritten(final int minY, final int maxY) {
+		if (isPixelsSynced) {
+			markDirtyRows(Math.max(minY, 0), Math.min(maxY, height - 1));
+		}
+	}
+
+	/**
+	 * copies the dirty rows of pixels to the bitmap in one bulk call.
+	 */
+	private final void flushDirtyRows() {
+		if (raster != null && isPixelsSynced && isRasterTracked() == false) {
+			markDirtyRows(0, height - 1);
+		}
+		if (dirtyMaxY >= dirtyMinY) {
+			final int rows = dirtyMaxY - dirtyMinY + 1;
+			if (raster != null && imageType == TYPE_INT_RGB) {
+				setOpaque(pixels, dirtyMinY * width, width, width, rows);
+			}
+			ensureBitmap().setPixels(pixels, dirtyMinY * width, width, 0, dirtyMinY, width, rows);
+			dirtyMinY = Integer.MAX_VALUE;
+			dirtyMaxY = -1;
+		}
+	}
+
+	/**
+	 * the bitmap is about to be drawn on, so the pixels become stale. The
+	 * copy is dropped, the next pixel accesses go to the bitmap, unless the
+	 * raster shares it. Only the first draw after a pixel write copies rows.
+	 */
+	final synchronized void bitmapWillChange() {
+		if (isPixelsSynced) {
+			flushDirtyRows();
+			isPixelsSynced = false;
+			if (raster == null) {
+				pixels = null;
+			}
+		}
+		rowCacheY = -1;
+		invalidateTiles();
+	}
+
+	/**
+	 * the ARGB pixels in scan order, for the image ops of this package, which
+	 * call {@link #pixelsChangedByOp()} after writing them.
+	 */
+	final synchronized int[] getPixelsForOp() {
+		return syncPixels();
+	}
+
+	final synchronized void pixelsChangedByOp() {
+		if (imageType == TYPE_INT_RGB) {
+			setOpaque(pixels, 0, width, width, height);
+		}
+		markDirtyRows(0, height - 1);
+	}
+
+	private final int toStoredRGB(final int rgb) {
+		return (imageType == TYPE_INT_RGB) ? (rgb | 0xFF000000) : rgb;
+	}
+
+	private final void checkBounds(final int x, final int y) {
+		if (x < 0 || y < 0 || x >= width || y >= height) {
+			throw new ArrayIndexOutOfBoundsException("Coordinate out of bounds!");
+		}
+	}
 
+	private final void checkRegion(final int x, final int y, final int w, final int h) {
+		if (x < 0 || y < 0 || w < 0 || h < 0 || x + w > width || y + h > height) {
+			throw new ArrayIndexOutOfBoundsException("Coordinate out of bounds!");
+		}
 	}
 
 	public int getType() {
@@ -147,24 +406,186 @@ public class BufferedImage extends java.awt.Image implements WritableRenderedIma
 	// return colorModel;
 	// }
 
-	// public WritableRaster getRaster() {
-	// return raster;
-	// }
+	/**
+	 * returns a raster sharing the ARGB pixels of this image, samples are read
+	 * and written without any copy.
+	 */
+	public synchronized WritableRaster getRaster() {
+		final int[] data = syncPixels();
+		if (raster == null) {
+			rasterBuffer = new DataBufferInt(data, width * height);
+			raster = new TrackedRaster(this, new SinglePixelPackedSampleModel(DataBuffer.TYPE_INT,
+					width, height, getBitMasks()), rasterBuffer, new Rectangle(0, 0, width,
+					height), new Point(0, 0), null);
+		}
+		return raster;
+	}
+
+	/**
+	 * raster over the pixels copy, whose writes mark the rows dirty so that
+	 * only they are copied to the bitmap.
+	 */
+	private static final class TrackedRaster extends WritableRaster {
+		private final BufferedImage image;
+
+		TrackedRaster(final BufferedImage image, final SampleModel sampleModel,
+				final DataBuffer dataBuffer, final Rectangle region,
+				final Point sampleModelTranslate, final WritableRaster parent) {
+			super(sampleModel, dataBuffer, region, sampleModelTranslate, parent);
+			this.image = image;
+		}
+
+		private final void written(final int y, final int h) {
+			final int minY = y - sampleModelTranslateY;
+			image.rasterRowsWritten(minY, minY + h - 1);
+		}
+
+		@Override
+		public WritableRaster createWritableChild(int parentX, int parentY, int w, int h,
+				int childMinX, int childMinY, int bandList[]) {
+			final WritableRaster child = super.createWritableChild(parentX, parentY, w, h,
+					childMinX, childMinY, bandList);
+			return new TrackedRaster(image, child.getSampleModel(), dataBuffer,
+					child.getBounds(), new Point(child.getSampleModelTranslateX(),
+							child.getSampleModelTranslateY()), this);
+		}
+
+		@Override
+		public void setDataElements(int x, int y, Object inData) {
+			super.setDataElements(x, y, inData);
+			written(y, 1);
+		}
+
+		@Override
+		public void setDataElements(int x, int y, int w, int h, Object inData) {
+			super.setDataElements(x, y, w, h, inData);
+			written(y, h);
+		}
+
+		@Override
+		public void setPixel(int x, int y, int iArray[]) {
+			super.setPixel(x, y, iArray);
+			written(y, 1);
+		}
+
+		@Override
+		public void setPixel(int x, int y, float fArray[]) {
+			super.setPixel(x, y, fArray);
+			written(y, 1);
+		}
+
+		@Override
+		public void setPixel(int x, int y, double dArray[]) {
+			super.setPixel(x, y, dArray);
+			written(y, 1);
+		}
+
+		@Override
+		public void setPixels(int x, int y, int w, int h, int iArray[]) {
+			super.setPixels(x, y, w, h, iArray);
+			written(y, h);
+		}
+
+		@Override
+		public void setPixels(int x, int y, int w, int h, float fArray[]) {
+			super.setPixels(x, y, w, h, fArray);
+			written(y, h);
+		}
+
+		@Override
+		public void setPixels(int x, int y, int w, int h, double dArray[]) {
+			super.setPixels(x, y, w, h, dArray);
+			written(y, h);
+		}
+
+		@Override
+		public void setSample(int x, int y, int b, int s) {
+			super.setSample(x, y, b, s);
+			written(y, 1);
+		}
+
+		@Override
+		public void setSample(int x, int y, int b, float s) {
+			super.setSample(x, y, b, s);
+			written(y, 1);
+		}
+
+		@Override
+		public void setSample(int x, int y, int b, double s) {
+			super.setSample(x, y, b, s);
+			written(y, 1);
+		}
+
+		@Override
+		public void setSamples(int x, int y, int w, int h, int b, int iArray[]) {
+			super.setSamples(x, y, w, h, b, iArray);
+			written(y, h);
+		}
+
+		@Override
+		public void setSamples(int x, int y, int w, int h, int b, float fArray[]) {
+			super.setSamples(x, y, w, h, b, fArray);
+			written(y, h);
+		}
+
+		@Override
+		public void setSamples(int x, int y, int w, int h, int b, double dArray[]) {
+			super.setSamples(x, y, w, h, b, dArray);
+			written(y, h);
+		}
+	}
+
+	private final int[] getBitMasks() {
+		if (imageType == TYPE_INT_RGB) {
+			return new int[] { DCM_RED_MASK, DCM_GREEN_MASK, DCM_BLUE_MASK };
+		}
+		return new int[] { DCM_RED_MASK, DCM_GREEN_MASK, DCM_BLUE_MASK, DCM_ALPHA_MASK };
+	}
 
 	// public WritableRaster getAlphaRaster() {
 	// return colorModel.getAlphaRaster(raster);
 	// }
 
-	public int getRGB(int x, int y) {
-		return bitmap.getPixel(x, y);
+	public synchronized int getRGB(int x, int y) {
+		checkBounds(x, y);
+		if (isPixelsSynced) {
+			return toStoredRGB(pixels[y * width + x]);
+		}
+
+		// scan-order loops read a whole row from the bitmap once instead of
+		// one native call per pixel, and no full copy is allocated.
+		if (rowCacheY != y) {
+			if (rowCache == null) {
+				rowCache = new int[width];
+			}
+			ensureBitmap().getPixels(rowCache, 0, width, 0, y, width, 1);
+			rowCacheY = y;
+		}
+		return toStoredRGB(rowCache[x]);
 	}
 
-	public int[] getRGB(int startX, int startY, int w, int h, int[] rgbArray, int offset,
-			int scansize) {
+	public synchronized int[] getRGB(int startX, int startY, int w, int h, int[] rgbArray,
+			int offset, int scansize) {
+		checkRegion(startX, startY, w, h);
 		if (rgbArray == null) {
 			rgbArray = new int[offset + scansize * h];
 		}
-		bitmap.getPixels(rgbArray, offset, scansize, startX, startY, w, h);
+		if (w == 0 || h == 0) {
+			return rgbArray;
+		}
+
+		if (isPixelsSynced) {
+			copyRows(pixels, startY * width + startX, width, rgbArray, offset, scansize, w, h);
+		} else {
+			ensureBitmap().getPixels(rgbArray, offset, scansize, startX, startY, w, h);
+		}
+		if (imageType == TYPE_INT_RGB) {
+			for (int y = 0; y < h; y++) {
+				for (int i = offset + y * scansize, end = i + w; i < end; i++) {
+					rgbArray[i] |= 0xFF000000;
+				}
+			}
+		}
 		return rgbArray;
 	}
 
@@ -180,37 +601,82 @@ public class BufferedImage extends java.awt.Image implements WritableRenderedIma
 	}
 
 	public synchronized void setRGB(int x, int y, int rgb) {
-		raster.setDataElements(x, y, colorModel.getDataElements(rgb, null));
-	}
-
-	public void setRGB(int startX, int startY, int w, int h, int[] rgbArray, int offset,
-			int scansize) {
-		// int yoff = offset;
-		// int off;
-		// Object pixel = null;
-		//
-		// for (int y = startY; y < startY+h; y++, yoff+=scansize) {
-		// off = yoff;
-		// for (int x = startX; x < startX+w; x++) {
-		// pixel = colorModel.getDataElements(rgbArray[off++], pixel);xx
-		// raster.setDataElements(x, y, pixel);
-		// }
-		// }
-		if (imageType == TYPE_INT_RGB) {
-			for (int i = 0; i < rgbArray.length; i++) {
-				rgbArray[i] |= 0xFF000000;
+		checkBounds(x, y);
+		final int stored = toStoredRGB(rgb);
+		if (isPixelsSynced || (bitmap == null && bitmapDrawableAdapter == null)) {
+			syncPixels()[y * width + x] = stored;
+			markDirtyRows(y, y);
+			return;
+		}
+
+		// the bitmap is authoritative after a draw, write the pixel to it
+		// instead of copying the whole image back.
+		ensureBitmap().setPixel(x, y, stored);
+		if (rowCacheY == y) {
+			rowCache[x] = stored;
+		}
+		invalidateTiles();
+	}
+
+	public synchronized void setRGB(int startX, int startY, int w, int h, int[] rgbArray,
+			int offset, int scansize) {
+		checkRegion(startX, startY, w, h);
+		if (w == 0 || h == 0) {
+			return;
+		}
+		final boolean isOpaque = (imageType == TYPE_INT_RGB);
+
+		if (isPixelsSynced) {
+			final int[] dest = pixels;
+			final int destStart = startY * width + startX;
+			copyRows(rgbArray, offset, scansize, dest, destStart, width, w, h);
+			if (isOpaque) {
+				setOpaque(dest, destStart, width, w, h);
 			}
+			markDirtyRows(startY, startY + h - 1);
+			return;
+		}
+
+		// the bitmap is authoritative, write the region straight to it
+		// instead of pulling a full copy of the image.
+		rowCacheY = -1;
+		invalidateTiles();
+		if (isOpaque) {
+			final int[] opaque = new int[w * h];
+			copyRows(rgbArray, offset, scansize, opaque, 0, w, w, h);
+			setOpaque(opaque, 0, w, w, h);
+			ensureBitmap().setPixels(opaque, 0, w, startX, startY, w, h);
+		} else {
+			ensureBitmap().setPixels(rgbArray, offset, scansize, startX, startY, w, h);
+		}
+	}
+
+	private static void copyRows(final int[] src, final int srcOff, final int srcScan,
+			final int[] dest, final int destOff, final int destScan, final int w, final int h) {
+		if (srcScan == w && destScan == w) {
+			System.arraycopy(src, srcOff, dest, destOff, w * h);
+			return;
 		}
+		for (int y = 0; y < h; y++) {
+			System.arraycopy(src, srcOff + y * srcScan, dest, destOff + y * destScan, w);
+		}
+	}
 
-		bitmap.setPixels(rgbArray, offset, scansize, startX, startY, w, h);
+	private static void setOpaque(final int[] data, final int off, final int scan, final int w,
+			final int h) {
+		for (int y = 0; y < h; y++) {
+			for (int i = off + y * scan, end = i + w; i < end; i++) {
+				data[i] |= 0xFF000000;
+			}
+		}
 	}
 
 	public int getWidth() {
-		return bitmap.getWidth();
+		return width;
 	}
 
 	public int getHeight() {
-		return bitmap.getHeight();
+		return height;
 	}
 
 	public int getWidth(ImageObserver observer) {
@@ -276,7 +742,7 @@ public class BufferedImage extends java.awt.Image implements WritableRenderedIma
 
 	@Override
 	public SampleModel getSampleModel() {
-		return null;
+		return new SinglePixelPackedSampleModel(DataBuffer.TYPE_INT, width, height, getBitMasks());
 	}
 
 	@Override
@@ -290,13 +756,13 @@ public class BufferedImage extends java.awt.Image implements WritableRenderedIma
 	}
 
 	@Override
-	public int getNumXTiles() {
-		return 0;
+	public synchronized int getNumXTiles() {
+		return (width + getTileWidth() - 1) / getTileWidth();
 	}
 
 	@Override
-	public int getNumYTiles() {
-		return 0;
+	public synchronized int getNumYTiles() {
+		return (height + getTileHeight() - 1) / getTileHeight();
 	}
 
 	@Override
@@ -310,13 +776,13 @@ public class BufferedImage extends java.awt.Image implements WritableRenderedIma
 	}
 
 	@Override
-	public int getTileWidth() {
-		return 0;
+	public synchronized int getTileWidth() {
+		return (tileWidth == 0) ? width : tileWidth;
 	}
 
 	@Override
-	public int getTileHeight() {
-		return 0;
+	public synchronized int getTileHeight() {
+		return (tileHeight == 0) ? height : tileHeight;
 	}
 
 	@Override
@@ -329,24 +795,231 @@ public class BufferedImage extends java.awt.Image implements WritableRenderedIma
 		return 0;
 	}
 
+	/**
+	 * sets the size of the tiles of {@link #getTile(int, int)}, the tiles at
+	 * the right and bottom edges may be smaller.
+	 *
+	 * @throws IllegalStateException
+	 *             if tiles are checked out for writing.
+	 */
+	public synchronized void setTileSizeAdAPI(final int tileWidth, final int tileHeight) {
+		if (tileWidth <= 0 || tileHeight <= 0) {
+			throw new IllegalArgumentException("Tile width (" + tileWidth + ") and height ("
+					+ tileHeight + ") must be > 0");
+		}
+		if (hasTileWriters()) {
+			throw new IllegalStateException("tiles are checked out for writing");
+		}
+		this.tileWidth = Math.min(tileWidth, width);
+		this.tileHeight = Math.min(tileHeight, height);
+		invalidateTiles();
+	}
+
+	/**
+	 * sets the bytes of the tiles read from the bitmap kept for reuse, 8 MB
+	 * by default.
+	 */
+	public synchronized void setTileCacheCapacityAdAPI(final long bytes) {
+		maxTileCacheBytes = bytes;
+		trimTileCache();
+	}
+
+	private final Integer tileKey(final int tileX, final int tileY) {
+		if (tileX < 0 || tileY < 0 || tileX >= getNumXTiles() || tileY >= getNumYTiles()) {
+			throw new ArrayIndexOutOfBoundsException("Tile index out of bounds: " + tileX + ", "
+					+ tileY);
+		}
+		return Integer.valueOf(tileY * getNumXTiles() + tileX);
+	}
+
+	/**
+	 * true while the bitmap is authoritative and no pixels copy is made.
+	 */
+	private final boolean isTileFromBitmap() {
+		return pixels == null && (bitmap != null || bitmapDrawableAdapter != null);
+	}
+
+	/**
+	 * the bitmap to read pixels from, a decoded immutable bitmap is not
+	 * copied.
+	 */
+	private final Bitmap readableBitmap() {
+		return (bitmap != null) ? bitmap : ensureBitmap();
+	}
+
+	private final WritableRaster getTileRaster(final int tileX, final int tileY) {
+		final Integer key = tileKey(tileX, tileY);
+		final int x = tileX * getTileWidth();
+		final int y = tileY * getTileHeight();
+		final int w = Math.min(getTileWidth(), width - x);
+		final int h = Math.min(getTileHeight(), height - y);
+
+		if (isTileFromBitmap() == false) {
+			return getRaster().createWritableChild(x, y, w, h, x, y, null);
+		}
+
+		WritableRaster tile = (writableTiles == null) ? null : writableTiles.get(key);
+		if (tile == null && tileCache != null) {
+			tile = tileCache.get(key);
+		}
+		if (tile == null) {
+			final int[] data = new int[w * h];
+			readableBitmap().getPixels(data, 0, w, x, y, w, h);
+			tile = Raster.createPackedRaster(new DataBufferInt(data, data.length), w, h, w,
+					getBitMasks(), new Point(x, y));
+			cacheTile(key, tile);
+		}
+		return tile;
+	}
+
+	private final void cacheTile(final Integer key, final WritableRaster tile) {
+		if (tileCache == null) {
+			tileCache = new LinkedHashMap<Integer, WritableRaster>(16, 0.75F, true);
+		}
+		if (tileCache.put(key, tile) == null) {
+			tileCacheBytes += tileBytes(tile);
+		}
+		trimTileCache();
+	}
+
+	private static long tileBytes(final Raster tile) {
+		return 4L * tile.getWidth() * tile.getHeight();
+	}
+
+	/**
+	 * drops the least recently used tiles beyond the capacity, the last one
+	 * used is kept.
+	 */
+	private final void trimTileCache() {
+		if (tileCache == null) {
+			return;
+		}
+		final Iterator<Map.Entry<Integer, WritableRaster>> it = tileCache.entrySet().iterator();
+		while (tileCacheBytes > maxTileCacheBytes && tileCache.size() > 1 && it.hasNext()) {
+			tileCacheBytes -= tileBytes(it.next().getValue());
+			it.remove();
+		}
+	}
+
+	/**
+	 * the bitmap has changed, the tiles read from it are stale.
+	 */
+	private final void invalidateTiles() {
+		if (tileCache != null) {
+			tileCache.clear();
+			tileCacheBytes = 0;
+		}
+	}
+
+	/**
+	 * the pixels copy is about to be made, the tiles checked out for writing
+	 * are written back to the bitmap before the copy, and their checkouts are
+	 * ended, so that a later release does not write a stale tile.
+	 */
+	private final void releaseBitmapTiles() {
+		if (writableTiles != null) {
+			for (final WritableRaster tile : writableTiles.values()) {
+				writeTileToBitmap(tile);
+			}
+			writableTiles.clear();
+		}
+		if (hasTileWriters()) {
+			final Point[] points = getWritableTileIndices();
+			tileWriters.clear();
+			for (int i = 0; i < points.length; i++) {
+				notifyTileObservers(points[i].x, points[i].y, false);
+			}
+		}
+		invalidateTiles();
+	}
+
+	private final void writeTileToBitmap(final WritableRaster tile) {
+		final int[] data = ((DataBufferInt) tile.getDataBuffer()).getData();
+		final int w = tile.getWidth();
+		final int h = tile.getHeight();
+		if (imageType == TYPE_INT_RGB) {
+			setOpaque(data, 0, w, w, h);
+		}
+		ensureBitmap().setPixels(data, 0, w, tile.getMinX(), tile.getMinY(), w, h);
+		rowCacheY = -1;
+	}
+
+	/**
+	 * returns the tile, a child sharing the buffer of {@link #getRaster()}
+	 * once the pixels copy is made, else read from the bitmap and cached.
+	 */
 	@Override
-	public Raster getTile(int tileX, int tileY) {
-		return null;
+	public synchronized Raster getTile(int tileX, int tileY) {
+		return getTileRaster(tileX, tileY);
 	}
 
+	/**
+	 * returns a copy of the whole image.
+	 */
 	@Override
 	public Raster getData() {
-		return null;
+		return getData(new Rectangle(0, 0, width, height));
 	}
 
+	/**
+	 * returns a copy of the region of the image, only the region is read.
+	 */
 	@Override
-	public Raster getData(Rectangle rect) {
-		return null;
+	public synchronized Raster getData(Rectangle rect) {
+		final int[] data = new int[rect.width * rect.height];
+		copyRegion(rect, data, 0, rect.width);
+		return Raster.createPackedRaster(new DataBufferInt(data, data.length), rect.width,
+				rect.height, rect.width, getBitMasks(), rect.getLocation());
+	}
+
+	/**
+	 * copies the part of <code>rect</code> within the image to
+	 * <code>data</code>, whose element <code>offset</code> is the top left of
+	 * <code>rect</code>.
+	 */
+	private final void copyRegion(final Rectangle rect, final int[] data, final int offset,
+			final int scan) {
+		final Rectangle r = rect.intersection(new Rectangle(0, 0, width, height));
+		if (r.isEmpty()) {
+			return;
+		}
+		final int off = offset + (r.y - rect.y) * scan + (r.x - rect.x);
+		if (isPixelsSynced) {
+			copyRows(pixels, r.y * width + r.x, width, data, off, scan, r.width, r.height);
+		} else if (bitmap != null || bitmapDrawableAdapter != null) {
+			readableBitmap().getPixels(data, off, scan, r.x, r.y, r.width, r.height);
+		}
 	}
 
+	/**
+	 * copies the image to <code>outRaster</code> where they overlap, straight
+	 * to its buffer if it holds packed ints of the layout of this image.
+	 */
 	@Override
-	public WritableRaster copyData(WritableRaster raster) {
-		return null;
+	public synchronized WritableRaster copyData(WritableRaster outRaster) {
+		if (outRaster == null) {
+			return (WritableRaster) getData();
+		}
+		final Rectangle rect = outRaster.getBounds();
+		final SampleModel sm = outRaster.getSampleModel();
+		final DataBuffer db = outRaster.getDataBuffer();
+		if (sm instanceof SinglePixelPackedSampleModel && db instanceof DataBufferInt
+				&& db.getNumBanks() == 1
+				&& java.util.Arrays.equals(((SinglePixelPackedSampleModel) sm).getBitMasks(),
+						getBitMasks())) {
+			final int scan = ((SinglePixelPackedSampleModel) sm).getScanlineStride();
+			final int offset = db.getOffset()
+					+ (rect.y - outRaster.getSampleModelTranslateY()) * scan
+					+ (rect.x - outRaster.getSampleModelTranslateX());
+			copyRegion(rect, ((DataBufferInt) db).getData(), offset, scan);
+			return outRaster;
+		}
+
+		final Rectangle r = rect.intersection(new Rectangle(0, 0, width, height));
+		if (r.isEmpty() == false) {
+			outRaster.setRect(getData(r));
+		}
+		return outRaster;
 	}
 
 	@Override
@@ -355,44 +1028,146 @@ public class BufferedImage extends java.awt.Image implements WritableRenderedIma
 	}
 
 	@Override
-	public void addTileObserver(TileObserver to) {
+	public synchronized void addTileObserver(TileObserver to) {
+		if (tileObservers == null) {
+			tileObservers = new ArrayList<TileObserver>(2);
+		}
+		tileObservers.add(to);
 	}
 
 	@Override
-	public void removeTileObserver(TileObserver to) {
+	public synchronized void removeTileObserver(TileObserver to) {
+		if (tileObservers != null) {
+			tileObservers.remove(to);
+		}
 	}
 
+	private final void notifyTileObservers(final int tileX, final int tileY,
+			final boolean willBeWritable) {
+		if (tileObservers == null) {
+			return;
+		}
+		final TileObserver[] snapshot = tileObservers.toArray(new TileObserver[tileObservers
+				.size()]);
+		for (int i = 0; i < snapshot.length; i++) {
+			snapshot[i].tileUpdate(this, tileX, tileY, willBeWritable);
+		}
+	}
+
+	/**
+	 * checks out the tile for writing, the writes are visible to the other
+	 * accessors of the image once {@link #releaseWritableTile(int, int)} is
+	 * called as many times.
+	 */
 	@Override
-	public WritableRaster getWritableTile(int tileX, int tileY) {
-		return null;
+	public synchronized WritableRaster getWritableTile(int tileX, int tileY) {
+		final Integer key = tileKey(tileX, tileY);
+		final WritableRaster tile = getTileRaster(tileX, tileY);
+		if (isTileFromBitmap()) {
+			if (writableTiles == null) {
+				writableTiles = new HashMap<Integer, WritableRaster>();
+			}
+			writableTiles.put(key, tile);
+			if (tileCache != null && tileCache.remove(key) != null) {
+				tileCacheBytes -= tileBytes(tile);
+			}
+		}
+
+		if (tileWriters == null) {
+			tileWriters = new HashMap<Integer, Integer>();
+		}
+		final Integer count = tileWriters.get(key);
+		tileWriters.put(key, Integer.valueOf((count == null) ? 1 : count.intValue() + 1));
+		if (count == null) {
+			notifyTileObservers(tileX, tileY, true);
+		}
+		return tile;
 	}
 
 	@Override
-	public void releaseWritableTile(int tileX, int tileY) {
+	public synchronized void releaseWritableTile(int tileX, int tileY) {
+		final Integer key = tileKey(tileX, tileY);
+		final Integer count = (tileWriters == null) ? null : tileWriters.get(key);
+		if (count == null) {
+			return;
+		}
+		if (count.intValue() > 1) {
+			tileWriters.put(key, Integer.valueOf(count.intValue() - 1));
+			return;
+		}
+		tileWriters.remove(key);
+
+		final WritableRaster tile = (writableTiles == null) ? null : writableTiles.remove(key);
+		if (tile != null) {
+			writeTileToBitmap(tile);
+			cacheTile(key, tile);
+		}
+		notifyTileObservers(tileX, tileY, false);
 	}
 
 	@Override
-	public boolean isTileWritable(int tileX, int tileY) {
-		return false;
+	public synchronized boolean isTileWritable(int tileX, int tileY) {
+		final Integer key = tileKey(tileX, tileY);
+		return tileWriters != null && tileWriters.containsKey(key);
 	}
 
 	@Override
-	public Point[] getWritableTileIndices() {
-		return null;
+	public synchronized Point[] getWritableTileIndices() {
+		if (hasTileWriters() == false) {
+			return null;
+		}
+		final int numXTiles = getNumXTiles();
+		final Point[] points = new Point[tileWriters.size()];
+		int i = 0;
+		for (final Integer key : tileWriters.keySet()) {
+			points[i++] = new Point(key.intValue() % numXTiles, key.intValue() / numXTiles);
+		}
+		return points;
 	}
 
 	@Override
-	public boolean hasTileWriters() {
-		return false;
+	public synchronized boolean hasTileWriters() {
+		return tileWriters != null && tileWriters.isEmpty() == false;
 	}
 
+	/**
+	 * copies <code>r</code> into the image where they overlap.
+	 */
 	@Override
-	public void setData(Raster r) {
+	public synchronized void setData(Raster r) {
+		final Rectangle rect = r.getBounds().intersection(new Rectangle(0, 0, width, height));
+		if (rect.isEmpty()) {
+			return;
+		}
+
+		final SampleModel sm = r.getSampleModel();
+		if (sm instanceof SinglePixelPackedSampleModel
+				&& r.getTransferType() == DataBuffer.TYPE_INT
+				&& java.util.Arrays.equals(((SinglePixelPackedSampleModel) sm).getBitMasks(),
+						getBitMasks())) {
+			int[] row = null;
+			for (int y = rect.y; y < rect.y + rect.height; y++) {
+				row = (int[]) r.getDataElements(rect.x, y, rect.width, 1, row);
+				setRGB(rect.x, y, rect.width, 1, row, 0, rect.width);
+			}
+			return;
+		}
+		getRaster().setRect(r);
 	}
 
+	/**
+	 * returns the bitmap for drawing this image, pending pixel writes are
+	 * copied to it first. A decoded bitmap is returned as is, immutable, so
+	 * the returned bitmap must be treated as read-only, use
+	 * {@link #getGraphics()} to draw on it.
+	 */
 	@Override
-	public Bitmap getBitmapAdAPI() {
-		return bitmap;
+	public synchronized Bitmap getBitmapAdAPI() {
+		if (bitmap == null && pixels == null && bitmapDrawableAdapter != null) {
+			return null;
+		}
+		flushDirtyRows();
+		return readableBitmap();
 	}
 
 	@Override
@@ -403,10 +1178,16 @@ public class BufferedImage extends java.awt.Image implements WritableRenderedIma
 	Graphics graphics;
 
 	@Override
-	public Graphics getGraphics() {
+	public synchronized Graphics getGraphics() {
 		if (graphics == null) {
-			Object[] para = { bitmap, new Canvas(bitmap) };
-			graphics = new CanvasGraphics(para, ScreenAdapter.initScreenAdapterFromContext(false));
+			final Bitmap target = ensureBitmap();
+			Object[] para = { target, new Canvas(target) };
+			graphics = new CanvasGraphics(para, ScreenAdapter.initScreenAdapterFromContext(false)) {
+				@Override
+				protected void beforeDrawAdAPI() {
+					bitmapWillChange();
+				}
+			};
 		}
 		return graphics;
 	}
@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 1999, 2007, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package java.awt.image;
+
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.color.ColorSpace;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+
+/**
+ * This class performs a pixel-by-pixel color conversion of the data in the
+ * source image. The resulting color values are scaled to the precision of the
+ * destination image. Color conversion can be specified via an array of
+ * ColorSpace objects.
+ * <p>
+ * The images hold sRGB pixels, so a conversion to another color space is
+ * stored back as its sRGB rendering : converted to {@link ColorSpace#CS_GRAY},
+ * the red, green and blue of a pixel are its gray level. The gray conversion
+ * goes through tables of the sRGB transfer function; any other
+ * <code>ColorSpace</code> through its <code>fromRGB</code> and
+ * <code>toRGB</code> for each pixel. The rows are processed in tiles on all
+ * the processors, the alpha is kept. The source and the destination may be
+ * the same image.
+ */
+public class ColorConvertOp implements BufferedImageOp {
+	ColorSpace[] CSList;
+	RenderingHints hints;
+
+	/**
+	 * linear luminance contribution of each encoded sRGB value, scaled to
+	 * 0..65535 in sum.
+	 */
+	private static int[] redToY, greenToY, blueToY;
+
+	/**
+	 * encoded sRGB value of a linear level of 12 bits.
+	 */
+	private static int[] linearToSRGB;
+
+	public ColorConvertOp(RenderingHints hints) {
+		this.CSList = new ColorSpace[0];
+		this.hints = hints;
+	}
+
+	public ColorConvertOp(ColorSpace cspace, RenderingHints hints) {
+		if (cspace == null) {
+			throw new NullPointerException("ColorSpace cannot be null");
+		}
+		this.CSList = new ColorSpace[] { cspace };
+		this.hints = hints;
+	}
+
+	public ColorConvertOp(ColorSpace srcCspace, ColorSpace dstCspace, RenderingHints hints) {
+		if ((srcCspace == null) || (dstCspace == null)) {
+			throw new NullPointerException("ColorSpaces cannot be null");
+		}
+		this.CSList = new ColorSpace[] { srcCspace, dstCspace };
+		this.hints = hints;
+	}
+
+	/**
+	 * the target of the conversion, null for sRGB.
+	 */
+	private ColorSpace getTargetSpace() {
+		if (CSList.length == 0) {
+			return null;
+		}
+		final ColorSpace cs = CSList[CSList.length - 1];
+		return cs.isCS_sRGB() ? null : cs;
+	}
+
+	private static synchronized void initGrayTables() {
+		if (linearToSRGB != null) {
+			return;
+		}
+		final ColorSpace gray = ColorSpace.getInstance(ColorSpace.CS_GRAY);
+		final float[] rgb = new float[3];
+		final float[] y = new float[1];
+		final int[] rt = new int[256];
+		final int[] gt = new int[256];
+		final int[] bt = new int[256];
+		for (int v = 0; v < 256; v++) {
+			final float f = v / 255.0f;
+			rt[v] = luminance(gray, f, 0, 0, rgb);
+			gt[v] = luminance(gray, 0, f, 0, rgb);
+			bt[v] = luminance(gray, 0, 0, f, rgb);
+		}
+		final int[] encode = new int[4096];
+		for (int i = 0; i < encode.length; i++) {
+			y[0] = i / 4095.0f;
+			encode[i] = Math.round(gray.toRGB(y)[0] * 255);
+		}
+		redToY = rt;
+		greenToY = gt;
+		blueToY = bt;
+		linearToSRGB = encode;
+	}
+
+	private static int luminance(final ColorSpace gray, final float r, final float g,
+			final float b, final float[] rgb) {
+		rgb[0] = r;
+		rgb[1] = g;
+		rgb[2] = b;
+		return Math.round(gray.fromRGB(rgb)[0] * 65535);
+	}
+
+	public final BufferedImage filter(BufferedImage src, BufferedImage dest) {
+		if (dest == null) {
+			dest = createCompatibleDestImage(src, null);
+		}
+
+		final int srcScan = src.getWidth();
+		final int dstScan = dest.getWidth();
+		final int w = Math.min(srcScan, dstScan);
+		final int h = Math.min(src.getHeight(), dest.getHeight());
+		final int[] in = src.getPixelsForOp();
+		final int[] out = dest.getPixelsForOp();
+		final int alpha = (src.getType() == BufferedImage.TYPE_INT_RGB) ? 0xFF000000 : 0;
+		final ColorSpace target = getTargetSpace();
+
+		if (target == null) {
+			for (int y = 0; y < h; y++) {
+				if (in != out) {
+					System.arraycopy(in, y * srcScan, out, y * dstScan, w);
+				}
+				for (int i = y * dstScan, end = i + w; i < end; i++) {
+					out[i] |= alpha;
+				}
+			}
+		} else if (target == ColorSpace.getInstance(ColorSpace.CS_GRAY)) {
+			initGrayTables();
+			final int[] rt = redToY, gt = greenToY, bt = blueToY, encode = linearToSRGB;
+			ImageOpTiles.forEachTile(w, h, new ImageOpTiles.RowTask() {
+				@Override
+				public void run(final int minY, final int maxY) {
+					for (int y = minY; y < maxY; y++) {
+						for (int si = y * srcScan, di = y * dstScan, end = si + w; si < end; si++, di++) {
+							final int p = in[si];
+							int l = (rt[(p >> 16) & 0xFF] + gt[(p >> 8) & 0xFF] + bt[p & 0xFF]) >> 4;
+							if (l > 4095) {
+								l = 4095;
+							}
+							final int v = encode[l];
+							out[di] = alpha | (p & 0xFF000000) | (v << 16) | (v << 8) | v;
+						}
+					}
+				}
+			});
+		} else {
+			ImageOpTiles.forEachTile(w, h, new ImageOpTiles.RowTask() {
+				@Override
+				public void run(final int minY, final int maxY) {
+					final float[] rgb = new float[3];
+					for (int y = minY; y < maxY; y++) {
+						for (int si = y * srcScan, di = y * dstScan, end = si + w; si < end; si++, di++) {
+							final int p = in[si];
+							rgb[0] = ((p >> 16) & 0xFF) / 255.0f;
+							rgb[1] = ((p >> 8) & 0xFF) / 255.0f;
+							rgb[2] = (p & 0xFF) / 255.0f;
+							final float[] c = target.toRGB(target.fromRGB(rgb));
+							out[di] = alpha | (p & 0xFF000000)
+									| (ImageOpTiles.clamp(c[0] * 255) << 16)
+									| (ImageOpTiles.clamp(c[1] * 255) << 8)
+									| ImageOpTiles.clamp(c[2] * 255);
+						}
+					}
+				}
+			});
+		}
+
+		dest.pixelsChangedByOp();
+		return dest;
+	}
+
+	public BufferedImage createCompatibleDestImage(BufferedImage src, ColorModel destCM) {
+		return ImageOpTiles.createCompatibleDestImage(src, src.getWidth(), src.getHeight(),
+				destCM);
+	}
+
+	public final Rectangle2D getBounds2D(BufferedImage src) {
+		return new Rectangle(0, 0, src.getWidth(), src.getHeight());
+	}
+
+	public final Point2D getPoint2D(Point2D srcPt, Point2D dstPt) {
+		if (dstPt == null) {
+			dstPt = new Point2D.Float();
+		}
+		dstPt.setLocation(srcPt.getX(), srcPt.getY());
+
+		return dstPt;
+	}
+
+	public final RenderingHints getRenderingHints() {
+		return hints;
+	}
+}
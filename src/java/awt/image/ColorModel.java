@@ -144,6 +144,7 @@ public abstract class ColorModel implements Transparency {
 	int numColorComponents = -1;
 	int maxBits;
 	boolean is_sRGB = true;
+	ColorSpace colorSpace = ColorSpace.getInstance(ColorSpace.CS_sRGB);
 	protected int transferType;
 	private static ColorModel RGBdefault;
 
@@ -174,10 +175,53 @@ public abstract class ColorModel implements Transparency {
 		numComponents = 4;
 		numColorComponents = 3;
 		maxBits = bits;
+		transferType = ColorModel.getDefaultTransferType(bits);
 	}
 
 	protected ColorModel(int pixel_bits, int[] bits, ColorSpace cspace, boolean hasAlpha,
 			boolean isAlphaPremultiplied, int transparency, int transferType) {
+		colorSpace = cspace;
+		numColorComponents = cspace.getNumComponents();
+		numComponents = numColorComponents + (hasAlpha ? 1 : 0);
+		supportsAlpha = hasAlpha;
+		if (bits.length < numComponents) {
+			throw new IllegalArgumentException("Number of color/alpha " + "components should be "
+					+ numComponents + " but length of bits array is " + bits.length);
+		}
+
+		if (transparency < Transparency.OPAQUE || transparency > Transparency.TRANSLUCENT) {
+			throw new IllegalArgumentException("Unknown transparency: " + transparency);
+		}
+
+		if (supportsAlpha == false) {
+			this.isAlphaPremultiplied = false;
+			this.transparency = Transparency.OPAQUE;
+		} else {
+			this.isAlphaPremultiplied = isAlphaPremultiplied;
+			this.transparency = transparency;
+		}
+
+		nBits = (int[]) bits.clone();
+		this.pixel_bits = pixel_bits;
+		if (pixel_bits <= 0) {
+			throw new IllegalArgumentException("Number of pixel bits must " + "be > 0");
+		}
+		maxBits = 0;
+		for (int i = 0; i < bits.length; i++) {
+			if (bits[i] < 0) {
+				throw new IllegalArgumentException("Number of bits must be >= 0");
+			}
+			if (maxBits < bits[i]) {
+				maxBits = bits[i];
+			}
+		}
+		if (maxBits == 0) {
+			throw new IllegalArgumentException("There must be at least "
+					+ "one component with > 0 " + "pixel bits.");
+		}
+
+		is_sRGB = cspace.isCS_sRGB();
+		this.transferType = transferType;
 	}
 
 	public WritableRaster createCompatibleWritableRaster(int w, int h) {
@@ -240,6 +284,10 @@ public abstract class ColorModel implements Transparency {
 		return transferType;
 	}
 
+	final public ColorSpace getColorSpace() {
+		return colorSpace;
+	}
+
 	public int getPixelSize() {
 		return pixel_bits;
 	}
@@ -342,6 +390,119 @@ public abstract class ColorModel implements Transparency {
 				| (getBlue(inData) << 0);
 	}
 
+	/**
+	 * converts <code>length</code> pixels of this model, one element each
+	 * from <code>inData[inOffset]</code>, to ARGB in the default RGB model.
+	 * <p>
+	 * Subclasses convert whole rows through lookup tables, this one converts
+	 * a pixel at a time.
+	 *
+	 * @param inData
+	 *            <code>byte[]</code>, <code>short[]</code> or
+	 *            <code>int[]</code>, an element per pixel.
+	 * @return <code>rgbs</code>, allocated if null.
+	 */
+	public int[] getRGBsAdAPI(Object inData, int inOffset, int[] rgbs, int rgbOffset, int length) {
+		if (rgbs == null) {
+			rgbs = new int[rgbOffset + length];
+		}
+		for (int i = 0; i < length; i++) {
+			rgbs[rgbOffset + i] = getRGB(getPixel(inData, inOffset + i));
+		}
+		return rgbs;
+	}
+
+	/**
+	 * converts <code>length</code> ARGB pixels of the default RGB model to
+	 * this model, one element each to <code>outData[outOffset]</code>.
+	 *
+	 * @param outData
+	 *            <code>byte[]</code>, <code>short[]</code> or
+	 *            <code>int[]</code>; allocated of the transfer type if null.
+	 * @return <code>outData</code>.
+	 * @see #getRGBsAdAPI(Object, int, int[], int, int)
+	 */
+	public Object getDataElementsAdAPI(int[] rgbs, int rgbOffset, Object outData, int outOffset,
+			int length) {
+		if (outData == null) {
+			outData = createDataArray(transferType, outOffset + length);
+		}
+		Object pixel = null;
+		for (int i = 0; i < length; i++) {
+			pixel = getDataElements(rgbs[rgbOffset + i], pixel);
+			setPixel(outData, outOffset + i, getPixel(pixel, 0));
+		}
+		return outData;
+	}
+
+	/**
+	 * converts <code>length</code> pixels of <code>srcModel</code> to
+	 * <code>destModel</code>, a chunk at a time through ARGB.
+	 * <p>
+	 * Pixels of equal models are copied.
+	 *
+	 * @return <code>destData</code>, allocated if null.
+	 */
+	public static Object convertAdAPI(ColorModel srcModel, Object srcData, int srcOffset,
+			ColorModel destModel, Object destData, int destOffset, int length) {
+		if (destData == null) {
+			destData = createDataArray(destModel.transferType, destOffset + length);
+		}
+		if ((srcModel == destModel || srcModel.equals(destModel))
+				&& srcData.getClass() == destData.getClass()) {
+			System.arraycopy(srcData, srcOffset, destData, destOffset, length);
+			return destData;
+		}
+
+		final int[] rgbs = new int[Math.min(length, CONVERT_CHUNK)];
+		for (int done = 0; done < length; done += rgbs.length) {
+			final int n = Math.min(rgbs.length, length - done);
+			srcModel.getRGBsAdAPI(srcData, srcOffset + done, rgbs, 0, n);
+			destModel.getDataElementsAdAPI(rgbs, 0, destData, destOffset + done, n);
+		}
+		return destData;
+	}
+
+	private static final int CONVERT_CHUNK = 4096;
+
+	/**
+	 * the unsigned element <code>i</code> of a <code>byte[]</code>,
+	 * <code>short[]</code> or <code>int[]</code>.
+	 */
+	static int getPixel(final Object data, final int i) {
+		if (data instanceof byte[]) {
+			return ((byte[]) data)[i] & 0xff;
+		} else if (data instanceof short[]) {
+			return ((short[]) data)[i] & 0xffff;
+		} else {
+			return ((int[]) data)[i];
+		}
+	}
+
+	static void setPixel(final Object data, final int i, final int pixel) {
+		if (data instanceof byte[]) {
+			((byte[]) data)[i] = (byte) pixel;
+		} else if (data instanceof short[]) {
+			((short[]) data)[i] = (short) pixel;
+		} else {
+			((int[]) data)[i] = pixel;
+		}
+	}
+
+	static Object createDataArray(final int transferType, final int length) {
+		switch (transferType) {
+		case DataBuffer.TYPE_BYTE:
+			return new byte[length];
+		case DataBuffer.TYPE_USHORT:
+			return new short[length];
+		case DataBuffer.TYPE_INT:
+			return new int[length];
+		default:
+			throw new UnsupportedOperationException("This method has not been "
+					+ "implemented for transferType " + transferType);
+		}
+	}
+
 	public Object getDataElements(int rgb, Object pixel) {
 		throw new UnsupportedOperationException(
 				"This method is not supported by this color model.");
@@ -393,12 +554,47 @@ public abstract class ColorModel implements Transparency {
 	}
 
 	public boolean equals(Object obj) {
-		return false;
+		if (!(obj instanceof ColorModel)) {
+			return false;
+		}
+		ColorModel cm = (ColorModel) obj;
+
+		if (this == cm) {
+			return true;
+		}
+		if (supportsAlpha != cm.hasAlpha() || isAlphaPremultiplied != cm.isAlphaPremultiplied()
+				|| pixel_bits != cm.getPixelSize() || transparency != cm.getTransparency()
+				|| numComponents != cm.getNumComponents()) {
+			return false;
+		}
+
+		int[] nb = cm.getComponentSize();
+
+		if ((nBits != null) && (nb != null)) {
+			for (int i = 0; i < numComponents; i++) {
+				if (nBits[i] != nb[i]) {
+					return false;
+				}
+			}
+		} else {
+			return ((nBits == null) && (nb == null));
+		}
+
+		return true;
 	}
 
 	public int hashCode() {
 		int result = 0;
 
+		result = (supportsAlpha ? 2 : 3) + (isAlphaPremultiplied ? 4 : 5) + pixel_bits * 6
+				+ transparency * 7 + numComponents * 8;
+
+		if (nBits != null) {
+			for (int i = 0; i < numComponents; i++) {
+				result = result + nBits[i] * (i + 9);
+			}
+		}
+
 		return result;
 	}
 
@@ -99,13 +99,6 @@ public class ComponentSampleModel extends SampleModel {
 	 */
 	protected int pixelStride;
 
-	static private native void initIDs();
-
-	static {
-		// ColorModel.loadLibraries();
-		initIDs();
-	}
-
 	/**
 	 * Constructs a ComponentSampleModel with the specified parameters. The
 	 * number of bands will be given by the length of the bandOffsets array. All
@@ -432,27 +425,20 @@ public class ComponentSampleModel extends SampleModel {
 	public DataBuffer createDataBuffer() {
 		DataBuffer dataBuffer = null;
 
-		// int size = getBufferSize();
-		// switch (dataType) {
-		// case DataBuffer.TYPE_BYTE:
-		// dataBuffer = new DataBufferByte(size, numBanks);
-		// break;
-		// case DataBuffer.TYPE_USHORT:
-		// dataBuffer = new DataBufferUShort(size, numBanks);
-		// break;
-		// case DataBuffer.TYPE_SHORT:
-		// dataBuffer = new DataBufferShort(size, numBanks);
-		// break;
-		// case DataBuffer.TYPE_INT:
-		// dataBuffer = new DataBufferInt(size, numBanks);
-		// break;
-		// case DataBuffer.TYPE_FLOAT:
-		// dataBuffer = new DataBufferFloat(size, numBanks);
-		// break;
-		// case DataBuffer.TYPE_DOUBLE:
-		// dataBuffer = new DataBufferDouble(size, numBanks);
-		// break;
-		// }
+		int size = getBufferSize();
+		switch (dataType) {
+		case DataBuffer.TYPE_BYTE:
+			dataBuffer = new DataBufferByte(size, numBanks);
+			break;
+		case DataBuffer.TYPE_USHORT:
+			dataBuffer = new DataBufferUShort(size, numBanks);
+			break;
+		case DataBuffer.TYPE_INT:
+			dataBuffer = new DataBufferInt(size, numBanks);
+			break;
+		default:
+			throw new IllegalArgumentException("dataType is not one of the supported types.");
+		}
 
 		return dataBuffer;
 	}
@@ -803,19 +789,22 @@ public class ComponentSampleModel extends SampleModel {
 		} else {
 			pixels = new int[w * h * numBands];
 		}
-		int lineOffset = y * scanlineStride + x * pixelStride;
-		int srcOffset = 0;
-
-		for (int i = 0; i < h; i++) {
-			int pixelOffset = lineOffset;
-			for (int j = 0; j < w; j++) {
-				for (int k = 0; k < numBands; k++) {
-					pixels[srcOffset++] = data.getElem(bankIndices[k],
-							pixelOffset + bandOffsets[k]);
-				}
-				pixelOffset += pixelStride;
+
+		if (isPackedInterleaved() && data instanceof DataBufferInt) {
+			// rows of the region are contiguous in the bank, copy them whole.
+			final int[] src = ((DataBufferInt) data).getData(bankIndices[0]);
+			int lineOffset = data.offsets[bankIndices[0]] + y * scanlineStride + x * pixelStride
+					+ bandOffsets[0];
+			final int rowLen = w * numBands;
+			for (int i = 0, dst = 0; i < h; i++, dst += rowLen) {
+				System.arraycopy(src, lineOffset, pixels, dst, rowLen);
+				lineOffset += scanlineStride;
 			}
-			lineOffset += scanlineStride;
+			return pixels;
+		}
+
+		for (int k = 0; k < numBands; k++) {
+			readBand(x, y, w, h, k, pixels, k, numBands, data);
 		}
 		return pixels;
 	}
@@ -934,17 +923,7 @@ public class ComponentSampleModel extends SampleModel {
 		} else {
 			samples = new int[w * h];
 		}
-		int lineOffset = y * scanlineStride + x * pixelStride + bandOffsets[b];
-		int srcOffset = 0;
-
-		for (int i = 0; i < h; i++) {
-			int sampleOffset = lineOffset;
-			for (int j = 0; j < w; j++) {
-				samples[srcOffset++] = data.getElem(bankIndices[b], sampleOffset);
-				sampleOffset += pixelStride;
-			}
-			lineOffset += scanlineStride;
-		}
+		readBand(x, y, w, h, b, samples, 0, 1, data);
 		return samples;
 	}
 
@@ -1106,18 +1085,20 @@ public class ComponentSampleModel extends SampleModel {
 			throw new ArrayIndexOutOfBoundsException("Coordinate out of bounds!");
 		}
 
-		int lineOffset = y * scanlineStride + x * pixelStride;
-		int srcOffset = 0;
-
-		for (int i = 0; i < h; i++) {
-			int pixelOffset = lineOffset;
-			for (int j = 0; j < w; j++) {
-				for (int k = 0; k < numBands; k++) {
-					data.setElem(bankIndices[k], pixelOffset + bandOffsets[k], iArray[srcOffset++]);
-				}
-				pixelOffset += pixelStride;
+		if (isPackedInterleaved() && data instanceof DataBufferInt) {
+			final int[] dest = ((DataBufferInt) data).getData(bankIndices[0]);
+			int lineOffset = data.offsets[bankIndices[0]] + y * scanlineStride + x * pixelStride
+					+ bandOffsets[0];
+			final int rowLen = w * numBands;
+			for (int i = 0, src = 0; i < h; i++, src += rowLen) {
+				System.arraycopy(iArray, src, dest, lineOffset, rowLen);
+				lineOffset += scanlineStride;
 			}
-			lineOffset += scanlineStride;
+			return;
+		}
+
+		for (int k = 0; k < numBands; k++) {
+			writeBand(x, y, w, h, k, iArray, k, numBands, data);
 		}
 	}
 
@@ -1227,16 +1208,139 @@ public class ComponentSampleModel extends SampleModel {
 		if ((x < 0) || (y < 0) || (x + w > width) || (y + h > height)) {
 			throw new ArrayIndexOutOfBoundsException("Coordinate out of bounds!");
 		}
+		writeBand(x, y, w, h, b, iArray, 0, 1, data);
+	}
+
+	/**
+	 * true if all bands share one bank and are stored adjacent in band order,
+	 * so that the samples of a row are contiguous.
+	 */
+	final boolean isPackedInterleaved() {
+		if (pixelStride != numBands) {
+			return false;
+		}
+		for (int k = 1; k < numBands; k++) {
+			if (bankIndices[k] != bankIndices[0] || bandOffsets[k] != bandOffsets[0] + k) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * reads band <code>b</code> of a region into <code>dest</code>, starting at
+	 * <code>destOff</code> and <code>destStep</code> elements apart. The bank
+	 * array of the known <code>DataBuffer</code> types is indexed directly.
+	 */
+	final void readBand(int x, int y, int w, int h, int b, int[] dest, int destOff,
+			int destStep, DataBuffer data) {
+		final int bank = bankIndices[b];
 		int lineOffset = y * scanlineStride + x * pixelStride + bandOffsets[b];
-		int srcOffset = 0;
+		int dst = destOff;
+
+		if (data instanceof DataBufferInt) {
+			final int[] src = ((DataBufferInt) data).getData(bank);
+			lineOffset += data.offsets[bank];
+			if (pixelStride == 1 && destStep == 1) {
+				for (int i = 0; i < h; i++, dst += w) {
+					System.arraycopy(src, lineOffset, dest, dst, w);
+					lineOffset += scanlineStride;
+				}
+				return;
+			}
+			for (int i = 0; i < h; i++) {
+				for (int j = 0, off = lineOffset; j < w; j++, off += pixelStride) {
+					dest[dst] = src[off];
+					dst += destStep;
+				}
+				lineOffset += scanlineStride;
+			}
+		} else if (data instanceof DataBufferByte) {
+			final byte[] src = ((DataBufferByte) data).getData(bank);
+			lineOffset += data.offsets[bank];
+			for (int i = 0; i < h; i++) {
+				for (int j = 0, off = lineOffset; j < w; j++, off += pixelStride) {
+					dest[dst] = src[off] & 0xff;
+					dst += destStep;
+				}
+				lineOffset += scanlineStride;
+			}
+		} else if (data instanceof DataBufferUShort) {
+			final short[] src = ((DataBufferUShort) data).getData(bank);
+			lineOffset += data.offsets[bank];
+			for (int i = 0; i < h; i++) {
+				for (int j = 0, off = lineOffset; j < w; j++, off += pixelStride) {
+					dest[dst] = src[off] & 0xffff;
+					dst += destStep;
+				}
+				lineOffset += scanlineStride;
+			}
+		} else {
+			for (int i = 0; i < h; i++) {
+				for (int j = 0, off = lineOffset; j < w; j++, off += pixelStride) {
+					dest[dst] = data.getElem(bank, off);
+					dst += destStep;
+				}
+				lineOffset += scanlineStride;
+			}
+		}
+	}
 
-		for (int i = 0; i < h; i++) {
-			int sampleOffset = lineOffset;
-			for (int j = 0; j < w; j++) {
-				data.setElem(bankIndices[b], sampleOffset, iArray[srcOffset++]);
-				sampleOffset += pixelStride;
+	/**
+	 * writes band <code>b</code> of a region from <code>src</code>, the
+	 * counterpart of {@link #readBand}.
+	 */
+	final void writeBand(int x, int y, int w, int h, int b, int[] src, int srcOff, int srcStep,
+			DataBuffer data) {
+		final int bank = bankIndices[b];
+		int lineOffset = y * scanlineStride + x * pixelStride + bandOffsets[b];
+		int from = srcOff;
+
+		if (data instanceof DataBufferInt) {
+			final int[] dest = ((DataBufferInt) data).getData(bank);
+			lineOffset += data.offsets[bank];
+			if (pixelStride == 1 && srcStep == 1) {
+				for (int i = 0; i < h; i++, from += w) {
+					System.arraycopy(src, from, dest, lineOffset, w);
+					lineOffset += scanlineStride;
+				}
+				return;
+			}
+			for (int i = 0; i < h; i++) {
+				for (int j = 0, off = lineOffset; j < w; j++, off += pixelStride) {
+					dest[off] = src[from];
+					from += srcStep;
+				}
+				lineOffset += scanlineStride;
+			}
+		} else if (data instanceof DataBufferByte) {
+			final byte[] dest = ((DataBufferByte) data).getData(bank);
+			lineOffset += data.offsets[bank];
+			for (int i = 0; i < h; i++) {
+				for (int j = 0, off = lineOffset; j < w; j++, off += pixelStride) {
+					dest[off] = (byte) src[from];
+					from += srcStep;
+				}
+				lineOffset += scanlineStride;
+			}
+		} else if (data instanceof DataBufferUShort) {
+			final short[] dest = ((DataBufferUShort) data).getData(bank);
+			lineOffset += data.offsets[bank];
+			for (int i = 0; i < h; i++) {
+				for (int j = 0, off = lineOffset; j < w; j++, off += pixelStride) {
+					dest[off] = (short) src[from];
+					from += srcStep;
+				}
+				lineOffset += scanlineStride;
+			}
+		} else {
+			for (int i = 0; i < h; i++) {
+				for (int j = 0, off = lineOffset; j < w; j++, off += pixelStride) {
+					data.setElem(bank, off, src[from]);
+					from += srcStep;
+				}
+				lineOffset += scanlineStride;
 			}
-			lineOffset += scanlineStride;
 		}
 	}
 
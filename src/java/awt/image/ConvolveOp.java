@@ -0,0 +1,350 @@
+/*
+ * Copyright (c) 1999, 2007, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package java.awt.image;
+
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+
+/**
+ * This class implements a convolution from the source to the destination.
+ * Convolution using a convolution kernel is a spatial operation that computes
+ * the output pixel from an input pixel by multiplying the kernel with the
+ * surround of the input pixel. This allows the output pixel to be affected by
+ * the immediate neighborhood in a way that can be mathematically specified
+ * with a kernel.
+ * <p>
+ * The source pixels are convolved premultiplied by their alpha, an opaque
+ * source is convolved on its color components only. The rows are processed
+ * in tiles on all the processors; a kernel which is the product of a column
+ * and a row (such as a box or gaussian blur) is applied in two passes of
+ * <code>width + height</code> multiplications per pixel instead of
+ * <code>width * height</code>.
+ * <p>
+ * EDGE_ZERO_FILL and EDGE_NO_OP are the edge conditions : the pixels at the
+ * edge of the destination, where the kernel does not fit in the source, are
+ * set to zero or copied from the source.
+ *
+ * @see Kernel
+ * @see java.awt.RenderingHints#KEY_COLOR_RENDERING
+ * @see java.awt.RenderingHints#KEY_DITHERING
+ */
+public class ConvolveOp implements BufferedImageOp {
+	Kernel kernel;
+	int edgeHint;
+	RenderingHints hints;
+
+	public static final int EDGE_ZERO_FILL = 0;
+
+	public static final int EDGE_NO_OP = 1;
+
+	/**
+	 * the kernel rotated by 180 degrees, and its origin moved along, so that
+	 * it is applied as a correlation : the value of a pixel is the sum of the
+	 * source pixels weighted by the kernel mirrored around the pixel, as in
+	 * the JDK.
+	 */
+	private final float[] kernelData;
+	private final int xOrigin;
+	private final int yOrigin;
+
+	/**
+	 * the row and column factors of the kernel, both null if it is not
+	 * separable.
+	 */
+	private final float[] rowFactors;
+	private final float[] columnFactors;
+
+	public ConvolveOp(Kernel kernel, int edgeCondition, RenderingHints hints) {
+		this.kernel = kernel;
+		this.edgeHint = edgeCondition;
+		this.hints = hints;
+		final int kw = kernel.getWidth();
+		final int kh = kernel.getHeight();
+		final float[] data = kernel.getKernelData(null);
+		this.kernelData = new float[data.length];
+		for (int i = 0; i < data.length; i++) {
+			kernelData[i] = data[data.length - 1 - i];
+		}
+		this.xOrigin = kw - 1 - kernel.getXOrigin();
+		this.yOrigin = kh - 1 - kernel.getYOrigin();
+
+		final float[][] factors = separate(kernelData, kw, kh);
+		if (factors == null) {
+			rowFactors = null;
+			columnFactors = null;
+		} else {
+			rowFactors = factors[0];
+			columnFactors = factors[1];
+		}
+	}
+
+	public ConvolveOp(Kernel kernel) {
+		this(kernel, EDGE_ZERO_FILL, null);
+	}
+
+	public int getEdgeCondition() {
+		return edgeHint;
+	}
+
+	public final Kernel getKernel() {
+		return (Kernel) kernel.clone();
+	}
+
+	/**
+	 * @return the row factors and the column factors whose products are the
+	 *         kernel <code>data</code>, or null if there are not such
+	 *         factors.
+	 */
+	private static float[][] separate(final float[] data, final int kw, final int kh) {
+		if (kw == 1 || kh == 1) {
+			// a single row or column is applied as is.
+			return null;
+		}
+
+		int pivot = 0;
+		for (int i = 1; i < data.length; i++) {
+			if (Math.abs(data[i]) > Math.abs(data[pivot])) {
+				pivot = i;
+			}
+		}
+		final float max = data[pivot];
+		if (max == 0.0f) {
+			return null;
+		}
+
+		final int pivotRow = pivot / kw;
+		final int pivotColumn = pivot % kw;
+		final float[] row = new float[kw];
+		final float[] column = new float[kh];
+		for (int x = 0; x < kw; x++) {
+			row[x] = data[pivotRow * kw + x];
+		}
+		for (int y = 0; y < kh; y++) {
+			column[y] = data[y * kw + pivotColumn] / max;
+		}
+
+		final float tolerance = Math.abs(max) * 1.0E-6f;
+		for (int y = 0; y < kh; y++) {
+			for (int x = 0; x < kw; x++) {
+				if (Math.abs(data[y * kw + x] - column[y] * row[x]) > tolerance) {
+					return null;
+				}
+			}
+		}
+		return new float[][] { row, column };
+	}
+
+	public final BufferedImage filter(BufferedImage src, BufferedImage dst) {
+		if (src == null) {
+			throw new NullPointerException("src image is null");
+		}
+		if (src == dst) {
+			throw new IllegalArgumentException("src image cannot be the same as the dst image");
+		}
+		if (dst == null) {
+			dst = createCompatibleDestImage(src, null);
+		}
+
+		final int srcScan = src.getWidth();
+		final int dstScan = dst.getWidth();
+		final int w = Math.min(srcScan, dstScan);
+		final int h = Math.min(src.getHeight(), dst.getHeight());
+		final int[] srcPixels = src.getPixelsForOp();
+		final int[] dstPixels = dst.getPixelsForOp();
+		final boolean isOpaque = ImageOpTiles.isOpaque(src, srcPixels);
+		final int[] in = isOpaque ? srcPixels : ImageOpTiles.premultiply(srcPixels, srcScan,
+				src.getHeight());
+
+		ImageOpTiles.forEachTile(w, h, new ImageOpTiles.RowTask() {
+			@Override
+			public void run(final int minY, final int maxY) {
+				if (rowFactors != null) {
+					convolveSeparable(in, srcPixels, srcScan, dstPixels, dstScan, w, h, isOpaque,
+							minY, maxY);
+				} else {
+					convolve(in, srcPixels, srcScan, dstPixels, dstScan, w, h, isOpaque, minY,
+							maxY);
+				}
+			}
+		});
+
+		dst.pixelsChangedByOp();
+		return dst;
+	}
+
+	private int edgePixel(final int[] srcPixels, final int srcIndex, final boolean isOpaque) {
+		if (edgeHint == EDGE_NO_OP) {
+			return isOpaque ? (srcPixels[srcIndex] | 0xFF000000) : srcPixels[srcIndex];
+		}
+		return 0;
+	}
+
+	private void convolve(final int[] in, final int[] srcPixels, final int srcScan,
+			final int[] out, final int dstScan, final int w, final int h, final boolean isOpaque,
+			final int minY, final int maxY) {
+		final int kw = kernel.getWidth();
+		final int kh = kernel.getHeight();
+		final int xo = xOrigin;
+		final int yo = yOrigin;
+		final float[] kd = kernelData;
+		final int insideMinX = xo;
+		final int insideMaxX = w - (kw - 1 - xo);
+		final int insideMinY = yo;
+		final int insideMaxY = h - (kh - 1 - yo);
+
+		for (int y = minY; y < maxY; y++) {
+			final boolean isRowInside = y >= insideMinY && y < insideMaxY;
+			final int srcRow = y * srcScan;
+			final int dstRow = y * dstScan;
+			for (int x = 0; x < w; x++) {
+				if (isRowInside == false || x < insideMinX || x >= insideMaxX) {
+					out[dstRow + x] = edgePixel(srcPixels, srcRow + x, isOpaque);
+					continue;
+				}
+
+				float a = 0, r = 0, g = 0, b = 0;
+				int k = 0;
+				for (int ky = 0; ky < kh; ky++) {
+					final int si = (y - yo + ky) * srcScan + x - xo;
+					for (int kx = 0; kx < kw; kx++) {
+						final float f = kd[k++];
+						final int p = in[si + kx];
+						a += f * (p >>> 24);
+						r += f * ((p >> 16) & 0xFF);
+						g += f * ((p >> 8) & 0xFF);
+						b += f * (p & 0xFF);
+					}
+				}
+				out[dstRow + x] = isOpaque ? ImageOpTiles.pack(255, r, g, b) : ImageOpTiles
+						.unpremultiply(a, r, g, b);
+			}
+		}
+	}
+
+	/**
+	 * convolves the rows in two passes : the row factors over the source rows
+	 * needed by the tile, then the column factors over these intermediate
+	 * rows.
+	 */
+	private void convolveSeparable(final int[] in, final int[] srcPixels, final int srcScan,
+			final int[] out, final int dstScan, final int w, final int h, final boolean isOpaque,
+			final int minY, final int maxY) {
+		final int kw = rowFactors.length;
+		final int kh = columnFactors.length;
+		final int xo = xOrigin;
+		final int yo = yOrigin;
+		final int insideMinX = xo;
+		final int insideMaxX = w - (kw - 1 - xo);
+		final int insideMinY = Math.max(minY, yo);
+		final int insideMaxY = Math.min(maxY, h - (kh - 1 - yo));
+
+		for (int y = minY; y < maxY; y++) {
+			final boolean isRowInside = y >= insideMinY && y < insideMaxY
+					&& insideMaxX > insideMinX;
+			final int srcRow = y * srcScan;
+			final int dstRow = y * dstScan;
+			for (int x = 0; x < w; x++) {
+				if (isRowInside == false || x < insideMinX || x >= insideMaxX) {
+					out[dstRow + x] = edgePixel(srcPixels, srcRow + x, isOpaque);
+				}
+			}
+		}
+		if (insideMaxY <= insideMinY || insideMaxX <= insideMinX) {
+			return;
+		}
+
+		final int iw = insideMaxX - insideMinX;
+		final int rows = insideMaxY - insideMinY + kh - 1;
+		final int firstSrcRow = insideMinY - yo;
+		final float[] ta = isOpaque ? null : new float[rows * iw];
+		final float[] tr = new float[rows * iw];
+		final float[] tg = new float[rows * iw];
+		final float[] tb = new float[rows * iw];
+
+		for (int row = 0, ti = 0; row < rows; row++) {
+			final int si = (firstSrcRow + row) * srcScan + insideMinX - xo;
+			for (int x = 0; x < iw; x++, ti++) {
+				float a = 0, r = 0, g = 0, b = 0;
+				for (int kx = 0; kx < kw; kx++) {
+					final float f = rowFactors[kx];
+					final int p = in[si + x + kx];
+					a += f * (p >>> 24);
+					r += f * ((p >> 16) & 0xFF);
+					g += f * ((p >> 8) & 0xFF);
+					b += f * (p & 0xFF);
+				}
+				if (ta != null) {
+					ta[ti] = a;
+				}
+				tr[ti] = r;
+				tg[ti] = g;
+				tb[ti] = b;
+			}
+		}
+
+		for (int y = insideMinY; y < insideMaxY; y++) {
+			final int firstRow = (y - insideMinY) * iw;
+			final int di = y * dstScan + insideMinX;
+			for (int x = 0; x < iw; x++) {
+				float a = 0, r = 0, g = 0, b = 0;
+				for (int ky = 0, ti = firstRow + x; ky < kh; ky++, ti += iw) {
+					final float f = columnFactors[ky];
+					if (ta != null) {
+						a += f * ta[ti];
+					}
+					r += f * tr[ti];
+					g += f * tg[ti];
+					b += f * tb[ti];
+				}
+				out[di + x] = isOpaque ? ImageOpTiles.pack(255, r, g, b) : ImageOpTiles
+						.unpremultiply(a, r, g, b);
+			}
+		}
+	}
+
+	public BufferedImage createCompatibleDestImage(BufferedImage src, ColorModel destCM) {
+		return ImageOpTiles.createCompatibleDestImage(src, src.getWidth(), src.getHeight(),
+				destCM);
+	}
+
+	public final Rectangle2D getBounds2D(BufferedImage src) {
+		return new Rectangle(0, 0, src.getWidth(), src.getHeight());
+	}
+
+	public final Point2D getPoint2D(Point2D srcPt, Point2D dstPt) {
+		if (dstPt == null) {
+			dstPt = new Point2D.Float();
+		}
+		dstPt.setLocation(srcPt.getX(), srcPt.getY());
+
+		return dstPt;
+	}
+
+	public final RenderingHints getRenderingHints() {
+		return hints;
+	}
+}
@@ -144,36 +144,41 @@ public abstract class DataBuffer {
 	public abstract int getElem(int bank, int i);
 
 	public void setElem(int i, int val) {
+		setElem(0, i, val);
 	}
 
 	public abstract void setElem(int bank, int i, int val);
 
 	public float getElemFloat(int i) {
-		return 0;
+		return (float) getElem(i);
 	}
 
 	public float getElemFloat(int bank, int i) {
-		return 0;
+		return (float) getElem(bank, i);
 	}
 
 	public void setElemFloat(int i, float val) {
+		setElem(i, (int) val);
 	}
 
 	public void setElemFloat(int bank, int i, float val) {
+		setElem(bank, i, (int) val);
 	}
 
 	public double getElemDouble(int i) {
-		return 0;
+		return (double) getElem(i);
 	}
 
 	public double getElemDouble(int bank, int i) {
-		return 0;
+		return (double) getElem(bank, i);
 	}
 
 	public void setElemDouble(int i, double val) {
+		setElem(i, (int) val);
 	}
 
 	public void setElemDouble(int bank, int i, double val) {
+		setElem(bank, i, (int) val);
 	}
 
 	static int[] toIntArray(Object obj) {
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 1999, 2007, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+/* ****************************************************************
+ ******************************************************************
+ ******************************************************************
+ *** COPYRIGHT (c) Eastman Kodak Company, 1997
+ *** As  an unpublished  work pursuant to Title 17 of the United
+ *** States Code.  All rights reserved.
+ ******************************************************************
+ ******************************************************************
+ ******************************************************************/
+
+
+package java.awt.image;
+
+/**
+ * This class extends <CODE>DataBuffer</CODE> and stores data internally as
+ * bytes. Values stored in the byte array(s) of this
+ * <CODE>DataBuffer</CODE> are treated as unsigned 8-bit values.
+ * <p>
+ * The arrays returned by {@link #getData()}, {@link #getData(int)} and
+ * {@link #getBankData()} are the live storage of this buffer, sample models
+ * index them directly for bulk access.
+ */
+public final class DataBufferByte extends DataBuffer {
+	byte data[];
+	byte bankdata[][];
+
+	public DataBufferByte(int size) {
+		super(TYPE_BYTE, size);
+		data = new byte[size];
+		bankdata = new byte[1][];
+		bankdata[0] = data;
+	}
+
+	public DataBufferByte(int size, int numBanks) {
+		super(TYPE_BYTE, size, numBanks);
+		bankdata = new byte[numBanks][];
+		for (int i = 0; i < numBanks; i++) {
+			bankdata[i] = new byte[size];
+		}
+		data = bankdata[0];
+	}
+
+	public DataBufferByte(byte dataArray[], int size) {
+		super(TYPE_BYTE, size);
+		data = dataArray;
+		bankdata = new byte[1][];
+		bankdata[0] = data;
+	}
+
+	public DataBufferByte(byte dataArray[], int size, int offset) {
+		super(TYPE_BYTE, size, 1, offset);
+		if (size + offset > dataArray.length) {
+			throw new IllegalArgumentException("Length of dataArray is less than size+offset.");
+		}
+		data = dataArray;
+		bankdata = new byte[1][];
+		bankdata[0] = data;
+	}
+
+	public DataBufferByte(byte dataArray[][], int size) {
+		super(TYPE_BYTE, size, dataArray.length);
+		bankdata = (byte[][]) dataArray.clone();
+		data = bankdata[0];
+	}
+
+	public DataBufferByte(byte dataArray[][], int size, int offsets[]) {
+		super(TYPE_BYTE, size, dataArray.length, offsets);
+		bankdata = (byte[][]) dataArray.clone();
+		data = bankdata[0];
+	}
+
+	public byte[] getData() {
+		return data;
+	}
+
+	public byte[] getData(int bank) {
+		return bankdata[bank];
+	}
+
+	public byte[][] getBankData() {
+		return (byte[][]) bankdata.clone();
+	}
+
+	public int getElem(int i) {
+		return (int) (data[i + offset]) & 0xff;
+	}
+
+	public int getElem(int bank, int i) {
+		return (int) (bankdata[bank][i + offsets[bank]]) & 0xff;
+	}
+
+	public void setElem(int i, int val) {
+		data[i + offset] = (byte) val;
+	}
+
+	public void setElem(int bank, int i, int val) {
+		bankdata[bank][i + offsets[bank]] = (byte) val;
+	}
+}
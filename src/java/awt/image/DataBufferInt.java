@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 1999, 2007, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+/* ****************************************************************
+ ******************************************************************
+ ******************************************************************
+ *** COPYRIGHT (c) Eastman Kodak Company, 1997
+ *** As  an unpublished  work pursuant to Title 17 of the United
+ *** States Code.  All rights reserved.
+ ******************************************************************
+ ******************************************************************
+ ******************************************************************/
+
+
+package java.awt.image;
+
+/**
+ * This class extends <CODE>DataBuffer</CODE> and stores data internally as
+ * integers. Values stored in the int array(s) of this
+ * <CODE>DataBuffer</CODE> are treated as 32-bit signed int values.
+ * <p>
+ * The arrays returned by {@link #getData()}, {@link #getData(int)} and
+ * {@link #getBankData()} are the live storage of this buffer, sample models
+ * index them directly for bulk access.
+ */
+public final class DataBufferInt extends DataBuffer {
+	int data[];
+	int bankdata[][];
+
+	/**
+	 * true once the arrays are handed out, their writes can not be tracked
+	 * any more.
+	 */
+	private boolean isDataExposed;
+
+	public DataBufferInt(int size) {
+		super(TYPE_INT, size);
+		data = new int[size];
+		bankdata = new int[1][];
+		bankdata[0] = data;
+	}
+
+	public DataBufferInt(int size, int numBanks) {
+		super(TYPE_INT, size, numBanks);
+		bankdata = new int[numBanks][];
+		for (int i = 0; i < numBanks; i++) {
+			bankdata[i] = new int[size];
+		}
+		data = bankdata[0];
+	}
+
+	public DataBufferInt(int dataArray[], int size) {
+		super(TYPE_INT, size);
+		data = dataArray;
+		bankdata = new int[1][];
+		bankdata[0] = data;
+	}
+
+	public DataBufferInt(int dataArray[], int size, int offset) {
+		super(TYPE_INT, size, 1, offset);
+		if (size + offset > dataArray.length) {
+			throw new IllegalArgumentException("Length of dataArray is less than size+offset.");
+		}
+		data = dataArray;
+		bankdata = new int[1][];
+		bankdata[0] = data;
+	}
+
+	public DataBufferInt(int dataArray[][], int size) {
+		super(TYPE_INT, size, dataArray.length);
+		bankdata = (int[][]) dataArray.clone();
+		data = bankdata[0];
+	}
+
+	public DataBufferInt(int dataArray[][], int size, int offsets[]) {
+		super(TYPE_INT, size, dataArray.length, offsets);
+		bankdata = (int[][]) dataArray.clone();
+		data = bankdata[0];
+	}
+
+	public int[] getData() {
+		isDataExposed = true;
+		return data;
+	}
+
+	public int[] getData(int bank) {
+		isDataExposed = true;
+		return bankdata[bank];
+	}
+
+	public int[][] getBankData() {
+		isDataExposed = true;
+		return (int[][]) bankdata.clone();
+	}
+
+	final boolean isDataExposedAdAPI() {
+		return isDataExposed;
+	}
+
+	public int getElem(int i) {
+		return data[i + offset];
+	}
+
+	public int getElem(int bank, int i) {
+		return bankdata[bank][i + offsets[bank]];
+	}
+
+	public void setElem(int i, int val) {
+		data[i + offset] = val;
+	}
+
+	public void setElem(int bank, int i, int val) {
+		bankdata[bank][i + offsets[bank]] = val;
+	}
+}
@@ -103,7 +103,39 @@ public class DirectColorModel extends PackedColorModel {
 	private int green_mask;
 	private int blue_mask;
 	private int alpha_mask;
-	private boolean is_LinearRGB;
+	private int red_offset;
+	private int green_offset;
+	private int blue_offset;
+	private int alpha_offset;
+
+	/**
+	 * the masks with a conversion loop of their own, the others go through
+	 * lookup tables.
+	 */
+	private static final int FORMAT_OTHER = 0;
+	private static final int FORMAT_INT_ARGB = 1;
+	private static final int FORMAT_INT_RGB = 2;
+	private static final int FORMAT_INT_BGR = 3;
+
+	private int format;
+
+	/**
+	 * ARGB of every pixel value, for models of up to 16 bits, built on first
+	 * bulk conversion.
+	 */
+	private int[] rgbTable;
+
+	/**
+	 * 8 bit sRGB component of every red, green, blue and alpha sample, for
+	 * wider models of samples of up to 8 bits.
+	 */
+	private int[][] toRGBTables;
+
+	/**
+	 * pixel bits of every 8 bit red, green, blue and alpha value, ready to be
+	 * or-ed together.
+	 */
+	private int[][] fromRGBTables;
 
 	public DirectColorModel(int bits, int rmask, int gmask, int bmask) {
 		this(bits, rmask, gmask, bmask, 0);
@@ -143,23 +175,38 @@ public class DirectColorModel extends PackedColorModel {
 		}
 	}
 
+	/**
+	 * the sRGB components of the pixel of a non sRGB color space.
+	 */
 	private float[] getDefaultRGBComponents(int pixel) {
-		return new float[0];
+		float normAlpha = 1.0f;
+		if (supportsAlpha && isAlphaPremultiplied) {
+			normAlpha = ((pixel & maskArray[3]) >>> maskOffsets[3]) / (float) ((1 << nBits[3]) - 1);
+		}
+		float[] norm = new float[numColorComponents];
+		for (int i = 0; i < numColorComponents; i++) {
+			int c = (pixel & maskArray[i]) >>> maskOffsets[i];
+			if (nBits[i] != 0 && normAlpha != 0.0f) {
+				norm[i] = c / (normAlpha * ((1 << nBits[i]) - 1));
+			}
+		}
+		return colorSpace.toRGB(norm);
 	}
 
 	private int getsRGBComponentFromsRGB(int pixel, int idx) {
-		return 0;
-	}
-
-	private int getsRGBComponentFromLinearRGB(int pixel, int idx) {
-		return 0;
+		int c = ((pixel & maskArray[idx]) >>> maskOffsets[idx]);
+		if (isAlphaPremultiplied) {
+			int a = ((pixel & maskArray[3]) >>> maskOffsets[3]);
+			c = (a == 0) ? 0 : (int) (((c * scaleFactors[idx]) * 255.0f / (a * scaleFactors[3])) + 0.5f);
+		} else if (scaleFactors[idx] != 1.0f) {
+			c = (int) ((c * scaleFactors[idx]) + 0.5f);
+		}
+		return c;
 	}
 
 	final public int getRed(int pixel) {
 		if (is_sRGB) {
 			return getsRGBComponentFromsRGB(pixel, 0);
-		} else if (is_LinearRGB) {
-			return getsRGBComponentFromLinearRGB(pixel, 0);
 		}
 		float rgb[] = getDefaultRGBComponents(pixel);
 		return (int) (rgb[0] * 255.0f + 0.5f);
@@ -168,8 +215,6 @@ public class DirectColorModel extends PackedColorModel {
 	final public int getGreen(int pixel) {
 		if (is_sRGB) {
 			return getsRGBComponentFromsRGB(pixel, 1);
-		} else if (is_LinearRGB) {
-			return getsRGBComponentFromLinearRGB(pixel, 1);
 		}
 		float rgb[] = getDefaultRGBComponents(pixel);
 		return (int) (rgb[1] * 255.0f + 0.5f);
@@ -178,8 +223,6 @@ public class DirectColorModel extends PackedColorModel {
 	final public int getBlue(int pixel) {
 		if (is_sRGB) {
 			return getsRGBComponentFromsRGB(pixel, 2);
-		} else if (is_LinearRGB) {
-			return getsRGBComponentFromLinearRGB(pixel, 2);
 		}
 		float rgb[] = getDefaultRGBComponents(pixel);
 		return (int) (rgb[2] * 255.0f + 0.5f);
@@ -196,7 +239,7 @@ public class DirectColorModel extends PackedColorModel {
 	}
 
 	final public int getRGB(int pixel) {
-		if (is_sRGB || is_LinearRGB) {
+		if (is_sRGB) {
 			return (getAlpha(pixel) << 24) | (getRed(pixel) << 16) | (getGreen(pixel) << 8)
 					| (getBlue(pixel) << 0);
 		}
@@ -206,123 +249,285 @@ public class DirectColorModel extends PackedColorModel {
 	}
 
 	public int getRed(Object inData) {
-		int pixel = 0;
-		switch (transferType) {
-		case DataBuffer.TYPE_BYTE:
-			byte bdata[] = (byte[]) inData;
-			pixel = bdata[0] & 0xff;
-			break;
-		case DataBuffer.TYPE_USHORT:
-			short sdata[] = (short[]) inData;
-			pixel = sdata[0] & 0xffff;
-			break;
-		case DataBuffer.TYPE_INT:
-			int idata[] = (int[]) inData;
-			pixel = idata[0];
-			break;
-		default:
-			throw new UnsupportedOperationException("unknow transferType " + transferType);
-		}
-		return getRed(pixel);
+		return getRed(getPixel(inData));
 	}
 
 	public int getGreen(Object inData) {
-		int pixel = 0;
-		switch (transferType) {
-		case DataBuffer.TYPE_BYTE:
-			byte bdata[] = (byte[]) inData;
-			pixel = bdata[0] & 0xff;
-			break;
-		case DataBuffer.TYPE_USHORT:
-			short sdata[] = (short[]) inData;
-			pixel = sdata[0] & 0xffff;
-			break;
-		case DataBuffer.TYPE_INT:
-			int idata[] = (int[]) inData;
-			pixel = idata[0];
-			break;
-		default:
-			throw new UnsupportedOperationException("unknow transferType " + transferType);
-		}
-		return getGreen(pixel);
+		return getGreen(getPixel(inData));
 	}
 
 	public int getBlue(Object inData) {
-		int pixel = 0;
-		switch (transferType) {
-		case DataBuffer.TYPE_BYTE:
-			byte bdata[] = (byte[]) inData;
-			pixel = bdata[0] & 0xff;
-			break;
-		case DataBuffer.TYPE_USHORT:
-			short sdata[] = (short[]) inData;
-			pixel = sdata[0] & 0xffff;
-			break;
-		case DataBuffer.TYPE_INT:
-			int idata[] = (int[]) inData;
-			pixel = idata[0];
-			break;
-		default:
-			throw new UnsupportedOperationException("unknow transferType " + transferType);
-		}
-		return getBlue(pixel);
+		return getBlue(getPixel(inData));
 	}
 
 	public int getAlpha(Object inData) {
-		int pixel = 0;
+		return getAlpha(getPixel(inData));
+	}
+
+	public int getRGB(Object inData) {
+		return getRGB(getPixel(inData));
+	}
+
+	private int getPixel(Object inData) {
 		switch (transferType) {
 		case DataBuffer.TYPE_BYTE:
 			byte bdata[] = (byte[]) inData;
-			pixel = bdata[0] & 0xff;
-			break;
+			return bdata[0] & 0xff;
 		case DataBuffer.TYPE_USHORT:
 			short sdata[] = (short[]) inData;
-			pixel = sdata[0] & 0xffff;
-			break;
+			return sdata[0] & 0xffff;
 		case DataBuffer.TYPE_INT:
 			int idata[] = (int[]) inData;
-			pixel = idata[0];
-			break;
+			return idata[0];
 		default:
-			throw new UnsupportedOperationException("unknow transferType " + transferType);
+			throw new UnsupportedOperationException("This method has not been "
+					+ "implemented for transferType " + transferType);
 		}
-		return getAlpha(pixel);
 	}
 
-	public int getRGB(Object inData) {
-		int pixel = 0;
+	private Object setPixel(int pixel, Object outData) {
 		switch (transferType) {
-		case DataBuffer.TYPE_BYTE:
-			byte bdata[] = (byte[]) inData;
-			pixel = bdata[0] & 0xff;
-			break;
-		case DataBuffer.TYPE_USHORT:
-			short sdata[] = (short[]) inData;
-			pixel = sdata[0] & 0xffff;
-			break;
-		case DataBuffer.TYPE_INT:
-			int idata[] = (int[]) inData;
-			pixel = idata[0];
-			break;
+		case DataBuffer.TYPE_BYTE: {
+			byte bdata[] = (outData == null) ? new byte[1] : (byte[]) outData;
+			bdata[0] = (byte) pixel;
+			return bdata;
+		}
+		case DataBuffer.TYPE_USHORT: {
+			short sdata[] = (outData == null) ? new short[1] : (short[]) outData;
+			sdata[0] = (short) pixel;
+			return sdata;
+		}
+		case DataBuffer.TYPE_INT: {
+			int idata[] = (outData == null) ? new int[1] : (int[]) outData;
+			idata[0] = pixel;
+			return idata;
+		}
 		default:
-			throw new UnsupportedOperationException("unknow transferType " + transferType);
+			throw new ClassCastException("This method has not been "
+					+ "implemented for transferType " + transferType);
 		}
-		return getRGB(pixel);
 	}
 
 	public Object getDataElements(int rgb, Object pixel) {
-		int intpixel[] = null;
-		ColorModel defaultCM = ColorModel.getRGBdefault();
-		if (this == defaultCM || equals(defaultCM)) {
-			intpixel[0] = rgb;
-			return intpixel;
+		return setPixel(toPixel(rgb), pixel);
+	}
+
+	private int toPixel(int rgb) {
+		if (is_sRGB && !isAlphaPremultiplied) {
+			final int[][] tables = getFromRGBTables();
+			int pixel = tables[0][(rgb >> 16) & 0xff] | tables[1][(rgb >> 8) & 0xff]
+					| tables[2][rgb & 0xff];
+			if (supportsAlpha) {
+				pixel |= tables[3][rgb >>> 24];
+			}
+			return pixel;
 		}
 
-		switch (transferType) {
-		case DataBuffer.TYPE_INT:
-			return intpixel;
+		final int alpha = rgb >>> 24;
+		float[] c = { ((rgb >> 16) & 0xff) / 255.0f, ((rgb >> 8) & 0xff) / 255.0f,
+				(rgb & 0xff) / 255.0f };
+		if (!is_sRGB) {
+			c = colorSpace.fromRGB(c);
+		}
+		final float factor = (supportsAlpha && isAlphaPremultiplied) ? alpha / 255.0f : 1.0f;
+		int pixel = 0;
+		for (int i = 0; i < numColorComponents; i++) {
+			pixel |= ((int) (c[i] * factor * ((1 << nBits[i]) - 1) + 0.5f) << maskOffsets[i])
+					& maskArray[i];
+		}
+		if (supportsAlpha) {
+			pixel |= scaleFromRGB(alpha, 3);
+		}
+		return pixel;
+	}
+
+	/**
+	 * the pixel bits of the 8 bit value of component <code>idx</code>.
+	 */
+	private int scaleFromRGB(int value, int idx) {
+		return ((int) (value / 255.0f * ((1 << nBits[idx]) - 1) + 0.5f) << maskOffsets[idx])
+				& maskArray[idx];
+	}
+
+	private synchronized int[][] getFromRGBTables() {
+		if (fromRGBTables == null) {
+			final int[][] tables = new int[numComponents][256];
+			for (int i = 0; i < numComponents; i++) {
+				for (int v = 0; v < 256; v++) {
+					tables[i][v] = scaleFromRGB(v, i);
+				}
+			}
+			fromRGBTables = tables;
+		}
+		return fromRGBTables;
+	}
+
+	private synchronized int[] getRGBTable() {
+		if (rgbTable == null) {
+			final int[] table = new int[1 << pixel_bits];
+			for (int i = 0; i < table.length; i++) {
+				table[i] = getRGB(i);
+			}
+			rgbTable = table;
+		}
+		return rgbTable;
+	}
+
+	/**
+	 * null if the pixels are not sRGB of samples of up to 8 bits.
+	 */
+	private synchronized int[][] getToRGBTables() {
+		if (toRGBTables == null) {
+			if (!is_sRGB || isAlphaPremultiplied || maxBits > 8) {
+				return null;
+			}
+			final int[][] tables = new int[numComponents][];
+			for (int i = 0; i < numComponents; i++) {
+				tables[i] = new int[1 << nBits[i]];
+				for (int v = 0; v < tables[i].length; v++) {
+					tables[i][v] = (scaleFactors[i] != 1.0f) ? (int) (v * scaleFactors[i] + 0.5f) : v;
+				}
+			}
+			toRGBTables = tables;
+		}
+		return toRGBTables;
+	}
+
+	/**
+	 * converts a run of pixels at once: models of up to 16 bits, such as
+	 * RGB565 and RGB555, through a table of the ARGB of every pixel value,
+	 * <code>INT_ARGB</code>, <code>INT_RGB</code> and <code>INT_BGR</code> by
+	 * loops of their own and others through per sample tables.
+	 */
+	public int[] getRGBsAdAPI(Object inData, int inOffset, int[] rgbs, int rgbOffset, int length) {
+		if (rgbs == null) {
+			rgbs = new int[rgbOffset + length];
+		}
+
+		if (pixel_bits <= 16) {
+			final int[] table = getRGBTable();
+			final int mask = table.length - 1;
+			if (inData instanceof byte[]) {
+				final byte[] src = (byte[]) inData;
+				for (int i = 0; i < length; i++) {
+					rgbs[rgbOffset + i] = table[src[inOffset + i] & mask];
+				}
+			} else if (inData instanceof short[]) {
+				final short[] src = (short[]) inData;
+				for (int i = 0; i < length; i++) {
+					rgbs[rgbOffset + i] = table[src[inOffset + i] & mask];
+				}
+			} else {
+				final int[] src = (int[]) inData;
+				for (int i = 0; i < length; i++) {
+					rgbs[rgbOffset + i] = table[src[inOffset + i] & mask];
+				}
+			}
+			return rgbs;
+		}
+
+		if (!(inData instanceof int[])) {
+			return super.getRGBsAdAPI(inData, inOffset, rgbs, rgbOffset, length);
+		}
+		final int[] src = (int[]) inData;
+		switch (format) {
+		case FORMAT_INT_ARGB:
+			System.arraycopy(src, inOffset, rgbs, rgbOffset, length);
+			return rgbs;
+		case FORMAT_INT_RGB:
+			for (int i = 0; i < length; i++) {
+				rgbs[rgbOffset + i] = src[inOffset + i] | 0xff000000;
+			}
+			return rgbs;
+		case FORMAT_INT_BGR:
+			for (int i = 0; i < length; i++) {
+				final int p = src[inOffset + i];
+				rgbs[rgbOffset + i] = 0xff000000 | ((p & 0xff) << 16) | (p & 0xff00)
+						| ((p >> 16) & 0xff);
+			}
+			return rgbs;
+		}
+
+		final int[][] tables = getToRGBTables();
+		if (tables == null) {
+			return super.getRGBsAdAPI(inData, inOffset, rgbs, rgbOffset, length);
 		}
-		throw new UnsupportedOperationException("unknow transferType " + transferType);
+		final int[] r = tables[0], g = tables[1], b = tables[2];
+		final int[] a = supportsAlpha ? tables[3] : null;
+		for (int i = 0; i < length; i++) {
+			final int p = src[inOffset + i];
+			final int alpha = (a == null) ? 0xff000000 : a[(p & alpha_mask) >>> alpha_offset] << 24;
+			rgbs[rgbOffset + i] = alpha | (r[(p & red_mask) >>> red_offset] << 16)
+					| (g[(p & green_mask) >>> green_offset] << 8)
+					| b[(p & blue_mask) >>> blue_offset];
+		}
+		return rgbs;
+	}
+
+	/**
+	 * the reverse of {@link #getRGBsAdAPI(Object, int, int[], int, int)}, the
+	 * samples of sRGB models come from a table of the pixel bits of every 8
+	 * bit value.
+	 */
+	public Object getDataElementsAdAPI(int[] rgbs, int rgbOffset, Object outData, int outOffset,
+			int length) {
+		if (outData == null) {
+			outData = createDataArray(transferType, outOffset + length);
+		}
+		if (!is_sRGB || isAlphaPremultiplied) {
+			return super.getDataElementsAdAPI(rgbs, rgbOffset, outData, outOffset, length);
+		}
+
+		if (outData instanceof int[]) {
+			final int[] dest = (int[]) outData;
+			switch (format) {
+			case FORMAT_INT_ARGB:
+				System.arraycopy(rgbs, rgbOffset, dest, outOffset, length);
+				return dest;
+			case FORMAT_INT_RGB:
+				for (int i = 0; i < length; i++) {
+					dest[outOffset + i] = rgbs[rgbOffset + i] & 0xffffff;
+				}
+				return dest;
+			case FORMAT_INT_BGR:
+				for (int i = 0; i < length; i++) {
+					final int rgb = rgbs[rgbOffset + i];
+					dest[outOffset + i] = ((rgb & 0xff) << 16) | (rgb & 0xff00)
+							| ((rgb >> 16) & 0xff);
+				}
+				return dest;
+			}
+		}
+
+		final int[][] tables = getFromRGBTables();
+		final int[] r = tables[0], g = tables[1], b = tables[2];
+		final int[] a = supportsAlpha ? tables[3] : null;
+		if (outData instanceof byte[]) {
+			final byte[] dest = (byte[]) outData;
+			for (int i = 0; i < length; i++) {
+				final int rgb = rgbs[rgbOffset + i];
+				final int alpha = (a == null) ? 0 : a[rgb >>> 24];
+				dest[outOffset + i] = (byte) (alpha | r[(rgb >> 16) & 0xff] | g[(rgb >> 8) & 0xff]
+						| b[rgb & 0xff]);
+			}
+		} else if (outData instanceof short[]) {
+			final short[] dest = (short[]) outData;
+			for (int i = 0; i < length; i++) {
+				final int rgb = rgbs[rgbOffset + i];
+				final int alpha = (a == null) ? 0 : a[rgb >>> 24];
+				dest[outOffset + i] = (short) (alpha | r[(rgb >> 16) & 0xff] | g[(rgb >> 8) & 0xff]
+						| b[rgb & 0xff]);
+			}
+		} else {
+			final int[] dest = (int[]) outData;
+			for (int i = 0; i < length; i++) {
+				final int rgb = rgbs[rgbOffset + i];
+				final int alpha = (a == null) ? 0 : a[rgb >>> 24];
+				dest[outOffset + i] = alpha | r[(rgb >> 16) & 0xff] | g[(rgb >> 8) & 0xff]
+						| b[rgb & 0xff];
+			}
+		}
+		return outData;
 	}
 
 	final public int[] getComponents(int pixel, int[] components, int offset) {
@@ -338,16 +543,7 @@ public class DirectColorModel extends PackedColorModel {
 	}
 
 	final public int[] getComponents(Object pixel, int[] components, int offset) {
-		int intpixel = 0;
-		switch (transferType) {
-		case DataBuffer.TYPE_INT:
-			int idata[] = (int[]) pixel;
-			intpixel = idata[0];
-			break;
-		default:
-			throw new UnsupportedOperationException("unknow transferType " + transferType);
-		}
-		return getComponents(intpixel, components, offset);
+		return getComponents(getPixel(pixel), components, offset);
 	}
 
 	final public WritableRaster createCompatibleWritableRaster(int w, int h) {
@@ -368,8 +564,10 @@ public class DirectColorModel extends PackedColorModel {
 
 		if (pixel_bits > 16) {
 			return Raster.createPackedRaster(DataBuffer.TYPE_INT, w, h, bandmasks, null);
+		} else if (pixel_bits > 8) {
+			return Raster.createPackedRaster(DataBuffer.TYPE_USHORT, w, h, bandmasks, null);
 		} else {
-			return null;
+			return Raster.createPackedRaster(DataBuffer.TYPE_BYTE, w, h, bandmasks, null);
 		}
 	}
 
@@ -382,23 +580,7 @@ public class DirectColorModel extends PackedColorModel {
 	}
 
 	public Object getDataElements(int[] components, int offset, Object obj) {
-		int pixel = 0;
-		for (int i = 0; i < numComponents; i++) {
-			pixel |= ((components[offset + i] << maskOffsets[i]) & maskArray[i]);
-		}
-		switch (transferType) {
-		case DataBuffer.TYPE_INT:
-			if (obj instanceof int[]) {
-				int idata[] = (int[]) obj;
-				idata[0] = pixel;
-				return idata;
-			} else {
-				int idata[] = { pixel };
-				return idata;
-			}
-		default:
-			throw new ClassCastException("unknow transferType " + transferType);
-		}
+		return setPixel(getDataElement(components, offset), obj);
 	}
 
 	final public ColorModel coerceData(WritableRaster raster, boolean isAlphaPremultiplied) {
@@ -406,10 +588,52 @@ public class DirectColorModel extends PackedColorModel {
 	}
 
 	public boolean isCompatibleRaster(Raster raster) {
-		return false;
+		SampleModel sm = raster.getSampleModel();
+		SinglePixelPackedSampleModel spsm;
+		if (sm instanceof SinglePixelPackedSampleModel) {
+			spsm = (SinglePixelPackedSampleModel) sm;
+		} else {
+			return false;
+		}
+		if (spsm.getNumBands() != getNumComponents()) {
+			return false;
+		}
+
+		int[] bitMasks = spsm.getBitMasks();
+		for (int i = 0; i < numComponents; i++) {
+			if (bitMasks[i] != maskArray[i]) {
+				return false;
+			}
+		}
+
+		return (raster.getTransferType() == transferType);
 	}
 
 	private void setFields() {
+		red_mask = maskArray[0];
+		red_offset = maskOffsets[0];
+		green_mask = maskArray[1];
+		green_offset = maskOffsets[1];
+		blue_mask = maskArray[2];
+		blue_offset = maskOffsets[2];
+		if (supportsAlpha) {
+			alpha_mask = maskArray[3];
+			alpha_offset = maskOffsets[3];
+		}
+
+		format = FORMAT_OTHER;
+		if (is_sRGB && !isAlphaPremultiplied && transferType == DataBuffer.TYPE_INT) {
+			if (red_mask == 0xff0000 && green_mask == 0xff00 && blue_mask == 0xff) {
+				if (alpha_mask == 0xff000000) {
+					format = FORMAT_INT_ARGB;
+				} else if (alpha_mask == 0) {
+					format = FORMAT_INT_RGB;
+				}
+			} else if (red_mask == 0xff && green_mask == 0xff00 && blue_mask == 0xff0000
+					&& alpha_mask == 0) {
+				format = FORMAT_INT_BGR;
+			}
+		}
 	}
 
 	public String toString() {
@@ -417,4 +641,4 @@ public class DirectColorModel extends PackedColorModel {
 				+ Integer.toHexString(green_mask) + " bmask=" + Integer.toHexString(blue_mask)
 				+ " amask=" + Integer.toHexString(alpha_mask));
 	}
-}
\ No newline at end of file
+}
@@ -24,6 +24,8 @@
  */
 package java.awt.image;
 
+import java.awt.Image;
+
 /**
  * An asynchronous update interface for receiving notifications about Image
  * information as the Image is constructed.
@@ -31,4 +33,87 @@ package java.awt.image;
  * @author Jim Graham
  */
 public interface ImageObserver {
+	/**
+	 * This method is called when information about an image which was
+	 * previously requested using an asynchronous interface becomes available.
+	 * Asynchronous interfaces are method calls such as getWidth(ImageObserver)
+	 * and drawImage(img, x, y, ImageObserver) which take an ImageObserver
+	 * object as an argument. Those methods register the caller as interested
+	 * either in information about the overall image itself (in the case of
+	 * getWidth(ImageObserver)) or about an output version of an image (in the
+	 * case of the drawImage(img, x, y, [w, h,] ImageObserver) call).
+	 *
+	 * <p>
+	 * This method should return true if further updates are needed or false
+	 * if the required information has been acquired. The image which was
+	 * being tracked is passed in using the img argument. Various constants
+	 * are combined to form the infoflags argument which indicates what
+	 * information about the image is now available.
+	 *
+	 * @param img
+	 *            the image being observed.
+	 * @param infoflags
+	 *            the bitwise inclusive OR of the following flags:
+	 *            <code>WIDTH</code>, <code>HEIGHT</code>,
+	 *            <code>PROPERTIES</code>, <code>SOMEBITS</code>,
+	 *            <code>FRAMEBITS</code>, <code>ALLBITS</code>,
+	 *            <code>ERROR</code>, <code>ABORT</code>.
+	 * @return <code>false</code> if the infoflags indicate that the image is
+	 *         completely loaded; <code>true</code> otherwise.
+	 */
+	public boolean imageUpdate(Image img, int infoflags, int x, int y, int width, int height);
+
+	/**
+	 * This flag in the infoflags argument to imageUpdate indicates that the
+	 * width of the base image is now available.
+	 */
+	public static final int WIDTH = 1;
+
+	/**
+	 * This flag in the infoflags argument to imageUpdate indicates that the
+	 * height of the base image is now available.
+	 */
+	public static final int HEIGHT = 2;
+
+	/**
+	 * This flag in the infoflags argument to imageUpdate indicates that the
+	 * properties of the image are now available.
+	 */
+	public static final int PROPERTIES = 4;
+
+	/**
+	 * This flag in the infoflags argument to imageUpdate indicates that more
+	 * pixels needed for drawing a scaled variation of the image are
+	 * available.
+	 */
+	public static final int SOMEBITS = 8;
+
+	/**
+	 * This flag in the infoflags argument to imageUpdate indicates that
+	 * another complete frame of a multi-frame image which was previously
+	 * drawn is now available to be drawn again.
+	 */
+	public static final int FRAMEBITS = 16;
+
+	/**
+	 * This flag in the infoflags argument to imageUpdate indicates that a
+	 * static image which was previously drawn is now complete and can be
+	 * drawn again in its final form.
+	 */
+	public static final int ALLBITS = 32;
+
+	/**
+	 * This flag in the infoflags argument to imageUpdate indicates that an
+	 * image which was being tracked asynchronously has encountered an error.
+	 * No further information will become available and drawing the image
+	 * will fail.
+	 */
+	public static final int ERROR = 64;
+
+	/**
+	 * This flag in the infoflags argument to imageUpdate indicates that an
+	 * image which was being tracked asynchronously was aborted before
+	 * production was complete.
+	 */
+	public static final int ABORT = 128;
 }
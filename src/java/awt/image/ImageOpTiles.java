@@ -0,0 +1,288 @@
+/*
+ * Copyright (c) 1999, 2007, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package java.awt.image;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * runs the image ops of this package over bands of rows (tiles), spread on a
+ * pool of daemon threads sized to the available processors.
+ * <p>
+ * The tiles are claimed one at a time from a shared counter, by the pool
+ * threads and by the calling thread which works with them, so a slow tile
+ * does not hold back the others and the op completes even if the pool is
+ * busy. An op started from a pool thread runs all its tiles on that thread.
+ * <p>
+ * The pixels are ARGB in scan order, as returned by
+ * {@link BufferedImage#getPixelsForOp()}.
+ */
+final class ImageOpTiles {
+	/**
+	 * rows of a tile, small enough to balance the load, large enough to keep
+	 * the intermediate rows of a separable kernel in cache.
+	 */
+	static final int TILE_ROWS = 32;
+
+	/**
+	 * below this number of pixels, an op runs on the calling thread.
+	 */
+	private static final int MIN_PARALLEL_PIXELS = 64 * 1024;
+
+	private static final int PARALLELISM = Runtime.getRuntime().availableProcessors();
+
+	private static ThreadPoolExecutor pool;
+
+	interface RowTask {
+		/**
+		 * processes the rows from <code>minY</code> inclusive to
+		 * <code>maxY</code> exclusive.
+		 */
+		void run(int minY, int maxY);
+	}
+
+	private static class WorkerThread extends Thread {
+		WorkerThread(final Runnable r, final String name) {
+			super(r, name);
+		}
+	}
+
+	private ImageOpTiles() {
+	}
+
+	private static synchronized ThreadPoolExecutor getPool() {
+		if (pool == null) {
+			pool = new ThreadPoolExecutor(PARALLELISM, PARALLELISM, 30, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+						int count;
+
+						@Override
+						public Thread newThread(final Runnable r) {
+							final Thread t = new WorkerThread(r, "ImageOp-" + (++count));
+							t.setDaemon(true);
+							return t;
+						}
+					});
+			pool.allowCoreThreadTimeOut(true);
+		}
+		return pool;
+	}
+
+	/**
+	 * runs <code>task</code> over the rows [0, height) of an image
+	 * <code>width</code> pixels wide, returns when all the rows are done.
+	 */
+	static void forEachTile(final int width, final int height, final RowTask task) {
+		final int tiles = (height + TILE_ROWS - 1) / TILE_ROWS;
+		if (tiles <= 1 || PARALLELISM == 1 || (long) width * height < MIN_PARALLEL_PIXELS
+				|| Thread.currentThread() instanceof WorkerThread) {
+			if (height > 0) {
+				task.run(0, height);
+			}
+			return;
+		}
+
+		final AtomicInteger nextTile = new AtomicInteger();
+		final CountDownLatch doneTiles = new CountDownLatch(tiles);
+		final Throwable[] failure = new Throwable[1];
+		final Runnable worker = new Runnable() {
+			@Override
+			public void run() {
+				int tile;
+				while ((tile = nextTile.getAndIncrement()) < tiles) {
+					final int minY = tile * TILE_ROWS;
+					try {
+						task.run(minY, Math.min(height, minY + TILE_ROWS));
+					} catch (Throwable e) {
+						synchronized (failure) {
+							if (failure[0] == null) {
+								failure[0] = e;
+							}
+						}
+					} finally {
+						doneTiles.countDown();
+					}
+				}
+			}
+		};
+
+		final ThreadPoolExecutor executor = getPool();
+		final int helpers = Math.min(PARALLELISM, tiles) - 1;
+		for (int i = 0; i < helpers; i++) {
+			executor.execute(worker);
+		}
+		worker.run();
+
+		boolean isInterrupted = false;
+		while (true) {
+			try {
+				doneTiles.await();
+				break;
+			} catch (InterruptedException e) {
+				isInterrupted = true;
+			}
+		}
+		if (isInterrupted) {
+			Thread.currentThread().interrupt();
+		}
+
+		final Throwable e;
+		synchronized (failure) {
+			e = failure[0];
+		}
+		if (e instanceof RuntimeException) {
+			throw (RuntimeException) e;
+		} else if (e instanceof Error) {
+			throw (Error) e;
+		} else if (e != null) {
+			throw new ImagingOpException(e.toString());
+		}
+	}
+
+	/**
+	 * true if the alpha of the image is to be taken as opaque : images of
+	 * {@link BufferedImage#TYPE_INT_RGB}, or whose pixels are all opaque.
+	 */
+	static boolean isOpaque(final BufferedImage image, final int[] pixels) {
+		if (image.getType() == BufferedImage.TYPE_INT_RGB) {
+			return true;
+		}
+		for (int i = 0; i < pixels.length; i++) {
+			if ((pixels[i] >>> 24) != 0xFF) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * the pixels with the color components multiplied by the alpha, so that
+	 * the transparent pixels weigh nothing in a filter.
+	 */
+	static int[] premultiply(final int[] argb, final int width, final int height) {
+		final int[] out = new int[width * height];
+		forEachTile(width, height, new RowTask() {
+			@Override
+			public void run(final int minY, final int maxY) {
+				for (int i = minY * width, end = maxY * width; i < end; i++) {
+					final int p = argb[i];
+					final int a = p >>> 24;
+					if (a == 0xFF) {
+						out[i] = p;
+					} else if (a == 0) {
+						out[i] = 0;
+					} else {
+						final int r = (((p >> 16) & 0xFF) * a + 127) / 255;
+						final int g = (((p >> 8) & 0xFF) * a + 127) / 255;
+						final int b = ((p & 0xFF) * a + 127) / 255;
+						out[i] = (a << 24) | (r << 16) | (g << 8) | b;
+					}
+				}
+			}
+		});
+		return out;
+	}
+
+	/**
+	 * packs premultiplied components, rounded and clamped, to a non
+	 * premultiplied ARGB pixel.
+	 */
+	static int unpremultiply(final float a, final float r, final float g, final float b) {
+		final int ia = clamp(a);
+		if (ia == 0) {
+			return 0;
+		}
+		if (ia == 0xFF) {
+			return 0xFF000000 | (clamp(r) << 16) | (clamp(g) << 8) | clamp(b);
+		}
+		final float scale = 255.0f / a;
+		return (ia << 24) | (clamp(r * scale) << 16) | (clamp(g * scale) << 8)
+				| clamp(b * scale);
+	}
+
+	static int pack(final float a, final float r, final float g, final float b) {
+		return (clamp(a) << 24) | (clamp(r) << 16) | (clamp(g) << 8) | clamp(b);
+	}
+
+	static int clamp(final float v) {
+		final int i = (int) (v + 0.5f);
+		return (i < 0) ? 0 : ((i > 0xFF) ? 0xFF : i);
+	}
+
+	/**
+	 * maps each component of the pixels through its table of 256 entries,
+	 * in place if <code>src</code> and <code>dst</code> are the same array.
+	 *
+	 * @param alphaTable
+	 *            null to keep the alpha, which is opaque if
+	 *            <code>isOpaque</code>.
+	 * @throws ArrayIndexOutOfBoundsException
+	 *             if a component maps to a negative entry, as a table of
+	 *             {@link LookupOp} does for the values it does not cover.
+	 */
+	static void lookup(final int[] src, final int srcScan, final int[] dst, final int dstScan,
+			final int w, final int h, final int[] alphaTable, final int[] redTable,
+			final int[] greenTable, final int[] blueTable, final boolean isOpaque) {
+		forEachTile(w, h, new RowTask() {
+			@Override
+			public void run(final int minY, final int maxY) {
+				for (int y = minY; y < maxY; y++) {
+					for (int si = y * srcScan, di = y * dstScan, end = si + w; si < end; si++, di++) {
+						final int p = src[si];
+						final int a = isOpaque ? 0xFF : ((alphaTable == null) ? (p >>> 24)
+								: alphaTable[p >>> 24]);
+						final int r = redTable[(p >> 16) & 0xFF];
+						final int g = greenTable[(p >> 8) & 0xFF];
+						final int b = blueTable[p & 0xFF];
+						if ((a | r | g | b) < 0) {
+							throw new ArrayIndexOutOfBoundsException("component of pixel ("
+									+ (si - y * srcScan) + ", " + y + ") is out of the table");
+						}
+						dst[di] = (a << 24) | (r << 16) | (g << 8) | b;
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * a destination for <code>src</code> : of its type, or ARGB for the
+	 * custom layouts and when <code>destCM</code> has alpha.
+	 */
+	static BufferedImage createCompatibleDestImage(final BufferedImage src, final int width,
+			final int height, final ColorModel destCM) {
+		int type = src.getType();
+		if (destCM != null) {
+			type = destCM.hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+		} else if (type != BufferedImage.TYPE_INT_RGB) {
+			type = BufferedImage.TYPE_INT_ARGB;
+		}
+		return new BufferedImage(width, height, type);
+	}
+}
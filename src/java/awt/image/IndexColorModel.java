@@ -0,0 +1,715 @@
+/*
+ * Copyright (c) 1999, 2007, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package java.awt.image;
+
+import java.awt.Transparency;
+import java.awt.color.ColorSpace;
+
+/**
+ * The <code>IndexColorModel</code> class is a <code>ColorModel</code> class
+ * that works with pixel values consisting of a single sample that is an index
+ * into a fixed colormap in the default sRGB color space. The colormap specifies
+ * red, green, blue, and optional alpha components corresponding to each index.
+ * All components are represented in the colormap as 8-bit unsigned integral
+ * values. Some constructors allow the caller to specify "holes" in the colormap
+ * by indicating which colormap entries are valid and which represent unusable
+ * colors via the bits set in a <code>BigInteger</code> object. This color model
+ * is similar to an X11 PseudoColor visual.
+ * <p>
+ * The index represented by a pixel value is stored in the least significant
+ * <em>n</em> bits of the pixel representations passed to the methods of this
+ * class, where <em>n</em> is the pixel size specified to the constructor for a
+ * particular <code>IndexColorModel</code> object; <em>n</em> must be between 1
+ * and 16, inclusive. Higher order bits in pixel representations are assumed to
+ * be zero. For those methods that use a primitive array pixel representation
+ * of type <code>transferType</code>, the array length is always one. The
+ * transfer types supported are <code>DataBuffer.TYPE_BYTE</code> and
+ * <code>DataBuffer.TYPE_USHORT</code>.
+ * <p>
+ * The colors of the default RGB model are mapped to the exact entry of the
+ * colormap if there is one, else to the nearest entry of the cell of 5 bits
+ * per component they fall in, the entry of each cell is searched once. A
+ * colormap of the 256 levels of gray maps a color to the level of the mean of
+ * its components.
+ *
+ * @see ColorModel
+ * @see ColorSpace
+ * @see DataBuffer
+ */
+public class IndexColorModel extends ColorModel {
+	private int rgb[];
+	private int map_size;
+	private int pixel_mask;
+	private int transparent_index = -1;
+	private boolean allgrayopaque;
+
+	private static int[] opaqueBits = { 8, 8, 8 };
+	private static int[] alphaBits = { 8, 8, 8, 8 };
+
+	/**
+	 * the colormap is the 256 levels of gray in order.
+	 */
+	private boolean isGrayRamp;
+
+	/**
+	 * open addressed table of the colors of the colormap to their first
+	 * index, built on first use.
+	 */
+	private int[] exactColors;
+	private int[] exactIndices;
+
+	/**
+	 * the nearest index of each RGB555 cell, -1 until searched.
+	 */
+	private int[] cellIndices;
+
+	public IndexColorModel(int bits, int size, byte r[], byte g[], byte b[]) {
+		super(bits, opaqueBits, ColorSpace.getInstance(ColorSpace.CS_sRGB), false, false, OPAQUE,
+				ColorModel.getDefaultTransferType(bits));
+		if (bits < 1 || bits > 16) {
+			throw new IllegalArgumentException("Number of bits must be between" + " 1 and 16.");
+		}
+		setRGBs(size, r, g, b, null);
+		calculatePixelMask();
+	}
+
+	public IndexColorModel(int bits, int size, byte r[], byte g[], byte b[], int trans) {
+		super(bits, opaqueBits, ColorSpace.getInstance(ColorSpace.CS_sRGB), false, false, OPAQUE,
+				ColorModel.getDefaultTransferType(bits));
+		if (bits < 1 || bits > 16) {
+			throw new IllegalArgumentException("Number of bits must be between" + " 1 and 16.");
+		}
+		setRGBs(size, r, g, b, null);
+		setTransparentPixel(trans);
+		calculatePixelMask();
+	}
+
+	public IndexColorModel(int bits, int size, byte r[], byte g[], byte b[], byte a[]) {
+		super(bits, alphaBits, ColorSpace.getInstance(ColorSpace.CS_sRGB), true, false,
+				TRANSLUCENT, ColorModel.getDefaultTransferType(bits));
+		if (bits < 1 || bits > 16) {
+			throw new IllegalArgumentException("Number of bits must be between" + " 1 and 16.");
+		}
+		setRGBs(size, r, g, b, a);
+		calculatePixelMask();
+	}
+
+	public IndexColorModel(int bits, int size, byte cmap[], int start, boolean hasalpha) {
+		this(bits, size, cmap, start, hasalpha, -1);
+		if (bits < 1 || bits > 16) {
+			throw new IllegalArgumentException("Number of bits must be between" + " 1 and 16.");
+		}
+	}
+
+	public IndexColorModel(int bits, int size, byte cmap[], int start, boolean hasalpha,
+			int trans) {
+		super(bits, opaqueBits, ColorSpace.getInstance(ColorSpace.CS_sRGB), false, false, OPAQUE,
+				ColorModel.getDefaultTransferType(bits));
+
+		if (bits < 1 || bits > 16) {
+			throw new IllegalArgumentException("Number of bits must be between" + " 1 and 16.");
+		}
+		if (size < 1) {
+			throw new IllegalArgumentException("Map size (" + size + ") must be >= 1");
+		}
+		map_size = size;
+		rgb = new int[calcRealMapSize(bits, size)];
+		int j = start;
+		int alpha = 0xff;
+		boolean allgray = true;
+		int transparency = OPAQUE;
+		for (int i = 0; i < size; i++) {
+			int r = cmap[j++] & 0xff;
+			int g = cmap[j++] & 0xff;
+			int b = cmap[j++] & 0xff;
+			allgray = allgray && (r == g) && (g == b);
+			if (hasalpha) {
+				alpha = cmap[j++] & 0xff;
+				if (alpha != 0xff) {
+					if (alpha == 0x00) {
+						if (transparency == OPAQUE) {
+							transparency = BITMASK;
+						}
+						if (transparent_index < 0) {
+							transparent_index = i;
+						}
+					} else {
+						transparency = TRANSLUCENT;
+					}
+					allgray = false;
+				}
+			}
+			rgb[i] = (alpha << 24) | (r << 16) | (g << 8) | b;
+		}
+		this.allgrayopaque = allgray;
+		setTransparency(transparency);
+		setTransparentPixel(trans);
+		calculatePixelMask();
+	}
+
+	public IndexColorModel(int bits, int size, int cmap[], int start, boolean hasalpha,
+			int trans, int transferType) {
+		super(bits, opaqueBits, ColorSpace.getInstance(ColorSpace.CS_sRGB), false, false, OPAQUE,
+				transferType);
+
+		if (bits < 1 || bits > 16) {
+			throw new IllegalArgumentException("Number of bits must be between" + " 1 and 16.");
+		}
+		if (size < 1) {
+			throw new IllegalArgumentException("Map size (" + size + ") must be >= 1");
+		}
+		if ((transferType != DataBuffer.TYPE_BYTE) && (transferType != DataBuffer.TYPE_USHORT)) {
+			throw new IllegalArgumentException("transferType must be either"
+					+ "DataBuffer.TYPE_BYTE or DataBuffer.TYPE_USHORT");
+		}
+
+		setRGBs(size, cmap, start, hasalpha);
+		setTransparentPixel(trans);
+		calculatePixelMask();
+	}
+
+	private void setRGBs(int size, byte r[], byte g[], byte b[], byte a[]) {
+		if (size < 1) {
+			throw new IllegalArgumentException("Map size (" + size + ") must be >= 1");
+		}
+		map_size = size;
+		rgb = new int[calcRealMapSize(pixel_bits, size)];
+		int alpha = 0xff;
+		int transparency = OPAQUE;
+		boolean allgray = true;
+		for (int i = 0; i < size; i++) {
+			int rc = r[i] & 0xff;
+			int gc = g[i] & 0xff;
+			int bc = b[i] & 0xff;
+			allgray = allgray && (rc == gc) && (gc == bc);
+			if (a != null) {
+				alpha = a[i] & 0xff;
+				if (alpha != 0xff) {
+					if (alpha == 0x00) {
+						if (transparency == OPAQUE) {
+							transparency = BITMASK;
+						}
+						if (transparent_index < 0) {
+							transparent_index = i;
+						}
+					} else {
+						transparency = TRANSLUCENT;
+					}
+					allgray = false;
+				}
+			}
+			rgb[i] = (alpha << 24) | (rc << 16) | (gc << 8) | bc;
+		}
+		this.allgrayopaque = allgray;
+		setTransparency(transparency);
+	}
+
+	private void setRGBs(int size, int cmap[], int start, boolean hasalpha) {
+		map_size = size;
+		rgb = new int[calcRealMapSize(pixel_bits, size)];
+		int j = start;
+		int transparency = OPAQUE;
+		boolean allgray = true;
+		for (int i = 0; i < size; i++, j++) {
+			// Copy the ARGB value
+			int cmaprgb = cmap[j];
+			int r = (cmaprgb >> 16) & 0xff;
+			int g = (cmaprgb >> 8) & 0xff;
+			int b = (cmaprgb) & 0xff;
+			allgray = allgray && (r == g) && (g == b);
+			if (hasalpha) {
+				int alpha = cmaprgb >>> 24;
+				if (alpha != 0xff) {
+					if (alpha == 0x00) {
+						if (transparency == OPAQUE) {
+							transparency = BITMASK;
+						}
+						if (transparent_index < 0) {
+							transparent_index = i;
+						}
+					} else {
+						transparency = TRANSLUCENT;
+					}
+					allgray = false;
+				}
+			} else {
+				cmaprgb |= 0xff000000;
+			}
+			rgb[i] = cmaprgb;
+		}
+		this.allgrayopaque = allgray;
+		setTransparency(transparency);
+	}
+
+	private int calcRealMapSize(int bits, int size) {
+		int newSize = Math.max(1 << bits, size);
+		return Math.max(newSize, 256);
+	}
+
+	private void setTransparentPixel(int trans) {
+		if (trans >= 0 && trans < map_size) {
+			rgb[trans] &= 0x00ffffff;
+			transparent_index = trans;
+			allgrayopaque = false;
+			if (this.transparency == OPAQUE) {
+				setTransparency(BITMASK);
+			}
+		}
+	}
+
+	private void setTransparency(int transparency) {
+		if (this.transparency != transparency) {
+			this.transparency = transparency;
+			if (transparency == OPAQUE) {
+				supportsAlpha = false;
+				numComponents = 3;
+				nBits = opaqueBits;
+			} else {
+				supportsAlpha = true;
+				numComponents = 4;
+				nBits = alphaBits;
+			}
+		}
+	}
+
+	private final void calculatePixelMask() {
+		// Note that we adjust the mask so that our masking behavior here
+		// is consistent with that of our native rendering loops.
+		int maskbits = pixel_bits;
+		if (maskbits == 3) {
+			maskbits = 4;
+		} else if (maskbits > 4 && maskbits < 8) {
+			maskbits = 8;
+		}
+		pixel_mask = (1 << maskbits) - 1;
+
+		isGrayRamp = allgrayopaque && map_size == 256;
+		for (int i = 0; isGrayRamp && i < 256; i++) {
+			isGrayRamp = (rgb[i] & 0xff) == i;
+		}
+	}
+
+	public int getTransparency() {
+		return transparency;
+	}
+
+	public int[] getComponentSize() {
+		if (nBits != null) {
+			return (int[]) nBits.clone();
+		}
+		return null;
+	}
+
+	final public int getMapSize() {
+		return map_size;
+	}
+
+	final public int getTransparentPixel() {
+		return transparent_index;
+	}
+
+	final public void getReds(byte r[]) {
+		for (int i = 0; i < map_size; i++) {
+			r[i] = (byte) (rgb[i] >> 16);
+		}
+	}
+
+	final public void getGreens(byte g[]) {
+		for (int i = 0; i < map_size; i++) {
+			g[i] = (byte) (rgb[i] >> 8);
+		}
+	}
+
+	final public void getBlues(byte b[]) {
+		for (int i = 0; i < map_size; i++) {
+			b[i] = (byte) rgb[i];
+		}
+	}
+
+	final public void getAlphas(byte a[]) {
+		for (int i = 0; i < map_size; i++) {
+			a[i] = (byte) (rgb[i] >> 24);
+		}
+	}
+
+	final public void getRGBs(int rgb[]) {
+		System.arraycopy(this.rgb, 0, rgb, 0, map_size);
+	}
+
+	final public int getRed(int pixel) {
+		return (rgb[pixel & pixel_mask] >> 16) & 0xff;
+	}
+
+	final public int getGreen(int pixel) {
+		return (rgb[pixel & pixel_mask] >> 8) & 0xff;
+	}
+
+	final public int getBlue(int pixel) {
+		return rgb[pixel & pixel_mask] & 0xff;
+	}
+
+	final public int getAlpha(int pixel) {
+		return (rgb[pixel & pixel_mask] >> 24) & 0xff;
+	}
+
+	final public int getRGB(int pixel) {
+		return rgb[pixel & pixel_mask];
+	}
+
+	public int getRed(Object pixel) {
+		return getRed(getPixel(pixel, 0));
+	}
+
+	public int getGreen(Object pixel) {
+		return getGreen(getPixel(pixel, 0));
+	}
+
+	public int getBlue(Object pixel) {
+		return getBlue(getPixel(pixel, 0));
+	}
+
+	public int getAlpha(Object pixel) {
+		return getAlpha(getPixel(pixel, 0));
+	}
+
+	public int getRGB(Object pixel) {
+		return getRGB(getPixel(pixel, 0));
+	}
+
+	/**
+	 * returns the index of the exact or nearest color of the colormap, see
+	 * the class comment.
+	 */
+	public synchronized Object getDataElements(int rgb, Object pixel) {
+		final int index = indexOf(rgb);
+		switch (transferType) {
+		case DataBuffer.TYPE_BYTE: {
+			byte bdata[] = (pixel == null) ? new byte[1] : (byte[]) pixel;
+			bdata[0] = (byte) index;
+			return bdata;
+		}
+		case DataBuffer.TYPE_USHORT: {
+			short sdata[] = (pixel == null) ? new short[1] : (short[]) pixel;
+			sdata[0] = (short) index;
+			return sdata;
+		}
+		default:
+			throw new UnsupportedOperationException("This method has not been "
+					+ "implemented for transferType " + transferType);
+		}
+	}
+
+	/**
+	 * converts the indices through the colormap.
+	 */
+	public int[] getRGBsAdAPI(Object inData, int inOffset, int[] rgbs, int rgbOffset, int length) {
+		if (rgbs == null) {
+			rgbs = new int[rgbOffset + length];
+		}
+		final int[] table = rgb;
+		final int mask = pixel_mask;
+		if (inData instanceof byte[]) {
+			final byte[] src = (byte[]) inData;
+			for (int i = 0; i < length; i++) {
+				rgbs[rgbOffset + i] = table[src[inOffset + i] & mask];
+			}
+		} else if (inData instanceof short[]) {
+			final short[] src = (short[]) inData;
+			for (int i = 0; i < length; i++) {
+				rgbs[rgbOffset + i] = table[src[inOffset + i] & mask];
+			}
+		} else {
+			final int[] src = (int[]) inData;
+			for (int i = 0; i < length; i++) {
+				rgbs[rgbOffset + i] = table[src[inOffset + i] & mask];
+			}
+		}
+		return rgbs;
+	}
+
+	/**
+	 * maps the colors as {@link #getDataElements(int, Object)}, the tables of
+	 * the mapping are shared by the whole run.
+	 */
+	public synchronized Object getDataElementsAdAPI(int[] rgbs, int rgbOffset, Object outData,
+			int outOffset, int length) {
+		if (outData == null) {
+			outData = createDataArray(transferType, outOffset + length);
+		}
+		if (outData instanceof byte[]) {
+			final byte[] dest = (byte[]) outData;
+			for (int i = 0; i < length; i++) {
+				dest[outOffset + i] = (byte) indexOf(rgbs[rgbOffset + i]);
+			}
+		} else if (outData instanceof short[]) {
+			final short[] dest = (short[]) outData;
+			for (int i = 0; i < length; i++) {
+				dest[outOffset + i] = (short) indexOf(rgbs[rgbOffset + i]);
+			}
+		} else {
+			final int[] dest = (int[]) outData;
+			for (int i = 0; i < length; i++) {
+				dest[outOffset + i] = indexOf(rgbs[rgbOffset + i]);
+			}
+		}
+		return outData;
+	}
+
+	private int indexOf(int color) {
+		if (isGrayRamp) {
+			return (((color >> 16) & 0xff) + ((color >> 8) & 0xff) + (color & 0xff) + 1) / 3;
+		}
+		if (transparent_index >= 0 && (color >>> 24) == 0) {
+			return transparent_index;
+		}
+		if (transparency == OPAQUE) {
+			color |= 0xff000000;
+		}
+
+		if (exactColors == null) {
+			buildExactTable();
+		}
+		final int mask = exactColors.length - 1;
+		for (int h = hash(color) & mask;; h = (h + 1) & mask) {
+			final int index = exactIndices[h];
+			if (index < 0) {
+				break;
+			}
+			if (exactColors[h] == color) {
+				return index;
+			}
+		}
+
+		if (transparency != OPAQUE) {
+			// the alpha takes part in the distance, no cell for it.
+			return nearest(color);
+		}
+		if (cellIndices == null) {
+			cellIndices = new int[1 << 15];
+			java.util.Arrays.fill(cellIndices, -1);
+		}
+		final int cell = ((color >> 9) & 0x7c00) | ((color >> 6) & 0x3e0) | ((color >> 3) & 0x1f);
+		int index = cellIndices[cell];
+		if (index < 0) {
+			final int center = 0xff000000 | ((cell & 0x7c00) << 9) | ((cell & 0x3e0) << 6)
+					| ((cell & 0x1f) << 3) | 0x040404;
+			index = nearest(center);
+			cellIndices[cell] = index;
+		}
+		return index;
+	}
+
+	private static int hash(int color) {
+		final int h = color * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	private void buildExactTable() {
+		int capacity = 16;
+		while (capacity < map_size * 2) {
+			capacity <<= 1;
+		}
+		final int[] colors = new int[capacity];
+		final int[] indices = new int[capacity];
+		java.util.Arrays.fill(indices, -1);
+		final int mask = capacity - 1;
+		for (int i = 0; i < map_size; i++) {
+			final int color = rgb[i];
+			int h = hash(color) & mask;
+			while (indices[h] >= 0 && colors[h] != color) {
+				h = (h + 1) & mask;
+			}
+			if (indices[h] < 0) {
+				colors[h] = color;
+				indices[h] = i;
+			}
+		}
+		exactColors = colors;
+		exactIndices = indices;
+	}
+
+	/**
+	 * the index of the least squared distance to <code>color</code>, the
+	 * alpha counts unless the colormap is opaque.
+	 */
+	private int nearest(int color) {
+		final int a = color >>> 24;
+		final int r = (color >> 16) & 0xff;
+		final int g = (color >> 8) & 0xff;
+		final int b = color & 0xff;
+		final boolean useAlpha = transparency != OPAQUE;
+		int best = 0;
+		int bestDist = Integer.MAX_VALUE;
+		for (int i = 0; i < map_size; i++) {
+			final int c = rgb[i];
+			int d = ((c >> 16) & 0xff) - r;
+			int dist = d * d;
+			d = ((c >> 8) & 0xff) - g;
+			dist += d * d;
+			d = (c & 0xff) - b;
+			dist += d * d;
+			if (useAlpha) {
+				d = (c >>> 24) - a;
+				dist += d * d;
+			}
+			if (dist < bestDist) {
+				bestDist = dist;
+				best = i;
+				if (dist == 0) {
+					break;
+				}
+			}
+		}
+		return best;
+	}
+
+	public int[] getComponents(int pixel, int[] components, int offset) {
+		if (components == null) {
+			components = new int[offset + numComponents];
+		}
+
+		// REMIND: Needs to change if different color space
+		components[offset + 0] = getRed(pixel);
+		components[offset + 1] = getGreen(pixel);
+		components[offset + 2] = getBlue(pixel);
+		if (supportsAlpha && (components.length - offset) > 3) {
+			components[offset + 3] = getAlpha(pixel);
+		}
+
+		return components;
+	}
+
+	public int[] getComponents(Object pixel, int[] components, int offset) {
+		return getComponents(getPixel(pixel, 0), components, offset);
+	}
+
+	public int getDataElement(int[] components, int offset) {
+		int rgb = (components[offset + 0] << 16) | (components[offset + 1] << 8)
+				| (components[offset + 2]);
+		if (supportsAlpha) {
+			rgb |= (components[offset + 3] << 24);
+		} else {
+			rgb |= 0xff000000;
+		}
+		return getPixel(getDataElements(rgb, null), 0);
+	}
+
+	public Object getDataElements(int[] components, int offset, Object pixel) {
+		int rgb = (components[offset + 0] << 16) | (components[offset + 1] << 8)
+				| (components[offset + 2]);
+		if (supportsAlpha) {
+			rgb |= (components[offset + 3] << 24);
+		} else {
+			rgb |= 0xff000000;
+		}
+		return getDataElements(rgb, pixel);
+	}
+
+	public WritableRaster createCompatibleWritableRaster(int w, int h) {
+		WritableRaster raster;
+
+		if (pixel_bits == 1 || pixel_bits == 2 || pixel_bits == 4) {
+			// TYPE_BINARY
+			raster = Raster.createPackedRaster(DataBuffer.TYPE_BYTE, w, h, 1, pixel_bits, null);
+		} else if (pixel_bits <= 8) {
+			raster = Raster.createInterleavedRaster(DataBuffer.TYPE_BYTE, w, h, 1, null);
+		} else if (pixel_bits <= 16) {
+			raster = Raster.createInterleavedRaster(DataBuffer.TYPE_USHORT, w, h, 1, null);
+		} else {
+			throw new UnsupportedOperationException("This method is not supported "
+					+ " for pixel bits > 16.");
+		}
+		return raster;
+	}
+
+	public boolean isCompatibleRaster(Raster raster) {
+		int size = raster.getSampleModel().getSampleSize(0);
+		return ((raster.getTransferType() == transferType) && (raster.getNumBands() == 1) && ((1 << size) >= map_size));
+	}
+
+	public SampleModel createCompatibleSampleModel(int w, int h) {
+		int[] off = new int[1];
+		off[0] = 0;
+		if (pixel_bits == 1 || pixel_bits == 2 || pixel_bits == 4) {
+			return new MultiPixelPackedSampleModel(transferType, w, h, pixel_bits);
+		} else {
+			return new ComponentSampleModel(transferType, w, h, 1, w, off);
+		}
+	}
+
+	public boolean isCompatibleSampleModel(SampleModel sm) {
+		// fix 4238629
+		if (!(sm instanceof ComponentSampleModel) && !(sm instanceof MultiPixelPackedSampleModel)) {
+			return false;
+		}
+
+		// Transfer type must be the same
+		if (sm.getTransferType() != transferType) {
+			return false;
+		}
+
+		if (sm.getNumBands() != 1) {
+			return false;
+		}
+
+		return true;
+	}
+
+	public boolean equals(Object obj) {
+		if (!(obj instanceof IndexColorModel)) {
+			return false;
+		}
+		if (!super.equals(obj)) {
+			return false;
+		}
+
+		IndexColorModel cm = (IndexColorModel) obj;
+		if (map_size != cm.map_size || transparent_index != cm.transparent_index
+				|| transferType != cm.transferType) {
+			return false;
+		}
+		for (int i = 0; i < map_size; i++) {
+			if (rgb[i] != cm.rgb[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public int hashCode() {
+		int result = super.hashCode();
+		for (int i = 0; i < map_size; i++) {
+			result = 31 * result + rgb[i];
+		}
+		return result;
+	}
+
+	public String toString() {
+		return new String("IndexColorModel: #pixelBits = " + pixel_bits + " numComponents = "
+				+ numComponents + " color space = " + colorSpace + " transparency = "
+				+ transparency + " transIndex   = " + transparent_index + " has alpha = "
+				+ supportsAlpha + " isAlphaPre = " + isAlphaPremultiplied);
+	}
+}
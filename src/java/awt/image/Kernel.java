@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 1999, 2007, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package java.awt.image;
+
+/**
+ * The <code>Kernel</code> class defines a matrix that describes how a specified
+ * pixel and its surrounding pixels affect the value computed for the pixel's
+ * position in the output image of a filtering operation. The X origin and Y
+ * origin indicate the kernel matrix element that corresponds to the pixel
+ * position for which an output value is being computed.
+ *
+ * @see ConvolveOp
+ */
+public class Kernel implements Cloneable {
+	private int width;
+	private int height;
+	private int xOrigin;
+	private int yOrigin;
+	private float data[];
+
+	public Kernel(int width, int height, float data[]) {
+		this.width = width;
+		this.height = height;
+		this.xOrigin = (width - 1) >> 1;
+		this.yOrigin = (height - 1) >> 1;
+		int len = width * height;
+		if (data.length < len) {
+			throw new IllegalArgumentException("Data array too small " + "(is " + data.length
+					+ " and should be " + len);
+		}
+		this.data = new float[len];
+		System.arraycopy(data, 0, this.data, 0, len);
+	}
+
+	final public int getXOrigin() {
+		return xOrigin;
+	}
+
+	final public int getYOrigin() {
+		return yOrigin;
+	}
+
+	final public int getWidth() {
+		return width;
+	}
+
+	final public int getHeight() {
+		return height;
+	}
+
+	final public float[] getKernelData(float[] data) {
+		if (data == null) {
+			data = new float[this.data.length];
+		} else if (data.length < this.data.length) {
+			throw new IllegalArgumentException("Data array too small " + "(should be "
+					+ this.data.length + " but is " + data.length + " )");
+		}
+		System.arraycopy(this.data, 0, data, 0, this.data.length);
+
+		return data;
+	}
+
+	public Object clone() {
+		try {
+			return super.clone();
+		} catch (CloneNotSupportedException e) {
+			// this shouldn't happen, since we are Cloneable
+			throw new InternalError();
+		}
+	}
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 1999, 2007, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package java.awt.image;
+
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+
+/**
+ * This class implements a lookup operation from the source to the
+ * destination. The LookupTable object may contain a single array or multiple
+ * arrays, subject to the restrictions below.
+ * <p>
+ * If the table has one array, it is applied to all the color (but not alpha)
+ * components; with three arrays, to the red, green and blue components; with
+ * four, the last one is applied to the alpha.
+ * <p>
+ * The table is first expanded to 256 entries per component, the pixels are
+ * then mapped through them in tiles on all the processors. The source and the
+ * destination may be the same image.
+ *
+ * @see LookupTable
+ * @see java.awt.RenderingHints#KEY_COLOR_RENDERING
+ * @see java.awt.RenderingHints#KEY_DITHERING
+ */
+public class LookupOp implements BufferedImageOp {
+	private LookupTable ltable;
+	private int numComponents;
+	RenderingHints hints;
+
+	public LookupOp(LookupTable lookup, RenderingHints hints) {
+		this.ltable = lookup;
+		this.hints = hints;
+		numComponents = ltable.getNumComponents();
+	}
+
+	public final LookupTable getTable() {
+		return ltable;
+	}
+
+	/**
+	 * @return the 256 entries of each component : red, green, blue and alpha
+	 *         (null if the alpha is kept). The values not covered by the table
+	 *         are marked -1.
+	 */
+	private int[][] expandTable() {
+		final int[][] tables = new int[4][256];
+		final int[] in = new int[numComponents];
+		final int[] out = new int[numComponents];
+		for (int v = 0; v < 256; v++) {
+			boolean isCovered = v >= ltable.getOffset();
+			if (isCovered) {
+				for (int c = 0; c < numComponents; c++) {
+					in[c] = v;
+				}
+				try {
+					ltable.lookupPixel(in, out);
+				} catch (ArrayIndexOutOfBoundsException e) {
+					isCovered = false;
+				}
+			}
+			for (int c = 0; c < 4; c++) {
+				if (isCovered == false) {
+					tables[c][v] = -1;
+				} else {
+					final int o = out[(numComponents == 1) ? 0 : Math.min(c, numComponents - 1)];
+					tables[c][v] = (o > 0xFF) ? 0xFF : o;
+				}
+			}
+		}
+		if (numComponents != 4) {
+			tables[3] = null;
+		}
+		return tables;
+	}
+
+	public final BufferedImage filter(BufferedImage src, BufferedImage dst) {
+		if (numComponents != 1 && numComponents != 3 && numComponents != 4) {
+			throw new IllegalArgumentException("Number of arrays in the "
+					+ " lookup table (" + numComponents
+					+ " is not compatible with the src image: " + src);
+		}
+		if (dst == null) {
+			dst = createCompatibleDestImage(src, null);
+		}
+
+		final int[][] tables = expandTable();
+		final int srcScan = src.getWidth();
+		final int dstScan = dst.getWidth();
+		ImageOpTiles.lookup(src.getPixelsForOp(), srcScan, dst.getPixelsForOp(), dstScan,
+				Math.min(srcScan, dstScan), Math.min(src.getHeight(), dst.getHeight()),
+				tables[3], tables[0], tables[1], tables[2],
+				src.getType() == BufferedImage.TYPE_INT_RGB);
+		dst.pixelsChangedByOp();
+		return dst;
+	}
+
+	public BufferedImage createCompatibleDestImage(BufferedImage src, ColorModel destCM) {
+		return ImageOpTiles.createCompatibleDestImage(src, src.getWidth(), src.getHeight(),
+				destCM);
+	}
+
+	public final Rectangle2D getBounds2D(BufferedImage src) {
+		return new Rectangle(0, 0, src.getWidth(), src.getHeight());
+	}
+
+	public final Point2D getPoint2D(Point2D srcPt, Point2D dstPt) {
+		if (dstPt == null) {
+			dstPt = new Point2D.Float();
+		}
+		dstPt.setLocation(srcPt.getX(), srcPt.getY());
+
+		return dstPt;
+	}
+
+	public final RenderingHints getRenderingHints() {
+		return hints;
+	}
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 1999, 2007, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package java.awt.image;
+
+/**
+ * This abstract class defines a lookup table object. ByteLookupTable and
+ * ShortLookupTable are subclasses, which contain byte and short data,
+ * respectively. A lookup table contains data arrays for one or more bands (or
+ * components) of an image (for example, separate arrays for R, G, and B), and
+ * it contains an offset which will be subtracted from the input values before
+ * indexing into the arrays.
+ *
+ * @see ByteLookupTable
+ * @see ShortLookupTable
+ * @see LookupOp
+ */
+public abstract class LookupTable extends Object {
+	int numComponents;
+	int offset;
+	int numEntries;
+
+	protected LookupTable(int offset, int numComponents) {
+		if (offset < 0) {
+			throw new IllegalArgumentException("Offset must be greater than 0");
+		}
+		if (numComponents < 1) {
+			throw new IllegalArgumentException("Number of components must " + " be at least 1");
+		}
+		this.numComponents = numComponents;
+		this.offset = offset;
+	}
+
+	public int getNumComponents() {
+		return numComponents;
+	}
+
+	public int getOffset() {
+		return offset;
+	}
+
+	public abstract int[] lookupPixel(int[] src, int[] dest);
+}
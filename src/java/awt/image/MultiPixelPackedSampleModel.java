@@ -0,0 +1,387 @@
+/*
+ * Copyright (c) 1999, 2007, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+/* ****************************************************************
+ ******************************************************************
+ ******************************************************************
+ *** COPYRIGHT (c) Eastman Kodak Company, 1997
+ *** As  an unpublished  work pursuant to Title 17 of the United
+ *** States Code.  All rights reserved.
+ ******************************************************************
+ ******************************************************************
+ ******************************************************************/
+
+
+package java.awt.image;
+
+/**
+ * The <code>MultiPixelPackedSampleModel</code> class represents one-banded
+ * images and can pack multiple one-sample pixels into one data element. Pixels
+ * are not allowed to span data elements. The data type can be
+ * DataBuffer.TYPE_BYTE, DataBuffer.TYPE_USHORT, or DataBuffer.TYPE_INT. Each
+ * pixel must be a power of 2 number of bits and a power of 2 number of pixels
+ * must fit exactly in one data element. Pixel bit stride is equal to the number
+ * of bits per pixel. Scanline stride is in data elements and the last several
+ * data elements might be padded with unused pixels. Data bit offset is the bit
+ * offset in bits from the beginning of the {@link DataBuffer} to the first
+ * pixel and must be a multiple of pixel bit stride.
+ */
+public class MultiPixelPackedSampleModel extends SampleModel {
+	int pixelBitStride;
+	int bitMask;
+	int pixelsPerDataElement;
+	int dataElementSize;
+	int dataBitOffset;
+	int scanlineStride;
+
+	public MultiPixelPackedSampleModel(int dataType, int w, int h, int numberOfBits) {
+		this(dataType, w, h, numberOfBits,
+				(w * numberOfBits + DataBuffer.getDataTypeSize(dataType) - 1)
+						/ DataBuffer.getDataTypeSize(dataType),
+				0);
+	}
+
+	public MultiPixelPackedSampleModel(int dataType, int w, int h, int numberOfBits,
+			int scanlineStride, int dataBitOffset) {
+		super(dataType, w, h, 1);
+		if (dataType != DataBuffer.TYPE_BYTE && dataType != DataBuffer.TYPE_USHORT
+				&& dataType != DataBuffer.TYPE_INT) {
+			throw new IllegalArgumentException("Unsupported data type " + dataType);
+		}
+		this.dataType = dataType;
+		this.pixelBitStride = numberOfBits;
+		this.scanlineStride = scanlineStride;
+		this.dataBitOffset = dataBitOffset;
+		this.dataElementSize = DataBuffer.getDataTypeSize(dataType);
+		this.pixelsPerDataElement = dataElementSize / numberOfBits;
+		if (pixelsPerDataElement * numberOfBits != dataElementSize) {
+			throw new RasterFormatException("MultiPixelPackedSampleModel does not allow pixels to "
+					+ "span data element boundaries");
+		}
+		this.bitMask = (1 << numberOfBits) - 1;
+	}
+
+	public SampleModel createCompatibleSampleModel(int w, int h) {
+		SampleModel sampleModel = new MultiPixelPackedSampleModel(dataType, w, h, pixelBitStride);
+		return sampleModel;
+	}
+
+	public DataBuffer createDataBuffer() {
+		DataBuffer dataBuffer = null;
+
+		int size = (int) scanlineStride * height;
+		switch (dataType) {
+		case DataBuffer.TYPE_BYTE:
+			dataBuffer = new DataBufferByte(size + (dataBitOffset + 7) / 8);
+			break;
+		case DataBuffer.TYPE_USHORT:
+			dataBuffer = new DataBufferUShort(size + (dataBitOffset + 15) / 16);
+			break;
+		case DataBuffer.TYPE_INT:
+			dataBuffer = new DataBufferInt(size + (dataBitOffset + 31) / 32);
+			break;
+		}
+		return dataBuffer;
+	}
+
+	public int getNumDataElements() {
+		return 1;
+	}
+
+	public int[] getSampleSize() {
+		int sampleSize[] = { pixelBitStride };
+		return sampleSize;
+	}
+
+	public int getSampleSize(int band) {
+		return pixelBitStride;
+	}
+
+	public int getOffset(int x, int y) {
+		int offset = y * scanlineStride;
+		offset += (x * pixelBitStride + dataBitOffset) / dataElementSize;
+		return offset;
+	}
+
+	public int getBitOffset(int x) {
+		return (x * pixelBitStride + dataBitOffset) % dataElementSize;
+	}
+
+	public int getScanlineStride() {
+		return scanlineStride;
+	}
+
+	public int getPixelBitStride() {
+		return pixelBitStride;
+	}
+
+	public int getDataBitOffset() {
+		return dataBitOffset;
+	}
+
+	public int getTransferType() {
+		if (pixelBitStride > 16) {
+			return DataBuffer.TYPE_INT;
+		} else if (pixelBitStride > 8) {
+			return DataBuffer.TYPE_USHORT;
+		} else {
+			return DataBuffer.TYPE_BYTE;
+		}
+	}
+
+	public SampleModel createSubsetSampleModel(int bands[]) {
+		if (bands != null) {
+			if (bands.length != 1) {
+				throw new RasterFormatException("MultiPixelPackedSampleModel has "
+						+ "only one band.");
+			}
+		}
+		SampleModel sm = createCompatibleSampleModel(width, height);
+		return sm;
+	}
+
+	public int getSample(int x, int y, int b, DataBuffer data) {
+		// 'b' must be 0
+		if ((x < 0) || (y < 0) || (x >= width) || (y >= height) || (b != 0)) {
+			throw new ArrayIndexOutOfBoundsException("Coordinate out of bounds!");
+		}
+		int bitnum = dataBitOffset + x * pixelBitStride;
+		int element = data.getElem(y * scanlineStride + bitnum / dataElementSize);
+		int shift = dataElementSize - (bitnum & (dataElementSize - 1)) - pixelBitStride;
+		return (element >> shift) & bitMask;
+	}
+
+	public void setSample(int x, int y, int b, int s, DataBuffer data) {
+		// 'b' must be 0
+		if ((x < 0) || (y < 0) || (x >= width) || (y >= height) || (b != 0)) {
+			throw new ArrayIndexOutOfBoundsException("Coordinate out of bounds!");
+		}
+		int bitnum = dataBitOffset + x * pixelBitStride;
+		int index = y * scanlineStride + (bitnum / dataElementSize);
+		int shift = dataElementSize - (bitnum & (dataElementSize - 1)) - pixelBitStride;
+		int element = data.getElem(index);
+		element &= ~(bitMask << shift);
+		element |= (s & bitMask) << shift;
+		data.setElem(index, element);
+	}
+
+	public Object getDataElements(int x, int y, Object obj, DataBuffer data) {
+		if ((x < 0) || (y < 0) || (x >= width) || (y >= height)) {
+			throw new ArrayIndexOutOfBoundsException("Coordinate out of bounds!");
+		}
+
+		int type = getTransferType();
+		int element = getSample(x, y, 0, data);
+
+		switch (type) {
+		case DataBuffer.TYPE_BYTE:
+			byte[] bdata;
+			if (obj == null) {
+				bdata = new byte[1];
+			} else {
+				bdata = (byte[]) obj;
+			}
+			bdata[0] = (byte) element;
+			obj = (Object) bdata;
+			break;
+
+		case DataBuffer.TYPE_USHORT:
+			short[] sdata;
+			if (obj == null) {
+				sdata = new short[1];
+			} else {
+				sdata = (short[]) obj;
+			}
+			sdata[0] = (short) element;
+			obj = (Object) sdata;
+			break;
+
+		case DataBuffer.TYPE_INT:
+			int[] idata;
+			if (obj == null) {
+				idata = new int[1];
+			} else {
+				idata = (int[]) obj;
+			}
+			idata[0] = element;
+			obj = (Object) idata;
+			break;
+		}
+
+		return obj;
+	}
+
+	public int[] getPixel(int x, int y, int iArray[], DataBuffer data) {
+		int pixels[];
+		if (iArray != null) {
+			pixels = iArray;
+		} else {
+			pixels = new int[numBands];
+		}
+		pixels[0] = getSample(x, y, 0, data);
+		return pixels;
+	}
+
+	public int[] getPixels(int x, int y, int w, int h, int iArray[], DataBuffer data) {
+		return getSamples(x, y, w, h, 0, iArray, data);
+	}
+
+	public int[] getSamples(int x, int y, int w, int h, int b, int iArray[], DataBuffer data) {
+		if ((x < 0) || (y < 0) || (x + w > width) || (y + h > height) || (b != 0)) {
+			throw new ArrayIndexOutOfBoundsException("Coordinate out of bounds!");
+		}
+		int samples[];
+		if (iArray != null) {
+			samples = iArray;
+		} else {
+			samples = new int[w * h];
+		}
+
+		int dst = 0;
+		if (data instanceof DataBufferByte) {
+			// one pass over the packed bytes of each row, no per pixel getElem.
+			final byte[] src = ((DataBufferByte) data).getData();
+			final int base = data.offset;
+			for (int i = 0; i < h; i++) {
+				int lineOffset = base + (y + i) * scanlineStride;
+				int bitnum = dataBitOffset + x * pixelBitStride;
+				for (int j = 0; j < w; j++) {
+					int element = src[lineOffset + (bitnum >> 3)] & 0xff;
+					int shift = 8 - (bitnum & 7) - pixelBitStride;
+					samples[dst++] = (element >> shift) & bitMask;
+					bitnum += pixelBitStride;
+				}
+			}
+		} else {
+			for (int i = 0; i < h; i++) {
+				for (int j = 0; j < w; j++) {
+					samples[dst++] = getSample(x + j, y + i, 0, data);
+				}
+			}
+		}
+		return samples;
+	}
+
+	public void setDataElements(int x, int y, Object obj, DataBuffer data) {
+		if ((x < 0) || (y < 0) || (x >= width) || (y >= height)) {
+			throw new ArrayIndexOutOfBoundsException("Coordinate out of bounds!");
+		}
+
+		int type = getTransferType();
+		int element;
+
+		switch (type) {
+		case DataBuffer.TYPE_BYTE:
+			element = ((byte[]) obj)[0] & 0xff;
+			break;
+		case DataBuffer.TYPE_USHORT:
+			element = ((short[]) obj)[0] & 0xffff;
+			break;
+		default:
+			element = ((int[]) obj)[0];
+			break;
+		}
+		setSample(x, y, 0, element, data);
+	}
+
+	public void setPixel(int x, int y, int[] iArray, DataBuffer data) {
+		setSample(x, y, 0, iArray[0], data);
+	}
+
+	public void setPixels(int x, int y, int w, int h, int iArray[], DataBuffer data) {
+		setSamples(x, y, w, h, 0, iArray, data);
+	}
+
+	public void setSamples(int x, int y, int w, int h, int b, int iArray[], DataBuffer data) {
+		if ((x < 0) || (y < 0) || (x + w > width) || (y + h > height) || (b != 0)) {
+			throw new ArrayIndexOutOfBoundsException("Coordinate out of bounds!");
+		}
+
+		int src = 0;
+		if (data instanceof DataBufferByte) {
+			final byte[] dest = ((DataBufferByte) data).getData();
+			final int base = data.offset;
+			for (int i = 0; i < h; i++) {
+				int lineOffset = base + (y + i) * scanlineStride;
+				int bitnum = dataBitOffset + x * pixelBitStride;
+				for (int j = 0; j < w; j++) {
+					int index = lineOffset + (bitnum >> 3);
+					int shift = 8 - (bitnum & 7) - pixelBitStride;
+					int element = dest[index];
+					element &= ~(bitMask << shift);
+					element |= (iArray[src++] & bitMask) << shift;
+					dest[index] = (byte) element;
+					bitnum += pixelBitStride;
+				}
+			}
+		} else {
+			for (int i = 0; i < h; i++) {
+				for (int j = 0; j < w; j++) {
+					setSample(x + j, y + i, 0, iArray[src++], data);
+				}
+			}
+		}
+	}
+
+	public boolean equals(Object o) {
+		if ((o == null) || !(o instanceof MultiPixelPackedSampleModel)) {
+			return false;
+		}
+
+		MultiPixelPackedSampleModel that = (MultiPixelPackedSampleModel) o;
+		return this.width == that.width && this.height == that.height
+				&& this.numBands == that.numBands && this.dataType == that.dataType
+				&& this.pixelBitStride == that.pixelBitStride && this.bitMask == that.bitMask
+				&& this.pixelsPerDataElement == that.pixelsPerDataElement
+				&& this.dataElementSize == that.dataElementSize
+				&& this.dataBitOffset == that.dataBitOffset
+				&& this.scanlineStride == that.scanlineStride;
+	}
+
+	// If we implement equals() we must also implement hashCode
+	public int hashCode() {
+		int hash = 0;
+		hash = width;
+		hash <<= 8;
+		hash ^= height;
+		hash <<= 8;
+		hash ^= numBands;
+		hash <<= 8;
+		hash ^= dataType;
+		hash <<= 8;
+		hash ^= pixelBitStride;
+		hash <<= 8;
+		hash ^= bitMask;
+		hash <<= 8;
+		hash ^= pixelsPerDataElement;
+		hash <<= 8;
+		hash ^= dataElementSize;
+		hash <<= 8;
+		hash ^= dataBitOffset;
+		hash <<= 8;
+		hash ^= scanlineStride;
+		return hash;
+	}
+}
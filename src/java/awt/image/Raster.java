@@ -121,65 +121,282 @@ public class Raster {
 
 	public static WritableRaster createInterleavedRaster(int dataType, int w, int h, int bands,
 			Point location) {
-		return null;
+		int[] bandOffsets = new int[bands];
+		for (int i = 0; i < bands; i++) {
+			bandOffsets[i] = i;
+		}
+		return createInterleavedRaster(dataType, w, h, w * bands, bands, bandOffsets, location);
 	}
 
 	public static WritableRaster createInterleavedRaster(int dataType, int w, int h,
 			int scanlineStride, int pixelStride, int bandOffsets[], Point location) {
-		return null;
+		if (w <= 0 || h <= 0) {
+			throw new RasterFormatException("negative or zero " + ((w <= 0) ? "width" : "height"));
+		}
+		int maxBandOff = bandOffsets[0];
+		for (int i = 1; i < bandOffsets.length; i++) {
+			if (bandOffsets[i] > maxBandOff) {
+				maxBandOff = bandOffsets[i];
+			}
+		}
+		int size = maxBandOff + scanlineStride * (h - 1) + pixelStride * (w - 1) + 1;
+
+		DataBuffer d;
+		switch (dataType) {
+		case DataBuffer.TYPE_BYTE:
+			d = new DataBufferByte(size);
+			break;
+		case DataBuffer.TYPE_USHORT:
+			d = new DataBufferUShort(size);
+			break;
+		default:
+			throw new IllegalArgumentException("Unsupported data type " + dataType);
+		}
+
+		return createInterleavedRaster(d, w, h, scanlineStride, pixelStride, bandOffsets,
+				location);
 	}
 
 	public static WritableRaster createBandedRaster(int dataType, int w, int h, int bands,
 			Point location) {
-		return null;
+		if (bands < 1) {
+			throw new ArrayIndexOutOfBoundsException("Number of bands (" + bands + ") must"
+					+ " be greater than 0");
+		}
+		int[] bankIndices = new int[bands];
+		int[] bandOffsets = new int[bands];
+		for (int i = 0; i < bands; i++) {
+			bankIndices[i] = i;
+			bandOffsets[i] = 0;
+		}
+
+		return createBandedRaster(dataType, w, h, w, bankIndices, bandOffsets, location);
 	}
 
 	public static WritableRaster createBandedRaster(int dataType, int w, int h, int scanlineStride,
 			int bankIndices[], int bandOffsets[], Point location) {
-		return null;
+		if (w <= 0 || h <= 0) {
+			throw new RasterFormatException("negative or zero " + ((w <= 0) ? "width" : "height"));
+		}
+		if (bankIndices == null) {
+			throw new ArrayIndexOutOfBoundsException("Bank indices array is null");
+		}
+		if (bandOffsets == null) {
+			throw new ArrayIndexOutOfBoundsException("Band offsets array is null");
+		}
+
+		// Figure out the #banks and the largest band offset
+		int maxBank = bankIndices[0];
+		int maxBandOff = bandOffsets[0];
+		for (int i = 1; i < bankIndices.length; i++) {
+			if (bankIndices[i] > maxBank) {
+				maxBank = bankIndices[i];
+			}
+			if (bandOffsets[i] > maxBandOff) {
+				maxBandOff = bandOffsets[i];
+			}
+		}
+		int banks = maxBank + 1;
+		int size = maxBandOff + scanlineStride * (h - 1) + (w - 1) + 1;
+
+		DataBuffer d;
+		switch (dataType) {
+		case DataBuffer.TYPE_BYTE:
+			d = new DataBufferByte(size, banks);
+			break;
+		case DataBuffer.TYPE_USHORT:
+			d = new DataBufferUShort(size, banks);
+			break;
+		case DataBuffer.TYPE_INT:
+			d = new DataBufferInt(size, banks);
+			break;
+		default:
+			throw new IllegalArgumentException("Unsupported data type " + dataType);
+		}
+
+		return createBandedRaster(d, w, h, scanlineStride, bankIndices, bandOffsets, location);
 	}
 
 	public static WritableRaster createPackedRaster(int dataType, int w, int h, int bandMasks[],
 			Point location) {
-		return null;
+		DataBuffer d;
+		switch (dataType) {
+		case DataBuffer.TYPE_BYTE:
+			d = new DataBufferByte(w * h);
+			break;
+		case DataBuffer.TYPE_USHORT:
+			d = new DataBufferUShort(w * h);
+			break;
+		case DataBuffer.TYPE_INT:
+			d = new DataBufferInt(w * h);
+			break;
+		default:
+			throw new IllegalArgumentException("Unsupported data type " + dataType);
+		}
+
+		return createPackedRaster(d, w, h, w, bandMasks, location);
 	}
 
 	public static WritableRaster createPackedRaster(int dataType, int w, int h, int bands,
 			int bitsPerBand, Point location) {
-		return null;
+		if (bands <= 0) {
+			throw new IllegalArgumentException("Number of bands (" + bands + ") must be greater than 0");
+		}
+		if (bitsPerBand <= 0) {
+			throw new IllegalArgumentException("Bits per band (" + bitsPerBand
+					+ ") must be greater than 0");
+		}
+
+		if (bands != 1) {
+			int[] masks = new int[bands];
+			int mask = (1 << bitsPerBand) - 1;
+			int shift = (bands - 1) * bitsPerBand;
+
+			/* Make sure the total mask size will fit in the data type */
+			if (shift + bitsPerBand > DataBuffer.getDataTypeSize(dataType)) {
+				throw new IllegalArgumentException("bitsPerBand(" + bitsPerBand + ") * bands is "
+						+ " greater than data type size.");
+			}
+			switch (dataType) {
+			case DataBuffer.TYPE_BYTE:
+			case DataBuffer.TYPE_USHORT:
+			case DataBuffer.TYPE_INT:
+				break;
+			default:
+				throw new IllegalArgumentException("Unsupported data type " + dataType);
+			}
+
+			for (int i = 0; i < bands; i++) {
+				masks[i] = mask << shift;
+				shift = shift - bitsPerBand;
+			}
+
+			return createPackedRaster(dataType, w, h, masks, location);
+		} else {
+			double fw = w;
+			switch (dataType) {
+			case DataBuffer.TYPE_BYTE:
+				return createPackedRaster(
+						new DataBufferByte((int) (Math.ceil(fw / (8 / bitsPerBand))) * h), w, h,
+						bitsPerBand, location);
+			case DataBuffer.TYPE_USHORT:
+				return createPackedRaster(
+						new DataBufferUShort((int) (Math.ceil(fw / (16 / bitsPerBand))) * h), w, h,
+						bitsPerBand, location);
+			case DataBuffer.TYPE_INT:
+				return createPackedRaster(
+						new DataBufferInt((int) (Math.ceil(fw / (32 / bitsPerBand))) * h), w, h,
+						bitsPerBand, location);
+			default:
+				throw new IllegalArgumentException("Unsupported data type " + dataType);
+			}
+		}
 	}
 
 	public static WritableRaster createInterleavedRaster(DataBuffer dataBuffer, int w, int h,
 			int scanlineStride, int pixelStride, int bandOffsets[], Point location) {
-		return null;
+		if (dataBuffer == null) {
+			throw new NullPointerException("DataBuffer cannot be null");
+		}
+		int dataType = dataBuffer.getDataType();
+		if (dataType != DataBuffer.TYPE_BYTE && dataType != DataBuffer.TYPE_USHORT) {
+			throw new IllegalArgumentException("Unsupported data type " + dataType);
+		}
+
+		// interleaved pixels are served by the general component model, the
+		// band offsets index the single bank.
+		ComponentSampleModel csm = new ComponentSampleModel(dataType, w, h, pixelStride,
+				scanlineStride, bandOffsets);
+		return new WritableRaster(csm, dataBuffer, toLocation(location));
 	}
 
 	public static WritableRaster createBandedRaster(DataBuffer dataBuffer, int w, int h,
 			int scanlineStride, int bankIndices[], int bandOffsets[], Point location) {
-		return null;
+		if (dataBuffer == null) {
+			throw new NullPointerException("DataBuffer cannot be null");
+		}
+		int dataType = dataBuffer.getDataType();
+
+		int bands = bankIndices.length;
+		if (bandOffsets.length != bands) {
+			throw new IllegalArgumentException("bankIndices.length != bandOffsets.length");
+		}
+
+		BandedSampleModel bsm = new BandedSampleModel(dataType, w, h, scanlineStride, bankIndices,
+				bandOffsets);
+
+		switch (dataType) {
+		case DataBuffer.TYPE_BYTE:
+		case DataBuffer.TYPE_USHORT:
+		case DataBuffer.TYPE_INT:
+			return new WritableRaster(bsm, dataBuffer, toLocation(location));
+		default:
+			throw new IllegalArgumentException("Unsupported data type " + dataType);
+		}
 	}
 
 	public static WritableRaster createPackedRaster(DataBuffer dataBuffer, int w, int h,
 			int scanlineStride, int bandMasks[], Point location) {
-		return null;
+		if (dataBuffer == null) {
+			throw new NullPointerException("DataBuffer cannot be null");
+		}
+		int dataType = dataBuffer.getDataType();
+
+		SinglePixelPackedSampleModel sppsm = new SinglePixelPackedSampleModel(dataType, w, h,
+				scanlineStride, bandMasks);
+
+		switch (dataType) {
+		case DataBuffer.TYPE_BYTE:
+		case DataBuffer.TYPE_USHORT:
+		case DataBuffer.TYPE_INT:
+			return new WritableRaster(sppsm, dataBuffer, toLocation(location));
+		default:
+			throw new IllegalArgumentException("Unsupported data type " + dataType);
+		}
 	}
 
 	public static WritableRaster createPackedRaster(DataBuffer dataBuffer, int w, int h,
 			int bitsPerPixel, Point location) {
-		return null;
+		if (dataBuffer == null) {
+			throw new NullPointerException("DataBuffer cannot be null");
+		}
+		int dataType = dataBuffer.getDataType();
+		if (dataType != DataBuffer.TYPE_BYTE && dataType != DataBuffer.TYPE_USHORT
+				&& dataType != DataBuffer.TYPE_INT) {
+			throw new IllegalArgumentException("Unsupported data type " + dataType);
+		}
+
+		if (dataBuffer.getNumBanks() != 1) {
+			throw new RasterFormatException("DataBuffer for packed Rasters"
+					+ " must only have 1 bank.");
+		}
+
+		MultiPixelPackedSampleModel mppsm = new MultiPixelPackedSampleModel(dataType, w, h,
+				bitsPerPixel);
+		return new WritableRaster(mppsm, dataBuffer, toLocation(location));
 	}
 
 	public static Raster createRaster(SampleModel sm, DataBuffer db, Point location) {
-		return null;
+		if ((sm == null) || (db == null)) {
+			throw new NullPointerException("SampleModel and DataBuffer cannot be null");
+		}
+		return new Raster(sm, db, toLocation(location));
 	}
 
 	public static WritableRaster createWritableRaster(SampleModel sm, Point location) {
-		return null;
+		return new WritableRaster(sm, toLocation(location));
 	}
 
 	public static WritableRaster createWritableRaster(SampleModel sm, DataBuffer db,
 			Point location) {
-		return null;
+		if ((sm == null) || (db == null)) {
+			throw new NullPointerException("SampleModel and DataBuffer cannot be null");
+		}
+		return new WritableRaster(sm, db, toLocation(location));
+	}
+
+	private static Point toLocation(Point location) {
+		return location == null ? new Point(0, 0) : location;
 	}
 
 	protected Raster(SampleModel sampleModel, Point origin) {
@@ -196,6 +413,33 @@ public class Raster {
 
 	protected Raster(SampleModel sampleModel, DataBuffer dataBuffer, Rectangle aRegion,
 			Point sampleModelTranslate, Raster parent) {
+		if ((sampleModel == null) || (dataBuffer == null) || (aRegion == null)
+				|| (sampleModelTranslate == null)) {
+			throw new NullPointerException("SampleModel, dataBuffer, aRegion and "
+					+ "sampleModelTranslate cannot be null");
+		}
+		this.sampleModel = sampleModel;
+		this.dataBuffer = dataBuffer;
+		minX = aRegion.x;
+		minY = aRegion.y;
+		width = aRegion.width;
+		height = aRegion.height;
+		if (width <= 0 || height <= 0) {
+			throw new RasterFormatException("negative or zero " + ((width <= 0) ? "width" : "height"));
+		}
+		if ((minX + width) < minX) {
+			throw new RasterFormatException("overflow condition for X coordinates of Raster");
+		}
+		if ((minY + height) < minY) {
+			throw new RasterFormatException("overflow condition for Y coordinates of Raster");
+		}
+
+		sampleModelTranslateX = sampleModelTranslate.x;
+		sampleModelTranslateY = sampleModelTranslate.y;
+
+		numBands = sampleModel.getNumBands();
+		numDataElements = sampleModel.getNumDataElements();
+		this.parent = parent;
 	}
 
 	public Raster getParent() {
@@ -211,28 +455,74 @@ public class Raster {
 	}
 
 	public WritableRaster createCompatibleWritableRaster() {
-		return null;
+		return new WritableRaster(sampleModel.createCompatibleSampleModel(width, height),
+				new Point(0, 0));
 	}
 
 	public WritableRaster createCompatibleWritableRaster(int w, int h) {
-		return null;
+		if (w <= 0 || h <= 0) {
+			throw new RasterFormatException("negative " + ((w <= 0) ? "width" : "height"));
+		}
+
+		SampleModel sm = sampleModel.createCompatibleSampleModel(w, h);
+
+		return new WritableRaster(sm, new Point(0, 0));
 	}
 
 	public WritableRaster createCompatibleWritableRaster(Rectangle rect) {
-		return null;
+		if (rect == null) {
+			throw new NullPointerException("Rect cannot be null");
+		}
+		return createCompatibleWritableRaster(rect.x, rect.y, rect.width, rect.height);
 	}
 
 	public WritableRaster createCompatibleWritableRaster(int x, int y, int w, int h) {
-		return null;
+		WritableRaster ret = createCompatibleWritableRaster(w, h);
+		return ret.createWritableChild(0, 0, w, h, x, y, null);
 	}
 
 	public Raster createTranslatedChild(int childMinX, int childMinY) {
-		return null;
+		return createChild(minX, minY, width, height, childMinX, childMinY, null);
 	}
 
+	/**
+	 * the child shares the data buffer of this raster, only the sample model
+	 * translation is changed (and the bands are subset if
+	 * <code>bandList</code> is not null), no sample is copied.
+	 */
 	public Raster createChild(int parentX, int parentY, int width, int height, int childMinX,
 			int childMinY, int bandList[]) {
-		return null;
+		if (parentX < this.minX) {
+			throw new RasterFormatException("parentX lies outside raster");
+		}
+		if (parentY < this.minY) {
+			throw new RasterFormatException("parentY lies outside raster");
+		}
+		if ((parentX + width < parentX) || (parentX + width > this.width + this.minX)) {
+			throw new RasterFormatException("(parentX + width) is outside raster");
+		}
+		if ((parentY + height < parentY) || (parentY + height > this.height + this.minY)) {
+			throw new RasterFormatException("(parentY + height) is outside raster");
+		}
+
+		SampleModel subSampleModel;
+		// Note: the SampleModel for the child Raster should have the same
+		// width and height as that for the parent, since it represents
+		// the physical layout of the pixel data. The child Raster's width
+		// and height represent a "virtual" view of the pixel data, so
+		// they may be different than those of the SampleModel.
+		if (bandList == null) {
+			subSampleModel = sampleModel;
+		} else {
+			subSampleModel = sampleModel.createSubsetSampleModel(bandList);
+		}
+
+		int deltaX = childMinX - parentX;
+		int deltaY = childMinY - parentY;
+
+		return new Raster(subSampleModel, getDataBuffer(),
+				new Rectangle(childMinX, childMinY, width, height),
+				new Point(sampleModelTranslateX + deltaX, sampleModelTranslateY + deltaY), this);
 	}
 
 	public Rectangle getBounds() {
@@ -276,59 +566,73 @@ public class Raster {
 	}
 
 	public Object getDataElements(int x, int y, Object outData) {
-		return null;
+		return sampleModel.getDataElements(x - sampleModelTranslateX, y - sampleModelTranslateY,
+				outData, dataBuffer);
 	}
 
 	public Object getDataElements(int x, int y, int w, int h, Object outData) {
-		return null;
+		return sampleModel.getDataElements(x - sampleModelTranslateX, y - sampleModelTranslateY,
+				w, h, outData, dataBuffer);
 	}
 
 	public int[] getPixel(int x, int y, int iArray[]) {
-		return null;
+		return sampleModel.getPixel(x - sampleModelTranslateX, y - sampleModelTranslateY, iArray,
+				dataBuffer);
 	}
 
 	public float[] getPixel(int x, int y, float fArray[]) {
-		return null;
+		return sampleModel.getPixel(x - sampleModelTranslateX, y - sampleModelTranslateY, fArray,
+				dataBuffer);
 	}
 
 	public double[] getPixel(int x, int y, double dArray[]) {
-		return null;
+		return sampleModel.getPixel(x - sampleModelTranslateX, y - sampleModelTranslateY, dArray,
+				dataBuffer);
 	}
 
 	public int[] getPixels(int x, int y, int w, int h, int iArray[]) {
-		return null;
+		return sampleModel.getPixels(x - sampleModelTranslateX, y - sampleModelTranslateY, w, h,
+				iArray, dataBuffer);
 	}
 
 	public float[] getPixels(int x, int y, int w, int h, float fArray[]) {
-		return null;
+		return sampleModel.getPixels(x - sampleModelTranslateX, y - sampleModelTranslateY, w, h,
+				fArray, dataBuffer);
 	}
 
 	public double[] getPixels(int x, int y, int w, int h, double dArray[]) {
-		return null;
+		return sampleModel.getPixels(x - sampleModelTranslateX, y - sampleModelTranslateY, w, h,
+				dArray, dataBuffer);
 	}
 
 	public int getSample(int x, int y, int b) {
-		return 0;
+		return sampleModel.getSample(x - sampleModelTranslateX, y - sampleModelTranslateY, b,
+				dataBuffer);
 	}
 
 	public float getSampleFloat(int x, int y, int b) {
-		return 0;
+		return sampleModel.getSampleFloat(x - sampleModelTranslateX, y - sampleModelTranslateY, b,
+				dataBuffer);
 	}
 
 	public double getSampleDouble(int x, int y, int b) {
-		return 0;
+		return sampleModel.getSampleDouble(x - sampleModelTranslateX, y - sampleModelTranslateY,
+				b, dataBuffer);
 	}
 
 	public int[] getSamples(int x, int y, int w, int h, int b, int iArray[]) {
-		return null;
+		return sampleModel.getSamples(x - sampleModelTranslateX, y - sampleModelTranslateY, w, h,
+				b, iArray, dataBuffer);
 	}
 
 	public float[] getSamples(int x, int y, int w, int h, int b, float fArray[]) {
-		return null;
+		return sampleModel.getSamples(x - sampleModelTranslateX, y - sampleModelTranslateY, w, h,
+				b, fArray, dataBuffer);
 	}
 
 	public double[] getSamples(int x, int y, int w, int h, int b, double dArray[]) {
-		return null;
+		return sampleModel.getSamples(x - sampleModelTranslateX, y - sampleModelTranslateY, w, h,
+				b, dArray, dataBuffer);
 	}
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 1999, 2007, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package java.awt.image;
+
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+
+/**
+ * This class performs a pixel-by-pixel rescaling of the data in the source
+ * image by multiplying the sample values for each pixel by a scale factor and
+ * then adding an offset. The scaled sample values are clipped to the minimum
+ * and maximum representable in the destination image.
+ * <p>
+ * The pseudo code for the rescaling operation is as follows:
+ *
+ * <pre>
+ * for each pixel from Source object {
+ *     for each band/component of the pixel {
+ *         dstElement = (srcElement*scaleFactor) + offset
+ *     }
+ * }
+ * </pre>
+ * <p>
+ * The number of sets of scaling constants may be one, in which case the same
+ * constants are applied to all color (but not alpha) components, three for
+ * the color components, or four, the last set being applied to the alpha.
+ * <p>
+ * The components are 8 bits, so the rescaling is computed once per value in
+ * a table of 256 entries and the pixels are mapped through it in tiles on all
+ * the processors. The source and the destination may be the same image.
+ */
+public class RescaleOp implements BufferedImageOp {
+	float[] scaleFactors;
+	float[] offsets;
+	int length = 0;
+	RenderingHints hints;
+
+	public RescaleOp(float[] scaleFactors, float[] offsets, RenderingHints hints) {
+		length = scaleFactors.length;
+		if (length > offsets.length) {
+			length = offsets.length;
+		}
+
+		this.scaleFactors = new float[length];
+		this.offsets = new float[length];
+		for (int i = 0; i < length; i++) {
+			this.scaleFactors[i] = scaleFactors[i];
+			this.offsets[i] = offsets[i];
+		}
+		this.hints = hints;
+	}
+
+	public RescaleOp(float scaleFactor, float offset, RenderingHints hints) {
+		length = 1;
+		this.scaleFactors = new float[1];
+		this.offsets = new float[1];
+		this.scaleFactors[0] = scaleFactor;
+		this.offsets[0] = offset;
+		this.hints = hints;
+	}
+
+	final public float[] getScaleFactors(float scaleFactors[]) {
+		if (scaleFactors == null) {
+			return (float[]) this.scaleFactors.clone();
+		}
+		System.arraycopy(this.scaleFactors, 0, scaleFactors, 0,
+				Math.min(this.scaleFactors.length, scaleFactors.length));
+		return scaleFactors;
+	}
+
+	final public float[] getOffsets(float offsets[]) {
+		if (offsets == null) {
+			return (float[]) this.offsets.clone();
+		}
+
+		System.arraycopy(this.offsets, 0, offsets, 0, Math.min(this.offsets.length, offsets.length));
+		return offsets;
+	}
+
+	final public int getNumFactors() {
+		return length;
+	}
+
+	private static int[] createTable(final float scale, final float offset) {
+		final int[] table = new int[256];
+		for (int i = 0; i < 256; i++) {
+			final int v = (int) (i * scale + offset);
+			table[i] = (v < 0) ? 0 : ((v > 0xFF) ? 0xFF : v);
+		}
+		return table;
+	}
+
+	public final BufferedImage filter(BufferedImage src, BufferedImage dst) {
+		if (length != 1 && length != 3 && length != 4) {
+			throw new IllegalArgumentException("Number of scaling constants "
+					+ "does not equal the number of" + " color or color/alpha " + " components");
+		}
+		if (dst == null) {
+			dst = createCompatibleDestImage(src, null);
+		}
+
+		final int[] redTable = createTable(scaleFactors[0], offsets[0]);
+		final int[] greenTable = (length == 1) ? redTable : createTable(scaleFactors[1],
+				offsets[1]);
+		final int[] blueTable = (length == 1) ? redTable : createTable(scaleFactors[2],
+				offsets[2]);
+		final int[] alphaTable = (length == 4) ? createTable(scaleFactors[3], offsets[3]) : null;
+
+		final int srcScan = src.getWidth();
+		final int dstScan = dst.getWidth();
+		ImageOpTiles.lookup(src.getPixelsForOp(), srcScan, dst.getPixelsForOp(), dstScan,
+				Math.min(srcScan, dstScan), Math.min(src.getHeight(), dst.getHeight()),
+				alphaTable, redTable, greenTable, blueTable,
+				src.getType() == BufferedImage.TYPE_INT_RGB);
+		dst.pixelsChangedByOp();
+		return dst;
+	}
+
+	public BufferedImage createCompatibleDestImage(BufferedImage src, ColorModel destCM) {
+		return ImageOpTiles.createCompatibleDestImage(src, src.getWidth(), src.getHeight(),
+				destCM);
+	}
+
+	public final Rectangle2D getBounds2D(BufferedImage src) {
+		return new Rectangle(0, 0, src.getWidth(), src.getHeight());
+	}
+
+	public final Point2D getPoint2D(Point2D srcPt, Point2D dstPt) {
+		if (dstPt == null) {
+			dstPt = new Point2D.Float();
+		}
+		dstPt.setLocation(srcPt.getX(), srcPt.getY());
+		return dstPt;
+	}
+
+	public final RenderingHints getRenderingHints() {
+		return hints;
+	}
+}
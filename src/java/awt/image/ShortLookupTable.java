@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 1999, 2007, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package java.awt.image;
+
+/**
+ * This class defines a lookup table object. The output of a lookup operation
+ * using an object of this class is interpreted as an unsigned short quantity.
+ * The lookup table contains short data arrays for one or more bands (or
+ * components) of an image, and it contains an offset which will be
+ * subtracted from the input values before indexing the arrays.
+ *
+ * @see LookupOp
+ */
+public class ShortLookupTable extends LookupTable {
+	short data[][];
+
+	public ShortLookupTable(int offset, short data[][]) {
+		super(offset, data.length);
+		numComponents = data.length;
+		numEntries = data[0].length;
+		this.data = new short[numComponents][];
+		for (int i = 0; i < numComponents; i++) {
+			this.data[i] = data[i];
+		}
+	}
+
+	public ShortLookupTable(int offset, short data[]) {
+		super(offset, data.length);
+		numComponents = 1;
+		numEntries = data.length;
+		this.data = new short[1][];
+		this.data[0] = data;
+	}
+
+	public final short[][] getTable() {
+		return data;
+	}
+
+	public int[] lookupPixel(int[] src, int[] dst) {
+		if (dst == null) {
+			dst = new int[src.length];
+		}
+
+		if (numComponents == 1) {
+			for (int i = 0; i < src.length; i++) {
+				int s = src[i] - offset;
+				if (s < 0) {
+					throw new ArrayIndexOutOfBoundsException("src[" + i + "]-offset is "
+							+ "less than zero");
+				}
+				dst[i] = (int) data[0][s] & 0xffff;
+			}
+		} else {
+			for (int i = 0; i < src.length; i++) {
+				int s = src[i] - offset;
+				if (s < 0) {
+					throw new ArrayIndexOutOfBoundsException("src[" + i + "]-offset is "
+							+ "less than zero");
+				}
+				dst[i] = (int) data[i][s] & 0xffff;
+			}
+		}
+		return dst;
+	}
+
+	public short[] lookupPixel(short[] src, short[] dst) {
+		if (dst == null) {
+			dst = new short[src.length];
+		}
+
+		if (numComponents == 1) {
+			for (int i = 0; i < src.length; i++) {
+				int s = (src[i] & 0xffff) - offset;
+				if (s < 0) {
+					throw new ArrayIndexOutOfBoundsException("src[" + i + "]-offset is "
+							+ "less than zero");
+				}
+				dst[i] = data[0][s];
+			}
+		} else {
+			for (int i = 0; i < src.length; i++) {
+				int s = (src[i] & 0xffff) - offset;
+				if (s < 0) {
+					throw new ArrayIndexOutOfBoundsException("src[" + i + "]-offset is "
+							+ "less than zero");
+				}
+				dst[i] = data[i][s];
+			}
+		}
+		return dst;
+	}
+}
@@ -0,0 +1,556 @@
+/*
+ * Copyright (c) 1999, 2007, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+/* ****************************************************************
+ ******************************************************************
+ ******************************************************************
+ *** COPYRIGHT (c) Eastman Kodak Company, 1997
+ *** As  an unpublished  work pursuant to Title 17 of the United
+ *** States Code.  All rights reserved.
+ ******************************************************************
+ ******************************************************************
+ ******************************************************************/
+
+
+package java.awt.image;
+
+import java.util.Arrays;
+
+/**
+ * This class represents pixel data packed such that the N samples which make
+ * up a single pixel are stored in a single data array element, and each data
+ * array element holds samples for only one pixel. This class supports
+ * {@link DataBuffer#TYPE_BYTE TYPE_BYTE}, {@link DataBuffer#TYPE_USHORT
+ * TYPE_USHORT}, {@link DataBuffer#TYPE_INT TYPE_INT} data types. All data array
+ * elements reside in the first bank of a DataBuffer. Accessor methods are
+ * provided so that the image data can be manipulated directly. Scanline stride
+ * is the number of data array elements between a given sample and the
+ * corresponding sample in the same column of the next scanline. Bit masks are
+ * the masks required to extract the samples representing the bands of the
+ * pixel. Bit offsets are the offsets in bits into the data array element of the
+ * samples representing the bands of the pixel.
+ * <p>
+ * Region accessors read or write a whole row of data array elements at a time,
+ * indexing the arrays of {@link DataBufferInt}, {@link DataBufferByte} and
+ * {@link DataBufferUShort} directly.
+ */
+public class SinglePixelPackedSampleModel extends SampleModel {
+	private int bitMasks[];
+	private int bitOffsets[];
+	private int bitSizes[];
+	private int maxBitSize;
+	private int scanlineStride;
+
+	public SinglePixelPackedSampleModel(int dataType, int w, int h, int bitMasks[]) {
+		this(dataType, w, h, w, bitMasks);
+	}
+
+	public SinglePixelPackedSampleModel(int dataType, int w, int h, int scanlineStride,
+			int bitMasks[]) {
+		super(dataType, w, h, bitMasks.length);
+		if (dataType != DataBuffer.TYPE_BYTE && dataType != DataBuffer.TYPE_USHORT
+				&& dataType != DataBuffer.TYPE_INT) {
+			throw new IllegalArgumentException("Unsupported data type " + dataType);
+		}
+		this.dataType = dataType;
+		this.bitMasks = (int[]) bitMasks.clone();
+		this.scanlineStride = scanlineStride;
+
+		this.bitOffsets = new int[numBands];
+		this.bitSizes = new int[numBands];
+
+		int maxMask = (int) ((1L << DataBuffer.getDataTypeSize(dataType)) - 1);
+
+		this.maxBitSize = 0;
+		for (int i = 0; i < numBands; i++) {
+			int bitOffset = 0, bitSize = 0, mask;
+			this.bitMasks[i] &= maxMask;
+			mask = this.bitMasks[i];
+			if (mask != 0) {
+				while ((mask & 1) == 0) {
+					mask = mask >>> 1;
+					bitOffset++;
+				}
+				while ((mask & 1) == 1) {
+					mask = mask >>> 1;
+					bitSize++;
+				}
+				if (mask != 0) {
+					throw new IllegalArgumentException(
+							"Mask " + bitMasks[i] + " must be contiguous");
+				}
+			}
+			bitOffsets[i] = bitOffset;
+			bitSizes[i] = bitSize;
+			if (bitSize > maxBitSize) {
+				maxBitSize = bitSize;
+			}
+		}
+	}
+
+	public int getNumDataElements() {
+		return 1;
+	}
+
+	private long getBufferSize() {
+		long size = scanlineStride * (height - 1) + width;
+		return size;
+	}
+
+	public SampleModel createCompatibleSampleModel(int w, int h) {
+		SampleModel sampleModel = new SinglePixelPackedSampleModel(dataType, w, h, bitMasks);
+		return sampleModel;
+	}
+
+	public DataBuffer createDataBuffer() {
+		DataBuffer dataBuffer = null;
+
+		int size = (int) getBufferSize();
+		switch (dataType) {
+		case DataBuffer.TYPE_BYTE:
+			dataBuffer = new DataBufferByte(size);
+			break;
+		case DataBuffer.TYPE_USHORT:
+			dataBuffer = new DataBufferUShort(size);
+			break;
+		case DataBuffer.TYPE_INT:
+			dataBuffer = new DataBufferInt(size);
+			break;
+		}
+		return dataBuffer;
+	}
+
+	public int[] getSampleSize() {
+		int mask;
+		int sampleSize[] = new int[numBands];
+		for (int i = 0; i < numBands; i++) {
+			sampleSize[i] = 0;
+			mask = bitMasks[i] >>> bitOffsets[i];
+			while ((mask & 1) != 0) {
+				sampleSize[i]++;
+				mask = mask >>> 1;
+			}
+		}
+
+		return sampleSize;
+	}
+
+	public int getSampleSize(int band) {
+		int sampleSize = 0;
+		int mask = bitMasks[band] >>> bitOffsets[band];
+		while ((mask & 1) != 0) {
+			sampleSize++;
+			mask = mask >>> 1;
+		}
+
+		return sampleSize;
+	}
+
+	public int getOffset(int x, int y) {
+		int offset = y * scanlineStride + x;
+		return offset;
+	}
+
+	public int[] getBitOffsets() {
+		return (int[]) bitOffsets.clone();
+	}
+
+	public int[] getBitMasks() {
+		return (int[]) bitMasks.clone();
+	}
+
+	public int getScanlineStride() {
+		return scanlineStride;
+	}
+
+	public SampleModel createSubsetSampleModel(int bands[]) {
+		if (bands.length > numBands) {
+			throw new RasterFormatException("There are only " + numBands + " bands");
+		}
+		int newBitMasks[] = new int[bands.length];
+		for (int i = 0; i < bands.length; i++) {
+			newBitMasks[i] = bitMasks[bands[i]];
+		}
+
+		return new SinglePixelPackedSampleModel(this.dataType, width, height,
+				this.scanlineStride, newBitMasks);
+	}
+
+	/**
+	 * reads <code>w</code> data array elements starting at <code>offset</code>
+	 * into <code>dest</code>.
+	 */
+	private static void readElems(DataBuffer data, int offset, int[] dest, int destOff, int w) {
+		if (data instanceof DataBufferInt) {
+			System.arraycopy(((DataBufferInt) data).getData(), data.offset + offset, dest,
+					destOff, w);
+		} else if (data instanceof DataBufferByte) {
+			final byte[] src = ((DataBufferByte) data).getData();
+			for (int i = data.offset + offset, end = i + w; i < end; i++) {
+				dest[destOff++] = src[i] & 0xff;
+			}
+		} else if (data instanceof DataBufferUShort) {
+			final short[] src = ((DataBufferUShort) data).getData();
+			for (int i = data.offset + offset, end = i + w; i < end; i++) {
+				dest[destOff++] = src[i] & 0xffff;
+			}
+		} else {
+			for (int i = offset, end = i + w; i < end; i++) {
+				dest[destOff++] = data.getElem(i);
+			}
+		}
+	}
+
+	/**
+	 * writes <code>w</code> data array elements starting at
+	 * <code>offset</code> from <code>src</code>.
+	 */
+	private static void writeElems(DataBuffer data, int offset, int[] src, int srcOff, int w) {
+		if (data instanceof DataBufferInt) {
+			System.arraycopy(src, srcOff, ((DataBufferInt) data).getData(), data.offset + offset,
+					w);
+		} else if (data instanceof DataBufferByte) {
+			final byte[] dest = ((DataBufferByte) data).getData();
+			for (int i = data.offset + offset, end = i + w; i < end; i++) {
+				dest[i] = (byte) src[srcOff++];
+			}
+		} else if (data instanceof DataBufferUShort) {
+			final short[] dest = ((DataBufferUShort) data).getData();
+			for (int i = data.offset + offset, end = i + w; i < end; i++) {
+				dest[i] = (short) src[srcOff++];
+			}
+		} else {
+			for (int i = offset, end = i + w; i < end; i++) {
+				data.setElem(i, src[srcOff++]);
+			}
+		}
+	}
+
+	public Object getDataElements(int x, int y, Object obj, DataBuffer data) {
+		// Bounds check for 'b' will be performed automatically
+		if ((x < 0) || (y < 0) || (x >= width) || (y >= height)) {
+			throw new ArrayIndexOutOfBoundsException("Coordinate out of bounds!");
+		}
+
+		int type = getTransferType();
+
+		switch (type) {
+		case DataBuffer.TYPE_BYTE:
+			byte[] bdata;
+			if (obj == null) {
+				bdata = new byte[1];
+			} else {
+				bdata = (byte[]) obj;
+			}
+			bdata[0] = (byte) data.getElem(y * scanlineStride + x);
+			obj = (Object) bdata;
+			break;
+
+		case DataBuffer.TYPE_USHORT:
+			short[] sdata;
+			if (obj == null) {
+				sdata = new short[1];
+			} else {
+				sdata = (short[]) obj;
+			}
+			sdata[0] = (short) data.getElem(y * scanlineStride + x);
+			obj = (Object) sdata;
+			break;
+
+		case DataBuffer.TYPE_INT:
+			int[] idata;
+			if (obj == null) {
+				idata = new int[1];
+			} else {
+				idata = (int[]) obj;
+			}
+			idata[0] = data.getElem(y * scanlineStride + x);
+			obj = (Object) idata;
+			break;
+		}
+
+		return obj;
+	}
+
+	public Object getDataElements(int x, int y, int w, int h, Object obj, DataBuffer data) {
+		int x1 = x + w;
+		int y1 = y + h;
+		checkRegion(x, y, w, h, x1, y1);
+
+		if (getTransferType() == DataBuffer.TYPE_INT) {
+			// one data element per pixel, the rows are copied as they are.
+			int[] idata;
+			if (obj == null) {
+				idata = new int[w * h];
+			} else {
+				idata = (int[]) obj;
+			}
+			int lineOffset = y * scanlineStride + x;
+			for (int i = 0, dst = 0; i < h; i++, dst += w) {
+				readElems(data, lineOffset, idata, dst, w);
+				lineOffset += scanlineStride;
+			}
+			return idata;
+		}
+		return super.getDataElements(x, y, w, h, obj, data);
+	}
+
+	public int[] getPixel(int x, int y, int iArray[], DataBuffer data) {
+		if ((x < 0) || (y < 0) || (x >= width) || (y >= height)) {
+			throw new ArrayIndexOutOfBoundsException("Coordinate out of bounds!");
+		}
+		int pixels[];
+		if (iArray == null) {
+			pixels = new int[numBands];
+		} else {
+			pixels = iArray;
+		}
+
+		int value = data.getElem(y * scanlineStride + x);
+		for (int i = 0; i < numBands; i++) {
+			pixels[i] = (value & bitMasks[i]) >>> bitOffsets[i];
+		}
+		return pixels;
+	}
+
+	public int[] getPixels(int x, int y, int w, int h, int iArray[], DataBuffer data) {
+		int x1 = x + w;
+		int y1 = y + h;
+		checkRegion(x, y, w, h, x1, y1);
+
+		int pixels[];
+		if (iArray != null) {
+			pixels = iArray;
+		} else {
+			pixels = new int[w * h * numBands];
+		}
+
+		final int[] row = new int[w];
+		int lineOffset = y * scanlineStride + x;
+		int dstOffset = 0;
+
+		for (int i = 0; i < h; i++) {
+			readElems(data, lineOffset, row, 0, w);
+			for (int j = 0; j < w; j++) {
+				int value = row[j];
+				for (int k = 0; k < numBands; k++) {
+					pixels[dstOffset++] = (value & bitMasks[k]) >>> bitOffsets[k];
+				}
+			}
+			lineOffset += scanlineStride;
+		}
+		return pixels;
+	}
+
+	public int getSample(int x, int y, int b, DataBuffer data) {
+		// Bounds check for 'b' will be performed automatically
+		if ((x < 0) || (y < 0) || (x >= width) || (y >= height)) {
+			throw new ArrayIndexOutOfBoundsException("Coordinate out of bounds!");
+		}
+		int sample = data.getElem(y * scanlineStride + x);
+		return ((sample & bitMasks[b]) >>> bitOffsets[b]);
+	}
+
+	public int[] getSamples(int x, int y, int w, int h, int b, int iArray[], DataBuffer data) {
+		// Bounds check for 'b' will be performed automatically
+		if ((x < 0) || (y < 0) || (x + w > width) || (y + h > height)) {
+			throw new ArrayIndexOutOfBoundsException("Coordinate out of bounds!");
+		}
+		int samples[];
+		if (iArray != null) {
+			samples = iArray;
+		} else {
+			samples = new int[w * h];
+		}
+
+		final int mask = bitMasks[b];
+		final int shift = bitOffsets[b];
+		int lineOffset = y * scanlineStride + x;
+		for (int i = 0, dst = 0; i < h; i++, dst += w) {
+			readElems(data, lineOffset, samples, dst, w);
+			for (int j = dst, end = dst + w; j < end; j++) {
+				samples[j] = (samples[j] & mask) >>> shift;
+			}
+			lineOffset += scanlineStride;
+		}
+		return samples;
+	}
+
+	public void setDataElements(int x, int y, Object obj, DataBuffer data) {
+		if ((x < 0) || (y < 0) || (x >= width) || (y >= height)) {
+			throw new ArrayIndexOutOfBoundsException("Coordinate out of bounds!");
+		}
+
+		int type = getTransferType();
+
+		switch (type) {
+		case DataBuffer.TYPE_BYTE:
+			byte[] barray = (byte[]) obj;
+			data.setElem(y * scanlineStride + x, ((int) barray[0]) & 0xff);
+			break;
+
+		case DataBuffer.TYPE_USHORT:
+			short[] sarray = (short[]) obj;
+			data.setElem(y * scanlineStride + x, ((int) sarray[0]) & 0xffff);
+			break;
+
+		case DataBuffer.TYPE_INT:
+			int[] iarray = (int[]) obj;
+			data.setElem(y * scanlineStride + x, iarray[0]);
+			break;
+		}
+	}
+
+	public void setDataElements(int x, int y, int w, int h, Object obj, DataBuffer data) {
+		int x1 = x + w;
+		int y1 = y + h;
+		checkRegion(x, y, w, h, x1, y1);
+
+		if (getTransferType() == DataBuffer.TYPE_INT) {
+			final int[] idata = (int[]) obj;
+			int lineOffset = y * scanlineStride + x;
+			for (int i = 0, src = 0; i < h; i++, src += w) {
+				writeElems(data, lineOffset, idata, src, w);
+				lineOffset += scanlineStride;
+			}
+			return;
+		}
+		super.setDataElements(x, y, w, h, obj, data);
+	}
+
+	public void setPixel(int x, int y, int iArray[], DataBuffer data) {
+		if ((x < 0) || (y < 0) || (x >= width) || (y >= height)) {
+			throw new ArrayIndexOutOfBoundsException("Coordinate out of bounds!");
+		}
+		int lineOffset = y * scanlineStride + x;
+		int value = data.getElem(lineOffset);
+		for (int i = 0; i < numBands; i++) {
+			value &= ~bitMasks[i];
+			value |= ((iArray[i] << bitOffsets[i]) & bitMasks[i]);
+		}
+		data.setElem(lineOffset, value);
+	}
+
+	public void setPixels(int x, int y, int w, int h, int iArray[], DataBuffer data) {
+		int x1 = x + w;
+		int y1 = y + h;
+		checkRegion(x, y, w, h, x1, y1);
+
+		final int[] row = new int[w];
+		int lineOffset = y * scanlineStride + x;
+		int srcOffset = 0;
+
+		for (int i = 0; i < h; i++) {
+			readElems(data, lineOffset, row, 0, w);
+			for (int j = 0; j < w; j++) {
+				int value = row[j];
+				for (int k = 0; k < numBands; k++) {
+					int srcValue = iArray[srcOffset++];
+					value &= ~bitMasks[k];
+					value |= (srcValue << bitOffsets[k]) & bitMasks[k];
+				}
+				row[j] = value;
+			}
+			writeElems(data, lineOffset, row, 0, w);
+			lineOffset += scanlineStride;
+		}
+	}
+
+	public void setSample(int x, int y, int b, int s, DataBuffer data) {
+		// Bounds check for 'b' will be performed automatically
+		if ((x < 0) || (y < 0) || (x >= width) || (y >= height)) {
+			throw new ArrayIndexOutOfBoundsException("Coordinate out of bounds!");
+		}
+		int value = data.getElem(y * scanlineStride + x);
+		value &= ~bitMasks[b];
+		value |= (s << bitOffsets[b]) & bitMasks[b];
+		data.setElem(y * scanlineStride + x, value);
+	}
+
+	public void setSamples(int x, int y, int w, int h, int b, int iArray[], DataBuffer data) {
+		// Bounds check for 'b' will be performed automatically
+		if ((x < 0) || (y < 0) || (x + w > width) || (y + h > height)) {
+			throw new ArrayIndexOutOfBoundsException("Coordinate out of bounds!");
+		}
+
+		final int mask = bitMasks[b];
+		final int shift = bitOffsets[b];
+		final int[] row = new int[w];
+		int lineOffset = y * scanlineStride + x;
+		int srcOffset = 0;
+
+		for (int i = 0; i < h; i++) {
+			readElems(data, lineOffset, row, 0, w);
+			for (int j = 0; j < w; j++) {
+				row[j] = (row[j] & ~mask) | ((iArray[srcOffset++] << shift) & mask);
+			}
+			writeElems(data, lineOffset, row, 0, w);
+			lineOffset += scanlineStride;
+		}
+	}
+
+	public boolean equals(Object o) {
+		if ((o == null) || !(o instanceof SinglePixelPackedSampleModel)) {
+			return false;
+		}
+
+		SinglePixelPackedSampleModel that = (SinglePixelPackedSampleModel) o;
+		return this.width == that.width && this.height == that.height
+				&& this.numBands == that.numBands && this.dataType == that.dataType
+				&& Arrays.equals(this.bitMasks, that.bitMasks)
+				&& Arrays.equals(this.bitOffsets, that.bitOffsets)
+				&& Arrays.equals(this.bitSizes, that.bitSizes) && this.maxBitSize == that.maxBitSize
+				&& this.scanlineStride == that.scanlineStride;
+	}
+
+	// If we implement equals() we must also implement hashCode
+	public int hashCode() {
+		int hash = 0;
+		hash = width;
+		hash <<= 8;
+		hash ^= height;
+		hash <<= 8;
+		hash ^= numBands;
+		hash <<= 8;
+		hash ^= dataType;
+		hash <<= 8;
+		for (int i = 0; i < bitMasks.length; i++) {
+			hash ^= bitMasks[i];
+			hash <<= 8;
+		}
+		for (int i = 0; i < bitOffsets.length; i++) {
+			hash ^= bitOffsets[i];
+			hash <<= 8;
+		}
+		for (int i = 0; i < bitSizes.length; i++) {
+			hash ^= bitSizes[i];
+			hash <<= 8;
+		}
+		hash ^= maxBitSize;
+		hash <<= 8;
+		hash ^= scanlineStride;
+		return hash;
+	}
+}
@@ -26,27 +26,41 @@ package javax.imageio;
 
 import hc.App;
 import hc.android.ActivityManager;
-import hc.android.AndroidClassUtil;
 import hc.android.ImageUtil;
 import hc.android.J2SEInitor;
 import hc.util.ResourceUtil;
 
 import java.awt.image.BufferedImage;
 import java.awt.image.RenderedImage;
+import java.io.BufferedInputStream;
 import java.io.File;
-import java.io.FileInputStream;
+import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.net.URISyntaxException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.Locale;
 import java.util.NoSuchElementException;
 import java.util.Vector;
+import javax.imageio.spi.IIORegistry;
+import javax.imageio.spi.ImageReaderSpi;
+import javax.imageio.spi.ImageReaderWriterSpi;
+import javax.imageio.spi.ImageWriterSpi;
+import javax.imageio.stream.FileCacheImageInputStream;
+import javax.imageio.stream.FileCacheImageOutputStream;
+import javax.imageio.stream.FileImageInputStream;
+import javax.imageio.stream.FileImageOutputStream;
 import javax.imageio.stream.ImageInputStream;
 import javax.imageio.stream.ImageOutputStream;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
 
 /**
  * A class containing static convenience methods for locating
@@ -55,91 +69,264 @@ import android.graphics.BitmapFactory;
  *
  */
 public final class ImageIO {
-	static final Iterator<Object> EMPTY_ITERATOR = new Iterator() {
-		public boolean hasNext() {
-			return false;
-		}
-
-		public Object next() {
-			throw new NoSuchElementException();
-		}
-
-		public void remove() {
-			throw new IllegalStateException();
-		}
-	};
-
 	private ImageIO() {
 	}
 
+	/**
+	 * registers the image readers and writers declared as services on the
+	 * application class path.
+	 */
+	public static void scanForPlugins() {
+		theRegistry.registerApplicationClasspathSpis();
+	}
+
 	private static String getTempDir() {
 		return "java.io.tmpdir";
 	}
 
-	public static void setUseCache(boolean useCache) {
+	private static boolean useCache = true;
+	private static File cacheDirectory;
+
+	/**
+	 * Sets a flag indicating whether a disk-based cache file should be used
+	 * when creating <code>ImageInputStream</code>s and
+	 * <code>ImageOutputStream</code>s over plain streams. A memory cache is
+	 * used otherwise, or if the cache directory is not writable.
+	 */
+	public static synchronized void setUseCache(boolean useCache) {
+		ImageIO.useCache = useCache;
 	}
 
-	public static boolean getUseCache() {
-		return false;
+	public static synchronized boolean getUseCache() {
+		return useCache;
 	}
 
-	public static void setCacheDirectory(File cacheDirectory) {
+	/**
+	 * @param cacheDirectory
+	 *            the directory of the cache files, <code>null</code> for the
+	 *            default one.
+	 * @exception IllegalArgumentException
+	 *                if <code>cacheDirectory</code> is not a directory.
+	 */
+	public static synchronized void setCacheDirectory(File cacheDirectory) {
+		if ((cacheDirectory != null) && !(cacheDirectory.isDirectory())) {
+			throw new IllegalArgumentException("Not a directory!");
+		}
+		ImageIO.cacheDirectory = cacheDirectory;
 	}
 
-	public static File getCacheDirectory() {
+	public static synchronized File getCacheDirectory() {
+		if (cacheDirectory != null) {
+			return cacheDirectory;
+		}
 		return new File(ResourceUtil.getBaseDir(), "");
 	}
 
+	/**
+	 * @return the directory for a new cache file, or null if a memory cache
+	 *         is to be used.
+	 */
+	private static File getUsableCacheDirectory() {
+		if (getUseCache() == false) {
+			return null;
+		}
+		final File dir = getCacheDirectory();
+		if (dir.isDirectory() && dir.canWrite()) {
+			return dir;
+		}
+		return null;
+	}
+
+	/**
+	 * Returns an <code>ImageInputStream</code> that will take its input from
+	 * the given <code>Object</code>.
+	 * <p>
+	 * A <code>File</code> or a <code>RandomAccessFile</code> is read in place
+	 * by a {@link FileImageInputStream}, an <code>InputStream</code> is
+	 * cached in a file of the cache directory, see
+	 * {@link #setUseCache(boolean)}, or in memory.
+	 * 
+	 * @return an <code>ImageInputStream</code>, or <code>null</code> if the
+	 *         input type is not supported or the file can not be opened.
+	 */
 	public static ImageInputStream createImageInputStream(Object input) throws IOException {
+		if (input == null) {
+			throw new IllegalArgumentException("input == null!");
+		}
+
+		if (input instanceof ImageInputStream) {
+			return (ImageInputStream) input;
+		}
+		if (input instanceof File) {
+			try {
+				return new FileImageInputStream((File) input);
+			} catch (FileNotFoundException e) {
+				return null;
+			}
+		}
+		if (input instanceof RandomAccessFile) {
+			return new FileImageInputStream((RandomAccessFile) input);
+		}
+		if (input instanceof InputStream) {
+			final File dir = getUsableCacheDirectory();
+			if (dir != null) {
+				try {
+					return new FileCacheImageInputStream((InputStream) input, dir);
+				} catch (IOException e) {
+					throw new IIOException("Can't create cache file!", e);
+				}
+			}
+			return new MemoryCacheImageInputStream((InputStream) input);
+		}
 		return null;
 	}
 
+	/**
+	 * Returns an <code>ImageOutputStream</code> that will send its output to
+	 * the given <code>Object</code>.
+	 * <p>
+	 * A <code>File</code> (replaced if it exists) or a
+	 * <code>RandomAccessFile</code> is written in place by a
+	 * {@link FileImageOutputStream}, an <code>OutputStream</code> is cached
+	 * in a file of the cache directory, see {@link #setUseCache(boolean)}, or
+	 * in memory, until flushed.
+	 * 
+	 * @return an <code>ImageOutputStream</code>, or <code>null</code> if the
+	 *         output type is not supported or the file can not be opened.
+	 */
 	public static ImageOutputStream createImageOutputStream(Object output) throws IOException {
+		if (output == null) {
+			throw new IllegalArgumentException("output == null!");
+		}
+
+		if (output instanceof ImageOutputStream) {
+			return (ImageOutputStream) output;
+		}
+		if (output instanceof File) {
+			final File file = (File) output;
+			file.delete();
+			try {
+				return new FileImageOutputStream(file);
+			} catch (FileNotFoundException e) {
+				return null;
+			}
+		}
+		if (output instanceof RandomAccessFile) {
+			return new FileImageOutputStream((RandomAccessFile) output);
+		}
+		if (output instanceof OutputStream) {
+			final File dir = getUsableCacheDirectory();
+			if (dir != null) {
+				try {
+					return new FileCacheImageOutputStream((OutputStream) output, dir);
+				} catch (IOException e) {
+					throw new IIOException("Can't create cache file!", e);
+				}
+			}
+			return new MemoryCacheImageOutputStream((OutputStream) output);
+		}
 		return null;
 	}
 
 	public static String[] getReaderFormatNames() {
-		return new String[0];
+		return getReaderWriterInfo(ImageReaderSpi.class, BY_NAME);
 	}
 
 	public static String[] getReaderMIMETypes() {
-		return new String[0];
+		return getReaderWriterInfo(ImageReaderSpi.class, BY_MIME);
 	}
 
 	public static String[] getReaderFileSuffixes() {
-		String[] ext = { "png", "jpg" };
-		return ext;
+		return getReaderWriterInfo(ImageReaderSpi.class, BY_SUFFIX);
 	}
 
-	public static Iterator getImageReaders(Object input) {
-		return EMPTY_ITERATOR;
+	/**
+	 * returns the readers which recognize <code>input</code> from its first
+	 * bytes. An <code>ImageInputStream</code> is left at its current position,
+	 * a <code>File</code> is opened once and every provider probes the same
+	 * stream between mark and reset.
+	 */
+	public static Iterator<ImageReader> getImageReaders(Object input) {
+		if (input == null) {
+			throw new IllegalArgumentException("input == null!");
+		}
+
+		if (input instanceof File) {
+			final ImageInputStream stream;
+			try {
+				stream = createImageInputStream(input);
+			} catch (IOException e) {
+				return new ImageReaderIterator(new ImageReaderSpi[0]);
+			}
+			if (stream == null) {
+				return new ImageReaderIterator(new ImageReaderSpi[0]);
+			}
+			try {
+				return new ImageReaderIterator(probeReaderSpis(stream));
+			} finally {
+				try {
+					stream.close();
+				} catch (IOException e) {
+				}
+			}
+		}
+		return new ImageReaderIterator(probeReaderSpis(input));
+	}
+
+	private static ImageReaderSpi[] probeReaderSpis(final Object input) {
+		final Iterator<ImageReaderSpi> it = theRegistry.getServiceProviders(ImageReaderSpi.class,
+				true);
+		final ArrayList<ImageReaderSpi> list = new ArrayList<ImageReaderSpi>(4);
+		while (it.hasNext()) {
+			final ImageReaderSpi spi = it.next();
+			try {
+				if (spi.canDecodeInput(input)) {
+					list.add(spi);
+				}
+			} catch (IOException e) {
+				return new ImageReaderSpi[0];
+			}
+		}
+		return list.toArray(new ImageReaderSpi[list.size()]);
 	}
 
-	public static Iterator getImageReadersByFormatName(String formatName) {
-		return EMPTY_ITERATOR;
+	public static Iterator<ImageReader> getImageReadersByFormatName(String formatName) {
+		if (formatName == null) {
+			throw new IllegalArgumentException("formatName == null!");
+		}
+		return new ImageReaderIterator(lookupReaderSpis(BY_NAME, formatName));
 	}
 
-	public static Iterator getImageReadersBySuffix(String fileSuffix) {
-		return EMPTY_ITERATOR;
+	public static Iterator<ImageReader> getImageReadersBySuffix(String fileSuffix) {
+		if (fileSuffix == null) {
+			throw new IllegalArgumentException("fileSuffix == null!");
+		}
+		return new ImageReaderIterator(lookupReaderSpis(BY_SUFFIX, fileSuffix));
 	}
 
-	public static Iterator getImageReadersByMIMEType(String MIMEType) {
-		return EMPTY_ITERATOR;
+	public static Iterator<ImageReader> getImageReadersByMIMEType(String MIMEType) {
+		if (MIMEType == null) {
+			throw new IllegalArgumentException("MIMEType == null!");
+		}
+		return new ImageReaderIterator(lookupReaderSpis(BY_MIME, MIMEType));
 	}
 
 	public static String[] getWriterFormatNames() {
-		return new String[0];
+		return getReaderWriterInfo(ImageWriterSpi.class, BY_NAME);
 	}
 
 	public static String[] getWriterMIMETypes() {
-		return new String[0];
+		return getReaderWriterInfo(ImageWriterSpi.class, BY_MIME);
 	}
 
 	public static String[] getWriterFileSuffixes() {
-		return new String[0];
+		return getReaderWriterInfo(ImageWriterSpi.class, BY_SUFFIX);
 	}
 
 	private static boolean contains(String[] names, String name) {
+		if (names == null) {
+			return false;
+		}
 		for (int i = 0; i < names.length; i++) {
 			if (name.equalsIgnoreCase(names[i])) {
 				return true;
@@ -149,16 +336,182 @@ public final class ImageIO {
 		return false;
 	}
 
-	public static Iterator getImageWritersByFormatName(String formatName) {
-		return EMPTY_ITERATOR;
+	public static Iterator<ImageWriter> getImageWritersByFormatName(String formatName) {
+		if (formatName == null) {
+			throw new IllegalArgumentException("formatName == null!");
+		}
+		return new ImageWriterIterator(lookupWriterSpis(BY_NAME, formatName));
+	}
+
+	public static Iterator<ImageWriter> getImageWritersBySuffix(String fileSuffix) {
+		if (fileSuffix == null) {
+			throw new IllegalArgumentException("fileSuffix == null!");
+		}
+		return new ImageWriterIterator(lookupWriterSpis(BY_SUFFIX, fileSuffix));
+	}
+
+	public static Iterator<ImageWriter> getImageWritersByMIMEType(String MIMEType) {
+		if (MIMEType == null) {
+			throw new IllegalArgumentException("MIMEType == null!");
+		}
+		return new ImageWriterIterator(lookupWriterSpis(BY_MIME, MIMEType));
+	}
+
+	private static final int BY_NAME = 0;
+	private static final int BY_SUFFIX = 1;
+	private static final int BY_MIME = 2;
+
+	private static final IIORegistry theRegistry = IIORegistry.getDefaultInstance();
+
+	/**
+	 * providers per lower case format name, suffix or MIME type, rebuilt when
+	 * the registry is changed.
+	 */
+	private static final HashMap<String, ImageReaderSpi[]> readerSpiCache = new HashMap<String, ImageReaderSpi[]>();
+	private static final HashMap<String, ImageWriterSpi[]> writerSpiCache = new HashMap<String, ImageWriterSpi[]>();
+	private static int spiCacheModCount = -1;
+
+	private static void checkSpiCache() {
+		final int modCount = theRegistry.getModCountAdAPI();
+		if (modCount != spiCacheModCount) {
+			readerSpiCache.clear();
+			writerSpiCache.clear();
+			spiCacheModCount = modCount;
+		}
+	}
+
+	private static String[] getKeys(final ImageReaderWriterSpi spi, final int kind) {
+		switch (kind) {
+		case BY_NAME:
+			return spi.getFormatNames();
+		case BY_SUFFIX:
+			return spi.getFileSuffixes();
+		default:
+			return spi.getMIMETypes();
+		}
+	}
+
+	private static synchronized ImageReaderSpi[] lookupReaderSpis(final int kind,
+			final String key) {
+		checkSpiCache();
+		final String cacheKey = kind + key.toLowerCase(Locale.ENGLISH);
+		ImageReaderSpi[] spis = readerSpiCache.get(cacheKey);
+		if (spis == null) {
+			final ArrayList<ImageReaderSpi> list = new ArrayList<ImageReaderSpi>(2);
+			final Iterator<ImageReaderSpi> it = theRegistry
+					.getServiceProviders(ImageReaderSpi.class, true);
+			while (it.hasNext()) {
+				final ImageReaderSpi spi = it.next();
+				if (contains(getKeys(spi, kind), key)) {
+					list.add(spi);
+				}
+			}
+			spis = list.toArray(new ImageReaderSpi[list.size()]);
+			readerSpiCache.put(cacheKey, spis);
+		}
+		return spis;
+	}
+
+	private static synchronized ImageWriterSpi[] lookupWriterSpis(final int kind,
+			final String key) {
+		checkSpiCache();
+		final String cacheKey = kind + key.toLowerCase(Locale.ENGLISH);
+		ImageWriterSpi[] spis = writerSpiCache.get(cacheKey);
+		if (spis == null) {
+			final ArrayList<ImageWriterSpi> list = new ArrayList<ImageWriterSpi>(2);
+			final Iterator<ImageWriterSpi> it = theRegistry
+					.getServiceProviders(ImageWriterSpi.class, true);
+			while (it.hasNext()) {
+				final ImageWriterSpi spi = it.next();
+				if (contains(getKeys(spi, kind), key)) {
+					list.add(spi);
+				}
+			}
+			spis = list.toArray(new ImageWriterSpi[list.size()]);
+			writerSpiCache.put(cacheKey, spis);
+		}
+		return spis;
+	}
+
+	private static <S extends ImageReaderWriterSpi> String[] getReaderWriterInfo(
+			final Class<S> spiClass, final int kind) {
+		final HashSet<String> set = new HashSet<String>();
+		final Iterator<S> it = theRegistry.getServiceProviders(spiClass, true);
+		while (it.hasNext()) {
+			final String[] keys = getKeys(it.next(), kind);
+			if (keys != null) {
+				for (int i = 0; i < keys.length; i++) {
+					set.add(keys[i]);
+				}
+			}
+		}
+		return set.toArray(new String[set.size()]);
 	}
 
-	public static Iterator getImageWritersBySuffix(String fileSuffix) {
-		return EMPTY_ITERATOR;
+	/**
+	 * creates one reader per provider, on demand.
+	 */
+	static class ImageReaderIterator implements Iterator<ImageReader> {
+		private final ImageReaderSpi[] spis;
+		private int index;
+
+		ImageReaderIterator(final ImageReaderSpi[] spis) {
+			this.spis = spis;
+		}
+
+		public boolean hasNext() {
+			return index < spis.length;
+		}
+
+		public ImageReader next() {
+			if (index >= spis.length) {
+				throw new NoSuchElementException();
+			}
+			final ImageReaderSpi spi = spis[index++];
+			try {
+				return spi.createReaderInstance();
+			} catch (IOException e) {
+				theRegistry.deregisterServiceProvider(spi);
+			}
+			return null;
+		}
+
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
 	}
 
-	public static Iterator getImageWritersByMIMEType(String MIMEType) {
-		return EMPTY_ITERATOR;
+	/**
+	 * creates one writer per provider, on demand.
+	 */
+	static class ImageWriterIterator implements Iterator<ImageWriter> {
+		private final ImageWriterSpi[] spis;
+		private int index;
+
+		ImageWriterIterator(final ImageWriterSpi[] spis) {
+			this.spis = spis;
+		}
+
+		public boolean hasNext() {
+			return index < spis.length;
+		}
+
+		public ImageWriter next() {
+			if (index >= spis.length) {
+				throw new NoSuchElementException();
+			}
+			final ImageWriterSpi spi = spis[index++];
+			try {
+				return spi.createWriterInstance();
+			} catch (IOException e) {
+				theRegistry.deregisterServiceProvider(spi);
+			}
+			return null;
+		}
+
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
 	}
 
 	public static BufferedImage read(File input) throws IOException {
@@ -178,50 +531,108 @@ public final class ImageIO {
 			}
 		}
 
-		BufferedImage bi = read(new FileInputStream(input));
-		return bi;
+		if (input.canRead() == false) {
+			throw new IIOException("Can't read input file!");
+		}
+		return readImage(input);
 	}
 
 	public static BufferedImage read(InputStream input) throws IOException {
+		if (input == null) {
+			throw new IllegalArgumentException("input == null!");
+		}
 		try {
-			Bitmap bitmap = BitmapFactory.decodeStream(input);
-			BufferedImage bi = new BufferedImage(bitmap);
-			return bi;
-		} catch (Throwable e) {
+			// the header is sniffed behind a mark and the image decoded in one
+			// pass, nothing but the header is buffered.
+			final InputStream is = input.markSupported() ? input : new BufferedInputStream(input);
+			final Iterator<ImageReader> it = getImageReaders(is);
+			if (it.hasNext()) {
+				return readImage(is, it);
+			}
+
+			// readers of image input streams only, through a stream cached on
+			// disk or in memory.
+			final ImageInputStream stream = createImageInputStream(is);
+			try {
+				return readImage(stream);
+			} finally {
+				stream.close();
+			}
 		} finally {
 			try {
 				input.close();
 			} catch (Throwable e) {
 			}
 		}
-		return null;
 	}
 
 	public static BufferedImage read(URL url) throws IOException {
-		InputStream is = null;
-		try {
-			is = url.openStream();
-			Bitmap bitmap = BitmapFactory.decodeStream(is);
-			BufferedImage bi = new BufferedImage(bitmap);
-			return bi;
-		} catch (Throwable e) {
-			e.printStackTrace();
-		} finally {
+		if (url == null) {
+			throw new IllegalArgumentException("input == null!");
+		}
+		if ("file".equals(url.getProtocol())) {
+			File file = null;
 			try {
-				is.close();
-			} catch (Throwable e) {
+				file = new File(url.toURI());
+			} catch (URISyntaxException e) {
+			} catch (IllegalArgumentException e) {
+				// file URL with authority or query, read as stream.
+			}
+			if (file != null) {
+				return readImage(file);
 			}
 		}
-		return null;
+		return read(url.openStream());
 	}
 
 	public static BufferedImage read(ImageInputStream stream) throws IOException {
-		throw new Error(AndroidClassUtil.UN_IMPLEMENT_METHOD);
+		if (stream == null) {
+			throw new IllegalArgumentException("stream == null!");
+		}
+		try {
+			return readImage(stream);
+		} finally {
+			stream.close();
+		}
+	}
+
+	/**
+	 * decodes the whole image at full resolution with the first reader which
+	 * recognizes the header of <code>input</code>. To decode a region or a
+	 * subsampled image, use {@link ImageReader#read(int, ImageReadParam)}
+	 * instead.
+	 * 
+	 * @return null if no reader recognizes the input, nothing is decoded in
+	 *         this case.
+	 */
+	private static BufferedImage readImage(Object input) throws IOException {
+		final Iterator<ImageReader> it = getImageReaders(input);
+		if (!it.hasNext()) {
+			return null;
+		}
+		return readImage(input, it);
+	}
+
+	private static BufferedImage readImage(final Object input, final Iterator<ImageReader> it)
+			throws IOException {
+		final ImageReader reader = it.next();
+		if (reader == null) {
+			return null;
+		}
+		try {
+			reader.setInput(input, true, true);
+			return reader.read(0, null);
+		} finally {
+			reader.dispose();
+		}
 	}
 
 	public static boolean write(RenderedImage im, String formatName, ImageOutputStream output)
 			throws IOException {
-		throw new Error(AndroidClassUtil.UN_IMPLEMENT_METHOD);
+		if (output == null) {
+			throw new IllegalArgumentException("output == null!");
+		}
+		return doWrite(im, formatName, output);
 	}
 
 	public static boolean write(RenderedImage im, String formatName, File file) throws IOException {
@@ -245,25 +656,39 @@ public final class ImageIO {
 
 	public static boolean write(RenderedImage im, String formatName, OutputStream output)
 			throws IOException {
-		try {
-			Bitmap.CompressFormat format = null;
-			if (formatName.equalsIgnoreCase("png")) {
-				format = Bitmap.CompressFormat.PNG;
-			} else if (formatName.equalsIgnoreCase("jpg")) {
-				format = Bitmap.CompressFormat.JPEG;
-			} else {
-				throw new IllegalArgumentException("illegal format : " + formatName);
-			}
+		if (output == null) {
+			throw new IllegalArgumentException("output == null!");
+		}
+		return doWrite(im, formatName, output);
+	}
 
-			im.getBitmapAdAPI().compress(format, 100, output);
-			return true;
-		} catch (Exception e) {
-			try {
-				output.close();
-			} catch (Exception ex) {
-			}
+	/**
+	 * @return false if there is no writer for <code>formatName</code>.
+	 */
+	private static boolean doWrite(RenderedImage im, String formatName, Object output)
+			throws IOException {
+		if (im == null) {
+			throw new IllegalArgumentException("im == null!");
 		}
-		return false;
+		if (formatName == null) {
+			throw new IllegalArgumentException("formatName == null!");
+		}
+
+		final Iterator<ImageWriter> it = getImageWritersByFormatName(formatName);
+		if (!it.hasNext()) {
+			return false;
+		}
+		final ImageWriter writer = it.next();
+		if (writer == null) {
+			return false;
+		}
+		try {
+			writer.setOutput(output);
+			writer.write(im);
+		} finally {
+			writer.dispose();
+		}
+		return true;
 	}
 
 }
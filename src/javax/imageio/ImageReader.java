@@ -37,6 +37,7 @@ import java.util.Locale;
 import java.util.Set;
 
 import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.spi.ImageReaderSpi;
 import javax.imageio.stream.ImageInputStream;
 
 /**
@@ -65,12 +66,12 @@ import javax.imageio.stream.ImageInputStream;
  */
 public abstract class ImageReader {
 
-	// /**
-	// * The <code>ImageReaderSpi</code> that instantiated this object,
-	// * or <code>null</code> if its identity is not known or none
-	// * exists. By default it is initialized to <code>null</code>.
-	// */
-	// protected ImageReaderSpi originatingProvider;
+	/**
+	 * The <code>ImageReaderSpi</code> that instantiated this object,
+	 * or <code>null</code> if its identity is not known or none
+	 * exists. By default it is initialized to <code>null</code>.
+	 */
+	protected ImageReaderSpi originatingProvider;
 
 	/**
 	 * The <code>ImageInputStream</code> or other <code>Object</code> by
@@ -158,22 +159,22 @@ public abstract class ImageReader {
 	 */
 	private boolean abortFlag = false;
 
-	// /**
-	// * Constructs an <code>ImageReader</code> and sets its
-	// * <code>originatingProvider</code> field to the supplied value.
-	// *
-	// * <p> Subclasses that make use of extensions should provide a
-	// * constructor with signature <code>(ImageReaderSpi,
-	// * Object)</code> in order to retrieve the extension object. If
-	// * the extension object is unsuitable, an
-	// * <code>IllegalArgumentException</code> should be thrown.
-	// *
-	// * @param originatingProvider the <code>ImageReaderSpi</code> that is
-	// * invoking this constructor, or <code>null</code>.
-	// */
-	// protected ImageReader(ImageReaderSpi originatingProvider) {
-	// this.originatingProvider = originatingProvider;
-	// }
+	/**
+	 * Constructs an <code>ImageReader</code> and sets its
+	 * <code>originatingProvider</code> field to the supplied value.
+	 *
+	 * <p> Subclasses that make use of extensions should provide a
+	 * constructor with signature <code>(ImageReaderSpi,
+	 * Object)</code> in order to retrieve the extension object. If
+	 * the extension object is unsuitable, an
+	 * <code>IllegalArgumentException</code> should be thrown.
+	 *
+	 * @param originatingProvider the <code>ImageReaderSpi</code> that is
+	 * invoking this constructor, or <code>null</code>.
+	 */
+	protected ImageReader(ImageReaderSpi originatingProvider) {
+		this.originatingProvider = originatingProvider;
+	}
 
 	/**
 	 * Returns a <code>String</code> identifying the format of the input source.
@@ -191,21 +192,20 @@ public abstract class ImageReader {
 	 * @return the format name, as a <code>String</code>.
 	 */
 	public String getFormatName() throws IOException {
-		// return originatingProvider.getFormatNames()[0];
-		return null;
+		return originatingProvider.getFormatNames()[0];
 	}
 
-	// /**
-	// * Returns the <code>ImageReaderSpi</code> that was passed in on
-	// * the constructor. Note that this value may be <code>null</code>.
-	// *
-	// * @return an <code>ImageReaderSpi</code>, or <code>null</code>.
-	// *
-	// * @see ImageReaderSpi
-	// */
-	// public ImageReaderSpi getOriginatingProvider() {
-	// return originatingProvider;
-	// }
+	/**
+	 * Returns the <code>ImageReaderSpi</code> that was passed in on
+	 * the constructor. Note that this value may be <code>null</code>.
+	 *
+	 * @return an <code>ImageReaderSpi</code>, or <code>null</code>.
+	 *
+	 * @see ImageReaderSpi
+	 */
+	public ImageReaderSpi getOriginatingProvider() {
+		return originatingProvider;
+	}
 
 	/**
 	 * Sets the input source to use to the given <code>ImageInputStream</code>
@@ -276,31 +276,31 @@ public abstract class ImageReader {
 	 * @see javax.imageio.spi.ImageReaderSpi#getInputTypes
 	 */
 	public void setInput(Object input, boolean seekForwardOnly, boolean ignoreMetadata) {
-		// if (input != null) {
-		// boolean found = false;
-		// if (originatingProvider != null) {
-		// Class[] classes = originatingProvider.getInputTypes();
-		// for (int i = 0; i < classes.length; i++) {
-		// if (classes[i].isInstance(input)) {
-		// found = true;
-		// break;
-		// }
-		// }
-		// } else {
-		// if (input instanceof ImageInputStream) {
-		// found = true;
-		// }
-		// }
-		// if (!found) {
-		// throw new IllegalArgumentException("Incorrect input type!");
-		// }
-		//
-		// this.seekForwardOnly = seekForwardOnly;
-		// this.ignoreMetadata = ignoreMetadata;
-		// this.minIndex = 0;
-		// }
-		//
-		// this.input = input;
+		if (input != null) {
+			boolean found = false;
+			if (originatingProvider != null) {
+				Class[] classes = originatingProvider.getInputTypes();
+				for (int i = 0; i < classes.length; i++) {
+					if (classes[i].isInstance(input)) {
+						found = true;
+						break;
+					}
+				}
+			} else {
+				if (input instanceof ImageInputStream) {
+					found = true;
+				}
+			}
+			if (!found) {
+				throw new IllegalArgumentException("Incorrect input type!");
+			}
+
+			this.seekForwardOnly = seekForwardOnly;
+			this.ignoreMetadata = ignoreMetadata;
+			this.minIndex = 0;
+		}
+
+		this.input = input;
 	}
 
 	/**
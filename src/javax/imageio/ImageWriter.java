@@ -34,6 +34,7 @@ import java.io.IOException;
 import java.util.List;
 import java.util.Locale;
 import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.spi.ImageWriterSpi;
 
 /**
  * An abstract superclass for encoding and writing images. This class must be
@@ -56,12 +57,12 @@ import javax.imageio.metadata.IIOMetadata;
  */
 public abstract class ImageWriter implements ImageTranscoder {
 
-	// /**
-	// * The <code>ImageWriterSpi</code> that instantiated this object,
-	// * or <code>null</code> if its identity is not known or none
-	// * exists. By default it is initialized to <code>null</code>.
-	// */
-	// protected ImageWriterSpi originatingProvider = null;
+	/**
+	 * The <code>ImageWriterSpi</code> that instantiated this object,
+	 * or <code>null</code> if its identity is not known or none
+	 * exists. By default it is initialized to <code>null</code>.
+	 */
+	protected ImageWriterSpi originatingProvider = null;
 
 	/**
 	 * The <code>ImageOutputStream</code> or other <code>Object</code> set by
@@ -113,39 +114,39 @@ public abstract class ImageWriter implements ImageTranscoder {
 	 */
 	private boolean abortFlag = false;
 
-	// /**
-	// * Constructs an <code>ImageWriter</code> and sets its
-	// * <code>originatingProvider</code> instance variable to the
-	// * supplied value.
-	// *
-	// * <p> Subclasses that make use of extensions should provide a
-	// * constructor with signature <code>(ImageWriterSpi,
-	// * Object)</code> in order to retrieve the extension object. If
-	// * the extension object is unsuitable, an
-	// * <code>IllegalArgumentException</code> should be thrown.
-	// *
-	// * @param originatingProvider the <code>ImageWriterSpi</code> that
-	// * is constructing this object, or <code>null</code>.
-	// */
-	// protected ImageWriter(ImageWriterSpi originatingProvider) {
-	// this.originatingProvider = originatingProvider;
-	// }
-	//
-	// /**
-	// * Returns the <code>ImageWriterSpi</code> object that created
-	// * this <code>ImageWriter</code>, or <code>null</code> if this
-	// * object was not created through the <code>IIORegistry</code>.
-	// *
-	// * <p> The default implementation returns the value of the
-	// * <code>originatingProvider</code> instance variable.
-	// *
-	// * @return an <code>ImageWriterSpi</code>, or <code>null</code>.
-	// *
-	// * @see ImageWriterSpi
-	// */
-	// public ImageWriterSpi getOriginatingProvider() {
-	// return originatingProvider;
-	// }
+	/**
+	 * Constructs an <code>ImageWriter</code> and sets its
+	 * <code>originatingProvider</code> instance variable to the
+	 * supplied value.
+	 *
+	 * <p> Subclasses that make use of extensions should provide a
+	 * constructor with signature <code>(ImageWriterSpi,
+	 * Object)</code> in order to retrieve the extension object. If
+	 * the extension object is unsuitable, an
+	 * <code>IllegalArgumentException</code> should be thrown.
+	 *
+	 * @param originatingProvider the <code>ImageWriterSpi</code> that
+	 * is constructing this object, or <code>null</code>.
+	 */
+	protected ImageWriter(ImageWriterSpi originatingProvider) {
+		this.originatingProvider = originatingProvider;
+	}
+
+	/**
+	 * Returns the <code>ImageWriterSpi</code> object that created
+	 * this <code>ImageWriter</code>, or <code>null</code> if this
+	 * object was not created through the <code>IIORegistry</code>.
+	 *
+	 * <p> The default implementation returns the value of the
+	 * <code>originatingProvider</code> instance variable.
+	 *
+	 * @return an <code>ImageWriterSpi</code>, or <code>null</code>.
+	 *
+	 * @see ImageWriterSpi
+	 */
+	public ImageWriterSpi getOriginatingProvider() {
+		return originatingProvider;
+	}
 
 	/**
 	 * Sets the destination to the given <code>ImageOutputStream</code> or other
@@ -193,24 +194,24 @@ public abstract class ImageWriter implements ImageTranscoder {
 	 * @see #getOutput
 	 */
 	public void setOutput(Object output) {
-		// if (output != null) {
-		// ImageWriterSpi provider = getOriginatingProvider();
-		// if (provider != null) {
-		// Class[] classes = provider.getOutputTypes();
-		// boolean found = false;
-		// for (int i = 0; i < classes.length; i++) {
-		// if (classes[i].isInstance(output)) {
-		// found = true;
-		// break;
-		// }
-		// }
-		// if (!found) {
-		// throw new IllegalArgumentException("Illegal output type!");
-		// }
-		// }
-		// }
-		//
-		// this.output = output;
+		if (output != null) {
+			ImageWriterSpi provider = getOriginatingProvider();
+			if (provider != null) {
+				Class[] classes = provider.getOutputTypes();
+				boolean found = false;
+				for (int i = 0; i < classes.length; i++) {
+					if (classes[i].isInstance(output)) {
+						found = true;
+						break;
+					}
+				}
+				if (!found) {
+					throw new IllegalArgumentException("Illegal output type!");
+				}
+			}
+		}
+
+		this.output = output;
 	}
 
 	/**
@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 1999, 2007, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package javax.imageio.spi;
+
+import hc.android.BitmapImageReaderSpi;
+import hc.android.BitmapImageWriterSpi;
+import hc.core.util.LogManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+/**
+ * A registry for service provider instances. The default instance holds the
+ * readers and writers of the Android codecs (PNG, JPEG, GIF and BMP), more may
+ * be added by {@link #registerServiceProvider(Object)} or
+ * {@link #registerApplicationClasspathSpis()}.
+ * <p>
+ * Providers are held per category (<code>ImageReaderSpi</code> and
+ * <code>ImageWriterSpi</code>). A provider equal to one already registered
+ * replaces it.
+ *
+ * @see ImageReaderSpi
+ * @see ImageWriterSpi
+ */
+public final class IIORegistry {
+	private static final Class<?>[] initialCategories = { ImageReaderSpi.class,
+			ImageWriterSpi.class };
+
+	private static IIORegistry defaultInstance;
+
+	private final HashMap<Class<?>, ArrayList<Object>> categoryMap = new HashMap<Class<?>, ArrayList<Object>>(
+			4);
+	private int modCount;
+
+	private IIORegistry() {
+		for (int i = 0; i < initialCategories.length; i++) {
+			categoryMap.put(initialCategories[i], new ArrayList<Object>());
+		}
+		registerStandardSpis();
+	}
+
+	public static synchronized IIORegistry getDefaultInstance() {
+		if (defaultInstance == null) {
+			defaultInstance = new IIORegistry();
+		}
+		return defaultInstance;
+	}
+
+	private void registerStandardSpis() {
+		final String[] formats = BitmapImageReaderSpi.getSupportedFormatsAdAPI();
+		for (int i = 0; i < formats.length; i++) {
+			registerServiceProvider(BitmapImageReaderSpi.createAdAPI(formats[i]));
+		}
+		final String[] writerFormats = BitmapImageWriterSpi.getSupportedFormatsAdAPI();
+		for (int i = 0; i < writerFormats.length; i++) {
+			registerServiceProvider(BitmapImageWriterSpi.createAdAPI(writerFormats[i]));
+		}
+	}
+
+	/**
+	 * registers the providers listed in
+	 * <code>META-INF/services/javax.imageio.spi.ImageReaderSpi</code> and
+	 * <code>META-INF/services/javax.imageio.spi.ImageWriterSpi</code> of the
+	 * context class loader.
+	 */
+	public void registerApplicationClasspathSpis() {
+		final ClassLoader loader = Thread.currentThread().getContextClassLoader();
+		for (int i = 0; i < initialCategories.length; i++) {
+			try {
+				final Iterator<?> it = ServiceLoader.load(initialCategories[i], loader).iterator();
+				while (it.hasNext()) {
+					registerServiceProvider(it.next());
+				}
+			} catch (ServiceConfigurationError e) {
+				LogManager.errToLog("fail to load image I/O service : " + e.toString());
+			}
+		}
+	}
+
+	public synchronized Iterator<Class<?>> getCategories() {
+		return new ArrayList<Class<?>>(categoryMap.keySet()).iterator();
+	}
+
+	/**
+	 * adds <code>provider</code> to every category it is an instance of. An
+	 * equal provider already registered is replaced.
+	 */
+	public void registerServiceProvider(Object provider) {
+		if (provider == null) {
+			throw new IllegalArgumentException("provider == null!");
+		}
+
+		final ArrayList<Class<?>> added = new ArrayList<Class<?>>(2);
+		synchronized (this) {
+			final Iterator<Class<?>> it = categoryMap.keySet().iterator();
+			while (it.hasNext()) {
+				final Class<?> category = it.next();
+				if (category.isInstance(provider)) {
+					final ArrayList<Object> list = categoryMap.get(category);
+					list.remove(provider);
+					list.add(provider);
+					added.add(category);
+				}
+			}
+			if (added.isEmpty()) {
+				throw new IllegalArgumentException("provider not an instance of any category!");
+			}
+			modCount++;
+		}
+
+		if (provider instanceof IIOServiceProvider) {
+			for (int i = 0; i < added.size(); i++) {
+				((IIOServiceProvider) provider).onRegistration(this, added.get(i));
+			}
+		}
+	}
+
+	public void registerServiceProviders(Iterator<?> providers) {
+		if (providers == null) {
+			throw new IllegalArgumentException("provider == null!");
+		}
+		while (providers.hasNext()) {
+			registerServiceProvider(providers.next());
+		}
+	}
+
+	public void deregisterServiceProvider(Object provider) {
+		if (provider == null) {
+			throw new IllegalArgumentException("provider == null!");
+		}
+
+		final ArrayList<Class<?>> removed = new ArrayList<Class<?>>(2);
+		synchronized (this) {
+			final Iterator<Class<?>> it = categoryMap.keySet().iterator();
+			while (it.hasNext()) {
+				final Class<?> category = it.next();
+				if (categoryMap.get(category).remove(provider)) {
+					removed.add(category);
+				}
+			}
+			if (removed.isEmpty()) {
+				return;
+			}
+			modCount++;
+		}
+
+		if (provider instanceof IIOServiceProvider) {
+			for (int i = 0; i < removed.size(); i++) {
+				((IIOServiceProvider) provider).onDeregistration(this, removed.get(i));
+			}
+		}
+	}
+
+	public synchronized boolean contains(Object provider) {
+		if (provider == null) {
+			throw new IllegalArgumentException("provider == null!");
+		}
+		final Iterator<ArrayList<Object>> it = categoryMap.values().iterator();
+		while (it.hasNext()) {
+			if (it.next().contains(provider)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * returns a snapshot of the providers of <code>category</code> in
+	 * registration order.
+	 */
+	public synchronized <T> Iterator<T> getServiceProviders(Class<T> category, boolean useOrdering) {
+		final ArrayList<Object> list = categoryMap.get(category);
+		if (list == null) {
+			throw new IllegalArgumentException("category unknown!");
+		}
+		final ArrayList<T> out = new ArrayList<T>(list.size());
+		for (int i = 0; i < list.size(); i++) {
+			out.add(category.cast(list.get(i)));
+		}
+		return out.iterator();
+	}
+
+	public synchronized <T> T getServiceProviderByClass(Class<T> providerClass) {
+		if (providerClass == null) {
+			throw new IllegalArgumentException("providerClass == null!");
+		}
+		final Iterator<ArrayList<Object>> it = categoryMap.values().iterator();
+		while (it.hasNext()) {
+			final ArrayList<Object> list = it.next();
+			for (int i = 0; i < list.size(); i++) {
+				final Object provider = list.get(i);
+				if (provider.getClass() == providerClass) {
+					return providerClass.cast(provider);
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * increased on every registration change, lookup tables built from this
+	 * registry are valid while it is unchanged.
+	 */
+	public synchronized int getModCountAdAPI() {
+		return modCount;
+	}
+}
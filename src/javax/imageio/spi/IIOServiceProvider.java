@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 1999, 2007, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package javax.imageio.spi;
+
+import java.util.Locale;
+
+/**
+ * A superinterface for functionality common to all Image I/O service provider
+ * interfaces (SPIs).
+ *
+ * @see IIORegistry
+ * @see javax.imageio.spi.ImageReaderSpi
+ * @see javax.imageio.spi.ImageWriterSpi
+ */
+public abstract class IIOServiceProvider {
+
+	/**
+	 * A <code>String</code> to be returned from <code>getVendorName</code>,
+	 * initially <code>null</code>. Constructors should set this to a
+	 * non-<code>null</code> value.
+	 */
+	protected String vendorName;
+
+	/**
+	 * A <code>String</code> to be returned from <code>getVersion</code>,
+	 * initially null. Constructors should set this to a non-<code>null</code>
+	 * value.
+	 */
+	protected String version;
+
+	public IIOServiceProvider(String vendorName, String version) {
+		if (vendorName == null) {
+			throw new IllegalArgumentException("vendorName == null!");
+		}
+		if (version == null) {
+			throw new IllegalArgumentException("version == null!");
+		}
+		this.vendorName = vendorName;
+		this.version = version;
+	}
+
+	public IIOServiceProvider() {
+	}
+
+	/**
+	 * invoked when this provider is added to <code>registry</code>.
+	 */
+	public void onRegistration(IIORegistry registry, Class<?> category) {
+	}
+
+	/**
+	 * invoked when this provider is removed from <code>registry</code>.
+	 */
+	public void onDeregistration(IIORegistry registry, Class<?> category) {
+	}
+
+	public String getVendorName() {
+		return vendorName;
+	}
+
+	public String getVersion() {
+		return version;
+	}
+
+	public abstract String getDescription(Locale locale);
+}
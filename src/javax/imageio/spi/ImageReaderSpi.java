@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 1999, 2007, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package javax.imageio.spi;
+
+import java.io.IOException;
+
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+/**
+ * The service provider interface (SPI) for <code>ImageReader</code>s.
+ * <p>
+ * Each <code>ImageReaderSpi</code> provides several types of information
+ * about the <code>ImageReader</code> class with which it is associated. The
+ * format names, file suffixes and MIME types are used by
+ * {@link javax.imageio.ImageIO} to find a reader, and
+ * {@link #canDecodeInput(Object)} recognizes the format from the first bytes
+ * of the input.
+ *
+ * @see IIORegistry
+ * @see javax.imageio.ImageReader
+ */
+public abstract class ImageReaderSpi extends ImageReaderWriterSpi {
+
+	/**
+	 * A single-element array, initially containing
+	 * <code>ImageInputStream.class</code>, to be returned from
+	 * <code>getInputTypes</code>.
+	 *
+	 * @deprecated Instead of using this field, directly create the equivalent
+	 *             array <code>{ ImageInputStream.class }</code>.
+	 */
+	@Deprecated
+	public static final Class[] STANDARD_INPUT_TYPE = { ImageInputStream.class };
+
+	protected Class[] inputTypes = null;
+
+	protected String[] writerSpiNames = null;
+
+	protected ImageReaderSpi() {
+	}
+
+	public ImageReaderSpi(String vendorName, String version, String[] names, String[] suffixes,
+			String[] MIMETypes, String readerClassName, Class[] inputTypes,
+			String[] writerSpiNames, boolean supportsStandardStreamMetadataFormat,
+			String nativeStreamMetadataFormatName, String nativeStreamMetadataFormatClassName,
+			String[] extraStreamMetadataFormatNames, String[] extraStreamMetadataFormatClassNames,
+			boolean supportsStandardImageMetadataFormat, String nativeImageMetadataFormatName,
+			String nativeImageMetadataFormatClassName, String[] extraImageMetadataFormatNames,
+			String[] extraImageMetadataFormatClassNames) {
+		super(vendorName, version, names, suffixes, MIMETypes, readerClassName,
+				supportsStandardStreamMetadataFormat, nativeStreamMetadataFormatName,
+				nativeStreamMetadataFormatClassName, extraStreamMetadataFormatNames,
+				extraStreamMetadataFormatClassNames, supportsStandardImageMetadataFormat,
+				nativeImageMetadataFormatName, nativeImageMetadataFormatClassName,
+				extraImageMetadataFormatNames, extraImageMetadataFormatClassNames);
+
+		if (inputTypes == null) {
+			throw new IllegalArgumentException("inputTypes == null!");
+		}
+		if (inputTypes.length == 0) {
+			throw new IllegalArgumentException("inputTypes.length == 0!");
+		}
+
+		if (inputTypes == STANDARD_INPUT_TYPE) {
+			this.inputTypes = new Class<?>[] { ImageInputStream.class };
+		} else {
+			this.inputTypes = (Class[]) inputTypes.clone();
+		}
+
+		// If length == 0, leave it null
+		if (writerSpiNames != null && writerSpiNames.length > 0) {
+			this.writerSpiNames = (String[]) writerSpiNames.clone();
+		}
+	}
+
+	public Class[] getInputTypes() {
+		return (Class[]) inputTypes.clone();
+	}
+
+	/**
+	 * Returns <code>true</code> if the supplied source object appears to be of
+	 * the format supported by this reader. Only the first bytes of the source
+	 * are inspected, and the state of an <code>ImageInputStream</code> is
+	 * restored by <code>mark</code> and <code>reset</code>.
+	 */
+	public abstract boolean canDecodeInput(Object source) throws IOException;
+
+	public ImageReader createReaderInstance() throws IOException {
+		return createReaderInstance(null);
+	}
+
+	public abstract ImageReader createReaderInstance(Object extension) throws IOException;
+
+	public boolean isOwnReader(ImageReader reader) {
+		if (reader == null) {
+			throw new IllegalArgumentException("reader == null!");
+		}
+		String name = reader.getClass().getName();
+		return name.equals(pluginClassName);
+	}
+
+	public String[] getImageWriterSpiNames() {
+		return writerSpiNames == null ? null : (String[]) writerSpiNames.clone();
+	}
+}
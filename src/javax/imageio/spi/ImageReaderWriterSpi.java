@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 1999, 2007, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package javax.imageio.spi;
+
+/**
+ * A superclass containing instance variables and methods common to
+ * <code>ImageReaderSpi</code> and <code>ImageWriterSpi</code>.
+ *
+ * @see IIORegistry
+ * @see ImageReaderSpi
+ * @see ImageWriterSpi
+ */
+public abstract class ImageReaderWriterSpi extends IIOServiceProvider {
+
+	protected String[] names = null;
+
+	protected String[] suffixes = null;
+
+	protected String[] MIMETypes = null;
+
+	protected String pluginClassName = null;
+
+	protected boolean supportsStandardStreamMetadataFormat = false;
+
+	protected String nativeStreamMetadataFormatName = null;
+
+	protected String nativeStreamMetadataFormatClassName = null;
+
+	protected String[] extraStreamMetadataFormatNames = null;
+
+	protected String[] extraStreamMetadataFormatClassNames = null;
+
+	protected boolean supportsStandardImageMetadataFormat = false;
+
+	protected String nativeImageMetadataFormatName = null;
+
+	protected String nativeImageMetadataFormatClassName = null;
+
+	protected String[] extraImageMetadataFormatNames = null;
+
+	protected String[] extraImageMetadataFormatClassNames = null;
+
+	public ImageReaderWriterSpi(String vendorName, String version, String[] names,
+			String[] suffixes, String[] MIMETypes, String pluginClassName,
+			boolean supportsStandardStreamMetadataFormat, String nativeStreamMetadataFormatName,
+			String nativeStreamMetadataFormatClassName, String[] extraStreamMetadataFormatNames,
+			String[] extraStreamMetadataFormatClassNames,
+			boolean supportsStandardImageMetadataFormat, String nativeImageMetadataFormatName,
+			String nativeImageMetadataFormatClassName, String[] extraImageMetadataFormatNames,
+			String[] extraImageMetadataFormatClassNames) {
+		super(vendorName, version);
+		if (names == null) {
+			throw new IllegalArgumentException("names == null!");
+		}
+		if (names.length == 0) {
+			throw new IllegalArgumentException("names.length == 0!");
+		}
+		if (pluginClassName == null) {
+			throw new IllegalArgumentException("pluginClassName == null!");
+		}
+
+		this.names = (String[]) names.clone();
+		// If length == 0, leave it null
+		if (suffixes != null && suffixes.length > 0) {
+			this.suffixes = (String[]) suffixes.clone();
+		}
+		// If length == 0, leave it null
+		if (MIMETypes != null && MIMETypes.length > 0) {
+			this.MIMETypes = (String[]) MIMETypes.clone();
+		}
+		this.pluginClassName = pluginClassName;
+
+		this.supportsStandardStreamMetadataFormat = supportsStandardStreamMetadataFormat;
+		this.nativeStreamMetadataFormatName = nativeStreamMetadataFormatName;
+		this.nativeStreamMetadataFormatClassName = nativeStreamMetadataFormatClassName;
+		// If length == 0, leave it null
+		if (extraStreamMetadataFormatNames != null && extraStreamMetadataFormatNames.length > 0) {
+			this.extraStreamMetadataFormatNames = (String[]) extraStreamMetadataFormatNames
+					.clone();
+		}
+		// If length == 0, leave it null
+		if (extraStreamMetadataFormatClassNames != null
+				&& extraStreamMetadataFormatClassNames.length > 0) {
+			this.extraStreamMetadataFormatClassNames = (String[]) extraStreamMetadataFormatClassNames
+					.clone();
+		}
+		this.supportsStandardImageMetadataFormat = supportsStandardImageMetadataFormat;
+		this.nativeImageMetadataFormatName = nativeImageMetadataFormatName;
+		this.nativeImageMetadataFormatClassName = nativeImageMetadataFormatClassName;
+		// If length == 0, leave it null
+		if (extraImageMetadataFormatNames != null && extraImageMetadataFormatNames.length > 0) {
+			this.extraImageMetadataFormatNames = (String[]) extraImageMetadataFormatNames.clone();
+		}
+		// If length == 0, leave it null
+		if (extraImageMetadataFormatClassNames != null
+				&& extraImageMetadataFormatClassNames.length > 0) {
+			this.extraImageMetadataFormatClassNames = (String[]) extraImageMetadataFormatClassNames
+					.clone();
+		}
+	}
+
+	public ImageReaderWriterSpi() {
+	}
+
+	public String[] getFormatNames() {
+		return (String[]) names.clone();
+	}
+
+	public String[] getFileSuffixes() {
+		return suffixes == null ? null : (String[]) suffixes.clone();
+	}
+
+	public String[] getMIMETypes() {
+		return MIMETypes == null ? null : (String[]) MIMETypes.clone();
+	}
+
+	public String getPluginClassName() {
+		return pluginClassName;
+	}
+
+	public boolean isStandardStreamMetadataFormatSupported() {
+		return supportsStandardStreamMetadataFormat;
+	}
+
+	public String getNativeStreamMetadataFormatName() {
+		return nativeStreamMetadataFormatName;
+	}
+
+	public String[] getExtraStreamMetadataFormatNames() {
+		return extraStreamMetadataFormatNames == null ? null
+				: (String[]) extraStreamMetadataFormatNames.clone();
+	}
+
+	public boolean isStandardImageMetadataFormatSupported() {
+		return supportsStandardImageMetadataFormat;
+	}
+
+	public String getNativeImageMetadataFormatName() {
+		return nativeImageMetadataFormatName;
+	}
+
+	public String[] getExtraImageMetadataFormatNames() {
+		return extraImageMetadataFormatNames == null ? null
+				: (String[]) extraImageMetadataFormatNames.clone();
+	}
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 1999, 2007, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package javax.imageio.spi;
+
+import java.awt.image.RenderedImage;
+import java.io.IOException;
+
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+/**
+ * The service provider interface (SPI) for <code>ImageWriter</code>s.
+ * <p>
+ * Each <code>ImageWriterSpi</code> provides several types of information
+ * about the <code>ImageWriter</code> class with which it is associated. The
+ * format names, file suffixes and MIME types are used by
+ * {@link javax.imageio.ImageIO} to find a writer.
+ *
+ * @see IIORegistry
+ * @see javax.imageio.ImageWriter
+ */
+public abstract class ImageWriterSpi extends ImageReaderWriterSpi {
+
+	/**
+	 * A single-element array, initially containing
+	 * <code>ImageOutputStream.class</code>, to be returned from
+	 * <code>getOutputTypes</code>.
+	 *
+	 * @deprecated Instead of using this field, directly create the equivalent
+	 *             array <code>{ ImageOutputStream.class }</code>.
+	 */
+	@Deprecated
+	public static final Class[] STANDARD_OUTPUT_TYPE = { ImageOutputStream.class };
+
+	protected Class[] outputTypes = null;
+
+	protected String[] readerSpiNames = null;
+
+	protected ImageWriterSpi() {
+	}
+
+	public ImageWriterSpi(String vendorName, String version, String[] names, String[] suffixes,
+			String[] MIMETypes, String writerClassName, Class[] outputTypes,
+			String[] readerSpiNames, boolean supportsStandardStreamMetadataFormat,
+			String nativeStreamMetadataFormatName, String nativeStreamMetadataFormatClassName,
+			String[] extraStreamMetadataFormatNames, String[] extraStreamMetadataFormatClassNames,
+			boolean supportsStandardImageMetadataFormat, String nativeImageMetadataFormatName,
+			String nativeImageMetadataFormatClassName, String[] extraImageMetadataFormatNames,
+			String[] extraImageMetadataFormatClassNames) {
+		super(vendorName, version, names, suffixes, MIMETypes, writerClassName,
+				supportsStandardStreamMetadataFormat, nativeStreamMetadataFormatName,
+				nativeStreamMetadataFormatClassName, extraStreamMetadataFormatNames,
+				extraStreamMetadataFormatClassNames, supportsStandardImageMetadataFormat,
+				nativeImageMetadataFormatName, nativeImageMetadataFormatClassName,
+				extraImageMetadataFormatNames, extraImageMetadataFormatClassNames);
+
+		if (outputTypes == null) {
+			throw new IllegalArgumentException("outputTypes == null!");
+		}
+		if (outputTypes.length == 0) {
+			throw new IllegalArgumentException("outputTypes.length == 0!");
+		}
+
+		if (outputTypes == STANDARD_OUTPUT_TYPE) {
+			this.outputTypes = new Class<?>[] { ImageOutputStream.class };
+		} else {
+			this.outputTypes = (Class[]) outputTypes.clone();
+		}
+
+		// If length == 0, leave it null
+		if (readerSpiNames != null && readerSpiNames.length > 0) {
+			this.readerSpiNames = (String[]) readerSpiNames.clone();
+		}
+	}
+
+	public boolean isFormatLossless() {
+		return true;
+	}
+
+	public Class[] getOutputTypes() {
+		return (Class[]) outputTypes.clone();
+	}
+
+	public abstract boolean canEncodeImage(ImageTypeSpecifier type);
+
+	public boolean canEncodeImage(RenderedImage im) {
+		return canEncodeImage(ImageTypeSpecifier.createFromRenderedImage(im));
+	}
+
+	public ImageWriter createWriterInstance() throws IOException {
+		return createWriterInstance(null);
+	}
+
+	public abstract ImageWriter createWriterInstance(Object extension) throws IOException;
+
+	public boolean isOwnWriter(ImageWriter writer) {
+		if (writer == null) {
+			throw new IllegalArgumentException("writer == null!");
+		}
+		String name = writer.getClass().getName();
+		return name.equals(pluginClassName);
+	}
+
+	public String[] getImageReaderSpiNames() {
+		return readerSpiNames == null ? null : (String[]) readerSpiNames.clone();
+	}
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 1999, 2007, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package javax.imageio.stream;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * An implementation of <code>ImageInputStream</code> that gets its input from
+ * a <code>File</code> or <code>RandomAccessFile</code>. The file contents are
+ * assumed to be stable during the lifetime of the object.
+ * <p>
+ * The file is read through its <code>FileChannel</code> into a read-ahead
+ * buffer with positional reads, so a seek inside the buffered window costs
+ * nothing and a seek elsewhere costs a single read, the whole file is never
+ * held in memory. A read larger than the buffer goes straight from the
+ * channel into the destination array.
+ */
+public class FileImageInputStream extends ImageInputStreamImpl {
+	private static final int BUFFER_LENGTH = 64 * 1024;
+
+	private final File file;
+	private RandomAccessFile raf;
+	private FileChannel channel;
+
+	private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_LENGTH);
+
+	/**
+	 * position in the file of the first byte of {@link #buffer}, the valid
+	 * bytes are <code>[0, buffer.limit())</code>.
+	 */
+	private long bufferPos;
+
+	/**
+	 * Constructs a <code>FileImageInputStream</code> that will read from a
+	 * given <code>File</code>.
+	 *
+	 * <p>
+	 * The contents of the file must not change between the time this object
+	 * is constructed and the time of the last call to a read method.
+	 *
+	 * @param f
+	 *            a <code>File</code> to read from.
+	 *
+	 * @exception IllegalArgumentException
+	 *                if <code>f</code> is <code>null</code>.
+	 * @exception SecurityException
+	 *                if a security manager exists and does not allow read
+	 *                access to the file.
+	 * @exception FileNotFoundException
+	 *                if <code>f</code> is a directory or cannot be opened for
+	 *                reading for any other reason.
+	 * @exception IOException
+	 *                if an I/O error occurs.
+	 */
+	public FileImageInputStream(File f) throws FileNotFoundException, IOException {
+		this(f == null ? null : new RandomAccessFile(f, "r"), f);
+	}
+
+	/**
+	 * Constructs a <code>FileImageInputStream</code> that will read from a
+	 * given <code>RandomAccessFile</code>.
+	 *
+	 * <p>
+	 * The file contents must not change between the time this object is
+	 * constructed and the time of the last call to a read method.
+	 *
+	 * @param raf
+	 *            a <code>RandomAccessFile</code> to read from.
+	 *
+	 * @exception IllegalArgumentException
+	 *                if <code>raf</code> is <code>null</code>.
+	 */
+	public FileImageInputStream(RandomAccessFile raf) {
+		this(raf, null);
+	}
+
+	private FileImageInputStream(RandomAccessFile raf, File file) {
+		if (raf == null) {
+			throw new IllegalArgumentException("raf == null!");
+		}
+		this.raf = raf;
+		this.file = file;
+		this.channel = raf.getChannel();
+		buffer.limit(0);
+	}
+
+	/**
+	 * returns the file this stream was built on, or <code>null</code> if it
+	 * was built on a <code>RandomAccessFile</code>; a reader may decode from
+	 * the file directly.
+	 */
+	public File getFileAdAPI() {
+		return file;
+	}
+
+	/**
+	 * fills the buffer from <code>pos</code>, returns false at end of file.
+	 */
+	private boolean fill(long pos) throws IOException {
+		buffer.clear();
+		int n;
+		do {
+			n = channel.read(buffer, pos + buffer.position());
+		} while (n == 0 && buffer.hasRemaining());
+		buffer.flip();
+		bufferPos = pos;
+		return buffer.hasRemaining();
+	}
+
+	public int read() throws IOException {
+		checkClosed();
+		bitOffset = 0;
+		long offset = streamPos - bufferPos;
+		if (offset < 0 || offset >= buffer.limit()) {
+			if (fill(streamPos) == false) {
+				return -1;
+			}
+			offset = 0;
+		}
+		++streamPos;
+		return buffer.get((int) offset) & 0xff;
+	}
+
+	public int read(byte[] b, int off, int len) throws IOException {
+		checkClosed();
+		if (b == null) {
+			throw new NullPointerException("b == null!");
+		}
+		if (off < 0 || len < 0 || off + len > b.length || off + len < 0) {
+			throw new IndexOutOfBoundsException("off < 0 || len < 0 || off+len > b.length || off+len < 0!");
+		}
+		bitOffset = 0;
+		if (len == 0) {
+			return 0;
+		}
+
+		long offset = streamPos - bufferPos;
+		if (offset < 0 || offset >= buffer.limit()) {
+			if (len >= BUFFER_LENGTH) {
+				final int n = channel.read(ByteBuffer.wrap(b, off, len), streamPos);
+				if (n > 0) {
+					streamPos += n;
+				}
+				return n;
+			}
+			if (fill(streamPos) == false) {
+				return -1;
+			}
+			offset = 0;
+		}
+
+		final int n = Math.min(len, buffer.limit() - (int) offset);
+		System.arraycopy(buffer.array(), (int) offset, b, off, n);
+		streamPos += n;
+		return n;
+	}
+
+	/**
+	 * Returns the length of the underlying file, or <code>-1</code> if it is
+	 * unknown.
+	 *
+	 * @return the file length as a <code>long</code>, or <code>-1</code>.
+	 */
+	public long length() {
+		try {
+			checkClosed();
+			return channel.size();
+		} catch (IOException e) {
+			return -1L;
+		}
+	}
+
+	public void close() throws IOException {
+		super.close();
+		raf.close();
+		raf = null;
+		channel = null;
+	}
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 1999, 2007, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package javax.imageio.stream;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * An implementation of <code>ImageOutputStream</code> that writes its output
+ * directly to a <code>File</code> or <code>RandomAccessFile</code>.
+ * <p>
+ * Consecutive writes are gathered in a buffer and go to the
+ * <code>FileChannel</code> in one positional write when the buffer is full,
+ * when a write does not follow the previous one, before any read and on
+ * {@link #flushBefore(long)}.
+ */
+public class FileImageOutputStream extends ImageOutputStreamImpl {
+	private static final int BUFFER_LENGTH = 64 * 1024;
+
+	private RandomAccessFile raf;
+	private FileChannel channel;
+
+	private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_LENGTH);
+	private final ByteBuffer oneByte = ByteBuffer.allocate(1);
+
+	/**
+	 * position in the file of the first byte of {@link #buffer}, the pending
+	 * bytes are <code>[0, buffer.position())</code>.
+	 */
+	private long bufferPos;
+
+	/**
+	 * Constructs a <code>FileImageOutputStream</code> that will write to a
+	 * given <code>File</code>.
+	 *
+	 * @param f
+	 *            a <code>File</code> to write to.
+	 *
+	 * @exception IllegalArgumentException
+	 *                if <code>f</code> is <code>null</code>.
+	 * @exception SecurityException
+	 *                if a security manager exists and does not allow write
+	 *                access to the file.
+	 * @exception FileNotFoundException
+	 *                if <code>f</code> does not denote a regular file or it
+	 *                cannot be opened for reading and writing for any other
+	 *                reason.
+	 * @exception IOException
+	 *                if an I/O error occurs.
+	 */
+	public FileImageOutputStream(File f) throws FileNotFoundException, IOException {
+		this(f == null ? null : new RandomAccessFile(f, "rw"));
+	}
+
+	/**
+	 * Constructs a <code>FileImageOutputStream</code> that will write to a
+	 * given <code>RandomAccessFile</code>.
+	 *
+	 * @param raf
+	 *            a <code>RandomAccessFile</code> to write to.
+	 *
+	 * @exception IllegalArgumentException
+	 *                if <code>raf</code> is <code>null</code>.
+	 */
+	public FileImageOutputStream(RandomAccessFile raf) {
+		if (raf == null) {
+			throw new IllegalArgumentException("raf == null!");
+		}
+		this.raf = raf;
+		this.channel = raf.getChannel();
+	}
+
+	private void flushBuffer() throws IOException {
+		buffer.flip();
+		long pos = bufferPos;
+		while (buffer.hasRemaining()) {
+			pos += channel.write(buffer, pos);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * the next byte written at <code>streamPos</code> goes to the buffer.
+	 */
+	private void prepareWrite(int len) throws IOException {
+		if (buffer.position() > 0
+				&& (bufferPos + buffer.position() != streamPos || buffer.remaining() < len)) {
+			flushBuffer();
+		}
+		if (buffer.position() == 0) {
+			bufferPos = streamPos;
+		}
+	}
+
+	public int read() throws IOException {
+		checkClosed();
+		bitOffset = 0;
+		flushBuffer();
+		oneByte.clear();
+		final int n = channel.read(oneByte, streamPos);
+		if (n <= 0) {
+			return -1;
+		}
+		++streamPos;
+		return oneByte.get(0) & 0xff;
+	}
+
+	public int read(byte[] b, int off, int len) throws IOException {
+		checkClosed();
+		if (b == null) {
+			throw new NullPointerException("b == null!");
+		}
+		if (off < 0 || len < 0 || off + len > b.length || off + len < 0) {
+			throw new IndexOutOfBoundsException("off < 0 || len < 0 || off+len > b.length || off+len < 0!");
+		}
+		bitOffset = 0;
+		if (len == 0) {
+			return 0;
+		}
+		flushBuffer();
+		final int n = channel.read(ByteBuffer.wrap(b, off, len), streamPos);
+		if (n > 0) {
+			streamPos += n;
+		}
+		return n;
+	}
+
+	public void write(int b) throws IOException {
+		flushBits(); // this will call checkClosed() for us
+		prepareWrite(1);
+		buffer.put((byte) b);
+		++streamPos;
+	}
+
+	public void write(byte[] b, int off, int len) throws IOException {
+		flushBits(); // this will call checkClosed() for us
+		if (off < 0 || len < 0 || off + len > b.length || off + len < 0) {
+			throw new IndexOutOfBoundsException("off < 0 || len < 0 || off+len > b.length || off+len < 0!");
+		}
+		if (len >= BUFFER_LENGTH) {
+			if (buffer.position() > 0) {
+				flushBuffer();
+			}
+			final ByteBuffer src = ByteBuffer.wrap(b, off, len);
+			long pos = streamPos;
+			while (src.hasRemaining()) {
+				pos += channel.write(src, pos);
+			}
+		} else {
+			prepareWrite(len);
+			buffer.put(b, off, len);
+		}
+		streamPos += len;
+	}
+
+	public long length() {
+		try {
+			checkClosed();
+			return Math.max(channel.size(), bufferPos + buffer.position());
+		} catch (IOException e) {
+			return -1L;
+		}
+	}
+
+	public void flushBefore(long pos) throws IOException {
+		super.flushBefore(pos);
+		flushBuffer();
+	}
+
+	public void close() throws IOException {
+		checkClosed();
+		flushBuffer();
+		super.close();
+		raf.close();
+		raf = null;
+		channel = null;
+	}
+}
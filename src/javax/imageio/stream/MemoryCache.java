@@ -0,0 +1,291 @@
+/*
+ * Copyright (c) 1999, 2007, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package javax.imageio.stream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+
+/**
+ * Package-visible class consolidating common code for
+ * <code>MemoryCacheImageInputStream</code> and
+ * <code>MemoryCacheImageOutputStream</code>.
+ * <p>
+ * The data is held in fixed size blocks, a block is released as soon as the
+ * whole of it lies before the flushed position, so a stream read or written
+ * front to back with regular {@link #disposeBefore(long)} holds about one
+ * block, whatever its length.
+ */
+class MemoryCache {
+	private static final int BUFFER_LENGTH = 8192;
+
+	/**
+	 * the blocks from {@link #cacheStart} (included) on, the released blocks
+	 * are not kept as <code>null</code> entries.
+	 */
+	private final ArrayList<byte[]> cache = new ArrayList<byte[]>();
+
+	/**
+	 * index of the block at position 0 of {@link #cache}.
+	 */
+	private long cacheStart = 0L;
+
+	/**
+	 * The largest position ever written to the cache.
+	 */
+	private long length = 0L;
+
+	private byte[] getCacheBlock(long blockNum) throws IOException {
+		final long blockOffset = blockNum - cacheStart;
+		if (blockOffset < 0 || blockOffset > Integer.MAX_VALUE) {
+			throw new IOException("Cache addressing limit exceeded!");
+		}
+		return cache.get((int) blockOffset);
+	}
+
+	/**
+	 * appends blocks until <code>blockNum</code> is held.
+	 */
+	private byte[] getOrPadBlock(long blockNum) throws IOException {
+		final long blockOffset = blockNum - cacheStart;
+		if (blockOffset < 0 || blockOffset > Integer.MAX_VALUE) {
+			throw new IOException("Cache addressing limit exceeded!");
+		}
+		while (cache.size() <= blockOffset) {
+			cache.add(new byte[BUFFER_LENGTH]);
+		}
+		return cache.get((int) blockOffset);
+	}
+
+	/**
+	 * Ensures that at least <code>pos</code> bytes are cached, or the end of
+	 * the source is reached. The return value is equal to the smaller of
+	 * <code>pos</code> and the length of the source.
+	 * <p>
+	 * the bytes are read straight into the blocks, up to the end of the
+	 * current block, so a small read may cache a few more bytes than asked.
+	 */
+	public long loadFromStream(InputStream stream, long pos) throws IOException {
+		// We've already got enough data cached
+		if (pos < length) {
+			return pos;
+		}
+
+		while (length < pos) {
+			final int offset = (int) (length % BUFFER_LENGTH);
+			final byte[] buf = getOrPadBlock(length / BUFFER_LENGTH);
+			final int nbytes = stream.read(buf, offset, BUFFER_LENGTH - offset);
+			if (nbytes == -1) {
+				return length;
+			}
+			length += nbytes;
+		}
+		return pos;
+	}
+
+	/**
+	 * Writes out a portion of the cache to an <code>OutputStream</code>. This
+	 * method preserves no state about the output stream, and does not
+	 * dispose of any blocks containing bytes written. To dispose blocks, use
+	 * {@link #disposeBefore <code>disposeBefore()</code>}.
+	 *
+	 * @exception IndexOutOfBoundsException
+	 *                if any portion of the requested data is not in the cache
+	 *                (including if <code>pos</code> is in a block already
+	 *                disposed), or if either <code>pos</code> or
+	 *                <code>len</code> is &lt; 0.
+	 */
+	public void writeToStream(OutputStream stream, long pos, long len) throws IOException {
+		if (pos + len > length) {
+			throw new IndexOutOfBoundsException("Argument out of cache");
+		}
+		if ((pos < 0) || (len < 0)) {
+			throw new IndexOutOfBoundsException("Negative pos or len");
+		}
+		if (len == 0) {
+			return;
+		}
+
+		long bufIndex = pos / BUFFER_LENGTH;
+		if (bufIndex < cacheStart) {
+			throw new IndexOutOfBoundsException("pos already disposed");
+		}
+		int offset = (int) (pos % BUFFER_LENGTH);
+
+		while (len > 0) {
+			final byte[] buf = getCacheBlock(bufIndex++);
+			final int nbytes = (int) Math.min(len, (long) (BUFFER_LENGTH - offset));
+			stream.write(buf, offset, nbytes);
+			len -= nbytes;
+			offset = 0; // Always after the first time
+		}
+	}
+
+	/**
+	 * Overwrites and/or appends the cache from a byte array. The length of
+	 * the cache will be extended as needed to hold the incoming data.
+	 *
+	 * @exception IndexOutOfBoundsException
+	 *                if <code>off</code>, <code>len</code>, or
+	 *                <code>pos</code> are negative, or if
+	 *                <code>off+len > b.length</code>.
+	 */
+	public void write(byte[] b, int off, int len, long pos) throws IOException {
+		if (b == null) {
+			throw new NullPointerException("b == null!");
+		}
+		// Fix 4430357 - if off + len < 0, overflow occurred
+		if ((off < 0) || (len < 0) || (pos < 0) || (off + len > b.length) || (off + len < 0)) {
+			throw new IndexOutOfBoundsException();
+		}
+
+		while (len > 0) {
+			final byte[] buf = getOrPadBlock(pos / BUFFER_LENGTH);
+			final int offset = (int) (pos % BUFFER_LENGTH);
+			final int nbytes = Math.min(len, BUFFER_LENGTH - offset);
+			System.arraycopy(b, off, buf, offset, nbytes);
+
+			pos += nbytes;
+			off += nbytes;
+			len -= nbytes;
+			if (pos > length) {
+				length = pos;
+			}
+		}
+	}
+
+	/**
+	 * Overwrites or appends a single byte to the cache. The length of the
+	 * cache will be extended as needed to hold the incoming data.
+	 *
+	 * @exception IndexOutOfBoundsException
+	 *                if <code>pos</code> is negative.
+	 */
+	public void write(int b, long pos) throws IOException {
+		if (pos < 0) {
+			throw new ArrayIndexOutOfBoundsException("pos < 0");
+		}
+
+		final byte[] buf = getOrPadBlock(pos / BUFFER_LENGTH);
+		buf[(int) (pos % BUFFER_LENGTH)] = (byte) b;
+		if (pos >= length) {
+			length = pos + 1;
+		}
+	}
+
+	/**
+	 * Returns the total length of data that has been cached, regardless of
+	 * whether any early blocks have been disposed. This value will only ever
+	 * increase.
+	 */
+	public long getLength() {
+		return length;
+	}
+
+	/**
+	 * Returns the single byte at the given position, as an <code>int</code>.
+	 * Returns -1 if this position has not been cached or has been disposed.
+	 */
+	public int read(long pos) throws IOException {
+		if (pos >= length || pos < 0) {
+			return -1;
+		}
+
+		final long blockNum = pos / BUFFER_LENGTH;
+		if (blockNum < cacheStart) {
+			return -1;
+		}
+		return getCacheBlock(blockNum)[(int) (pos % BUFFER_LENGTH)] & 0xff;
+	}
+
+	/**
+	 * Copy <code>len</code> bytes from the cache, starting at cache position
+	 * <code>pos</code>, into the array <code>b</code> at offset
+	 * <code>off</code>.
+	 *
+	 * @exception IndexOutOfBoundsException
+	 *                if <code>off</code>, <code>len</code> or
+	 *                <code>pos</code> are negative or if
+	 *                <code>off + len > b.length</code> or if any portion of
+	 *                the requested data is not in the cache (including if
+	 *                <code>pos</code> is in a block that has already been
+	 *                disposed).
+	 */
+	public void read(byte[] b, int off, int len, long pos) throws IOException {
+		if (b == null) {
+			throw new NullPointerException("b == null!");
+		}
+		// Fix 4430357 - if off + len < 0, overflow occurred
+		if ((off < 0) || (len < 0) || (pos < 0) || (off + len > b.length) || (off + len < 0)) {
+			throw new IndexOutOfBoundsException();
+		}
+		if (pos + len > length) {
+			throw new IndexOutOfBoundsException();
+		}
+
+		long index = pos / BUFFER_LENGTH;
+		int offset = (int) (pos % BUFFER_LENGTH);
+		while (len > 0) {
+			final int nbytes = Math.min(len, BUFFER_LENGTH - offset);
+			final byte[] buf = getCacheBlock(index++);
+			System.arraycopy(buf, offset, b, off, nbytes);
+
+			len -= nbytes;
+			off += nbytes;
+			offset = 0; // Always after the first time
+		}
+	}
+
+	/**
+	 * Free the blocks up to the position <code>pos</code>. The byte at
+	 * <code>pos</code> remains available.
+	 *
+	 * @exception IndexOutOfBoundsException
+	 *                if <code>pos</code> is in a block that has already been
+	 *                disposed.
+	 */
+	public void disposeBefore(long pos) {
+		final long index = pos / BUFFER_LENGTH;
+		if (index < cacheStart) {
+			throw new IndexOutOfBoundsException("pos already disposed");
+		}
+		final int numBlocks = (int) Math.min(index - cacheStart, (long) cache.size());
+		if (numBlocks > 0) {
+			cache.subList(0, numBlocks).clear();
+		}
+		cacheStart = index;
+	}
+
+	/**
+	 * Erase the entire cache contents and reset the length to 0. The cache
+	 * object may subsequently be reused as though it had just been allocated.
+	 */
+	public void reset() {
+		cache.clear();
+		cacheStart = 0;
+		length = 0L;
+	}
+}
@@ -163,6 +163,7 @@ public abstract class AbstractButton extends JHCComponent
 		this.text = text;
 		if (isChanged) {
 			firePropertyChange(TEXT_CHANGED_PROPERTY, oldValue, text);
+			invalidate();
 		}
 	}
 
@@ -277,6 +278,9 @@ public abstract class AbstractButton extends JHCComponent
 		// 生成缺省的灰色图片
 		setDisabledIcon(ImageIcon.toGrayAdAPI((ImageIcon) defaultIcon));
 		updateUI();
+		if (isChanged) {
+			invalidate();
+		}
 	}
 
 	public Icon getPressedIcon() {
@@ -727,8 +731,11 @@ public abstract class AbstractButton extends JHCComponent
 	}
 
 	public boolean imageUpdate(Image img, int infoflags, int x, int y, int w, int h) {
-		AndroidClassUtil.callEmptyMethod();
-		return false;
+		if (!SwingUtilities.doesIconReferenceImage(getIcon(), img)
+				&& !SwingUtilities.doesIconReferenceImage(getDisabledIcon(), img)) {
+			return false;
+		}
+		return super.imageUpdate(img, infoflags, x, y, w, h);
 	}
 
 	void setUIProperty(String propertyName, Object value) {
@@ -0,0 +1,299 @@
+/*
+ * Copyright (c) 1999, 2007, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package javax.swing;
+
+import hc.android.ActivityManager;
+import hc.android.AndroidClassUtil;
+import hc.android.AndroidUIUtil;
+import hc.android.CanvasGraphics;
+import hc.android.ScreenAdapter;
+
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Container;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.Graphics;
+import java.awt.Insets;
+import java.awt.Rectangle;
+
+import javax.accessibility.Accessible;
+import javax.accessibility.AccessibleContext;
+import javax.swing.border.Border;
+import javax.swing.border.EmptyBorder;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.drawable.Drawable;
+import android.view.View;
+
+/**
+ * This class is inserted in between cell renderers and the components that
+ * use them. It just exists to thwart the repaint() and invalidate() methods
+ * which would otherwise propagate up the tree when the renderer was
+ * configured.
+ * <p>
+ * On Android, a renderer is painted into the <code>Canvas</code> of a
+ * {@link CanvasGraphics} : the labels and the check boxes of the tables are
+ * drawn from their properties, without their peer, the other components by
+ * measuring, laying out and drawing their peer, see
+ * {@link #isPaintedDirectlyAdAPI(Component)}. The renderer is not added to
+ * the pane. It is used in UI thread only.
+ */
+public class CellRendererPane extends Container implements Accessible {
+	private static final int[] CHECKED_STATE = { android.R.attr.state_enabled,
+			android.R.attr.state_checked };
+	private static final int[] UNCHECKED_STATE = { android.R.attr.state_enabled };
+
+	private final Paint textPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+	private final Paint.FontMetrics fontMetrics = new Paint.FontMetrics();
+
+	private int checkDrawableID;
+	private Drawable checkDrawable;
+
+	public CellRendererPane() {
+		super();
+		setLayout(null);
+		setVisible(false);
+	}
+
+	public void invalidate() {
+	}
+
+	public void paint(Graphics g) {
+	}
+
+	public void update(Graphics g) {
+	}
+
+	/**
+	 * true if <code>c</code> is painted from its properties, without its
+	 * peer.
+	 */
+	public boolean isPaintedDirectlyAdAPI(final Component c) {
+		if (c instanceof JCheckBox) {
+			final JCheckBox box = (JCheckBox) c;
+			final String text = box.getText();
+			return box.checkBoxForTableDrawable != 0 && (text == null || text.length() == 0);
+		}
+		if (c instanceof JLabel) {
+			final String text = ((JLabel) c).getText();
+			return text == null || text.regionMatches(true, 0, "<html", 0, 5) == false;
+		}
+		return false;
+	}
+
+	/**
+	 * the preferred size of the renderer <code>c</code> configured, computed
+	 * without its peer if {@link #isPaintedDirectlyAdAPI(Component)}.
+	 */
+	public Dimension getPreferredSizeAdAPI(final Component c, final Dimension size) {
+		if (c instanceof JCheckBox && isPaintedDirectlyAdAPI(c)) {
+			final Drawable d = getCheckDrawable(((JCheckBox) c).checkBoxForTableDrawable);
+			size.width = d.getIntrinsicWidth();
+			size.height = d.getIntrinsicHeight();
+			return size;
+		}
+		if (c instanceof JLabel && isPaintedDirectlyAdAPI(c)) {
+			final JLabel label = (JLabel) c;
+			final Insets insets = label.getInsets();
+			final Icon icon = getLabelIcon(label);
+			final String text = label.getText();
+			final int textWidth = measureText(label, text);
+			final int iconWidth = (icon == null) ? 0 : icon.getIconWidth();
+			final int iconHeight = (icon == null) ? 0 : icon.getIconHeight();
+			final int gap = (icon != null && textWidth > 0) ? label.getIconTextGap() : 0;
+			final int textHeight = (textWidth > 0) ? getTextHeight() : 0;
+			size.width = insets.left + iconWidth + gap + textWidth + insets.right;
+			size.height = insets.top + Math.max(iconHeight, textHeight) + insets.bottom;
+			return size;
+		}
+		final Dimension d = c.getPreferredSize();
+		size.width = d.width;
+		size.height = d.height;
+		return size;
+	}
+
+	public void paintComponent(Graphics g, Component c, Container p, int x, int y, int w, int h,
+			boolean shouldValidate) {
+		if (c == null || w <= 0 || h <= 0 || (g instanceof CanvasGraphics) == false) {
+			return;
+		}
+
+		final Canvas canvas = ((CanvasGraphics) g).getCanvasForDrawAdAPI();
+		final int saveCount = canvas.save();
+		try {
+			canvas.clipRect(x, y, x + w, y + h);
+			canvas.translate(x, y);
+			if (c instanceof JCheckBox && isPaintedDirectlyAdAPI(c)) {
+				paintCheckBox(canvas, (JCheckBox) c, w, h);
+			} else if (c instanceof JLabel && isPaintedDirectlyAdAPI(c)) {
+				paintLabel(g, canvas, (JLabel) c, w, h);
+			} else {
+				paintPeer(canvas, c, w, h, shouldValidate);
+			}
+		} finally {
+			canvas.restoreToCount(saveCount);
+		}
+	}
+
+	public void paintComponent(Graphics g, Component c, Container p, int x, int y, int w, int h) {
+		paintComponent(g, c, p, x, y, w, h, false);
+	}
+
+	public void paintComponent(Graphics g, Component c, Container p, Rectangle r) {
+		paintComponent(g, c, p, r.x, r.y, r.width, r.height);
+	}
+
+	private static void paintBackground(final Canvas canvas, final JComponent c) {
+		final Color bg = c.peerBackground;
+		if (bg != null && bg.getAlpha() != 0) {
+			canvas.drawColor(bg.toAndroid());
+		}
+	}
+
+	private void paintLabel(final Graphics g, final Canvas canvas, final JLabel label,
+			final int w, final int h) {
+		paintBackground(canvas, label);
+
+		final Border border = label.getBorder();
+		if (border != null && (border instanceof EmptyBorder) == false) {
+			border.paintBorder(label, g, 0, 0, w, h);
+		}
+
+		final Insets insets = label.getInsets();
+		final Icon icon = getLabelIcon(label);
+		final String text = label.getText();
+		final int textWidth = measureText(label, text);
+		final int iconWidth = (icon == null) ? 0 : icon.getIconWidth();
+		final int gap = (icon != null && textWidth > 0) ? label.getIconTextGap() : 0;
+		final int contentWidth = iconWidth + gap + textWidth;
+		final int availWidth = w - insets.left - insets.right;
+		final int availHeight = h - insets.top - insets.bottom;
+
+		int left;
+		switch (label.getHorizontalAlignment()) {
+		case SwingConstants.RIGHT:
+		case SwingConstants.TRAILING:
+			left = w - insets.right - contentWidth;
+			break;
+		case SwingConstants.CENTER:
+			left = insets.left + (availWidth - contentWidth) / 2;
+			break;
+		default:
+			left = insets.left;
+		}
+
+		if (icon != null) {
+			icon.paintIcon(label, g, left, insets.top + (availHeight - icon.getIconHeight()) / 2);
+		}
+		if (textWidth > 0) {
+			Color fg = label.isEnabled() ? label.peerForeground
+					: AndroidUIUtil.WIN_FONT_DISABLE_COLOR;
+			if (fg == null) {
+				fg = AndroidUIUtil.WIN_FONT_COLOR;
+			}
+			textPaint.setColor(fg.toAndroid());
+			final int baseline = (int) (insets.top + (availHeight - getTextHeight()) / 2
+					- fontMetrics.ascent);
+			canvas.drawText(text, left + iconWidth + gap, baseline, textPaint);
+		}
+	}
+
+	private static Icon getLabelIcon(final JLabel label) {
+		return label.isEnabled() ? label.getIcon() : label.getDisabledIcon();
+	}
+
+	/**
+	 * sets the font of <code>label</code> to {@link #textPaint} and
+	 * {@link #fontMetrics}.
+	 *
+	 * @return the width of <code>text</code>, 0 if none.
+	 */
+	private int measureText(final JLabel label, final String text) {
+		if (text == null || text.length() == 0) {
+			return 0;
+		}
+		final Font font = label.getFont();
+		final ScreenAdapter screenAdapter = label.getScreenAdapterAdAPI();
+		textPaint.setTypeface(font.typeface);
+		textPaint.setTextSize((screenAdapter == null) ? font.getSize()
+				: screenAdapter.getFontSizeInPixel(font.getSize()));
+		textPaint.getFontMetrics(fontMetrics);
+		return (int) Math.ceil(textPaint.measureText(text));
+	}
+
+	private int getTextHeight() {
+		return (int) Math.ceil(fontMetrics.descent - fontMetrics.ascent);
+	}
+
+	private void paintCheckBox(final Canvas canvas, final JCheckBox box, final int w, final int h) {
+		paintBackground(canvas, box);
+
+		final Drawable d = getCheckDrawable(box.checkBoxForTableDrawable);
+		d.setState(box.isSelected() ? CHECKED_STATE : UNCHECKED_STATE);
+		final int dw = d.getIntrinsicWidth();
+		final int dh = d.getIntrinsicHeight();
+		final int left = (w - dw) / 2;
+		final int top = (h - dh) / 2;
+		d.setBounds(left, top, left + dw, top + dh);
+		d.draw(canvas);
+	}
+
+	private Drawable getCheckDrawable(final int drawableID) {
+		if (checkDrawable == null || checkDrawableID != drawableID) {
+			checkDrawable = ActivityManager.applicationContext.getResources().getDrawable(
+					drawableID);
+			checkDrawableID = drawableID;
+		}
+		return checkDrawable;
+	}
+
+	/**
+	 * draws the peer of <code>c</code> laid out at <code>w</code> x
+	 * <code>h</code>, as {@link JComponent#print(Graphics)}.
+	 */
+	private static void paintPeer(final Canvas canvas, final Component c, final int w,
+			final int h, final boolean shouldValidate) {
+		if (shouldValidate) {
+			c.validate();
+		}
+		final View view = c.getPeerAdAPI();
+		if (view == null) {
+			return;
+		}
+		view.measure(View.MeasureSpec.makeMeasureSpec(w, View.MeasureSpec.EXACTLY),
+				View.MeasureSpec.makeMeasureSpec(h, View.MeasureSpec.EXACTLY));
+		view.layout(0, 0, w, h);
+		view.draw(canvas);
+	}
+
+	public AccessibleContext getAccessibleContext() {
+		if (accessibleContext == null) {
+			accessibleContext = new AndroidClassUtil().buildAccessibleContext(this);
+		}
+		return accessibleContext;
+	}
+}
@@ -0,0 +1,1135 @@
+/*
+ * Copyright (c) 2005, 2006, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package javax.swing;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An implementation of <code>RowSorter</code> that provides sorting and
+ * filtering around a grid-based data model. Beyond creating and installing a
+ * <code>RowSorter</code>, you very rarely need to interact with one directly.
+ * Refer to {@link javax.swing.table.TableRowSorter TableRowSorter} for a
+ * concrete implementation of <code>RowSorter</code> for <code>JTable</code>.
+ * <p>
+ * Sorting is done based on the current <code>SortKey</code>s, in order. If
+ * two objects are equal (the <code>Comparator</code> for the column returns
+ * 0) the next <code>SortKey</code> is used. If no <code>SortKey</code>s remain
+ * or the order is <code>UNSORTED</code>, then the order of the rows in the
+ * model is used.
+ * <p>
+ * The mapping between the view and the model is kept as <code>int</code>
+ * arrays. The values of the sorted columns are read from the model once and
+ * kept by model row as primitive keys : <code>long</code> or
+ * <code>double</code> for the <code>Integer</code>, <code>Long</code>,
+ * <code>Short</code>, <code>Byte</code>, <code>Double</code> and
+ * <code>Float</code> columns without a comparator of their own,
+ * <code>CollationKey</code> for the columns compared by a
+ * <code>Collator</code>. Large models are sorted in parallel, unless a column
+ * is compared by a <code>Comparator</code> set by
+ * {@link #setComparator(int, Comparator)}, which may not be thread safe. The
+ * inserted, deleted and, if {@link #getSortsOnUpdates()}, updated rows are
+ * placed by binary insertion when they are few.
+ *
+ * @param <M>
+ *            the type of the model
+ * @param <I>
+ *            the type of the identifier passed to the <code>RowFilter</code>
+ * @see javax.swing.table.TableRowSorter
+ * @see javax.swing.table.DefaultTableModel
+ * @see java.text.Collator
+ * @since 1.6
+ */
+public abstract class DefaultRowSorter<M, I> extends RowSorter<M> {
+	/**
+	 * the models with less rows are sorted in the calling thread only.
+	 */
+	private static final int PARALLEL_SORT_ROWS = 8192;
+
+	private static final int SORT_THREADS = Math.max(1,
+			Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+	/**
+	 * sorts the chunks of the large models beside the calling thread, built
+	 * on the first of them.
+	 */
+	private static ThreadPoolExecutor sortPool;
+
+	private static final int KIND_LONG = 0;
+	private static final int KIND_DOUBLE = 1;
+	private static final int KIND_COLLATION = 2;
+	private static final int KIND_COMPARATOR = 3;
+
+	private boolean sortsOnUpdates;
+
+	/**
+	 * the model row of each view row, up to {@link #viewRowCount}, null if
+	 * the rows are neither sorted nor filtered.
+	 */
+	private int[] viewToModel;
+	private int viewRowCount;
+
+	/**
+	 * the view row of each model row, -1 if filtered out, null with
+	 * {@link #viewToModel}.
+	 */
+	private int[] modelToView;
+	private int modelRowCount;
+
+	private List<SortKey> sortKeys;
+	private boolean[] isSortable;
+	private Comparator[] comparators;
+	private int maxSortKeys;
+	private RowFilter<? super M, ? super I> filter;
+	private FilterEntry filterEntry;
+	private ModelWrapper<M, I> modelWrapper;
+
+	/**
+	 * false if the rows were updated without a sort, see
+	 * {@link #setSortsOnUpdates(boolean)}.
+	 */
+	private boolean sorted;
+
+	/**
+	 * the keys of the sorted columns by model column, null for the others.
+	 */
+	private SortColumn[] sortColumns;
+
+	/**
+	 * the sort keys of {@link #viewToModel}, while it is in their order.
+	 */
+	private List<SortKey> sortedKeys;
+
+	public DefaultRowSorter() {
+		sortKeys = Collections.emptyList();
+		maxSortKeys = 3;
+	}
+
+	protected final void setModelWrapper(ModelWrapper<M, I> modelWrapper) {
+		if (modelWrapper == null) {
+			throw new IllegalArgumentException("modelWrapper most be non-null");
+		}
+		ModelWrapper<M, I> last = this.modelWrapper;
+		this.modelWrapper = modelWrapper;
+		if (last != null) {
+			modelStructureChanged();
+		} else {
+			modelRowCount = getModelWrapper().getRowCount();
+		}
+	}
+
+	protected final ModelWrapper<M, I> getModelWrapper() {
+		return modelWrapper;
+	}
+
+	public final M getModel() {
+		return getModelWrapper().getModel();
+	}
+
+	public void setSortable(int column, boolean sortable) {
+		checkColumn(column);
+		if (isSortable == null) {
+			isSortable = new boolean[getModelWrapper().getColumnCount()];
+			Arrays.fill(isSortable, true);
+		}
+		isSortable[column] = sortable;
+	}
+
+	public boolean isSortable(int column) {
+		checkColumn(column);
+		return (isSortable == null) ? true : isSortable[column];
+	}
+
+	public void setSortKeys(List<? extends SortKey> sortKeys) {
+		List<SortKey> old = this.sortKeys;
+		if (sortKeys != null && sortKeys.size() > 0) {
+			int max = getModelWrapper().getColumnCount();
+			for (SortKey key : sortKeys) {
+				if (key == null || key.getColumn() < 0 || key.getColumn() >= max) {
+					throw new IllegalArgumentException("Invalid SortKey");
+				}
+			}
+			this.sortKeys = Collections.unmodifiableList(new ArrayList<SortKey>(sortKeys));
+		} else {
+			this.sortKeys = Collections.emptyList();
+		}
+		if (!this.sortKeys.equals(old)) {
+			fireSortOrderChanged();
+			sort();
+		}
+	}
+
+	public List<? extends SortKey> getSortKeys() {
+		return sortKeys;
+	}
+
+	public void setMaxSortKeys(int max) {
+		if (max < 1) {
+			throw new IllegalArgumentException("Invalid max");
+		}
+		maxSortKeys = max;
+	}
+
+	public int getMaxSortKeys() {
+		return maxSortKeys;
+	}
+
+	public void setSortsOnUpdates(boolean sortsOnUpdates) {
+		this.sortsOnUpdates = sortsOnUpdates;
+	}
+
+	public boolean getSortsOnUpdates() {
+		return sortsOnUpdates;
+	}
+
+	public void setRowFilter(RowFilter<? super M, ? super I> filter) {
+		this.filter = filter;
+		sort();
+	}
+
+	public RowFilter<? super M, ? super I> getRowFilter() {
+		return filter;
+	}
+
+	public void toggleSortOrder(int column) {
+		checkColumn(column);
+		if (isSortable(column)) {
+			List<SortKey> keys = new ArrayList<SortKey>(getSortKeys());
+			int sortIndex;
+			for (sortIndex = keys.size() - 1; sortIndex >= 0; sortIndex--) {
+				if (keys.get(sortIndex).getColumn() == column) {
+					break;
+				}
+			}
+			if (sortIndex == -1) {
+				keys.add(0, new SortKey(column, SortOrder.ASCENDING));
+			} else if (sortIndex == 0) {
+				keys.set(0, toggle(keys.get(0)));
+			} else {
+				keys.remove(sortIndex);
+				keys.add(0, new SortKey(column, SortOrder.ASCENDING));
+			}
+			if (keys.size() > getMaxSortKeys()) {
+				keys = keys.subList(0, getMaxSortKeys());
+			}
+			setSortKeys(keys);
+		}
+	}
+
+	private SortKey toggle(SortKey key) {
+		if (key.getSortOrder() == SortOrder.ASCENDING) {
+			return new SortKey(key.getColumn(), SortOrder.DESCENDING);
+		}
+		return new SortKey(key.getColumn(), SortOrder.ASCENDING);
+	}
+
+	public int convertRowIndexToView(int index) {
+		if (modelToView == null) {
+			if (index < 0 || index >= getModelWrapper().getRowCount()) {
+				throw new IndexOutOfBoundsException("Invalid index");
+			}
+			return index;
+		}
+		if (index < 0 || index >= modelRowCount) {
+			throw new IndexOutOfBoundsException("Invalid index");
+		}
+		return modelToView[index];
+	}
+
+	public int convertRowIndexToModel(int index) {
+		if (viewToModel == null) {
+			if (index < 0 || index >= getModelWrapper().getRowCount()) {
+				throw new IndexOutOfBoundsException("Invalid index");
+			}
+			return index;
+		}
+		if (index < 0 || index >= viewRowCount) {
+			throw new IndexOutOfBoundsException("Invalid index");
+		}
+		return viewToModel[index];
+	}
+
+	public void setComparator(int column, Comparator<?> comparator) {
+		checkColumn(column);
+		if (comparators == null) {
+			comparators = new Comparator[getModelWrapper().getColumnCount()];
+		}
+		comparators[column] = comparator;
+		sortColumns = null;
+	}
+
+	public Comparator<?> getComparator(int column) {
+		checkColumn(column);
+		if (comparators != null) {
+			return comparators[column];
+		}
+		return null;
+	}
+
+	protected boolean useToString(int column) {
+		return (getComparator(column) == null);
+	}
+
+	/**
+	 * the class of the values of <code>column</code>, which have primitive
+	 * keys if a <code>Number</code> class, null if unknown.
+	 */
+	protected Class<?> getColumnClassAdAPI(int column) {
+		return null;
+	}
+
+	public int getViewRowCount() {
+		if (viewToModel != null) {
+			return viewRowCount;
+		}
+		return getModelWrapper().getRowCount();
+	}
+
+	public int getModelRowCount() {
+		return getModelWrapper().getRowCount();
+	}
+
+	public void modelStructureChanged() {
+		allChanged();
+		modelRowCount = getModelWrapper().getRowCount();
+	}
+
+	private void allChanged() {
+		modelToView = null;
+		viewToModel = null;
+		sortedKeys = null;
+		comparators = null;
+		isSortable = null;
+		sortColumns = null;
+		if (isUnsorted()) {
+			sort();
+		} else {
+			setSortKeys(null);
+		}
+	}
+
+	public void allRowsChanged() {
+		modelRowCount = getModelWrapper().getRowCount();
+		sortColumns = null;
+		sort();
+	}
+
+	public void rowsInserted(int firstRow, int endRow) {
+		checkAgainstModel(firstRow, endRow);
+		int newModelRowCount = getModelWrapper().getRowCount();
+		if (endRow >= newModelRowCount) {
+			throw new IndexOutOfBoundsException("Invalid range");
+		}
+		modelRowCount = newModelRowCount;
+		insertKeys(firstRow, endRow - firstRow + 1);
+		if (shouldOptimizeChange(firstRow, endRow)) {
+			rowsInserted0(firstRow, endRow);
+		}
+	}
+
+	public void rowsDeleted(int firstRow, int endRow) {
+		checkAgainstModel(firstRow, endRow);
+		if (firstRow >= modelRowCount || endRow >= modelRowCount) {
+			throw new IndexOutOfBoundsException("Invalid range");
+		}
+		modelRowCount = getModelWrapper().getRowCount();
+		deleteKeys(firstRow, endRow - firstRow + 1);
+		if (shouldOptimizeChange(firstRow, endRow)) {
+			rowsDeleted0(firstRow, endRow);
+		}
+	}
+
+	public void rowsUpdated(int firstRow, int endRow) {
+		rowsUpdated(firstRow, endRow, -1);
+	}
+
+	public void rowsUpdated(int firstRow, int endRow, int column) {
+		if (column != -1) {
+			checkColumn(column);
+		}
+		checkAgainstModel(firstRow, endRow);
+		if (firstRow >= modelRowCount || endRow >= modelRowCount) {
+			throw new IndexOutOfBoundsException("Invalid range");
+		}
+		updateKeys(firstRow, endRow, column);
+		if (getSortsOnUpdates()) {
+			if (shouldOptimizeChange(firstRow, endRow)) {
+				rowsUpdated0(firstRow, endRow);
+			}
+		} else {
+			sorted = false;
+			sortedKeys = null;
+		}
+	}
+
+	private void checkAgainstModel(int firstRow, int endRow) {
+		if (firstRow > endRow || firstRow < 0 || endRow < 0 || firstRow > modelRowCount) {
+			throw new IndexOutOfBoundsException("Invalid range");
+		}
+	}
+
+	private void checkColumn(int column) {
+		if (column < 0 || column >= getModelWrapper().getColumnCount()) {
+			throw new IndexOutOfBoundsException("column beyond range of TableModel");
+		}
+	}
+
+	private boolean isUnsorted() {
+		List<? extends SortKey> keys = getSortKeys();
+		int keySize = keys.size();
+		return (keySize == 0 || keys.get(0).getSortOrder() == SortOrder.UNSORTED);
+	}
+
+	/**
+	 * true if the change of the rows <code>firstRow</code> to
+	 * <code>lastRow</code> is to be applied to the current mapping, else it
+	 * is sorted again if needed.
+	 */
+	private boolean shouldOptimizeChange(int firstRow, int lastRow) {
+		if (viewToModel == null) {
+			return false;
+		}
+		if (!sorted || (lastRow - firstRow) > viewRowCount / 10) {
+			sort();
+			return false;
+		}
+		return true;
+	}
+
+	private int[] getViewToModelAsInts() {
+		if (viewToModel != null) {
+			int[] viewToModelI = new int[viewRowCount];
+			System.arraycopy(viewToModel, 0, viewToModelI, 0, viewRowCount);
+			return viewToModelI;
+		}
+		return new int[0];
+	}
+
+	private boolean include(int row) {
+		if (filter == null) {
+			return true;
+		}
+		if (filterEntry == null) {
+			filterEntry = new FilterEntry();
+		}
+		filterEntry.modelIndex = row;
+		return filter.include(filterEntry);
+	}
+
+	public void sort() {
+		sorted = true;
+		int[] lastViewToModel = getViewToModelAsInts();
+		int rowCount = getModelWrapper().getRowCount();
+		if (isReversedOrder() && rowCount == modelRowCount) {
+			reverseOrder();
+			sortedKeys = sortKeys;
+			fireRowSorterChanged(lastViewToModel);
+			return;
+		}
+		sortedKeys = sortKeys;
+		modelRowCount = rowCount;
+		if (isUnsorted()) {
+			sortColumns = null;
+			if (getRowFilter() == null) {
+				if (viewToModel == null) {
+					return;
+				}
+				viewToModel = null;
+				modelToView = null;
+				fireRowSorterChanged(lastViewToModel);
+				return;
+			}
+		}
+
+		int[] rows = new int[rowCount];
+		int count = 0;
+		for (int row = 0; row < rowCount; row++) {
+			if (include(row)) {
+				rows[count++] = row;
+			}
+		}
+		if (!isUnsorted()) {
+			sortRows(rows, count, buildRowComparator());
+		}
+		viewToModel = rows;
+		viewRowCount = count;
+		createModelToView();
+		fireRowSorterChanged(lastViewToModel);
+	}
+
+	/**
+	 * true if the view is in the order of a single key, which is reversed.
+	 */
+	private boolean isReversedOrder() {
+		if (viewToModel == null || sortedKeys == null || sortedKeys.size() != 1
+				|| sortKeys.size() != 1 || sortColumns == null) {
+			return false;
+		}
+		SortKey last = sortedKeys.get(0);
+		SortKey key = sortKeys.get(0);
+		return last.getColumn() == key.getColumn() && last.getSortOrder() != key.getSortOrder()
+				&& last.getSortOrder() != SortOrder.UNSORTED
+				&& key.getSortOrder() != SortOrder.UNSORTED
+				&& sortColumns[key.getColumn()] != null;
+	}
+
+	/**
+	 * reverses the view, then the runs of equal keys, which stay in the
+	 * order of the model.
+	 */
+	private void reverseOrder() {
+		reverse(viewToModel, 0, viewRowCount);
+		SortColumn column = sortColumns[sortKeys.get(0).getColumn()];
+		int runStart = 0;
+		for (int i = 1; i <= viewRowCount; i++) {
+			if (i == viewRowCount || column.compare(viewToModel[i - 1], viewToModel[i]) != 0) {
+				if (i - runStart > 1) {
+					reverse(viewToModel, runStart, i);
+				}
+				runStart = i;
+			}
+		}
+		createModelToView();
+	}
+
+	private static void reverse(int[] rows, int from, int to) {
+		for (int i = from, j = to - 1; i < j; i++, j--) {
+			int row = rows[i];
+			rows[i] = rows[j];
+			rows[j] = row;
+		}
+	}
+
+	private void createModelToView() {
+		if (modelToView == null || modelToView.length < modelRowCount) {
+			modelToView = new int[modelRowCount];
+		}
+		Arrays.fill(modelToView, 0, modelRowCount, -1);
+		for (int i = 0; i < viewRowCount; i++) {
+			modelToView[viewToModel[i]] = i;
+		}
+	}
+
+	private void updateModelToView(int fromView, int toView) {
+		for (int i = fromView; i < toView; i++) {
+			modelToView[viewToModel[i]] = i;
+		}
+	}
+
+	private void ensureViewCapacity(int capacity) {
+		if (viewToModel.length < capacity) {
+			int[] rows = new int[Math.max(capacity, viewToModel.length + (viewToModel.length >> 1))];
+			System.arraycopy(viewToModel, 0, rows, 0, viewRowCount);
+			viewToModel = rows;
+		}
+	}
+
+	/**
+	 * @return the view row of <code>row</code> inserted.
+	 */
+	private int insertInOrder(int row, RowComparator comparator) {
+		int low = 0;
+		int high = viewRowCount;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (comparator.compare(viewToModel[mid], row) < 0) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		System.arraycopy(viewToModel, low, viewToModel, low + 1, viewRowCount - low);
+		viewToModel[low] = row;
+		viewRowCount++;
+		return low;
+	}
+
+	private void rowsInserted0(int firstRow, int endRow) {
+		int[] oldViewToModel = getViewToModelAsInts();
+		int delta = (endRow - firstRow) + 1;
+
+		for (int i = 0; i < viewRowCount; i++) {
+			if (viewToModel[i] >= firstRow) {
+				viewToModel[i] += delta;
+			}
+		}
+		ensureViewCapacity(viewRowCount + delta);
+		RowComparator comparator = buildRowComparator();
+		for (int row = firstRow; row <= endRow; row++) {
+			if (include(row)) {
+				insertInOrder(row, comparator);
+			}
+		}
+		createModelToView();
+		fireRowSorterChanged(oldViewToModel);
+	}
+
+	private void rowsDeleted0(int firstRow, int endRow) {
+		int[] oldViewToModel = getViewToModelAsInts();
+		int delta = (endRow - firstRow) + 1;
+
+		int count = 0;
+		for (int i = 0; i < viewRowCount; i++) {
+			int row = viewToModel[i];
+			if (row < firstRow) {
+				viewToModel[count++] = row;
+			} else if (row > endRow) {
+				viewToModel[count++] = row - delta;
+			}
+		}
+		viewRowCount = count;
+		createModelToView();
+		fireRowSorterChanged(oldViewToModel);
+	}
+
+	private void rowsUpdated0(int firstRow, int endRow) {
+		int[] oldViewToModel = getViewToModelAsInts();
+
+		// the updated rows are out of order, all of them are removed first.
+		for (int row = firstRow; row <= endRow; row++) {
+			int viewIndex = modelToView[row];
+			if (viewIndex != -1) {
+				viewRowCount--;
+				System.arraycopy(viewToModel, viewIndex + 1, viewToModel, viewIndex,
+						viewRowCount - viewIndex);
+				modelToView[row] = -1;
+				updateModelToView(viewIndex, viewRowCount);
+			}
+		}
+		// a row filtered out before may be included now.
+		ensureViewCapacity(viewRowCount + (endRow - firstRow) + 1);
+		RowComparator comparator = buildRowComparator();
+		for (int row = firstRow; row <= endRow; row++) {
+			if (include(row)) {
+				int viewIndex = insertInOrder(row, comparator);
+				updateModelToView(viewIndex, viewRowCount);
+			}
+		}
+		fireRowSorterChanged(oldViewToModel);
+	}
+
+	/**
+	 * the comparator of the current sort keys, the columns without keys get
+	 * them.
+	 */
+	private RowComparator buildRowComparator() {
+		int columnCount = getModelWrapper().getColumnCount();
+		if (sortColumns == null || sortColumns.length != columnCount) {
+			sortColumns = new SortColumn[columnCount];
+		}
+		boolean[] isUsed = new boolean[columnCount];
+
+		List<? extends SortKey> keys = getSortKeys();
+		int keyCount = isUnsorted() ? 0 : keys.size();
+		SortColumn[] columns = new SortColumn[keyCount];
+		SortOrder[] orders = new SortOrder[keyCount];
+		for (int i = 0; i < keyCount; i++) {
+			SortKey key = keys.get(i);
+			orders[i] = key.getSortOrder();
+			if (orders[i] != SortOrder.UNSORTED) {
+				int column = key.getColumn();
+				if (sortColumns[column] == null) {
+					sortColumns[column] = new SortColumn(getModelWrapper(), column, modelRowCount,
+							getComparator(column), useToString(column),
+							getColumnClassAdAPI(column),
+							comparators != null && comparators[column] != null);
+				}
+				columns[i] = sortColumns[column];
+				isUsed[column] = true;
+			}
+		}
+		// the keys of a few columns sorted before are kept for the next sorts.
+		int cached = 0;
+		for (int i = 0; i < columnCount; i++) {
+			if (sortColumns[i] != null) {
+				cached++;
+			}
+		}
+		for (int i = 0; i < columnCount && cached > getMaxSortKeys() + 1; i++) {
+			if (!isUsed[i] && sortColumns[i] != null) {
+				sortColumns[i] = null;
+				cached--;
+			}
+		}
+		return new RowComparator(columns, orders);
+	}
+
+	private void insertKeys(int firstRow, int count) {
+		if (sortColumns != null) {
+			for (int i = 0; i < sortColumns.length; i++) {
+				if (sortColumns[i] != null) {
+					sortColumns[i].insertRows(firstRow, count);
+				}
+			}
+		}
+	}
+
+	private void deleteKeys(int firstRow, int count) {
+		if (sortColumns != null) {
+			for (int i = 0; i < sortColumns.length; i++) {
+				if (sortColumns[i] != null) {
+					sortColumns[i].deleteRows(firstRow, count);
+				}
+			}
+		}
+	}
+
+	private void updateKeys(int firstRow, int endRow, int column) {
+		if (sortColumns != null) {
+			for (int i = 0; i < sortColumns.length; i++) {
+				if (sortColumns[i] != null && (column == -1 || column == i)) {
+					for (int row = firstRow; row <= endRow; row++) {
+						sortColumns[i].load(row);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * sorts the first <code>count</code> model rows of <code>rows</code>, in
+	 * chunks on {@link #sortPool} for the large models, then merged.
+	 */
+	private static void sortRows(final int[] rows, final int count,
+			final RowComparator comparator) {
+		final int[] buffer = new int[count];
+		if (count < PARALLEL_SORT_ROWS || SORT_THREADS == 1 || !comparator.isThreadSafe) {
+			mergeSort(rows, buffer, 0, count, comparator);
+			return;
+		}
+
+		final int chunks = SORT_THREADS;
+		final int[] bounds = new int[chunks + 1];
+		for (int i = 0; i <= chunks; i++) {
+			bounds[i] = (int) ((long) count * i / chunks);
+		}
+		final CountDownLatch done = new CountDownLatch(chunks - 1);
+		final Throwable[] failure = new Throwable[1];
+		final ThreadPoolExecutor pool = getSortPool();
+		for (int i = 1; i < chunks; i++) {
+			final int from = bounds[i];
+			final int to = bounds[i + 1];
+			pool.execute(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						mergeSort(rows, buffer, from, to, comparator);
+					} catch (Throwable e) {
+						synchronized (failure) {
+							failure[0] = e;
+						}
+					} finally {
+						done.countDown();
+					}
+				}
+			});
+		}
+		mergeSort(rows, buffer, bounds[0], bounds[1], comparator);
+
+		boolean isInterrupted = false;
+		while (true) {
+			try {
+				done.await();
+				break;
+			} catch (InterruptedException e) {
+				isInterrupted = true;
+			}
+		}
+		if (isInterrupted) {
+			Thread.currentThread().interrupt();
+		}
+		synchronized (failure) {
+			if (failure[0] instanceof RuntimeException) {
+				throw (RuntimeException) failure[0];
+			} else if (failure[0] != null) {
+				throw new RuntimeException(failure[0]);
+			}
+		}
+
+		// merges the sorted chunks two by two.
+		int[] src = rows;
+		int[] dst = buffer;
+		int[] runs = bounds;
+		int runCount = chunks;
+		while (runCount > 1) {
+			final int[] merged = new int[(runCount + 1) / 2 + 1];
+			int m = 0;
+			for (int i = 0; i < runCount; i += 2) {
+				merged[m++] = runs[i];
+				if (i + 1 < runCount) {
+					merge(src, dst, runs[i], runs[i + 1], runs[i + 2], comparator);
+				} else {
+					System.arraycopy(src, runs[i], dst, runs[i], runs[i + 1] - runs[i]);
+				}
+			}
+			merged[m] = count;
+			runs = merged;
+			runCount = m;
+			final int[] swap = src;
+			src = dst;
+			dst = swap;
+		}
+		if (src != rows) {
+			System.arraycopy(src, 0, rows, 0, count);
+		}
+	}
+
+	private static synchronized ThreadPoolExecutor getSortPool() {
+		if (sortPool == null) {
+			sortPool = new ThreadPoolExecutor(SORT_THREADS - 1, SORT_THREADS - 1, 30,
+					TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+						int count;
+
+						@Override
+						public Thread newThread(final Runnable r) {
+							final Thread t = new Thread(r, "RowSorter-" + (++count));
+							t.setDaemon(true);
+							return t;
+						}
+					});
+			sortPool.allowCoreThreadTimeOut(true);
+		}
+		return sortPool;
+	}
+
+	/**
+	 * sorts <code>rows</code> from <code>from</code> to <code>to</code>
+	 * excluded, <code>buffer</code> is used in the same range.
+	 */
+	private static void mergeSort(int[] rows, int[] buffer, int from, int to,
+			RowComparator comparator) {
+		if (to - from <= 16) {
+			for (int i = from + 1; i < to; i++) {
+				int row = rows[i];
+				int j = i - 1;
+				while (j >= from && comparator.compare(rows[j], row) > 0) {
+					rows[j + 1] = rows[j];
+					j--;
+				}
+				rows[j + 1] = row;
+			}
+			return;
+		}
+		int mid = (from + to) >>> 1;
+		mergeSort(rows, buffer, from, mid, comparator);
+		mergeSort(rows, buffer, mid, to, comparator);
+		if (comparator.compare(rows[mid - 1], rows[mid]) <= 0) {
+			return;
+		}
+		System.arraycopy(rows, from, buffer, from, to - from);
+		merge(buffer, rows, from, mid, to, comparator);
+	}
+
+	private static void merge(int[] src, int[] dst, int from, int mid, int to,
+			RowComparator comparator) {
+		int i = from;
+		int j = mid;
+		for (int k = from; k < to; k++) {
+			if (j >= to || (i < mid && comparator.compare(src[i], src[j]) <= 0)) {
+				dst[k] = src[i++];
+			} else {
+				dst[k] = src[j++];
+			}
+		}
+	}
+
+	/**
+	 * compares two model rows by the sort keys, then by their index.
+	 */
+	private static final class RowComparator {
+		final SortColumn[] columns;
+		final SortOrder[] orders;
+		final boolean isThreadSafe;
+
+		RowComparator(SortColumn[] columns, SortOrder[] orders) {
+			this.columns = columns;
+			this.orders = orders;
+			boolean isSafe = true;
+			for (int i = 0; i < columns.length; i++) {
+				if (columns[i] != null && !columns[i].isThreadSafe) {
+					isSafe = false;
+				}
+			}
+			isThreadSafe = isSafe;
+		}
+
+		int compare(int model1, int model2) {
+			for (int i = 0; i < columns.length; i++) {
+				int result;
+				if (orders[i] == SortOrder.UNSORTED) {
+					result = model1 - model2;
+				} else {
+					result = columns[i].compare(model1, model2);
+					if (orders[i] == SortOrder.DESCENDING) {
+						result = -result;
+					}
+				}
+				if (result != 0) {
+					return result;
+				}
+			}
+			return model1 - model2;
+		}
+	}
+
+	/**
+	 * the keys of a column by model row.
+	 */
+	private static final class SortColumn {
+		final ModelWrapper<?, ?> wrapper;
+		final int column;
+		final int kind;
+		final boolean isToString;
+		final boolean isThreadSafe;
+		final Comparator comparator;
+		final Collator collator;
+
+		long[] longs;
+		double[] doubles;
+		Object[] objects;
+		boolean[] isNull;
+		int size;
+
+		SortColumn(ModelWrapper<?, ?> wrapper, int column, int rowCount,
+				Comparator columnComparator, boolean isToString, Class<?> columnClass,
+				boolean isUserComparator) {
+			this.wrapper = wrapper;
+			this.column = column;
+			this.isToString = isToString;
+			if (!isUserComparator && !isToString
+					&& (columnClass == Integer.class || columnClass == Long.class
+							|| columnClass == Short.class || columnClass == Byte.class)) {
+				kind = KIND_LONG;
+			} else if (!isUserComparator && !isToString
+					&& (columnClass == Double.class || columnClass == Float.class)) {
+				kind = KIND_DOUBLE;
+			} else if (columnComparator == null || columnComparator instanceof Collator) {
+				kind = KIND_COLLATION;
+			} else {
+				kind = KIND_COMPARATOR;
+			}
+			comparator = columnComparator;
+			collator = (kind != KIND_COLLATION) ? null
+					: (columnComparator == null) ? Collator.getInstance()
+							: (Collator) columnComparator;
+			isThreadSafe = !isUserComparator;
+
+			size = rowCount;
+			allocate(size);
+			for (int row = 0; row < size; row++) {
+				load(row);
+			}
+		}
+
+		private void allocate(int capacity) {
+			isNull = grow(isNull, capacity);
+			if (kind == KIND_LONG) {
+				long[] keys = new long[capacity];
+				if (longs != null) {
+					System.arraycopy(longs, 0, keys, 0, size);
+				}
+				longs = keys;
+			} else if (kind == KIND_DOUBLE) {
+				double[] keys = new double[capacity];
+				if (doubles != null) {
+					System.arraycopy(doubles, 0, keys, 0, size);
+				}
+				doubles = keys;
+			} else {
+				Object[] keys = new Object[capacity];
+				if (objects != null) {
+					System.arraycopy(objects, 0, keys, 0, size);
+				}
+				objects = keys;
+			}
+		}
+
+		private boolean[] grow(boolean[] flags, int capacity) {
+			boolean[] out = new boolean[capacity];
+			if (flags != null) {
+				System.arraycopy(flags, 0, out, 0, size);
+			}
+			return out;
+		}
+
+		void load(int row) {
+			if (isToString) {
+				String value = wrapper.getStringValueAt(row, column);
+				isNull[row] = false;
+				if (kind == KIND_COLLATION) {
+					objects[row] = collator.getCollationKey(value);
+				} else {
+					objects[row] = value;
+				}
+				return;
+			}
+
+			Object value = wrapper.getValueAt(row, column);
+			isNull[row] = (value == null);
+			if (kind == KIND_LONG) {
+				longs[row] = (value == null) ? 0 : ((Number) value).longValue();
+			} else if (kind == KIND_DOUBLE) {
+				doubles[row] = (value == null) ? 0 : ((Number) value).doubleValue();
+			} else if (kind == KIND_COLLATION) {
+				objects[row] = (value == null) ? null : collator.getCollationKey(value.toString());
+			} else {
+				objects[row] = value;
+			}
+		}
+
+		void insertRows(int firstRow, int count) {
+			int newSize = size + count;
+			int capacity = isNull.length;
+			if (newSize > capacity) {
+				allocate(Math.max(newSize, capacity + (capacity >> 1)));
+			}
+			int moved = size - firstRow;
+			System.arraycopy(isNull, firstRow, isNull, firstRow + count, moved);
+			if (kind == KIND_LONG) {
+				System.arraycopy(longs, firstRow, longs, firstRow + count, moved);
+			} else if (kind == KIND_DOUBLE) {
+				System.arraycopy(doubles, firstRow, doubles, firstRow + count, moved);
+			} else {
+				System.arraycopy(objects, firstRow, objects, firstRow + count, moved);
+			}
+			size = newSize;
+			for (int row = firstRow; row < firstRow + count; row++) {
+				load(row);
+			}
+		}
+
+		void deleteRows(int firstRow, int count) {
+			int moved = size - firstRow - count;
+			System.arraycopy(isNull, firstRow + count, isNull, firstRow, moved);
+			if (kind == KIND_LONG) {
+				System.arraycopy(longs, firstRow + count, longs, firstRow, moved);
+			} else if (kind == KIND_DOUBLE) {
+				System.arraycopy(doubles, firstRow + count, doubles, firstRow, moved);
+			} else {
+				System.arraycopy(objects, firstRow + count, objects, firstRow, moved);
+				Arrays.fill(objects, size - count, size, null);
+			}
+			size -= count;
+		}
+
+		int compare(int model1, int model2) {
+			if (isNull[model1]) {
+				return isNull[model2] ? 0 : -1;
+			} else if (isNull[model2]) {
+				return 1;
+			}
+			switch (kind) {
+			case KIND_LONG: {
+				long v1 = longs[model1];
+				long v2 = longs[model2];
+				return (v1 < v2) ? -1 : ((v1 == v2) ? 0 : 1);
+			}
+			case KIND_DOUBLE:
+				return Double.compare(doubles[model1], doubles[model2]);
+			case KIND_COLLATION:
+				return ((CollationKey) objects[model1]).compareTo((CollationKey) objects[model2]);
+			default:
+				return comparator.compare(objects[model1], objects[model2]);
+			}
+		}
+	}
+
+	/**
+	 * the entry of a model row passed to the filter.
+	 */
+	private final class FilterEntry extends RowFilter.Entry<M, I> {
+		int modelIndex;
+
+		public M getModel() {
+			return getModelWrapper().getModel();
+		}
+
+		public int getValueCount() {
+			return getModelWrapper().getColumnCount();
+		}
+
+		public Object getValue(int index) {
+			return getModelWrapper().getValueAt(modelIndex, index);
+		}
+
+		public String getStringValue(int index) {
+			return getModelWrapper().getStringValueAt(modelIndex, index);
+		}
+
+		public I getIdentifier() {
+			return getModelWrapper().getIdentifier(modelIndex);
+		}
+	}
+
+	/**
+	 * <code>DefaultRowSorter.ModelWrapper</code> is responsible for providing
+	 * the data that gets sorted by <code>DefaultRowSorter</code>. You normally
+	 * do not interact directly with <code>ModelWrapper</code>. Subclasses of
+	 * <code>DefaultRowSorter</code> provide an implementation of
+	 * <code>ModelWrapper</code> wrapping another model.
+	 *
+	 * @param <M>
+	 *            the type of the underlying model
+	 * @param <I>
+	 *            the identifier supplied to the filter
+	 * @since 1.6
+	 */
+	protected abstract static class ModelWrapper<M, I> {
+		protected ModelWrapper() {
+		}
+
+		public abstract M getModel();
+
+		public abstract int getColumnCount();
+
+		public abstract int getRowCount();
+
+		public abstract Object getValueAt(int row, int column);
+
+		public String getStringValueAt(int row, int column) {
+			Object o = getValueAt(row, column);
+			if (o == null) {
+				return "";
+			}
+			String string = o.toString();
+			if (string == null) {
+				return "";
+			}
+			return string;
+		}
+
+		public abstract I getIdentifier(int row);
+	}
+}
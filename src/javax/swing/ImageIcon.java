@@ -43,6 +43,7 @@ import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.net.URL;
 import java.util.Locale;
+import java.util.WeakHashMap;
 
 import javax.accessibility.Accessible;
 import javax.accessibility.AccessibleContext;
@@ -77,7 +78,7 @@ import android.graphics.drawable.Drawable;
  */
 public class ImageIcon implements Icon, Serializable, Accessible {
 	transient Image image;
-	transient int loadStatus = 0;
+	transient volatile int loadStatus = 0;
 	ImageObserver imageObserver;
 	String description = null;
 
@@ -147,11 +148,95 @@ public class ImageIcon implements Icon, Serializable, Accessible {
 	public ImageIcon() {
 	}
 
+	/**
+	 * starts the decoding of an image of <code>Toolkit.getImage(URL)</code>
+	 * in the background, nothing waits for it : the icon has no size until
+	 * it is decoded, then the components which used it meanwhile are
+	 * revalidated and repainted, see {@link #loadObserver}.
+	 */
 	protected void loadImage(Image image) {
+		loadStatus = MediaTracker.LOADING;
+		if (Toolkit.getDefaultToolkit().prepareImage(image, -1, -1, loadObserver)) {
+			loadStatus = MediaTracker.COMPLETE;
+		}
+	}
+
+	/**
+	 * the components which used this icon while it was loading, guarded by
+	 * itself.
+	 */
+	private final transient WeakHashMap<Component, Boolean> loadingUsers =
+			new WeakHashMap<Component, Boolean>(2);
+
+	/**
+	 * keeps <code>c</code> to be revalidated and repainted once the image is
+	 * loaded.
+	 */
+	private void addLoadingUser(final Component c) {
+		if (c == null || loadStatus != MediaTracker.LOADING) {
+			return;
+		}
+		synchronized (loadingUsers) {
+			loadingUsers.put(c, Boolean.TRUE);
+		}
+		if (loadStatus != MediaTracker.LOADING) {
+			// loaded meanwhile.
+			notifyLoadingUsers();
+		}
 	}
 
+	private void notifyLoadingUsers() {
+		final Component[] users;
+		synchronized (loadingUsers) {
+			users = loadingUsers.keySet().toArray(new Component[loadingUsers.size()]);
+			loadingUsers.clear();
+		}
+		for (int i = 0; i < users.length; i++) {
+			final Component c = users[i];
+			if (c != null) {
+				c.revalidate();
+				c.repaint();
+			}
+		}
+	}
+
+	/**
+	 * sets {@link #loadStatus} when the decoding ends, then revalidates and
+	 * repaints the components which used this icon meanwhile, with the sizes
+	 * of the image.
+	 */
+	private final transient ImageObserver loadObserver = new ImageObserver() {
+		@Override
+		public boolean imageUpdate(final Image img, final int infoflags, final int x,
+				final int y, final int width, final int height) {
+			if (img != image) {
+				return false;
+			}
+			final ImageObserver observer = imageObserver;
+			if (observer != null) {
+				observer.imageUpdate(img, infoflags, x, y, width, height);
+			}
+			if ((infoflags & (ALLBITS | ERROR | ABORT)) == 0) {
+				return true;
+			}
+			if ((infoflags & ALLBITS) != 0) {
+				loadStatus = MediaTracker.COMPLETE;
+			} else if ((infoflags & ERROR) != 0) {
+				loadStatus = MediaTracker.ERRORED;
+			} else {
+				loadStatus = MediaTracker.ABORTED;
+			}
+			notifyLoadingUsers();
+			return false;
+		}
+	};
+
+	/**
+	 * @return {@link MediaTracker#LOADING} until the image is decoded, it is
+	 *         not waited for.
+	 */
 	public int getImageLoadStatus() {
-		return MediaTracker.COMPLETE;
+		return loadStatus;
 	}
 
 	@Transient
@@ -173,6 +258,7 @@ public class ImageIcon implements Icon, Serializable, Accessible {
 	}
 
 	public synchronized void paintIcon(Component c, Graphics g, int x, int y) {
+		addLoadingUser(c);
 		if (imageObserver == null) {
 			g.drawImage(image, x, y, c);
 		} else {
@@ -180,12 +266,18 @@ public class ImageIcon implements Icon, Serializable, Accessible {
 		}
 	}
 
+	/**
+	 * @return -1 while the image is loading, see {@link #loadImage(Image)}.
+	 */
 	public int getIconWidth() {
-		return image.getWidth(null);
+		return (loadStatus == MediaTracker.LOADING) ? -1 : image.getWidth(null);
 	}
 
+	/**
+	 * @return -1 while the image is loading, see {@link #loadImage(Image)}.
+	 */
 	public int getIconHeight() {
-		return image.getHeight(null);
+		return (loadStatus == MediaTracker.LOADING) ? -1 : image.getHeight(null);
 	}
 
 	public void setImageObserver(ImageObserver observer) {
@@ -296,6 +388,7 @@ public class ImageIcon implements Icon, Serializable, Accessible {
 
 	public static Drawable getAdapterBitmapDrawableAdAPI(final ImageIcon imageIcon,
 			final Component component) {
+		imageIcon.addLoadingUser(component);
 		return imageIcon.image.getAdapterBitmapDrawableAdAPI(component);
 	}
 }
\ No newline at end of file
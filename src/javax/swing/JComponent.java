@@ -351,7 +351,7 @@ public abstract class JComponent extends Container
 		final View view = getPeerAdAPI();
 
 		if (g instanceof CanvasGraphics) {
-			final Canvas canvas = ((CanvasGraphics) g).getCanvasAdAPI();
+			final Canvas canvas = ((CanvasGraphics) g).getCanvasForDrawAdAPI();
 
 			if (isPrintMeasured == false) {
 				isPrintMeasured = true;
@@ -481,8 +481,7 @@ public abstract class JComponent extends Container
 			View peerView = getPeerAdAPI();
 			if (peerView != null && isUsePaintView == false
 					&& (peerView instanceof AbsoluteLayout == false)) {
-				size = new Dimension();
-				AndroidUIUtil.getViewWidthAndHeight(peerView, size);
+				size = new Dimension(getPeerSizeAdAPI());
 			}
 		}
 		return size;
@@ -567,6 +566,7 @@ public abstract class JComponent extends Container
 		this.border = p_border;
 
 		restructView(super.getPeerAdAPI());
+		invalidate();
 	}
 
 	private final void restructView(final View layoutView) {
@@ -841,10 +841,17 @@ public abstract class JComponent extends Container
 		}
 	}
 
+	/**
+	 * the colors set to the peer, read by {@link CellRendererPane} to paint a
+	 * renderer without its peer.
+	 */
+	Color peerForeground, peerBackground;
+
 	public void setForeground(final Color fg) {
 		if (fg == null) {
 			return;
 		}
+		peerForeground = fg;
 
 		if (super.getPeerAdAPI() instanceof android.widget.TextView) {
 			final android.widget.TextView tv = (android.widget.TextView) super.getPeerAdAPI();
@@ -856,6 +863,7 @@ public abstract class JComponent extends Container
 		if (bg == null) {
 			return;
 		}
+		peerBackground = bg;
 		super.getPeerAdAPI().setBackgroundColor(bg.toAndroid());
 	}
 
@@ -1313,7 +1321,8 @@ public abstract class JComponent extends Container
 		// snapPeer.invalidate();
 		// }
 		// });
-		super.revalidate();
+		invalidate();
+		RepaintManager.currentManager(this).addInvalidComponent(this);
 	}
 
 	public void invalidate() {
@@ -1322,14 +1331,13 @@ public abstract class JComponent extends Container
 		super.invalidate();
 	}
 
+	/**
+	 * lays out this component on the calling thread, see
+	 * {@link Container#validate()}.
+	 */
 	public void validate() {
 		paintGraphics = null;
-		AndroidUIUtil.runOnUiThreadAndWait(new Runnable() {
-			@Override
-			public void run() {
-				JComponent.super.validate();				
-			}
-		});
+		super.validate();
 	}
 
 	public boolean isValidateRoot() {
@@ -268,6 +268,7 @@ public class JLabel extends JComponent implements SwingConstants, Accessible {
 			this.text = text;
 			firePropertyChange("text", oldValue, text);
 			updateUI();
+			invalidate();
 		}
 		return;
 
@@ -288,6 +289,7 @@ public class JLabel extends JComponent implements SwingConstants, Accessible {
 		if (defaultIcon != oldValue) {
 			refreshIconToMobile(oldValue);
 			updateUI();
+			invalidate();
 		}
 	}
 
@@ -440,7 +442,7 @@ public class JLabel extends JComponent implements SwingConstants, Accessible {
 
 			return false;
 		}
-		return false;
+		return super.imageUpdate(img, infoflags, x, y, w, h);
 	}
 
 	private void writeObject(ObjectOutputStream s) throws IOException {
@@ -27,6 +27,7 @@ package javax.swing;
 import hc.android.AndroidClassUtil;
 
 import java.awt.Adjustable;
+import java.awt.Component;
 import java.awt.Dimension;
 import java.awt.event.AdjustmentListener;
 import java.io.IOException;
@@ -171,6 +172,19 @@ public class JScrollBar extends JComponent implements Adjustable, Accessible {
 	}
 
 	public void setValue(int value) {
+		final Component view = scrollPane.getViewportViewAdAPI();
+		if (view instanceof JTable) {
+			if (value == min || value == max) {
+				((JTable) view).fullScrollAdAPI(value == min);
+			}
+			return;
+		}
+		if (view instanceof JTree) {
+			if (value == min || value == max) {
+				((JTree) view).fullScrollAdAPI(value == min);
+			}
+			return;
+		}
 		if (value == min) {
 			scrollPane.scrollView.fullScroll(ScrollView.FOCUS_UP);
 		} else if (value == max) {
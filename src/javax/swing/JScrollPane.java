@@ -374,9 +374,25 @@ public class JScrollPane extends JComponent implements ScrollPaneConstants, Acce
 		final View peerAdded = viewportComponent.getPeerAdAPI();
 		AndroidUIUtil.removeFromParent(peerAdded);
 		scrollView.removeAllViews();
-		ScrollView.LayoutParams lp = new ScrollView.LayoutParams(LayoutParams.MATCH_PARENT,
-				LayoutParams.MATCH_PARENT);
-		scrollView.addView(peerAdded, lp);
+		hScrollView.removeAllViews();
+		if (view instanceof JTable || view instanceof JTree) {
+			// JTable and JTree scroll their rows themselves and build the
+			// visible ones only, the ScrollView would give them the height of
+			// all of them.
+			LinearLayout.LayoutParams lp = new LinearLayout.LayoutParams(
+					LinearLayout.LayoutParams.MATCH_PARENT, LinearLayout.LayoutParams.MATCH_PARENT);
+			hScrollView.addView(peerAdded, lp);
+		} else {
+			{
+				LinearLayout.LayoutParams lp = new LinearLayout.LayoutParams(
+						LinearLayout.LayoutParams.MATCH_PARENT,
+						LinearLayout.LayoutParams.MATCH_PARENT);
+				hScrollView.addView(scrollView, lp);
+			}
+			ScrollView.LayoutParams lp = new ScrollView.LayoutParams(LayoutParams.MATCH_PARENT,
+					LayoutParams.MATCH_PARENT);
+			scrollView.addView(peerAdded, lp);
+		}
 	}
 
 	// public void validate() {
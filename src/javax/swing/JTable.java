@@ -27,6 +27,7 @@ package javax.swing;
 import hc.android.ActivityManager;
 import hc.android.AndroidClassUtil;
 import hc.android.CanvasGraphics;
+import hc.android.CellBitmapCache;
 import hc.android.AndroidUIUtil;
 import hc.core.util.LogManager;
 import hc.util.ResourceUtil;
@@ -49,6 +50,8 @@ import java.io.ObjectOutputStream;
 import java.text.DateFormat;
 import java.text.MessageFormat;
 import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.EventObject;
 import java.util.HashMap;
@@ -80,18 +83,25 @@ import javax.swing.table.TableCellRenderer;
 import javax.swing.table.TableColumn;
 import javax.swing.table.TableColumnModel;
 import javax.swing.table.TableModel;
+import javax.swing.table.TableRowSorter;
 
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.ColorFilter;
+import android.graphics.Picture;
+import android.graphics.Rect;
+import android.graphics.drawable.ColorDrawable;
 import android.graphics.drawable.Drawable;
+import android.os.Build;
 import android.view.Gravity;
 import android.view.MotionEvent.PointerCoords;
 import android.view.View;
+import android.view.ViewGroup;
 import android.view.ViewGroup.LayoutParams;
 import android.widget.ImageView;
 import android.widget.LinearLayout;
-import android.widget.TableLayout;
-import android.widget.TableRow;
+import android.widget.BaseAdapter;
+import android.widget.ListView;
 
 import hc.android.HCRUtil;
 
@@ -255,9 +265,14 @@ public class JTable extends JComponent
 		CellEditorListener, Accessible, RowSorterListener {
 	private static final String uiClassID = "TableUI";
 	private final int gridLineWidth = 1;
-	private TableLayout tableView;
+	/**
+	 * the column header above {@link #rowListView}, which builds the views of
+	 * the visible rows only.
+	 */
+	private LinearLayout tableView;
+	private ListView rowListView;
 	private boolean isShowSelectedColumn = true;
-	private TableRow columnHeaderRow;
+	private LinearLayout columnHeaderRow;
 	protected boolean rowSelectionAllowed;
 	public static final int AUTO_RESIZE_OFF = 0;
 	public static final int AUTO_RESIZE_NEXT_COLUMN = 1;
@@ -299,7 +314,13 @@ public class JTable extends JComponent
 	protected Color defaultForeground = AndroidUIUtil.WIN_UNSELECTED_FONT_COLOR;
 	protected Color defaultBackground;// = UIUtil.WIN_BODY_BACK;
 
+	/**
+	 * the heights of the view rows, a row has {@link #getRowHeight()} until
+	 * its view is laid out, then the height of the view. It is guarded by
+	 * {@link #rowModelLock}, null if no row is laid out yet.
+	 */
 	private SizeSequence rowModel;
+	private final Object rowModelLock = new Object();
 	private boolean columnSelectionAdjusting;
 	/**
 	 * The last value of getValueIsAdjusting from the row selection models
@@ -393,8 +414,26 @@ public class JTable extends JComponent
 			AndroidUIUtil.runOnUiThreadAndWait(new Runnable() {
 				@Override
 				public void run() {
-					tableView = new TableLayout(ActivityManager.applicationContext);
-					tableView.setStretchAllColumns(true);// 可拉伸，即宽度可被拉伸以填充全屏
+					tableView = new LinearLayout(ActivityManager.applicationContext);
+					tableView.setOrientation(LinearLayout.VERTICAL);
+
+					columnHeaderRow = new LinearLayout(ActivityManager.applicationContext);
+					columnHeaderRow.setOrientation(LinearLayout.HORIZONTAL);
+					columnHeaderRow.setBackgroundResource(
+							HCRUtil.getResource(HCRUtil.R_drawable_table_header));
+					tableView.addView(columnHeaderRow, new LinearLayout.LayoutParams(
+							LayoutParams.MATCH_PARENT, LayoutParams.WRAP_CONTENT));
+
+					rowAdapter = new RowAdapter();
+					rowListView = new ListView(ActivityManager.applicationContext);
+					rowListView.setDivider(null);// 由单元格绘制grid line
+					rowListView.setDividerHeight(0);
+					rowListView.setSelector(new ColorDrawable(0));
+					rowListView.setItemsCanFocus(true);
+					rowListView.setAdapter(rowAdapter);
+					tableView.addView(rowListView, new LinearLayout.LayoutParams(
+							LayoutParams.MATCH_PARENT, 0, 1.0F));
+
 					setPeerAdAPI(tableView);
 
 					updateUI();
@@ -500,6 +539,9 @@ public class JTable extends JComponent
 		return rowHeight;
 	}
 
+	/**
+	 * the caller holds {@link #rowModelLock}.
+	 */
 	private SizeSequence getRowModel() {
 		if (rowModel == null) {
 			rowModel = new SizeSequence(getRowCount(), getRowHeight());
@@ -517,7 +559,38 @@ public class JTable extends JComponent
 	}
 
 	public int getRowHeight(int row) {
-		return (rowModel == null) ? getRowHeight() : rowModel.getSize(row);
+		synchronized (rowModelLock) {
+			return (rowModel == null) ? getRowHeight() : rowModel.getSize(row);
+		}
+	}
+
+	/**
+	 * keeps <code>height</code>, the height of the view of <code>row</code>
+	 * laid out in UI thread, and revalidates the table if the row had
+	 * another height.
+	 */
+	private void setLaidOutRowHeightAdAPI(final int row, final int height) {
+		synchronized (rowModelLock) {
+			if (row < 0 || row >= getRowCount() || height <= 0) {
+				return;
+			}
+			final SizeSequence model = getRowModel();
+			if (model.getSize(row) == height) {
+				return;
+			}
+			model.setSize(row, height);
+		}
+		revalidate();
+	}
+
+	/**
+	 * drops the heights of the rows for a new count or order of the view
+	 * rows, they are taken again when their views are laid out.
+	 */
+	private void resetRowHeightsAdAPI() {
+		synchronized (rowModelLock) {
+			rowModel = null;
+		}
 	}
 
 	public void setRowMargin(int rowMargin) {
@@ -645,6 +718,7 @@ public class JTable extends JComponent
 		} else {
 			defaultRenderersByColumnClass.remove(columnClass);
 		}
+		invalidateCellCacheAdAPI();
 	}
 
 	public TableCellRenderer getDefaultRenderer(Class<?> columnClass) {
@@ -739,29 +813,60 @@ public class JTable extends JComponent
 		return null;
 	}
 
+	private boolean autoCreateRowSorter;
+	private boolean updateSelectionOnSort = true;
+	private RowSorter<? extends TableModel> rowSorter;
+
+	/**
+	 * true while a change of the model is forwarded to {@link #rowSorter},
+	 * the table is refreshed after it.
+	 */
+	private boolean isSorterChangeFromModel;
+
+	/**
+	 * the first {@link RowSorterEvent.Type#SORTED} event fired while
+	 * {@link #isSorterChangeFromModel}, its previous mapping is the one
+	 * before the change, null if the mapping did not change.
+	 */
+	private RowSorterEvent sorterChangeFromModel;
+
 	public void setAutoCreateRowSorter(boolean autoCreateRowSorter) {
-		AndroidClassUtil.callEmptyMethod();
+		this.autoCreateRowSorter = autoCreateRowSorter;
+		if (autoCreateRowSorter) {
+			setRowSorter(new TableRowSorter<TableModel>(getModel()));
+		}
 	}
 
 	public boolean getAutoCreateRowSorter() {
-		return false;
+		return autoCreateRowSorter;
 	}
 
 	public void setUpdateSelectionOnSort(boolean update) {
-		AndroidClassUtil.callEmptyMethod();
+		updateSelectionOnSort = update;
 	}
 
 	public boolean getUpdateSelectionOnSort() {
-		return false;
+		return updateSelectionOnSort;
 	}
 
 	public void setRowSorter(RowSorter<? extends TableModel> sorter) {
-		AndroidClassUtil.callEmptyMethod();
+		RowSorter<? extends TableModel> oldRowSorter = rowSorter;
+		if (oldRowSorter == sorter) {
+			return;
+		}
+		if (oldRowSorter != null) {
+			oldRowSorter.removeRowSorterListener(this);
+		}
+		rowSorter = sorter;
+		if (sorter != null) {
+			sorter.addRowSorterListener(this);
+		}
+		clearSelectionAndLeadAnchor();
+		resizeAndRepaint();
 	}
 
 	public RowSorter<? extends TableModel> getRowSorter() {
-		AndroidClassUtil.callEmptyMethod();
-		return null;
+		return rowSorter;
 	}
 
 	/**
@@ -963,6 +1068,7 @@ public class JTable extends JComponent
 		}
 
 		defaultForeground = fg;
+		invalidateCellCacheAdAPI();
 		isForceRefreshTable = true;
 		repaint();
 	}
@@ -972,6 +1078,7 @@ public class JTable extends JComponent
 			return;
 		}
 		defaultBackground = bg;
+		invalidateCellCacheAdAPI();
 		isForceRefreshTable = true;
 		repaint();
 	}
@@ -982,6 +1089,7 @@ public class JTable extends JComponent
 		}
 
 		this.selectionForeground = selectionForeground;
+		invalidateCellCacheAdAPI();
 		isForceRefreshTable = true;
 		repaint();
 	}
@@ -996,6 +1104,7 @@ public class JTable extends JComponent
 		}
 
 		this.selectionBackground = selectionBackground;
+		invalidateCellCacheAdAPI();
 		isForceRefreshTable = true;
 		repaint();
 	}
@@ -1015,14 +1124,26 @@ public class JTable extends JComponent
 	}
 
 	public int convertRowIndexToView(int modelRowIndex) {
+		RowSorter sorter = getRowSorter();
+		if (sorter != null) {
+			return sorter.convertRowIndexToView(modelRowIndex);
+		}
 		return modelRowIndex;
 	}
 
 	public int convertRowIndexToModel(int viewRowIndex) {
+		RowSorter sorter = getRowSorter();
+		if (sorter != null) {
+			return sorter.convertRowIndexToModel(viewRowIndex);
+		}
 		return viewRowIndex;
 	}
 
 	public int getRowCount() {
+		RowSorter sorter = getRowSorter();
+		if (sorter != null) {
+			return sorter.getViewRowCount();
+		}
 		return getModel().getRowCount();
 	}
 
@@ -1071,51 +1192,32 @@ public class JTable extends JComponent
 	}
 
 	public int columnAtPoint(Point point) {
-		if (tableView == null) {
+		if (columnHeaderRow == null) {
 			return -1;
 		}
-		int[] winLoc = new int[2];
-		int[] viewLoc = new int[2];
-		tableView.getLocationInWindow(winLoc);
-		TableRow tableRow = (TableRow) tableView.getChildAt(0);
-		int columnNum = tableRow.getChildCount();
-		for (int i = 1; i < columnNum; i++) {
-			tableRow.getVirtualChildAt(i).getLocationInWindow(viewLoc);
-			int shiftX = viewLoc[0] - winLoc[0];
-			if (i == 1) {
-				if (point.x < shiftX) {
-					return -1;
-				}
+		final int first = isShowSelectedColumn ? 1 : 0;
+		final int columnNum = columnHeaderRow.getChildCount();
+		for (int i = first; i < columnNum; i++) {
+			final View cell = columnHeaderRow.getChildAt(i);
+			if (point.x < cell.getLeft()) {
+				return -1;
 			}
-			if (point.x < shiftX) {
-				return i - 1;
+			if (point.x < cell.getRight()) {
+				return i - first;
 			}
 		}
-		return columnNum - 1;
+		return -1;
 	}
 
 	public int rowAtPoint(Point point) {
-		if (tableView == null) {
+		if (rowListView == null) {
 			return -1;
 		}
-		int[] winLoc = new int[2];
-		int[] viewLoc = new int[2];
-		tableView.getLocationInWindow(winLoc);
-		int rowNum = tableView.getChildCount();
-		for (int i = 1; i < rowNum; i++) {
-			TableRow tableRow = (TableRow) tableView.getChildAt(i);
-			tableRow.getVirtualChildAt(0).getLocationInWindow(viewLoc);
-			int shiftY = viewLoc[1] - winLoc[1];
-			if (i == 1) {
-				if (point.y < shiftY) {
-					return -1;
-				}
-			}
-			if (point.y < shiftY) {
-				return i - 2;
-			}
+		final int y = point.y - rowListView.getTop();
+		if (y < 0) {
+			return -1;
 		}
-		return rowNum - 2;
+		return rowListView.pointToPosition(point.x, y);// ListView.INVALID_POSITION is -1
 	}
 
 	public Rectangle getCellRect(int row, int column, boolean includeSpacing) {
@@ -1229,11 +1331,12 @@ public class JTable extends JComponent
 					return;
 				}
 				synchronized (lockTable) {
+					applyRowChangesAdAPI();
 					if (isForceRefreshTable == true || (refreshRowIdx < 0)
-							|| selectColumnCache.get((Integer) refreshRowIdx) == null) {// 可能更新数据后，先触发rowSelected事件
+							|| findRowHolderAdAPI(refreshRowIdx) == null) {// 可能更新数据后，先触发rowSelected事件
 						isForceRefreshTable = false;
 						refreshRowIdx = -1;
-						buildTableContentAdAPI(-1, getModel().getRowCount() + 1);
+						buildTableContentAdAPI();
 					} else {
 						refreshRowAdAPI(refreshRowIdx);
 						refreshRowIdx = -1;
@@ -1244,414 +1347,854 @@ public class JTable extends JComponent
 	}
 
 	private final void refreshRowAdAPI(int rowIdx) {
-		refreshSelectedColumnAdAPI(rowIdx, selectColumnCache.get((Integer) rowIdx));
-
-		final int ncols = getModel().getColumnCount();
-		for (int j = 0; j < ncols; j++) {
-			final String cacheKey = rowIdx + "_" + j;
-			refreshCellContentAdAPI(rowIdx, j, imageViewCache.get(cacheKey));
+		final RowHolder holder = findRowHolderAdAPI(rowIdx);
+		if (holder != null) {
+			bindRowAdAPI(holder, rowIdx);
 		}
 	}
 
-	private final HashMap<String, ImageView> imageViewCache = new HashMap<String, ImageView>();
-	private final HashMap<Integer, ImageView> selectColumnCache = new HashMap<Integer, ImageView>();
+	/**
+	 * the view of a row of the list and the contents of its cells, rebound to
+	 * another row of the model when the list recycles it.
+	 */
+	private final class RowHolder {
+		final RowView rowView;
+
+		/**
+		 * the cell of the selected column, null if the column is not shown.
+		 */
+		final CellContent selectCell;
+		final CellContent[] cells;
+
+		/**
+		 * the row of the model shown, read by the listeners of the cells.
+		 */
+		int row;
+
+		/**
+		 * the column of the cell with the focus when the row has it, -1 for
+		 * the selected column.
+		 */
+		int focusColumn;
+
+		RowHolder(final int ncols) {
+			selectCell = isShowSelectedColumn ? new CellContent() : null;
+			cells = new CellContent[ncols];
+			for (int i = 0; i < ncols; i++) {
+				cells[i] = new CellContent();
+			}
+			rowView = new RowView(this);
+			rowView.setTag(this);
+		}
+
+		/**
+		 * @param column
+		 *            -1 for the selected column.
+		 */
+		CellContent getCell(final int column) {
+			return (column == -1) ? selectCell : cells[column];
+		}
+
+		/**
+		 * moves {@link #focusColumn} to the next focusable cell toward
+		 * <code>step</code>.
+		 *
+		 * @return false if no cell is focusable that way.
+		 */
+		boolean moveFocusColumn(final int step) {
+			final int first = (selectCell == null) ? 0 : -1;
+			for (int j = focusColumn + step; j >= first && j < cells.length; j += step) {
+				if (getCell(j).isFocusable) {
+					focusColumn = j;
+					return true;
+				}
+			}
+			return false;
+		}
+	}
 
-	private final int minDisplayRow = 0;
+	/**
+	 * the content of a cell, prepared when the row is bound : the bitmap of
+	 * its renderer from {@link #cellCache}, or the drawing of its renderer by
+	 * {@link #rendererPane} recorded into a picture, so that no renderer is
+	 * configured when the row view draws.
+	 */
+	private static final class CellContent {
+		Bitmap bitmap;
+		final Picture picture = new Picture();
+		boolean isRecorded;
+		boolean isFocusable;
+
+		/**
+		 * the size of the bitmap or of the picture.
+		 */
+		final Dimension size = new Dimension();
+
+		void draw(final Canvas canvas) {
+			if (bitmap != null) {
+				canvas.drawBitmap(bitmap, 0, 0, null);
+			} else if (isRecorded) {
+				canvas.drawPicture(picture);
+			}
+		}
+	}
 
 	/**
-	 * @param refreshRowStartIndex
-	 *            -1:tableHeader, 0:first data Row
-	 * @param rowNumber
-	 *            refresh row number after start refresh row index
+	 * the view of a row, it draws all the cells of the row and their grid
+	 * lines, and maps the touches and the keys to the cells. The columns line
+	 * up with the cells of {@link #columnHeaderRow}.
 	 */
-	private void buildTableContentAdAPI(int refreshRowStartIndex, int rowNumber) {
-		if (isForceRefreshTable == true) {
-			updateUI();
-			return;
+	private final class RowView extends View {
+		private final RowHolder holder;
+
+		/**
+		 * the left of each column and the right of the last one.
+		 */
+		private int[] edges;
+		private float touchX;
+
+		RowView(final RowHolder holder) {
+			super(ActivityManager.applicationContext);
+			this.holder = holder;
+			if (Build.VERSION.SDK_INT < 23) {
+				// a picture is drawn into a software canvas only before API 23.
+				setLayerType(View.LAYER_TYPE_SOFTWARE, null);
+			}
+			setFocusableInTouchMode(false);
+			setOnClickListener(new View.OnClickListener() {
+				@Override
+				public void onClick(View v) {
+					clickCellAdAPI(RowView.this.holder, getColumnAt(touchX), getColumnLeft());
+				}
+			});
+			setOnLongClickListener(new View.OnLongClickListener() {
+				@Override
+				public boolean onLongClick(View v) {
+					if (getColumnAt(touchX) == -1) {
+						return false;
+					}
+					buildMouseEvents(getCoordsInTableAdAPI(RowView.this, getColumnLeft()), 2);
+					return true;
+				}
+			});
 		}
 
-		final int ncols = getModel().getColumnCount();
+		/**
+		 * the height of the highest cell.
+		 */
+		int getContentHeight() {
+			int height = (holder.selectCell == null) ? 0 : holder.selectCell.size.height;
+			for (int i = 0; i < holder.cells.length; i++) {
+				height = Math.max(height, holder.cells[i].size.height);
+			}
+			return height + 2 * gridLineWidth;
+		}
 
-		// 有可能删除一行
-		if (rowNumber == getModel().getRowCount() + 1) {
-			tableView.removeAllViews();
+		@Override
+		protected void onMeasure(final int widthMeasureSpec, final int heightMeasureSpec) {
+			setMeasuredDimension(getDefaultSize(getSuggestedMinimumWidth(), widthMeasureSpec),
+					resolveSize(getContentHeight(), heightMeasureSpec));
 		}
 
-		int endRefreshRowIdx = refreshRowStartIndex + rowNumber;
-		if (refreshRowStartIndex == -1) {
-			if (rowNumber < minDisplayRow) {
-				endRefreshRowIdx = refreshRowStartIndex + minDisplayRow;
+		/**
+		 * sets {@link #edges} for <code>width</code>, from the cells of
+		 * {@link #columnHeaderRow} once they are laid out.
+		 */
+		private void layoutColumns(final int width) {
+			final int ncols = holder.cells.length;
+			final int slots = ncols + ((holder.selectCell == null) ? 0 : 1);
+			if (edges == null || edges.length != slots + 1) {
+				edges = new int[slots + 1];
+			}
+			if (columnHeaderRow != null && columnHeaderRow.getChildCount() == slots
+					&& columnHeaderRow.getWidth() == width) {
+				for (int i = 0; i < slots; i++) {
+					edges[i] = columnHeaderRow.getChildAt(i).getLeft();
+				}
+				edges[slots] = columnHeaderRow.getChildAt(slots - 1).getRight();
+				return;
+			}
+			int left = 0;
+			if (holder.selectCell != null) {
+				edges[0] = 0;
+				left = holder.selectCell.size.width + 2 * gridLineWidth;
+			}
+			for (int j = 0; j < ncols; j++) {
+				edges[slots - ncols + j] = left + (width - left) * j / ncols;
+			}
+			edges[slots] = width;
+		}
+
+		/**
+		 * the column at <code>x</code>, -1 for the selected column.
+		 */
+		private int getColumnAt(final float x) {
+			layoutColumns(getWidth());
+			final int first = edges.length - 1 - holder.cells.length;
+			for (int i = edges.length - 2; i > 0; i--) {
+				if (x >= edges[i]) {
+					return i - first;
+				}
 			}
+			return -first;
 		}
-		for (int i = refreshRowStartIndex; i < endRefreshRowIdx; i++) {
 
-			TableRow tableRow = null;
+		/**
+		 * the left of the column at {@link #touchX}.
+		 */
+		private int getColumnLeft() {
+			final int column = getColumnAt(touchX);
+			return edges[column + edges.length - 1 - holder.cells.length];
+		}
 
-			final boolean isTitle = (i == -1);
-			if (isTitle) {
-				if (columnHeaderRow == null) {
-					tableRow = new TableRow(ActivityManager.applicationContext);
-					columnHeaderRow = tableRow;
-				} else {
-					tableRow = columnHeaderRow;
-				}
-				tableRow.removeAllViews();
-			} else {
-				tableRow = new TableRow(ActivityManager.applicationContext);
-			}
-
-			for (int j = (isShowSelectedColumn ? -1 : 0); j < ncols; j++) {
-				final int rowTouchIdx = i;
-				final int columnTouchIdx = j;
-
-				ImageView rendererView;
-				TableCellRenderer cellRenderer;
-
-				if (isTitle) {
-					// Colomn Header
-					rendererView = new ImageView(ActivityManager.applicationContext);
-
-					final String selectColumnName = (String) ResourceUtil.get(7003);
-					Object value = (columnTouchIdx == -1) ? selectColumnName
-							: getModel().getColumnName(columnTouchIdx);
-					cellRenderer = getTableHeader().getDefaultRenderer();
-					Component m = cellRenderer.getTableCellRendererComponent(this, value, false,
-							false, 0, j);
-					rendererView.setImageBitmap(AndroidUIUtil.getViewBitmap(m.getPeerAdAPI()));
-
-					rendererView.setFocusable(false);
-					rendererView.setFocusableInTouchMode(false);
-
-					// Click on tableHeader
-					if (false) {
-						rendererView.setOnClickListener(new View.OnClickListener() {
-							@Override
-							public void onClick(View v) {
-								// mousePressed
-								// JComponent jComponent =
-								// (JComponent)component;
-								// {
-								// MouseEvent swingMouseEvent =
-								// new MouseEvent(component,
-								// MouseEvent.MOUSE_PRESSED,
-								// System.currentTimeMillis(), 0, 0, 0, 0,
-								// false, MouseEvent.BUTTON1);
-								// jComponent.processMouseEventAdAPI(swingMouseEvent);
-								// }
-
-								// mouseReleased
-								// {
-								// MouseEvent swingMouseEvent =
-								// new MouseEvent(component,
-								// MouseEvent.MOUSE_RELEASED,
-								// System.currentTimeMillis(), 0, 0, 0, 0,
-								// false, MouseEvent.BUTTON1);
-								// jComponent.processMouseEventAdAPI(swingMouseEvent);
-								// }
-
-								// mouseClicked
-								// {
-								// MouseEvent swingMouseEvent =
-								// new MouseEvent(component,
-								// MouseEvent.MOUSE_CLICKED,
-								// System.currentTimeMillis(), 0, 0, 0, 0,
-								// false, MouseEvent.BUTTON1);
-								// jComponent.processMouseEventAdAPI(swingMouseEvent);
-								// }
-							}
-						});
+		@Override
+		public boolean onTouchEvent(final android.view.MotionEvent event) {
+			if (event.getAction() == android.view.MotionEvent.ACTION_DOWN) {
+				touchX = event.getX();
+			}
+			return super.onTouchEvent(event);
+		}
+
+		@Override
+		protected void onFocusChanged(final boolean gainFocus, final int direction,
+				final Rect previouslyFocusedRect) {
+			super.onFocusChanged(gainFocus, direction, previouslyFocusedRect);
+			if (gainFocus) {
+				if (holder.getCell(holder.focusColumn).isFocusable == false) {
+					holder.focusColumn = (holder.selectCell == null) ? 0 : -1;
+					if (holder.getCell(holder.focusColumn).isFocusable == false) {
+						holder.moveFocusColumn(1);
 					}
-				} else if (columnTouchIdx == -1) {
-					// Selected Column
-					rendererView = buildSelectedColumnAdAPI(rowTouchIdx);
-					cellRenderer = refreshSelectedColumnAdAPI(rowTouchIdx, rendererView);
-				} else {
-					// User Data
-					final String cacheKey = rowTouchIdx + "_" + columnTouchIdx;
-					rendererView = imageViewCache.get(cacheKey);
-					if (rendererView == null) {
-						rendererView = new ImageView(ActivityManager.applicationContext) {
-							public boolean onKeyDown(int keyCode, android.view.KeyEvent event) {
-								if (event.getAction() == android.view.KeyEvent.ACTION_UP) {
-									if (keyCode == android.view.KeyEvent.KEYCODE_DPAD_CENTER) {
-										actionOnCellAdAPI(rowTouchIdx, columnTouchIdx);
-										return true;
-									}
-								}
-								return super.onKeyDown(keyCode, event);
-							}
-						};
-
-						imageViewCache.put(cacheKey, rendererView);
+				}
+				if (holder.focusColumn >= 0) {
+					focusCellAdAPI(holder.row);
+				}
+			}
+			invalidate();
+		}
+
+		@Override
+		public boolean onKeyDown(final int keyCode, final android.view.KeyEvent event) {
+			switch (keyCode) {
+			case android.view.KeyEvent.KEYCODE_DPAD_LEFT:
+			case android.view.KeyEvent.KEYCODE_DPAD_RIGHT:
+				if (holder.moveFocusColumn(
+						(keyCode == android.view.KeyEvent.KEYCODE_DPAD_LEFT) ? -1 : 1)) {
+					if (holder.focusColumn >= 0) {
+						focusCellAdAPI(holder.row);
 					}
+					invalidate();
+					return true;
+				}
+				break;
+			case android.view.KeyEvent.KEYCODE_DPAD_CENTER:
+			case android.view.KeyEvent.KEYCODE_ENTER:
+				if (holder.focusColumn >= 0) {
+					JTable.this.processKeyEvent(new KeyEvent(JTable.this, KeyEvent.KEY_TYPED,
+							System.currentTimeMillis(), 0, KeyEvent.VK_ENTER));
+				}
+				return true;
+			}
+			return super.onKeyDown(keyCode, event);
+		}
+
+		@Override
+		public boolean onKeyUp(final int keyCode, final android.view.KeyEvent event) {
+			if (keyCode == android.view.KeyEvent.KEYCODE_DPAD_CENTER
+					|| keyCode == android.view.KeyEvent.KEYCODE_ENTER) {
+				if (holder.focusColumn >= 0) {
+					final long currMS = System.currentTimeMillis();
+					JTable.this.processKeyEvent(new KeyEvent(JTable.this, KeyEvent.KEY_RELEASED,
+							currMS, 0, KeyEvent.VK_ENTER));
+					JTable.this.processKeyEvent(new KeyEvent(JTable.this, KeyEvent.KEY_PRESSED,
+							currMS, 0, KeyEvent.VK_ENTER));
+				} else if (holder.selectCell.isFocusable) {
+					actionOnSelectedColumnAdAPI(holder.row);
+				}
+				return true;
+			}
+			return super.onKeyUp(keyCode, event);
+		}
+
+		@Override
+		protected void onDraw(final Canvas canvas) {
+			final int width = getWidth();
+			final int height = getHeight();
+			layoutColumns(width);
+			final CanvasGraphics g = getCellGraphicsAdAPI(canvas);
+			final int ncols = holder.cells.length;
+			final int first = edges.length - 1 - ncols;
+			final boolean isFocused = isFocused();
+			for (int i = 0; i < edges.length - 1; i++) {
+				final int column = i - first;
+				final CellContent cell = holder.getCell(column);
+				final int cellWidth = edges[i + 1] - edges[i];
+				final int saveCount = canvas.save();
+				canvas.translate(edges[i], 0);
+				if (isFocused && column == holder.focusColumn && cell.isFocusable) {
+					final Drawable focused = getFocusedCellBackgroundAdAPI();
+					focused.setBounds(0, 0, cellWidth, height);
+					focused.draw(canvas);
+				}
+				canvas.clipRect(gridLineWidth, gridLineWidth, cellWidth - gridLineWidth, height
+						- gridLineWidth);
+				canvas.translate((cellWidth - cell.size.width) / 2,
+						(height - cell.size.height) / 2);
+				cell.draw(canvas);
+				canvas.restoreToCount(saveCount);
+
+				canvas.save();
+				canvas.translate(edges[i], 0);
+				drawCellBorder(ncols, column, g, cellWidth, height, gridColor, false);
+				canvas.restoreToCount(saveCount);
+			}
+			g.setCanvasAdAPI(null);
+		}
+	}
 
-					cellRenderer = refreshCellContentAdAPI(rowTouchIdx, columnTouchIdx,
-							rendererView);
+	/**
+	 * the rows of the model as the items of {@link #rowListView}, only the
+	 * visible rows have views, which are recycled on scrolling.
+	 */
+	private final class RowAdapter extends BaseAdapter {
+		/**
+		 * the row count taken at the last refresh, so that a change of the
+		 * model is seen by the list with its notification only.
+		 */
+		int rowCount;
 
-					final View rendererTouch = rendererView;
-					rendererView.setOnFocusChangeListener(new View.OnFocusChangeListener() {
-						@Override
-						public void onFocusChange(View v, boolean hasFocus) {
-							if (hasFocus) {
-								if (isSelectedWhenFocus) {
-									try {
-										if (currentFocusRowNumber >= 0) {
-											if (JTable.this.isRowSelected(currentFocusRowNumber)) {
-												JTable.this.removeRowSelectionInterval(rowTouchIdx,
-														rowTouchIdx);
-											}
-										}
-
-										JTable.this.setRowSelectionInterval(rowTouchIdx,
-												rowTouchIdx);
-									} catch (Throwable e) {
-									}
-								}
-								currentFocusRowNumber = rowTouchIdx;
-							}
-						}
-					});
-					rendererView.setOnKeyListener(new View.OnKeyListener() {
-						@Override
-						public boolean onKey(View v, int keyCode, android.view.KeyEvent event) {
-							if (keyCode == android.view.KeyEvent.KEYCODE_DPAD_CENTER
-									|| keyCode == android.view.KeyEvent.KEYCODE_ENTER) {
-								int action = event.getAction();
-								if (action == android.view.KeyEvent.ACTION_DOWN) {
-									KeyEvent awtEvent = new KeyEvent(JTable.this,
-											KeyEvent.KEY_TYPED, System.currentTimeMillis(), 0,
-											KeyEvent.VK_ENTER);
-									JTable.this.processKeyEvent(awtEvent);
-
-									return true;
-								} else if (action == android.view.KeyEvent.ACTION_UP) {
-									KeyEvent awtEvent = new KeyEvent(JTable.this,
-											KeyEvent.KEY_RELEASED, System.currentTimeMillis(), 0,
-											KeyEvent.VK_ENTER);
-									JTable.this.processKeyEvent(awtEvent);
-
-									awtEvent = new KeyEvent(JTable.this, KeyEvent.KEY_PRESSED,
-											System.currentTimeMillis(), 0, KeyEvent.VK_ENTER);
-									JTable.this.processKeyEvent(awtEvent);
-
-									return true;
-								}
-							}
-							return false;
-						}
-					});
-					rendererView.setOnLongClickListener(new View.OnLongClickListener() {
-						PointerCoords coords;
+		@Override
+		public int getCount() {
+			return rowCount;
+		}
 
-						@Override
-						public boolean onLongClick(View v) {
-							if (coords == null) {
-								final int[] tableLoc = new int[2];
-								final int[] rendererViewLoc = new int[2];
-								coords = new PointerCoords();
-								coords.x = coords.y = 5;
-								tableView.getLocationOnScreen(tableLoc);
-								rendererTouch.getLocationOnScreen(rendererViewLoc);
-								coords.x += rendererViewLoc[0] - tableLoc[0];
-								coords.y += rendererViewLoc[1] - tableLoc[1];
-							}
-							buildMouseEvents(coords, 2);
-							return true;
-						}
-					});
-					rendererView.setOnClickListener(new View.OnClickListener() {
-						PointerCoords coords;
+		@Override
+		public Object getItem(final int position) {
+			return null;
+		}
 
+		@Override
+		public long getItemId(final int position) {
+			return position;
+		}
+
+		@Override
+		public View getView(final int position, final View convertView, final ViewGroup parent) {
+			final int ncols = getModel().getColumnCount();
+			RowHolder holder = (convertView == null) ? null : (RowHolder) convertView.getTag();
+			if (holder == null || holder.cells.length != ncols
+					|| (holder.selectCell != null) != isShowSelectedColumn) {
+				holder = buildRowAdAPI(ncols);
+			}
+			bindRowAdAPI(holder, position);
+
+			if (position == 0 && isRequireFirstRowFocusAfterRefreshContent) {
+				isRequireFirstRowFocusAfterRefreshContent = false;
+				final int col = columnIdxRequireFirstRowFocusAfterRefreshContent;
+				if (col >= 0 && col < ncols) {
+					holder.focusColumn = col;
+					final View focusView = holder.rowView;
+					focusView.post(new Runnable() {
 						@Override
-						public void onClick(View v) {
-							JTable.this.setRowSelectionInterval(rowTouchIdx, rowTouchIdx);
-							actionOnCellAdAPI(rowTouchIdx, columnTouchIdx);
-							rendererTouch.requestFocus();
-
-							if (coords == null) {
-								final int[] tableLoc = new int[2];
-								final int[] rendererViewLoc = new int[2];
-								coords = new PointerCoords();
-								coords.x = coords.y = 5;
-								tableView.getLocationOnScreen(tableLoc);
-								rendererTouch.getLocationOnScreen(rendererViewLoc);
-								coords.x += rendererViewLoc[0] - tableLoc[0];
-								coords.y += rendererViewLoc[1] - tableLoc[1];
-							}
-							buildMouseEvents(coords, 1);
+						public void run() {
+							focusView.requestFocus();
 						}
-						// final PointerCoords coords = new PointerCoords();
-						// final int[] tableLoc = new int[2];
-						// final int[] rendererViewLoc = new int[2];
-						// @Override
-						// public boolean onTouch(View v, MotionEvent event) {
-						// final int action = event.getAction();
-						// if (action == MotionEvent.ACTION_UP) {
-						// JTable.this.setRowSelectionInterval(rowTouchIdx,
-						// rowTouchIdx);
-						// actionOnCellAdAPI(rowTouchIdx, columnTouchIdx);
-						// rendererTouch.requestFocus();
-						//
-						// event.getPointerCoords(0, coords);
-						// tableView.getLocationOnScreen(tableLoc);
-						// rendererTouch.getLocationOnScreen(rendererViewLoc);
-						// coords.x += rendererViewLoc[0] - tableLoc[0];
-						// coords.y += rendererViewLoc[1] - tableLoc[1];
-						// buildMouseEvents(coords, 1);
-						// }
-						//
-						// return true;
-						// }
 					});
 				}
+			}
+			return holder.rowView;
+		}
+	}
 
-				final LinearLayout cellWrapper = new LinearLayout(ActivityManager.applicationContext);
-				if (isTitle) {
-					cellWrapper.setBackgroundDrawable(new Drawable() {
-						@Override
-						public void setColorFilter(ColorFilter arg0) {
-						}
+	private RowAdapter rowAdapter;
 
-						@Override
-						public void setAlpha(int arg0) {
-						}
+	/**
+	 * scrolls the rows to the first or to the last one, for
+	 * {@link JScrollBar#setValue(int)}.
+	 */
+	void fullScrollAdAPI(final boolean isUp) {
+		AndroidUIUtil.runOnUiThread(new Runnable() {
+			@Override
+			public void run() {
+				if (rowListView != null) {
+					rowListView.setSelection(isUp ? 0 : Math.max(0, rowAdapter.getCount() - 1));
+				}
+			}
+		});
+	}
 
-						@Override
-						public int getOpacity() {
-							return 0;
-						}
+	/**
+	 * @return null if <code>row</code> is not shown.
+	 */
+	private RowHolder findRowHolderAdAPI(final int row) {
+		if (rowListView == null) {
+			return null;
+		}
+		final int count = rowListView.getChildCount();
+		for (int i = 0; i < count; i++) {
+			final Object tag = rowListView.getChildAt(i).getTag();
+			if (tag instanceof RowHolder && ((RowHolder) tag).row == row) {
+				return (RowHolder) tag;
+			}
+		}
+		return null;
+	}
 
-						@Override
-						public void draw(Canvas arg0) {
-							int width = cellWrapper.getWidth();
-							int height = cellWrapper.getHeight();
+	private final int minDisplayRow = 0;
 
-							drawCellBorder(ncols, columnTouchIdx, arg0, width, height,
-									AndroidUIUtil.WINDOW_TABLE_HEADER_BORDER_COLOR, true);
-						}
-					});
-				} else {
-					cellWrapper.setBackgroundDrawable(new Drawable() {
-						@Override
-						public void setColorFilter(ColorFilter arg0) {
-						}
+	/**
+	 * rebuilds the column header and rebinds the visible rows, the views of
+	 * the other rows are built when scrolled into view.
+	 */
+	private void buildTableContentAdAPI() {
+		final int ncols = getModel().getColumnCount();
 
-						@Override
-						public void setAlpha(int arg0) {
-						}
+		buildHeaderRowAdAPI(ncols);
 
-						@Override
-						public int getOpacity() {
-							return 0;
-						}
+		rowAdapter.rowCount = Math.max(minDisplayRow, getRowCount());
+		rowAdapter.notifyDataSetChanged();
+	}
 
-						@Override
-						public void draw(Canvas arg0) {
-							int width = cellWrapper.getWidth();
-							int height = cellWrapper.getHeight();
+	private void buildHeaderRowAdAPI(final int ncols) {
+		columnHeaderRow.removeAllViews();
+
+		for (int j = (isShowSelectedColumn ? -1 : 0); j < ncols; j++) {
+			final int columnTouchIdx = j;
 
-							drawCellBorder(ncols, columnTouchIdx, arg0, width, height, gridColor,
-									false);
+			// Colomn Header
+			final ImageView rendererView = new ImageView(ActivityManager.applicationContext);
+
+			final String selectColumnName = (String) ResourceUtil.get(7003);
+			Object value = (columnTouchIdx == -1) ? selectColumnName
+					: getModel().getColumnName(columnTouchIdx);
+			TableCellRenderer cellRenderer = getTableHeader().getDefaultRenderer();
+			Component m = cellRenderer.getTableCellRendererComponent(this, value, false, false, 0,
+					j);
+			rendererView.setImageBitmap(AndroidUIUtil.getViewBitmap(m.getPeerAdAPI()));
+
+			rendererView.setFocusable(false);
+			rendererView.setFocusableInTouchMode(false);
+			if (columnTouchIdx >= 0) {
+				rendererView.setOnClickListener(new View.OnClickListener() {
+					@Override
+					public void onClick(View v) {
+						final RowSorter<? extends TableModel> sorter = getRowSorter();
+						if (sorter != null) {
+							sorter.toggleSortOrder(convertColumnIndexToModel(columnTouchIdx));
 						}
-					});
-				}
-				{
-					LinearLayout.LayoutParams itemLP;
-					if (isTitle || (cellRenderer instanceof BooleanRenderer)// 布尔类型的JCheckBox，LinearLayout最大化后，能使图标居中
-					) {
-						itemLP = new LinearLayout.LayoutParams(LayoutParams.MATCH_PARENT,
-								LayoutParams.MATCH_PARENT);// LayoutParams.WRAP_CONTENT
-					} else {
-						itemLP = new LinearLayout.LayoutParams(LayoutParams.WRAP_CONTENT,
-								LayoutParams.WRAP_CONTENT);
-
-						// 边增加一个像素，以防内容盖住grid line
-						itemLP.leftMargin = gridLineWidth;
-						itemLP.topMargin = gridLineWidth;
-						itemLP.rightMargin = gridLineWidth;
-						itemLP.bottomMargin = gridLineWidth;
 					}
-					itemLP.gravity = (Gravity.CENTER_HORIZONTAL | Gravity.CENTER_VERTICAL);// |
-																							// Gravity.CENTER)
-					AndroidUIUtil.addView(cellWrapper, rendererView, itemLP, viewRelation);
+				});
+			}
+
+			final LinearLayout cellWrapper = new LinearLayout(ActivityManager.applicationContext);
+			cellWrapper.setBackgroundDrawable(new Drawable() {
+				@Override
+				public void setColorFilter(ColorFilter arg0) {
 				}
-				TableRow.LayoutParams lp = new TableRow.LayoutParams(
-						LinearLayout.LayoutParams.MATCH_PARENT,
-						LinearLayout.LayoutParams.MATCH_PARENT, 1.0F);
 
-				cellWrapper.setFocusable(false);
-				cellWrapper.setFocusableInTouchMode(false);
-				AndroidUIUtil.addView(tableRow, cellWrapper, lp, viewRelation);
-			}
+				@Override
+				public void setAlpha(int arg0) {
+				}
 
-			if (isTitle) {
-				tableRow.setBackgroundResource(
-						HCRUtil.getResource(HCRUtil.R_drawable_table_header));
+				@Override
+				public int getOpacity() {
+					return 0;
+				}
+
+				@Override
+				public void draw(Canvas arg0) {
+					int width = cellWrapper.getWidth();
+					int height = cellWrapper.getHeight();
+
+					drawCellBorder(ncols, columnTouchIdx,
+							new CanvasGraphics(arg0, getScreenAdapterAdAPI()), width, height,
+							AndroidUIUtil.WINDOW_TABLE_HEADER_BORDER_COLOR, true);
+				}
+			});
+			{
+				final LinearLayout.LayoutParams itemLP = new LinearLayout.LayoutParams(
+						LayoutParams.MATCH_PARENT, LayoutParams.MATCH_PARENT);
+				itemLP.gravity = (Gravity.CENTER_HORIZONTAL | Gravity.CENTER_VERTICAL);
+				AndroidUIUtil.addView(cellWrapper, rendererView, itemLP, viewRelation);
 			}
 
-			TableLayout.LayoutParams lp = new TableLayout.LayoutParams(LayoutParams.MATCH_PARENT,
-					LayoutParams.MATCH_PARENT, 1.0F);
+			cellWrapper.setFocusable(false);
+			cellWrapper.setFocusableInTouchMode(false);
+			AndroidUIUtil.addView(columnHeaderRow, cellWrapper, buildColumnLayoutParams(j),
+					viewRelation);
+		}
+	}
+
+	/**
+	 * the columns of the header and of the rows share the width by the same
+	 * weights, so that they line up without measuring every row.
+	 */
+	private static LinearLayout.LayoutParams buildColumnLayoutParams(final int column) {
+		if (column == -1) {
+			return new LinearLayout.LayoutParams(LayoutParams.WRAP_CONTENT,
+					LayoutParams.MATCH_PARENT, 0.0F);
+		}
+		return new LinearLayout.LayoutParams(0, LayoutParams.MATCH_PARENT, 1.0F);
+	}
+
+	/**
+	 * builds the view of a row, bound later by
+	 * {@link #bindRowAdAPI(RowHolder, int)}.
+	 */
+	private RowHolder buildRowAdAPI(final int ncols) {
+		final RowHolder holder = new RowHolder(ncols);
+		holder.rowView.addOnLayoutChangeListener(new View.OnLayoutChangeListener() {
+			@Override
+			public void onLayoutChange(View v, int left, int top, int right, int bottom,
+					int oldLeft, int oldTop, int oldRight, int oldBottom) {
+				setLaidOutRowHeightAdAPI(holder.row, bottom - top);
+			}
+		});
+		return holder;
+	}
 
-			lp.gravity = (Gravity.CENTER_HORIZONTAL | Gravity.CENTER_VERTICAL | Gravity.CENTER);
+	/**
+	 * prepares the cells of <code>row</code> of the model into
+	 * <code>holder</code>, then lays out or redraws its view.
+	 */
+	private void bindRowAdAPI(final RowHolder holder, final int row) {
+		holder.row = row;
+		final RowView rowView = holder.rowView;
+		final int oldHeight = rowView.getContentHeight();
+		boolean isFocusable = false;
+		if (holder.selectCell != null) {
+			final boolean selectable = (getRowCount() > row)
+					? ((selectableRow != null) ? selectableRow.isSelectable(row) : true)
+					: false;// 无内容时，绘制空白格，故无效。
+			refreshSelectedColumnAdAPI(row, holder.selectCell);
+			holder.selectCell.isFocusable = selectable;
+			isFocusable = selectable;
+		}
+		final CellContent[] cells = holder.cells;
+		for (int j = 0; j < cells.length; j++) {
+			refreshCellContentAdAPI(row, j, cells[j]);
+			isFocusable |= cells[j].isFocusable;
+		}
+		rowView.setFocusable(isFocusable);
+		if (rowView.getContentHeight() != oldHeight) {
+			rowView.requestLayout();
+		}
+		rowView.invalidate();
+	}
 
-			AndroidUIUtil.addView(tableView, tableRow, i + 1, lp, viewRelation);
+	/**
+	 * the click on the cell of <code>column</code> of the row of
+	 * <code>holder</code>.
+	 *
+	 * @param column
+	 *            -1 for the selected column.
+	 * @param left
+	 *            the left of the cell in the row view.
+	 */
+	private void clickCellAdAPI(final RowHolder holder, final int column, final int left) {
+		if (holder.getCell(column).isFocusable == false) {
+			return;
 		}
+		final int rowTouchIdx = holder.row;
+		if (column == -1) {
+			actionOnSelectedColumnAdAPI(rowTouchIdx);
+			return;
+		}
+		JTable.this.setRowSelectionInterval(rowTouchIdx, rowTouchIdx);
+		actionOnCellAdAPI(rowTouchIdx, column);
+		holder.focusColumn = column;
+		holder.rowView.requestFocus();
+		holder.rowView.invalidate();
+
+		buildMouseEvents(getCoordsInTableAdAPI(holder.rowView, left), 1);
+	}
 
-		if (isRequireFirstRowFocusAfterRefreshContent) {
-			isRequireFirstRowFocusAfterRefreshContent = false;
+	/**
+	 * the cell of <code>row</code> got the focus.
+	 */
+	private void focusCellAdAPI(final int rowTouchIdx) {
+		if (isSelectedWhenFocus) {
 			try {
-				TableRow tRow = (TableRow) tableView.getChildAt(1);
-				tRow.getChildAt(columnIdxRequireFirstRowFocusAfterRefreshContent + 1)
-						.requestFocus();
+				if (currentFocusRowNumber >= 0) {
+					if (JTable.this.isRowSelected(currentFocusRowNumber)) {
+						JTable.this.removeRowSelectionInterval(rowTouchIdx, rowTouchIdx);
+					}
+				}
+
+				JTable.this.setRowSelectionInterval(rowTouchIdx, rowTouchIdx);
 			} catch (Throwable e) {
 			}
 		}
+		currentFocusRowNumber = rowTouchIdx;
+	}
+
+	/**
+	 * the point of the cell at <code>left</code> in the row view
+	 * <code>rowView</code> in the coordinates of this table.
+	 */
+	private PointerCoords getCoordsInTableAdAPI(final View rowView, final int left) {
+		final int[] tableLoc = new int[2];
+		final int[] rendererViewLoc = new int[2];
+		final PointerCoords coords = new PointerCoords();
+		coords.x = coords.y = 5;
+		tableView.getLocationOnScreen(tableLoc);
+		rowView.getLocationOnScreen(rendererViewLoc);
+		coords.x += left + rendererViewLoc[0] - tableLoc[0];
+		coords.y += rendererViewLoc[1] - tableLoc[1];
+		return coords;
 	}
 
 	private final DefaultTableCellRenderer empty_dtcr = new DefaultTableCellRenderer();
 
-	private final TableCellRenderer refreshCellContentAdAPI(int row, int col,
-			ImageView rendererView) {
-		// refreshSelectedColumnAdAPI(row, selectColumnCache.get((Integer)row));
+	/**
+	 * paints the renderers into the cells, see {@link CellContent}.
+	 */
+	private final CellRendererPane rendererPane = new CellRendererPane();
 
-		TableCellRenderer cellRenderer;
-		Object value = null;
-		try {
-			value = getModel().getValueAt(row, col);
-		} catch (Exception e) {
+	/**
+	 * targets the canvas of the cell recorded or of the row view being drawn,
+	 * in UI thread.
+	 */
+	private CanvasGraphics cellGraphics;
+
+	/**
+	 * the rendered cells of the renderers not painted by
+	 * {@link #rendererPane}, used on the UI thread only.
+	 */
+	private final CellBitmapCache cellCache = new CellBitmapCache(
+			Runtime.getRuntime().maxMemory() / 32);
+
+	/**
+	 * the version of {@link #cellCache}, a new one drops all the cells
+	 * rendered before at the next lookup in UI thread.
+	 */
+	private volatile int cellCacheVersion;
+
+	/**
+	 * the rendering of all the cells changed.
+	 */
+	private void invalidateCellCacheAdAPI() {
+		cellCacheVersion++;
+	}
+
+	private static final int ROWS_UPDATED = 0;
+	private static final int ROWS_INSERTED = 1;
+	private static final int ROWS_DELETED = 2;
+	private static final int ROWS_SELECTED = 3;
+
+	/**
+	 * the changes of rows not applied to {@link #cellCache} and to the row
+	 * views yet, in the order of the events, guarded by itself. Each is
+	 * <code>{kind, firstRow, lastRow, column}</code>.
+	 */
+	private final ArrayList<int[]> pendingRowChanges = new ArrayList<int[]>();
+	private boolean isRowChangesPosted;
+
+	private final Runnable applyRowChangesRunnable = new Runnable() {
+		@Override
+		public void run() {
+			final TableModel lockTable = getModel();
+			if (lockTable == null) {
+				return;
+			}
+			synchronized (lockTable) {
+				applyRowChangesAdAPI();
+			}
 		}
-		if (value == null) {
-			rendererView.setFocusable(false);
-			rendererView.setFocusableInTouchMode(false);
-			rendererView.setClickable(false);
+	};
 
-			Component m = empty_dtcr.getTableCellRendererComponent(this, value, isRowSelected(row),
-					false, row, col);
-			rendererView.setImageBitmap(AndroidUIUtil.getViewBitmap(m.getPeerAdAPI()));
-			return empty_dtcr;
+	/**
+	 * queues a change of the rows <code>firstRow</code> to
+	 * <code>lastRow</code>, the changes queued before the UI thread takes them
+	 * are applied in one pass.
+	 *
+	 * @param column
+	 *            {@link TableModelEvent#ALL_COLUMNS} for all of them.
+	 */
+	private void postRowChangeAdAPI(final int kind, final int firstRow, final int lastRow,
+			final int column) {
+		synchronized (pendingRowChanges) {
+			pendingRowChanges.add(new int[] { kind, firstRow, lastRow, column });
+			if (isRowChangesPosted) {
+				return;
+			}
+			isRowChangesPosted = true;
+		}
+		AndroidUIUtil.postOnUiThread(applyRowChangesRunnable);
+	}
+
+	/**
+	 * moves or drops the cached cells of the queued changes, then rebinds the
+	 * visible rows in their ranges, or all the visible rows if the number of
+	 * rows changed. It runs in UI thread.
+	 */
+	private void applyRowChangesAdAPI() {
+		final int[][] changes;
+		synchronized (pendingRowChanges) {
+			isRowChangesPosted = false;
+			if (pendingRowChanges.size() == 0) {
+				return;
+			}
+			changes = pendingRowChanges.toArray(new int[pendingRowChanges.size()][]);
+			pendingRowChanges.clear();
+		}
+
+		boolean isCountChanged = false;
+		for (int i = 0; i < changes.length; i++) {
+			final int[] change = changes[i];
+			final int firstRow = change[1];
+			final int lastRow = change[2];
+			switch (change[0]) {
+			case ROWS_UPDATED:
+				cellCache.invalidate(firstRow, lastRow, change[3]);
+				break;
+			case ROWS_INSERTED:
+				cellCache.insertRows(firstRow, lastRow - firstRow + 1);
+				isCountChanged = true;
+				break;
+			case ROWS_DELETED:
+				cellCache.deleteRows(firstRow, lastRow - firstRow + 1);
+				isCountChanged = true;
+				break;
+			}
 		}
 
-		boolean isCellEditable = getModel().isCellEditable(row, col);
-		cellRenderer = getCellRenderer(row, col);// getColumnModel().getColumn(j).getCellRenderer();
-		Component m = cellRenderer.getTableCellRendererComponent(this, value, isRowSelected(row),
+		if (rowListView == null || isForceRefreshTable) {
+			return;
+		}
+		if (isCountChanged) {
+			rowAdapter.rowCount = Math.max(minDisplayRow, getRowCount());
+			rowAdapter.notifyDataSetChanged();
+			return;
+		}
+		final int count = rowListView.getChildCount();
+		for (int i = 0; i < count; i++) {
+			final Object tag = rowListView.getChildAt(i).getTag();
+			if (tag instanceof RowHolder) {
+				final RowHolder holder = (RowHolder) tag;
+				for (int j = 0; j < changes.length; j++) {
+					if (holder.row >= changes[j][1] && holder.row <= changes[j][2]) {
+						bindRowAdAPI(holder, holder.row);
+						break;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * the bitmap of the cell from {@link #cellCache}, rendered on a miss.
+	 */
+	private Bitmap getCellBitmapAdAPI(final TableCellRenderer cellRenderer, final Object value,
+			final boolean isSelected, final boolean isTransparent, final int row, final int col,
+			final int cacheColumn) {
+		cellCache.setVersion(cellCacheVersion);
+		final long key = CellBitmapCache.keyOf(row, cacheColumn, isSelected);
+		Bitmap bitmap = cellCache.get(key);
+		if (bitmap == null) {
+			final Component m = prepareCellRendererAdAPI(cellRenderer, value, isSelected,
+					isTransparent, row, col);
+			bitmap = AndroidUIUtil.getViewBitmap(m.getPeerAdAPI());
+			if (bitmap != null) {
+				cellCache.put(key, bitmap);
+			}
+		}
+		return bitmap;
+	}
+
+	/**
+	 * the renderer configured for the cell, with a transparent background if
+	 * <code>isTransparent</code>.
+	 */
+	private Component prepareCellRendererAdAPI(final TableCellRenderer cellRenderer,
+			final Object value, final boolean isSelected, final boolean isTransparent,
+			final int row, final int col) {
+		final Component m = cellRenderer.getTableCellRendererComponent(this, value, isSelected,
 				false, row, col);
-		if (isCellEditable) {
+		if (isTransparent) {
 			m.setBackground(AndroidUIUtil.transFullColor);
 		}
-		rendererView.setImageBitmap(AndroidUIUtil.getViewBitmap(m.getPeerAdAPI()));
+		return m;
+	}
 
-		if (isCellEditable || (focusableColumn != null && focusableColumn.isFocusable(col))) {
-			rendererView.setFocusable(true);
-			rendererView.setFocusableInTouchMode(false);
-			rendererView.setClickable(true);
+	/**
+	 * prepares <code>cell</code> : the bitmap of the renderer from
+	 * {@link #cellCache}, or its drawing by {@link #rendererPane} recorded if
+	 * the pane paints it directly.
+	 */
+	private void showCellAdAPI(final CellContent cell, final TableCellRenderer cellRenderer,
+			final Object value, final boolean isSelected, final boolean isTransparent,
+			final int row, final int col, final int cacheColumn) {
+		final Component m = prepareCellRendererAdAPI(cellRenderer, value, isSelected,
+				isTransparent, row, col);
+		if (rendererPane.isPaintedDirectlyAdAPI(m) == false) {
+			final Bitmap bitmap = getCellBitmapAdAPI(cellRenderer, value, isSelected,
+					isTransparent, row, col, cacheColumn);
+			cell.bitmap = bitmap;
+			cell.isRecorded = false;
+			cell.size.width = (bitmap == null) ? 0 : bitmap.getWidth();
+			cell.size.height = (bitmap == null) ? 0 : bitmap.getHeight();
+			return;
+		}
 
-			rendererView.setBackgroundResource(HCRUtil.getResource(HCRUtil.R_drawable_tree_node));
-		} else {
-			rendererView.setFocusable(false);
-			rendererView.setFocusableInTouchMode(false);
-			rendererView.setClickable(false);
+		cell.bitmap = null;
+		rendererPane.getPreferredSizeAdAPI(m, cell.size);
+		final CanvasGraphics g = getCellGraphicsAdAPI(cell.picture.beginRecording(
+				cell.size.width, cell.size.height));
+		rendererPane.paintComponent(g, m, this, 0, 0, cell.size.width, cell.size.height);
+		g.setCanvasAdAPI(null);
+		cell.picture.endRecording();
+		cell.isRecorded = true;
+	}
+
+	/**
+	 * {@link #cellGraphics} targeting <code>canvas</code>.
+	 */
+	private CanvasGraphics getCellGraphicsAdAPI(final Canvas canvas) {
+		if (cellGraphics == null) {
+			cellGraphics = new CanvasGraphics((Canvas) null, getScreenAdapterAdAPI());
+		}
+		cellGraphics.setCanvasAdAPI(canvas);
+		return cellGraphics;
+	}
+
+	/**
+	 * the background of the focused cell, in UI thread.
+	 */
+	private Drawable getFocusedCellBackgroundAdAPI() {
+		if (focusedCellBackground == null) {
+			focusedCellBackground = ActivityManager.applicationContext.getResources().getDrawable(
+					HCRUtil.getResource(HCRUtil.R_drawable_tree_node));
+			focusedCellBackground.setState(FOCUSED_STATE);
+		}
+		return focusedCellBackground;
+	}
+
+	private static final int[] FOCUSED_STATE = { android.R.attr.state_focused };
+	private Drawable focusedCellBackground;
+
+	private final void refreshCellContentAdAPI(int row, int col, CellContent cell) {
+		Object value = null;
+		int modelRow = row;
+		try {
+			modelRow = convertRowIndexToModel(row);
+			value = getModel().getValueAt(modelRow, col);
+		} catch (Exception e) {
 		}
-		return cellRenderer;
+		final boolean isSelected = isRowSelected(row);
+		if (value == null) {
+			cell.isFocusable = false;
+
+			showCellAdAPI(cell, empty_dtcr, value, isSelected, false, row, col, col);
+			return;
+		}
+
+		boolean isCellEditable = getModel().isCellEditable(modelRow, col);
+		showCellAdAPI(cell, getCellRenderer(row, col), value, isSelected, isCellEditable, row,
+				col, col);
+
+		cell.isFocusable = isCellEditable
+				|| (focusableColumn != null && focusableColumn.isFocusable(col));
 	}
 
 	SelectableRow selectableRow;
@@ -1684,41 +2227,6 @@ public class JTable extends JComponent
 		return currentFocusRowNumber;
 	}
 
-	private ImageView buildSelectedColumnAdAPI(final int row) {
-		final ImageView rendererView = new ImageView(ActivityManager.applicationContext) {
-			public boolean onKeyDown(int keyCode, android.view.KeyEvent event) {
-				if (keyCode == android.view.KeyEvent.KEYCODE_DPAD_CENTER) {
-					if (event.getAction() == android.view.KeyEvent.ACTION_UP) {
-						actionOnSelectedColumnAdAPI(row);
-						return true;
-					}
-				}
-				return super.onKeyDown(keyCode, event);
-			}
-		};
-
-		selectColumnCache.put(row, rendererView);
-
-		boolean selectable = (getRowCount() > row)
-				? ((selectableRow != null) ? selectableRow.isSelectable(row) : true)
-				: false;// 无内容时，绘制空白格，故无效。
-		rendererView.setFocusable(selectable);
-		rendererView.setFocusableInTouchMode(false);
-		rendererView.setClickable(selectable);
-
-		rendererView.setBackgroundResource(HCRUtil.getResource(HCRUtil.R_drawable_tree_node));
-
-		rendererView.setOnClickListener(new View.OnClickListener() {
-			@Override
-			public void onClick(View v) {
-				actionOnSelectedColumnAdAPI(row);
-				// rendererView.requestFocus();
-			}
-		});
-
-		return rendererView;
-	}
-
 	private void actionOnSelectedColumnAdAPI(int row) {
 		if (isRowSelected(row)) {
 			removeRowSelectionInterval(row, row);
@@ -1727,23 +2235,15 @@ public class JTable extends JComponent
 		}
 	}
 
-	private TableCellRenderer refreshSelectedColumnAdAPI(int row, ImageView rendererView) {
-		TableCellRenderer cellRenderer;
-		cellRenderer = defaultRenderersByColumnClass.get(Boolean.class);// getColumnModel().getColumn(j).getCellRenderer();
+	private void refreshSelectedColumnAdAPI(int row, CellContent cell) {
+		final TableCellRenderer cellRenderer = defaultRenderersByColumnClass.get(Boolean.class);
 		final boolean rowSelected = isRowSelected(row);
-		// System.out.println("-------------before refreshSelectedColumnAdAPI at
-		// row " + row + ", and rowIsSelected : " + rowSelected);
-		Component m = cellRenderer.getTableCellRendererComponent(this, rowSelected, rowSelected,
-				false, row, 0);
-		// System.out.println("-------------after refreshSelectedColumnAdAPI : "
-		// + m);
-		m.setBackground(AndroidUIUtil.transFullColor);
-		rendererView.setImageBitmap(AndroidUIUtil.getViewBitmap(m.getPeerAdAPI()));
-		return cellRenderer;
+		showCellAdAPI(cell, cellRenderer, rowSelected, rowSelected, true, row, 0,
+				CellBitmapCache.EXTRA_COLUMN);
 	}
 
 	private void actionOnCellAdAPI(final int row, final int column) {
-		if (getModel().isCellEditable(row, column)
+		if (getModel().isCellEditable(convertRowIndexToModel(row), column)
 				&& getModel().getColumnClass(column) == Boolean.class) {
 			Object oldValue = (Object) getValueAt(row, column);
 			if (oldValue instanceof Boolean) {
@@ -1825,14 +2325,280 @@ public class JTable extends JComponent
 	}
 
 	public void sorterChanged(RowSorterEvent e) {
-		AndroidClassUtil.callEmptyMethod();
+		if (e.getType() != RowSorterEvent.Type.SORTED) {
+			return;
+		}
+		if (isSorterChangeFromModel) {
+			if (sorterChangeFromModel == null) {
+				sorterChangeFromModel = e;
+			}
+			return;
+		}
+
+		// the rows are in another order, the selection follows the rows of
+		// the model.
+		if (getUpdateSelectionOnSort()) {
+			final int min = selectionModel.getMinSelectionIndex();
+			final int max = selectionModel.getMaxSelectionIndex();
+			final int previousCount = e.getPreviousRowCount();
+			final int[] modelRows = new int[(min < 0) ? 0 : (max - min + 1)];
+			int count = 0;
+			for (int i = min; min >= 0 && i <= max; i++) {
+				if (selectionModel.isSelectedIndex(i)) {
+					modelRows[count++] = (previousCount == 0) ? i
+							: e.convertPreviousRowIndexToModel(i);
+				}
+			}
+			restoreSelectionAdAPI(modelRows, count);
+		} else {
+			clearSelectionAndLeadAnchor();
+		}
+		resetRowHeightsAdAPI();
+		invalidateCellCacheAdAPI();
+		revalidate();
+		repaint();
+	}
+
+	/**
+	 * the rows of the model selected, from the current mapping of
+	 * {@link #rowSorter}.
+	 */
+	private int[] getSelectedModelRowsAdAPI() {
+		final int min = selectionModel.getMinSelectionIndex();
+		final int max = selectionModel.getMaxSelectionIndex();
+		if (min < 0) {
+			return new int[0];
+		}
+		final int[] modelRows = new int[max - min + 1];
+		int count = 0;
+		for (int i = min; i <= max; i++) {
+			if (selectionModel.isSelectedIndex(i)) {
+				try {
+					modelRows[count] = rowSorter.convertRowIndexToModel(i);
+				} catch (IndexOutOfBoundsException ex) {
+					// not sorted, the rows of the view are those of the model.
+					modelRows[count] = i;
+				}
+				count++;
+			}
+		}
+		final int[] out = new int[count];
+		System.arraycopy(modelRows, 0, out, 0, count);
+		return out;
+	}
+
+	/**
+	 * selects the view rows of the first <code>count</code> model rows of
+	 * <code>modelRows</code>, -1 for none.
+	 */
+	private void restoreSelectionAdAPI(final int[] modelRows, final int count) {
+		final int modelRowCount = getModel().getRowCount();
+		selectionModel.setValueIsAdjusting(true);
+		selectionModel.clearSelection();
+		for (int i = 0; i < count; i++) {
+			final int modelRow = modelRows[i];
+			if (modelRow >= 0 && modelRow < modelRowCount) {
+				final int viewRow = rowSorter.convertRowIndexToView(modelRow);
+				if (viewRow >= 0) {
+					selectionModel.addSelectionInterval(viewRow, viewRow);
+				}
+			}
+		}
+		selectionModel.setValueIsAdjusting(false);
+	}
+
+	/**
+	 * forwards a change of the rows of the model to {@link #rowSorter}, the
+	 * selection stays on the same rows of the model.
+	 */
+	private void sortedTableChangedAdAPI(final TableModelEvent e) {
+		final int first = e.getFirstRow();
+		final int last = e.getLastRow();
+		final int type = e.getType();
+		final int[] modelRows = getSelectedModelRowsAdAPI();
+		final int previousViewCount = rowSorter.getViewRowCount();
+
+		sorterChangeFromModel = null;
+		isSorterChangeFromModel = true;
+		try {
+			if (first < 0 || last == Integer.MAX_VALUE) {
+				rowSorter.allRowsChanged();
+			} else if (type == TableModelEvent.INSERT) {
+				rowSorter.rowsInserted(first, last);
+				for (int i = 0; i < modelRows.length; i++) {
+					if (modelRows[i] >= first) {
+						modelRows[i] += last - first + 1;
+					}
+				}
+			} else if (type == TableModelEvent.DELETE) {
+				rowSorter.rowsDeleted(first, last);
+				for (int i = 0; i < modelRows.length; i++) {
+					if (modelRows[i] > last) {
+						modelRows[i] -= last - first + 1;
+					} else if (modelRows[i] >= first) {
+						modelRows[i] = -1;
+					}
+				}
+			} else if (e.getColumn() == TableModelEvent.ALL_COLUMNS) {
+				rowSorter.rowsUpdated(first, last);
+			} else {
+				rowSorter.rowsUpdated(first, last, e.getColumn());
+			}
+		} finally {
+			isSorterChangeFromModel = false;
+		}
+		final RowSorterEvent sortEvent = sorterChangeFromModel;
+		sorterChangeFromModel = null;
+
+		if (last == Integer.MAX_VALUE) {
+			clearSelectionAndLeadAnchor();
+		} else {
+			restoreSelectionAdAPI(modelRows, modelRows.length);
+		}
+		if (first < 0 || last == Integer.MAX_VALUE
+				|| postSortedRowChangesAdAPI(sortEvent, previousViewCount, type, first, last,
+						e.getColumn()) == false) {
+			invalidateCellCacheAdAPI();
+			repaint();
+		}
+		if (rowSorter.getViewRowCount() != previousViewCount) {
+			resetRowHeightsAdAPI();
+			revalidate();
+		}
+	}
+
+	/**
+	 * queues the change of the model rows <code>first</code> to
+	 * <code>last</code>, already taken by {@link #rowSorter}, as changes of
+	 * the view rows they map to.
+	 *
+	 * @param sortEvent
+	 *            the event of the sorter for the change, null if its mapping
+	 *            did not change.
+	 * @param previousViewCount
+	 *            the view row count before the change.
+	 * @return false if the other rows moved in the view too, the table is
+	 *         then refreshed in full.
+	 */
+	private boolean postSortedRowChangesAdAPI(final RowSorterEvent sortEvent,
+			final int previousViewCount, final int type, final int first, final int last,
+			final int column) {
+		final int delta = last - first + 1;
+		final int viewCount = rowSorter.getViewRowCount();
+		final int previousCount = previousViewCount;
+		if (sortEvent != null && sortEvent.getPreviousRowCount() != previousCount) {
+			// the mapping was created by the change, not kept.
+			return false;
+		}
+
+		// the previous view rows of the deleted model rows, ascending.
+		final int[] deletedViewRows = (type == TableModelEvent.DELETE) ? new int[delta] : null;
+		int deletedCount = 0;
+		if (sortEvent != null) {
+			// the rows out of the change keep their order, else they moved.
+			int viewRow = 0;
+			for (int i = 0; i < previousCount; i++) {
+				int modelRow = sortEvent.convertPreviousRowIndexToModel(i);
+				if (type == TableModelEvent.INSERT) {
+					if (modelRow >= first) {
+						modelRow += delta;
+					}
+				} else if (type == TableModelEvent.DELETE) {
+					if (modelRow >= first && modelRow <= last) {
+						deletedViewRows[deletedCount++] = i;
+						continue;
+					} else if (modelRow > last) {
+						modelRow -= delta;
+					}
+				}
+				if (type == TableModelEvent.INSERT) {
+					while (viewRow < viewCount && isInRangeAdAPI(viewRow, first, last)) {
+						viewRow++;
+					}
+				}
+				if (viewRow >= viewCount || rowSorter.convertRowIndexToModel(viewRow) != modelRow) {
+					return false;
+				}
+				viewRow++;
+			}
+			if (type == TableModelEvent.INSERT) {
+				while (viewRow < viewCount && isInRangeAdAPI(viewRow, first, last)) {
+					viewRow++;
+				}
+			}
+			if (viewRow != viewCount) {
+				return false;
+			}
+		} else if (type == TableModelEvent.DELETE) {
+			// not sorted nor filtered, the view rows are those of the model.
+			for (int i = first; i <= last; i++) {
+				deletedViewRows[deletedCount++] = i;
+			}
+		}
+
+		if (type == TableModelEvent.DELETE) {
+			// from the last, the view rows before stay in place.
+			int runEnd = deletedCount - 1;
+			for (int i = deletedCount - 1; i >= 0; i--) {
+				if (i == 0 || deletedViewRows[i - 1] != deletedViewRows[i] - 1) {
+					postRowChangeAdAPI(ROWS_DELETED, deletedViewRows[i], deletedViewRows[runEnd],
+							TableModelEvent.ALL_COLUMNS);
+					runEnd = i - 1;
+				}
+			}
+			return true;
+		}
+
+		final int[] viewRows = new int[delta];
+		int count = 0;
+		for (int modelRow = first; modelRow <= last; modelRow++) {
+			final int viewRow = rowSorter.convertRowIndexToView(modelRow);
+			if (viewRow >= 0) {
+				viewRows[count++] = viewRow;
+			}
+		}
+		// the inserted rows at their final view rows, from the first.
+		Arrays.sort(viewRows, 0, count);
+		final int kind = (type == TableModelEvent.INSERT) ? ROWS_INSERTED : ROWS_UPDATED;
+		final int changedColumn = (type == TableModelEvent.INSERT) ? TableModelEvent.ALL_COLUMNS
+				: column;
+		int runStart = 0;
+		for (int i = 0; i < count; i++) {
+			if (i == count - 1 || viewRows[i + 1] != viewRows[i] + 1) {
+				postRowChangeAdAPI(kind, viewRows[runStart], viewRows[i], changedColumn);
+				runStart = i + 1;
+			}
+		}
+		return true;
+	}
+
+	private boolean isInRangeAdAPI(final int viewRow, final int first, final int last) {
+		final int modelRow = rowSorter.convertRowIndexToModel(viewRow);
+		return modelRow >= first && modelRow <= last;
 	}
 
 	public void tableChanged(TableModelEvent e) {
+		if (rowSorter != null && e != null && e.getFirstRow() != TableModelEvent.HEADER_ROW) {
+			// the rows of the view are not those of the model.
+			sortedTableChangedAdAPI(e);
+			return;
+		}
+
+		if (e == null || e.getFirstRow() == TableModelEvent.HEADER_ROW
+				|| e.getLastRow() == Integer.MAX_VALUE) {
+			// all the rows changed.
+			invalidateCellCacheAdAPI();
+		}
+
 		if (e == null || e.getFirstRow() == TableModelEvent.HEADER_ROW) {
+			if (getAutoCreateRowSorter()) {
+				setRowSorter(new TableRowSorter<TableModel>(getModel()));
+			} else if (rowSorter != null) {
+				rowSorter.modelStructureChanged();
+			}
 			clearSelectionAndLeadAnchor();
 
-			rowModel = null;
+			resetRowHeightsAdAPI();
 
 			if (getAutoCreateColumnsFromModel()) {
 				createDefaultColumnsFromModel();
@@ -1843,10 +2609,8 @@ public class JTable extends JComponent
 			return;
 		}
 
-		if (rowModel != null) {
-			repaint();
-		}
-
+		// rowModel is kept by tableRowsInserted/Deleted, an update keeps the
+		// row heights, the changed rows are rebound only.
 		if (e.getType() == TableModelEvent.INSERT) {
 			tableRowsInserted(e);
 			return;
@@ -1860,12 +2624,11 @@ public class JTable extends JComponent
 		int end = e.getLastRow();
 
 		if (end != Integer.MAX_VALUE) {
-			refreshRowIdx = end;
-			repaint();
+			postRowChangeAdAPI(ROWS_UPDATED, e.getFirstRow(), end, e.getColumn());
 		} else {
 			clearSelectionAndLeadAnchor();
+			resetRowHeightsAdAPI();
 			resizeAndRepaint();
-			rowModel = null;
 		}
 	}
 
@@ -1890,12 +2653,14 @@ public class JTable extends JComponent
 		int length = end - start + 1;
 		selectionModel.insertIndexInterval(start, length, true);
 
-		if (rowModel != null) {
-			rowModel.insertEntries(start, length, getRowHeight());
+		synchronized (rowModelLock) {
+			if (rowModel != null) {
+				rowModel.insertEntries(start, length, getRowHeight());
+			}
 		}
 
-		isForceRefreshTable = true;
-		repaint();
+		postRowChangeAdAPI(ROWS_INSERTED, start, end, TableModelEvent.ALL_COLUMNS);
+		revalidate();
 	}
 
 	private void tableRowsDeleted(TableModelEvent e) {
@@ -1911,12 +2676,14 @@ public class JTable extends JComponent
 		int deletedCount = end - start + 1;
 		selectionModel.removeIndexInterval(start, end);
 
-		if (rowModel != null) {
-			rowModel.removeEntries(start, deletedCount);
+		synchronized (rowModelLock) {
+			if (rowModel != null) {
+				rowModel.removeEntries(start, deletedCount);
+			}
 		}
 
-		isForceRefreshTable = true;
-		repaint();
+		postRowChangeAdAPI(ROWS_DELETED, start, end, TableModelEvent.ALL_COLUMNS);
+		revalidate();
 	}
 
 	public void columnAdded(TableColumnModelEvent e) {
@@ -1937,6 +2704,7 @@ public class JTable extends JComponent
 		if (isEditing() && !getCellEditor().stopCellEditing()) {
 			getCellEditor().cancelCellEditing();
 		}
+		invalidateCellCacheAdAPI();
 		isForceRefreshTable = true;
 		repaint();
 	}
@@ -1964,10 +2732,8 @@ public class JTable extends JComponent
 		if (isForceRefreshTable || e == null) {
 			repaint();
 		} else {
-			for (int i = e.getFirstIndex(); i <= e.getLastIndex(); i++) {
-				refreshRowIdx = i;
-				repaint();
-			}
+			postRowChangeAdAPI(ROWS_SELECTED, e.getFirstIndex(), e.getLastIndex(),
+					TableModelEvent.ALL_COLUMNS);
 		}
 	}
 
@@ -1987,6 +2753,26 @@ public class JTable extends JComponent
 		return preferredViewportSize;
 	}
 
+	/**
+	 * the rows of the peer are in a <code>ListView</code> weighted to fill
+	 * the height left by the column header, which measures to no height, so
+	 * the heights of the rows are added to the measured one, see
+	 * {@link #rowModel}.
+	 */
+	@Override
+	public Dimension getPreferredSize() {
+		if (isPreferredSizeSet()) {
+			return super.getPreferredSize();
+		}
+		final Dimension size = new Dimension(super.getPreferredSize());
+		final int rowCount = getRowCount();
+		synchronized (rowModelLock) {
+			size.height += (rowModel == null) ? rowCount * getRowHeight() : rowModel
+					.getPosition(rowCount);
+		}
+		return size;
+	}
+
 	public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
 		AndroidClassUtil.callEmptyMethod();
 		return 0;
@@ -2291,6 +3077,7 @@ public class JTable extends JComponent
 	}
 
 	protected void resizeAndRepaint() {
+		invalidateCellCacheAdAPI();
 		isForceRefreshTable = true;
 		revalidate();
 		repaint();
@@ -2412,9 +3199,8 @@ public class JTable extends JComponent
 		return accessibleContext;
 	}
 
-	private void drawCellBorder(final int columnNumber, final int columnTouchIdx, Canvas arg0,
+	private void drawCellBorder(final int columnNumber, final int columnTouchIdx, Graphics g,
 			int width, int height, Color drawColor, boolean drawTop) {
-		Graphics g = new CanvasGraphics(arg0, getScreenAdapterAdAPI());
 		g.setColor(drawColor);
 
 		g.drawLine(0, 0, 0, height);
@@ -26,6 +26,7 @@ package javax.swing;
 
 import hc.android.ActivityManager;
 import hc.android.AndroidClassUtil;
+import hc.android.CanvasGraphics;
 import hc.android.FocusManager;
 import hc.android.AndroidUIUtil;
 
@@ -40,9 +41,12 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Hashtable;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Vector;
 
 import javax.accessibility.Accessible;
@@ -68,13 +72,21 @@ import javax.swing.tree.TreeNode;
 import javax.swing.tree.TreePath;
 import javax.swing.tree.TreeSelectionModel;
 
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.Rect;
+import android.graphics.drawable.ColorDrawable;
+import android.graphics.drawable.Drawable;
 import android.view.Gravity;
 import android.view.KeyEvent;
 import android.view.MotionEvent;
 import android.view.View;
+import android.view.ViewGroup;
 import android.view.ViewGroup.LayoutParams;
+import android.widget.BaseAdapter;
 import android.widget.ImageView;
 import android.widget.LinearLayout;
+import android.widget.ListView;
 import android.widget.ScrollView;
 
 import hc.android.HCRUtil;
@@ -174,8 +186,6 @@ import hc.android.HCRUtil;
  * @author Scott Violet
  */
 public class JTree extends JComponent implements Scrollable, Accessible {
-	private final HashMap<TreeNode, TreeNodeView> nodeAndView = new HashMap<TreeNode, JTree.TreeNodeView>();
-
 	private static final String uiClassID = "TreeUI";
 
 	transient protected TreeModel treeModel;
@@ -220,33 +230,20 @@ public class JTree extends JComponent implements Scrollable, Accessible {
 		}
 	}
 
+	/**
+	 * refreshes the rows under the expanded or collapsed node. The collapsed
+	 * ancestors expanded along with it are expanded first, each of them lists
+	 * the next one.
+	 */
 	private final TreeExpansionListener uiRefreshTreeExpansionListener = new TreeExpansionListener() {
 		@Override
 		public void treeExpanded(TreeExpansionEvent event) {
-			toExpand(event.getPath());
-		}
-
-		private void toExpand(TreePath path) {
-			if (path.getParentPath() != null) {
-				toExpand(path.getParentPath());
-			}
-			TreeNode lastPathComponent = (TreeNode) path.getLastPathComponent();
-			TreeNodeView tnv = nodeAndView.get(lastPathComponent);
-			tnv.updateExpandChildsUI(lastPathComponent, true, false);
+			refreshSubtreeRowsAdAPI(event.getPath().getLastPathComponent());
 		}
 
 		@Override
 		public void treeCollapsed(TreeExpansionEvent event) {
-			toCollapse(event.getPath());
-		}
-
-		private void toCollapse(TreePath path) {
-			if (path.getParentPath() != null) {
-				toCollapse(path.getParentPath());
-			}
-			TreeNode lastPathComponent = (TreeNode) path.getLastPathComponent();
-			TreeNodeView tnv = nodeAndView.get(lastPathComponent);
-			tnv.updateChildGroupUI(lastPathComponent);
+			refreshSubtreeRowsAdAPI(event.getPath().getLastPathComponent());
 		}
 	};
 
@@ -352,9 +349,7 @@ public class JTree extends JComponent implements Scrollable, Accessible {
 		AndroidUIUtil.runOnUiThreadAndWait(new Runnable() {
 			@Override
 			public void run() {
-				if (getModel() != null) {
-					refreshRootNodeAdAPI((TreeNode) getModel().getRoot(), true);
-				}
+				notifyRowsChangedAdAPI();
 			}
 		});
 	}
@@ -365,54 +360,146 @@ public class JTree extends JComponent implements Scrollable, Accessible {
 		}
 	}
 
-	class TreeNodeView {
-		LinearLayout nodeViewContainer;
-		ImageView expandNodeView;
-		LinearLayout nodeView;// 包含expan, icon, text
-		LinearLayout childGroup;
-		JCheckBox selected;
-		final ImageView rendererView;
+	/**
+	 * a row as shown, see {@link JTree#visibleRows}.
+	 */
+	private static final class VisibleRow {
+		final TreeNode node;
+		final int depth;
+
+		/**
+		 * the index in {@link JTree#visibleRows}, stale from
+		 * {@link JTree#firstStaleRow}.
+		 */
+		int row;
+
+		VisibleRow(final TreeNode node, final int depth) {
+			this.node = node;
+			this.depth = depth;
+		}
+	}
+
+	/**
+	 * the nodes whose ancestors are all expanded, in the order of display,
+	 * guarded by itself. It is changed on the thread of the change, by the
+	 * rows of the subtree of a node on expand, collapse and
+	 * {@link TreeModelEvent}, so that {@link #getRowForPath(TreePath)} sees
+	 * it at once; the list view takes a copy of it on the UI thread (see
+	 * {@link #notifyRowsChangedAdAPI()}).
+	 */
+	private final ArrayList<VisibleRow> visibleRows = new ArrayList<VisibleRow>();
+
+	/**
+	 * true if {@link #notifyRowsChangedAdAPI()} is posted and not run yet,
+	 * guarded by {@link #visibleRows}.
+	 */
+	private boolean isRowsChangePosted;
+
+	/**
+	 * the entries of {@link #visibleRows} by node, guarded by
+	 * {@link #visibleRows}, so that the row of a node is found without a
+	 * scan.
+	 */
+	private final IdentityHashMap<Object, VisibleRow> rowsByNode = new IdentityHashMap<Object, VisibleRow>();
+
+	/**
+	 * the {@link VisibleRow#row} of the entries from this index are stale
+	 * after a change of {@link #visibleRows}, they are renumbered at the next
+	 * lookup. Guarded by {@link #visibleRows}.
+	 */
+	private int firstStaleRow;
 
-		public static final int gap = 5;
-		public static final int expandIconSize = AndroidUIUtil.MIN_DRAWING_ICON_SIZE;
+	private final Runnable notifyRowsChangedRunnable = new Runnable() {
+		@Override
+		public void run() {
+			notifyRowsChangedAdAPI();
+		}
+	};
 
-		TreeNodeView(final TreeNode treeNode) {
-			nodeAndView.put(treeNode, this);
+	/**
+	 * the peer, which builds the views of the visible rows only and recycles
+	 * them on scrolling.
+	 */
+	private ListView rowListView;
+	private RowAdapter rowAdapter;
 
-			nodeViewContainer = new LinearLayout(ActivityManager.applicationContext);
-			nodeViewContainer.setOrientation(LinearLayout.VERTICAL);
+	private final CellRendererPane rendererPane = new CellRendererPane();
+	private CanvasGraphics cellGraphics;
+	private DefaultTreeCellRenderer dtcr;
 
-			nodeView = new LinearLayout(ActivityManager.applicationContext);
-			nodeView.setOrientation(LinearLayout.HORIZONTAL);
+	private static final int gap = 5;
+	private static final int expandIconSize = AndroidUIUtil.MIN_DRAWING_ICON_SIZE;
 
-			{
-				android.widget.LinearLayout.LayoutParams lp = new android.widget.LinearLayout.LayoutParams(
-						LayoutParams.WRAP_CONTENT, LayoutParams.WRAP_CONTENT);
-				nodeViewContainer.addView(nodeView, lp);
-			}
+	/**
+	 * the views of a row of the list, rebound to another node when the list
+	 * recycles them.
+	 */
+	private final class RowHolder {
+		final LinearLayout rowView;
+		final ImageView expandView;
+		final ImageView collapseView;
+		final JCheckBox selected;
+		final ImageView rendererView;
+		final NodeDrawable drawable = new NodeDrawable();
+
+		/**
+		 * the node shown and its row, read by the listeners.
+		 */
+		TreeNode node;
+		int row;
 
-			if (treeNode.isLeaf()) {
-				selected = new JCheckBox();
-				selected.addActionListener(new ActionListener() {
-					@Override
-					public void actionPerformed(ActionEvent e) {
-						switchSelection(treeNode, true);
+		RowHolder() {
+			rowView = new LinearLayout(ActivityManager.applicationContext);
+			rowView.setOrientation(LinearLayout.HORIZONTAL);
+			rowView.setTag(this);
+
+			final View.OnTouchListener handleTouchListener = new View.OnTouchListener() {
+				@Override
+				public boolean onTouch(View v, MotionEvent event) {
+					if (event.getAction() == MotionEvent.ACTION_DOWN) {
+						doExpandOrCollapseAdAPI(node);
+						return true;
 					}
-				});
+					return false;
+				}
+			};
+			expandView = AndroidUIUtil.getExpandDrawable();
+			collapseView = AndroidUIUtil.getCollapseDrawable();
+			for (final ImageView handleView : new ImageView[] { expandView, collapseView }) {
+				handleView.setClickable(true);
+				handleView.setOnTouchListener(handleTouchListener);
+				final LinearLayout.LayoutParams lp = new LinearLayout.LayoutParams(expandIconSize,
+						expandIconSize);
+				lp.gravity = Gravity.CENTER_VERTICAL | Gravity.CENTER;
+				rowView.addView(handleView, lp);
+			}
+
+			selected = new JCheckBox();
+			selected.addActionListener(new ActionListener() {
+				@Override
+				public void actionPerformed(ActionEvent e) {
+					switchSelectionAdAPI(node, selected, true);
+				}
+			});
+			{
+				final LinearLayout.LayoutParams lp = new LinearLayout.LayoutParams(
+						LayoutParams.WRAP_CONTENT, LayoutParams.WRAP_CONTENT);
+				lp.gravity = Gravity.CENTER_VERTICAL | Gravity.CENTER;
+				lp.leftMargin = gap;
+				rowView.addView(selected.getPeerAdAPI(), lp);
 			}
 
 			rendererView = new ImageView(ActivityManager.applicationContext) {
 				public boolean onKeyDown(int keyCode, android.view.KeyEvent event) {
 					if (event.getAction() == android.view.KeyEvent.ACTION_UP) {
-						if (treeNode.isLeaf() == false) {
-							Boolean expandStatus = expandedState.get(treeNode);
-							expandStatus = (expandStatus != null && expandStatus);
+						if (getModel().isLeaf(node) == false) {
+							final boolean expandStatus = isNodeExpandedAdAPI(node);
 							if ((keyCode == android.view.KeyEvent.KEYCODE_DPAD_CENTER)
 									|| (expandStatus
 											&& keyCode == android.view.KeyEvent.KEYCODE_DPAD_LEFT)
 									|| (expandStatus == false
 											&& keyCode == android.view.KeyEvent.KEYCODE_DPAD_RIGHT)) {
-								doExpandOrCollpse(treeNode);
+								doExpandOrCollapseAdAPI(node);
 								rendererView.requestFocus();
 								return true;
 							}
@@ -425,131 +512,13 @@ public class JTree extends JComponent implements Scrollable, Accessible {
 			rendererView.setFocusableInTouchMode(false);
 			rendererView.setClickable(true);
 			rendererView.setBackgroundResource(HCRUtil.getResource(HCRUtil.R_drawable_tree_node));
-
-			AndroidUIUtil.runOnUiThreadAndWait(new Runnable() {
-				@Override
-				public void run() {
-					addAndRefreshInUI(treeNode);
-				}
-			});
-
-			Boolean status = expandedState.get(treeNode);
-			if (status != null && status) {
-				updateExpandChildsUI(treeNode, true, false);
-			}
-		}
-
-		public void refreshSelected(TreeNode treeNode, boolean isSelected) {
-			if(isSelected) {
-				currSelectedTreeNode = treeNode;
-			}
-			if (selected != null) {
-				selected.setSelected(isSelected);
-			}
-		}
-
-		/**
-		 * 
-		 * @param treeNode
-		 * @param refresh
-		 *            展开，并重绘
-		 * @param nested
-		 *            递归
-		 */
-		final void updateExpandChildsUI(TreeNode treeNode, boolean refresh, boolean nested) {
-			if (childGroup == null) {
-				childGroup = new LinearLayout(ActivityManager.applicationContext);
-				childGroup.setOrientation(LinearLayout.VERTICAL);
-				LinearLayout.LayoutParams lp = new LinearLayout.LayoutParams(
-						LayoutParams.WRAP_CONTENT, LayoutParams.WRAP_CONTENT);
-				lp.gravity = (Gravity.LEFT);
-				lp.leftMargin = expandIconSize;
-				nodeViewContainer.addView(childGroup, lp);
-			}
-
-			int count = treeNode.getChildCount();
-			if (refresh || childGroup.getChildCount() > 0) {
-				for (int i = 0; i < count; i++) {
-					TreeNode aChild = treeNode.getChildAt(i);
-					TreeNodeView tnv = nodeAndView.get(aChild);
-					boolean willAdd = false;
-					if (tnv == null) {
-						willAdd = true;
-						tnv = new TreeNodeView(aChild);
-					} else {
-						if (tnv.nodeViewContainer == childGroup.getChildAt(i)) {
-							if (nested && (aChild.isLeaf() == false) && tnv.childGroup != null) {
-								tnv.updateExpandChildsUI(aChild, refresh, nested);
-							}
-						} else {
-							willAdd = true;
-						}
-					}
-					if (willAdd) {
-						LinearLayout.LayoutParams lp = new LinearLayout.LayoutParams(
-								LayoutParams.WRAP_CONTENT, LayoutParams.WRAP_CONTENT);
-						lp.gravity = (Gravity.LEFT);
-						AndroidUIUtil.addView(childGroup, tnv.nodeViewContainer, i, lp,
-								viewRelation);
-					}
-				}
-				while (childGroup.getChildCount() > count) {
-					viewRelation.unregisterView(childGroup.getChildAt(count));
-				}
-			}
-			updateChildGroupUI(treeNode);
-			refreshRenderer(treeNode);
-		}
-
-		final void updateChildGroupUI(TreeNode treeNode) {
-			if (childGroup == null) {
-				return;
-			}
-			refreshExpandOrCollapse(treeNode);
-			Boolean status = expandedState.get(treeNode);
-			if (status == null || status == false) {
-				childGroup.setVisibility(View.GONE);
-			} else {
-				childGroup.setVisibility(View.VISIBLE);
-			}
-		}
-
-		/**
-		 * 重绘当前结点的展开或收拢。
-		 * 
-		 * @param treeNode
-		 * @param refreshIconText
-		 *            同时重绘内容区
-		 */
-		private final void addAndRefreshInUI(final TreeNode treeNode) {
-			int indent = 0;
-			if (treeNode.getChildCount() > 0) {
-				refreshExpandOrCollapse(treeNode);
-
-				indent = gap;
-			} else {
-				indent = expandIconSize + gap;
-			}
-
-			if (selected != null) {
-				LinearLayout.LayoutParams lp = new LinearLayout.LayoutParams(
-						LayoutParams.WRAP_CONTENT, LayoutParams.WRAP_CONTENT);
-				lp.gravity = Gravity.CENTER_VERTICAL | Gravity.CENTER;
-				lp.leftMargin = indent;
-				nodeView.addView(selected.getPeerAdAPI(), lp);
-			}
-
-			nodeView.removeView(rendererView);
-			// AndroidUIUtil.removeFromParent(rendererView);
-
-			refreshRenderer(treeNode);
-
 			rendererView.setOnTouchListener(new View.OnTouchListener() {
 				@Override
 				public boolean onTouch(View v, MotionEvent event) {
 					if (event.getAction() == MotionEvent.ACTION_DOWN) {
-						switchSelection(treeNode, false);// 对叶节点
-						swapExpand(treeNode);// 对非叶节点
+						switchSelectionAdAPI(node, selected, false);// 对叶节点
+						swapExpandAdAPI(node);// 对非叶节点
+						rendererView.requestFocus();
 						return true;
 					}
 					return false;
@@ -562,9 +531,10 @@ public class JTree extends JComponent implements Scrollable, Accessible {
 							|| keyCode == android.view.KeyEvent.KEYCODE_ENTER) {
 						int action = event.getAction();
 						if (action == android.view.KeyEvent.ACTION_DOWN) {
-							swapExpand(treeNode);
+							swapExpandAdAPI(node);
+							rendererView.requestFocus();
 
-							if (treeNode.isLeaf()) {
+							if (getModel().isLeaf(node)) {
 								selected.doClick();
 							}
 							return true;
@@ -573,116 +543,413 @@ public class JTree extends JComponent implements Scrollable, Accessible {
 					return false;
 				}
 			});
-			LinearLayout.LayoutParams lp = new LinearLayout.LayoutParams(LayoutParams.WRAP_CONTENT,
-					LayoutParams.WRAP_CONTENT);
-			lp.gravity = Gravity.CENTER_VERTICAL | Gravity.CENTER;
-			if (selected != null) {
-			} else {
-				lp.leftMargin = indent;
+			{
+				final LinearLayout.LayoutParams lp = new LinearLayout.LayoutParams(
+						LayoutParams.WRAP_CONTENT, LayoutParams.WRAP_CONTENT);
+				lp.gravity = Gravity.CENTER_VERTICAL | Gravity.CENTER;
+				lp.leftMargin = gap;
+				rowView.addView(rendererView, lp);
 			}
-			nodeView.addView(rendererView, lp);
 		}
+	}
 
-		private void refreshRenderer(final TreeNode treeNode) {
-			AndroidUIUtil.runOnUiThread(new Runnable() {
-				@Override
-				public void run() {
-					Component comp = renderer(treeNode);
-					if (comp instanceof JComponent) {
-						((JComponent) comp).updateUI();
-					}
-					rendererView.setImageBitmap(AndroidUIUtil.getViewBitmap(comp.getPeerAdAPI()));
-				}
-			});
-		}
+	/**
+	 * the content of a row, the renderer is configured and painted by
+	 * {@link #rendererPane} when the view draws, no bitmap of the node is
+	 * kept.
+	 */
+	private final class NodeDrawable extends Drawable {
+		TreeNode node;
+		int row;
+		boolean isLeaf, isExpanded;
 
-		private void refreshExpandOrCollapse(final TreeNode treeNode) {
-			Boolean status = expandedState.get(treeNode);
-			if (status == null || status == false) {
-				expandNodeView = AndroidUIUtil.getExpandDrawable();
-			} else {
-				expandNodeView = AndroidUIUtil.getCollapseDrawable();
+		/**
+		 * the preferred size of the renderer configured for the node.
+		 */
+		final Dimension size = new Dimension();
+
+		@Override
+		public void draw(Canvas canvas) {
+			if (node == null) {
+				return;
 			}
-			expandNodeView.setClickable(true);
-			expandNodeView.setOnTouchListener(new View.OnTouchListener() {
-				@Override
-				public boolean onTouch(View v, MotionEvent event) {
-					if (event.getAction() == MotionEvent.ACTION_DOWN) {
-						doExpandOrCollpse(treeNode);
-						return true;
-					}
-					return false;
-				}
-			});
-			LinearLayout.LayoutParams lp = new LinearLayout.LayoutParams(expandIconSize,
-					expandIconSize);
-			lp.gravity = Gravity.CENTER_VERTICAL | Gravity.CENTER;
-			if (nodeView.getChildCount() > 0) {
-				nodeView.removeViewAt(0);
+			final Component m = prepareRendererAdAPI(node, row, isLeaf, isExpanded);
+			if (cellGraphics == null) {
+				cellGraphics = new CanvasGraphics((Canvas) null, getScreenAdapterAdAPI());
 			}
-			nodeView.addView(expandNodeView, 0, lp);
+			cellGraphics.setCanvasAdAPI(canvas);
+			final Rect bounds = getBounds();
+			rendererPane.paintComponent(cellGraphics, m, JTree.this, bounds.left, bounds.top,
+					bounds.width(), bounds.height());
+			cellGraphics.setCanvasAdAPI(null);
+		}
+
+		@Override
+		public int getIntrinsicWidth() {
+			return size.width;
 		}
 
-		DefaultTreeCellRenderer dtcr;
+		@Override
+		public int getIntrinsicHeight() {
+			return size.height;
+		}
 
-		private Component renderer(TreeNode node) {
-			TreeCellRenderer cellRenderer2 = JTree.this.getCellRenderer();
-			if (cellRenderer2 == null) {
-				if (dtcr == null) {
-					dtcr = new DefaultTreeCellRenderer();
-				}
-				cellRenderer2 = dtcr;
+		@Override
+		public void setColorFilter(ColorFilter cf) {
+		}
+
+		@Override
+		public void setAlpha(int alpha) {
+		}
+
+		@Override
+		public int getOpacity() {
+			return 0;
+		}
+	}
+
+	/**
+	 * the {@link #visibleRows} as the items of {@link #rowListView}.
+	 */
+	private final class RowAdapter extends BaseAdapter {
+		/**
+		 * the copy of {@link #visibleRows} taken at the last notification in
+		 * UI thread, so that the list sees a change with its notification
+		 * only.
+		 */
+		VisibleRow[] rows = new VisibleRow[0];
+
+		@Override
+		public int getCount() {
+			return rows.length;
+		}
+
+		@Override
+		public Object getItem(final int position) {
+			return null;
+		}
+
+		@Override
+		public long getItemId(final int position) {
+			return position;
+		}
+
+		@Override
+		public View getView(final int position, final View convertView, final ViewGroup parent) {
+			RowHolder holder = (convertView == null) ? null : (RowHolder) convertView.getTag();
+			if (holder == null) {
+				holder = new RowHolder();
+			}
+			bindRowAdAPI(holder, position);
+			return holder.rowView;
+		}
+	}
+
+	private void buildRowListAdAPI() {
+		AndroidUIUtil.runOnUiThreadAndWait(new Runnable() {
+			@Override
+			public void run() {
+				rowAdapter = new RowAdapter();
+				rowListView = new ListView(ActivityManager.applicationContext);
+				rowListView.setDivider(null);
+				rowListView.setDividerHeight(0);
+				rowListView.setSelector(new ColorDrawable(0));
+				rowListView.setItemsCanFocus(true);
+				rowListView.setAdapter(rowAdapter);
+			}
+		});
+		setPeerAdAPI(rowListView);
+	}
+
+	private void bindRowAdAPI(final RowHolder holder, final int position) {
+		final VisibleRow visibleRow = rowAdapter.rows[position];
+		final TreeNode node = visibleRow.node;
+		holder.node = node;
+		holder.row = position;
+
+		final boolean isLeaf = getModel().isLeaf(node);
+		final boolean isExpanded = isNodeExpandedAdAPI(node);
+		holder.rowView.setPadding(visibleRow.depth * expandIconSize, 0, 0, 0);
+		holder.expandView.setVisibility(
+				isLeaf ? View.INVISIBLE : (isExpanded ? View.GONE : View.VISIBLE));
+		holder.collapseView.setVisibility((isLeaf == false && isExpanded) ? View.VISIBLE
+				: View.GONE);
+		if (isLeaf) {
+			holder.selected.getPeerAdAPI().setVisibility(View.VISIBLE);
+			holder.selected.setSelected(node == currSelectedTreeNode);
+		} else {
+			holder.selected.getPeerAdAPI().setVisibility(View.GONE);
+		}
+
+		final ImageView rendererView = holder.rendererView;
+		final Component m = prepareRendererAdAPI(node, position, isLeaf, isExpanded);
+		if (rendererPane.isPaintedDirectlyAdAPI(m) == false) {
+			if (m instanceof JComponent) {
+				((JComponent) m).updateUI();
 			}
+			rendererView.setImageBitmap(AndroidUIUtil.getViewBitmap(m.getPeerAdAPI()));
+			return;
+		}
 
-			Boolean expanded = expandedState.get(node);
-			expanded = (expanded != null && expanded);
-			return cellRenderer2.getTreeCellRendererComponent(JTree.this, node,
-					node == currSelectedTreeNode, expanded, node.isLeaf(), 0,
-					FocusManager.getFocusComponentOwner() == node);
+		final NodeDrawable drawable = holder.drawable;
+		drawable.node = node;
+		drawable.row = position;
+		drawable.isLeaf = isLeaf;
+		drawable.isExpanded = isExpanded;
+		final int oldWidth = drawable.size.width;
+		final int oldHeight = drawable.size.height;
+		rendererPane.getPreferredSizeAdAPI(m, drawable.size);
+		if (rendererView.getDrawable() != drawable || oldWidth != drawable.size.width
+				|| oldHeight != drawable.size.height) {
+			// ImageView takes the intrinsic size when the drawable is set.
+			rendererView.setImageDrawable(null);
+			rendererView.setImageDrawable(drawable);
+		} else {
+			drawable.invalidateSelf();
 		}
+	}
 
-		void doExpandOrCollpse(final TreeNode treeNode) {
-			Boolean expandStatus = expandedState.get(treeNode);
-			expandStatus = (expandStatus != null && expandStatus);
+	private Component prepareRendererAdAPI(final TreeNode node, final int row,
+			final boolean isLeaf, final boolean isExpanded) {
+		TreeCellRenderer cellRenderer2 = getCellRenderer();
+		if (cellRenderer2 == null) {
+			if (dtcr == null) {
+				dtcr = new DefaultTreeCellRenderer();
+			}
+			cellRenderer2 = dtcr;
+		}
+		return cellRenderer2.getTreeCellRendererComponent(this, node,
+				node == currSelectedTreeNode, isExpanded, isLeaf, row,
+				FocusManager.getFocusComponentOwner() == node);
+	}
 
-			TreePath tp = getTreePathAdAPI(treeNode);
+	private boolean isNodeExpandedAdAPI(final TreeNode node) {
+		final Boolean status = expandedState.get(node);
+		return status != null && status;
+	}
 
-			if (expandStatus == false) {
-				expandPath(tp);
-				updateExpandChildsUI(treeNode, true, false);
-			} else {
-				collapsePath(tp);
-				updateChildGroupUI(treeNode);
+	/**
+	 * appends the visible descendants of <code>parent</code>, its children
+	 * are asked to the model only if it is expanded.
+	 */
+	private void appendVisibleChildrenAdAPI(final TreeNode parent, final int depth,
+			final ArrayList<VisibleRow> rows) {
+		final TreeModel model = getModel();
+		final int count = model.getChildCount(parent);
+		for (int i = 0; i < count; i++) {
+			final TreeNode child = (TreeNode) model.getChild(parent, i);
+			rows.add(new VisibleRow(child, depth));
+			if (isNodeExpandedAdAPI(child) && model.isLeaf(child) == false) {
+				appendVisibleChildrenAdAPI(child, depth + 1, rows);
 			}
-			refreshExpandOrCollapse(treeNode);
 		}
+	}
 
-		private void swapExpand(final TreeNode treeNode) {
-			if (treeNode.isLeaf() == false) {
-				Boolean expandStatus = expandedState.get(treeNode);
-				expandStatus = (expandStatus != null && expandStatus);
-				doExpandOrCollpse(treeNode);
+	/**
+	 * rebuilds all the rows, on the calling thread.
+	 */
+	private void rebuildRowsAdAPI() {
+		final ArrayList<VisibleRow> rows = new ArrayList<VisibleRow>();
+		final TreeModel model = getModel();
+		final TreeNode root = (model == null) ? null : (TreeNode) model.getRoot();
+		if (root != null) {
+			final boolean isRootExpanded = isNodeExpandedAdAPI(root) && model.isLeaf(root) == false;
+			if (rootVisible) {
+				rows.add(new VisibleRow(root, 0));
+				if (isRootExpanded) {
+					appendVisibleChildrenAdAPI(root, 1, rows);
+				}
+			} else if (isRootExpanded) {
+				appendVisibleChildrenAdAPI(root, 0, rows);
+			}
+		}
+		synchronized (visibleRows) {
+			visibleRows.clear();
+			visibleRows.addAll(rows);
+			rowsByNode.clear();
+			for (int i = rows.size() - 1; i >= 0; i--) {
+				final VisibleRow visibleRow = rows.get(i);
+				visibleRow.row = i;
+				rowsByNode.put(visibleRow.node, visibleRow);
 			}
+			firstStaleRow = rows.size();
+		}
+		postRowsChangedAdAPI();
+	}
 
-			rendererView.requestFocus();
+	/**
+	 * replaces the rows of the descendants of <code>node</code> by the ones
+	 * of its current state, on the calling thread. Nothing is done if the
+	 * node is not shown.
+	 */
+	private void refreshSubtreeRowsAdAPI(final Object node) {
+		final TreeModel model = getModel();
+		if (model == null || node == null) {
+			return;
+		}
+		if (node == model.getRoot() && rootVisible == false) {
+			rebuildRowsAdAPI();
+			return;
+		}
+		synchronized (visibleRows) {
+			final int row = indexOfNodeAdAPI(node);
+			if (row < 0) {
+				return;
+			}
+			final int depth = visibleRows.get(row).depth;
+			final int size = visibleRows.size();
+			int end = row + 1;
+			while (end < size && visibleRows.get(end).depth > depth) {
+				end++;
+			}
+			final ArrayList<VisibleRow> children = new ArrayList<VisibleRow>();
+			if (isNodeExpandedAdAPI((TreeNode) node) && model.isLeaf(node) == false) {
+				appendVisibleChildrenAdAPI((TreeNode) node, depth + 1, children);
+			}
+			final List<VisibleRow> removed = visibleRows.subList(row + 1, end);
+			for (int i = removed.size() - 1; i >= 0; i--) {
+				rowsByNode.remove(removed.get(i).node);
+			}
+			removed.clear();
+			visibleRows.addAll(row + 1, children);
+			for (int i = children.size() - 1; i >= 0; i--) {
+				final VisibleRow visibleRow = children.get(i);
+				visibleRow.row = row + 1 + i;
+				rowsByNode.put(visibleRow.node, visibleRow);
+			}
+			if (end != row + 1 + children.size()) {
+				// the rows after the subtree moved, their stale rows are not
+				// less than row + 1.
+				firstStaleRow = Math.min(firstStaleRow, row + 1);
+			}
 		}
+		postRowsChangedAdAPI();
+	}
 
-		private void switchSelection(final TreeNode treeNode, boolean isEventDone) {
-			TreeNode oldSelected = JTree.this.currSelectedTreeNode;
-			if(treeNode == oldSelected) {
+	/**
+	 * notifies the list view of the changes of {@link #visibleRows} in UI
+	 * thread, the changes made before it runs are notified once.
+	 */
+	private void postRowsChangedAdAPI() {
+		synchronized (visibleRows) {
+			if (isRowsChangePosted) {
 				return;
 			}
-			
-			if (treeNode.isLeaf()) {
-				final boolean isSelected = selected.isSelected();
-				if (isEventDone ? isSelected : !isSelected) {
-					notifyNodeSelectChangedAdAPI(treeNode);
-				} else {
-					clearSelection(treeNode);
+			isRowsChangePosted = true;
+		}
+		AndroidUIUtil.runOnUiThread(notifyRowsChangedRunnable);
+	}
+
+	/**
+	 * @return -1 if not shown.
+	 */
+	private int indexOfNodeAdAPI(final Object node) {
+		synchronized (visibleRows) {
+			final VisibleRow visibleRow = rowsByNode.get(node);
+			if (visibleRow == null) {
+				return -1;
+			}
+			if (visibleRow.row >= firstStaleRow) {
+				final int size = visibleRows.size();
+				for (int i = firstStaleRow; i < size; i++) {
+					visibleRows.get(i).row = i;
 				}
+				firstStaleRow = size;
 			}
+			return visibleRow.row;
 		}
+	}
+
+	/**
+	 * hands a copy of {@link #visibleRows} to the list view, in UI thread.
+	 */
+	private void notifyRowsChangedAdAPI() {
+		final VisibleRow[] rows;
+		synchronized (visibleRows) {
+			isRowsChangePosted = false;
+			rows = visibleRows.toArray(new VisibleRow[visibleRows.size()]);
+		}
+		if (rowAdapter != null) {
+			rowAdapter.rows = rows;
+			rowAdapter.notifyDataSetChanged();
+		}
+	}
 
+	/**
+	 * rebinds the row of <code>node</code> if its view is shown.
+	 */
+	private void refreshNodeRowAdAPI(final Object node) {
+		if (node == null) {
+			return;
+		}
+		AndroidUIUtil.runOnUiThread(new Runnable() {
+			@Override
+			public void run() {
+				if (rowListView == null) {
+					return;
+				}
+				final int count = rowListView.getChildCount();
+				for (int i = 0; i < count; i++) {
+					final Object tag = rowListView.getChildAt(i).getTag();
+					if (tag instanceof RowHolder) {
+						final RowHolder holder = (RowHolder) tag;
+						// a pending change of the rows rebinds the others.
+						final VisibleRow[] rows = rowAdapter.rows;
+						if (holder.node == node && holder.row < rows.length
+								&& rows[holder.row].node == node) {
+							bindRowAdAPI(holder, holder.row);
+						}
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * scrolls the rows to the first or to the last one, for
+	 * {@link JScrollBar#setValue(int)}.
+	 */
+	void fullScrollAdAPI(final boolean isUp) {
+		AndroidUIUtil.runOnUiThread(new Runnable() {
+			@Override
+			public void run() {
+				if (rowListView != null) {
+					rowListView.setSelection(isUp ? 0 : Math.max(0, rowAdapter.getCount() - 1));
+				}
+			}
+		});
+	}
+
+	private void doExpandOrCollapseAdAPI(final TreeNode treeNode) {
+		final TreePath tp = getTreePathAdAPI(treeNode);
+		if (isNodeExpandedAdAPI(treeNode) == false) {
+			expandPath(tp);
+		} else {
+			collapsePath(tp);
+		}
+	}
+
+	private void swapExpandAdAPI(final TreeNode treeNode) {
+		if (getModel().isLeaf(treeNode) == false) {
+			doExpandOrCollapseAdAPI(treeNode);
+		}
+	}
+
+	private void switchSelectionAdAPI(final TreeNode treeNode, final JCheckBox selected,
+			final boolean isEventDone) {
+		TreeNode oldSelected = JTree.this.currSelectedTreeNode;
+		if (treeNode == oldSelected) {
+			return;
+		}
+
+		if (getModel().isLeaf(treeNode)) {
+			final boolean isSelected = selected.isSelected();
+			if (isEventDone ? isSelected : !isSelected) {
+				notifyNodeSelectChangedAdAPI(treeNode);
+			} else {
+				clearSelection(treeNode);
+			}
+		}
 	}
 
 	public String getUIClassID() {
@@ -749,18 +1016,11 @@ public class JTree extends JComponent implements Scrollable, Accessible {
 			}
 		}
 
-		{
-			nodeAndView.clear();
-			TreeNode root = (TreeNode) getModel().getRoot();
-			TreeNodeView tnv = new TreeNodeView(root);
-			expandRoot();
-
-			// rootScrollView.removeAllViews();
-			// LayoutParams lp = new LayoutParams(LayoutParams.MATCH_PARENT,
-			// LayoutParams.MATCH_PARENT);
-			// rootScrollView.addView(tnv.nodeViewContainer, lp);
-			setPeerAdAPI(tnv.nodeViewContainer);
+		if (rowListView == null) {
+			buildRowListAdAPI();
 		}
+		expandRoot();
+		rebuildRowsAdAPI();
 
 		firePropertyChange(TREE_MODEL_PROPERTY, oldModel, treeModel);
 		invalidate();
@@ -777,10 +1037,7 @@ public class JTree extends JComponent implements Scrollable, Accessible {
 	public void setRootVisible(boolean rootVisible) {
 		this.rootVisible = rootVisible;
 
-		if (getModel() != null) {
-			TreeNode root = (TreeNode) getModel().getRoot();
-			refreshRootNodeAdAPI(root, true);
-		}
+		rebuildRowsAdAPI();
 	}
 
 	public void setShowsRootHandles(boolean newValue) {
@@ -906,16 +1163,17 @@ public class JTree extends JComponent implements Scrollable, Accessible {
 	}
 
 	public int getRowCount() {
-		return visibleRowCount;
+		synchronized (visibleRows) {
+			return visibleRows.size();
+		}
 	}
 
 	public void setSelectionPath(TreePath path) {
 		getSelectionModel().setSelectionPath(path);
-		final TreeNode lastPathComponent = (TreeNode) path.getLastPathComponent();
-		TreeNodeView tnv = nodeAndView.get(lastPathComponent);
-		if (tnv != null) {
-			tnv.refreshSelected(lastPathComponent, true);
-		}
+		final TreeNode oldSelected = currSelectedTreeNode;
+		currSelectedTreeNode = (TreeNode) path.getLastPathComponent();
+		refreshNodeRowAdAPI(oldSelected);
+		refreshNodeRowAdAPI(currSelectedTreeNode);
 	}
 
 	public void setSelectionPaths(TreePath[] paths) {
@@ -1105,8 +1363,20 @@ public class JTree extends JComponent implements Scrollable, Accessible {
 		return getPathBounds(getPathForRow(row));
 	}
 
-	public void scrollPathToVisible(TreePath path) {
-		AndroidClassUtil.callEmptyMethod();
+	public void scrollPathToVisible(final TreePath path) {
+		if (path == null) {
+			return;
+		}
+		makeVisible(path);
+		AndroidUIUtil.runOnUiThread(new Runnable() {
+			@Override
+			public void run() {
+				final int row = getRowForPath(path);
+				if (row >= 0 && rowListView != null) {
+					rowListView.setSelection(row);
+				}
+			}
+		});
 	}
 
 	public void scrollRowToVisible(int row) {
@@ -1114,19 +1384,21 @@ public class JTree extends JComponent implements Scrollable, Accessible {
 	}
 
 	public TreePath getPathForRow(int row) {
-		TreeUI tree = getUI();
-
-		if (tree != null)
-			return tree.getPathForRow(this, row);
-		return null;
+		final TreeNode node;
+		synchronized (visibleRows) {
+			if (row < 0 || row >= visibleRows.size()) {
+				return null;
+			}
+			node = visibleRows.get(row).node;
+		}
+		return getTreePathAdAPI(node);
 	}
 
 	public int getRowForPath(TreePath path) {
-		TreeUI tree = getUI();
-
-		if (tree != null)
-			return tree.getRowForPath(this, path);
-		return -1;
+		if (path == null) {
+			return -1;
+		}
+		return indexOfNodeAdAPI(path.getLastPathComponent());
 	}
 
 	public void expandPath(TreePath path) {
@@ -1256,8 +1528,10 @@ public class JTree extends JComponent implements Scrollable, Accessible {
 
 	public void clearSelection(final TreeNode treeNode) {
 		if (treeNode != null) {
-			TreeNodeView tnv = nodeAndView.get(treeNode);
-			tnv.refreshSelected(treeNode, false);
+			if (currSelectedTreeNode == treeNode) {
+				currSelectedTreeNode = null;
+			}
+			refreshNodeRowAdAPI(treeNode);
 		}
 
 		getSelectionModel().clearSelection();
@@ -1417,6 +1691,20 @@ public class JTree extends JComponent implements Scrollable, Accessible {
 		return new Dimension(0, 0);
 	}
 
+	/**
+	 * the peer is a <code>ListView</code>, which measures its first row only,
+	 * so the height is that of all the visible rows.
+	 */
+	@Override
+	public Dimension getPreferredSize() {
+		if (isPreferredSizeSet()) {
+			return super.getPreferredSize();
+		}
+		final Dimension size = new Dimension(super.getPreferredSize());
+		size.height = getRowCount() * getRowHeight();
+		return size;
+	}
+
 	public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
 		AndroidClassUtil.callEmptyMethod();
 		return 4;
@@ -1561,9 +1849,25 @@ public class JTree extends JComponent implements Scrollable, Accessible {
 
 	protected class TreeModelHandler implements TreeModelListener {
 		public void treeNodesChanged(TreeModelEvent e) {
+			if (e == null || e.getTreePath() == null)
+				return;
+
+			Object[] children = e.getChildren();
+
+			if (children == null) {
+				refreshNodeRowAdAPI(e.getTreePath().getLastPathComponent());
+			} else {
+				for (int counter = 0; counter < children.length; counter++) {
+					refreshNodeRowAdAPI(children[counter]);
+				}
+			}
 		}
 
 		public void treeNodesInserted(TreeModelEvent e) {
+			if (e == null || e.getTreePath() == null)
+				return;
+
+			refreshSubtreeRowsAdAPI(e.getTreePath().getLastPathComponent());
 		}
 
 		public void treeStructureChanged(TreeModelEvent e) {
@@ -1596,6 +1900,12 @@ public class JTree extends JComponent implements Scrollable, Accessible {
 				}
 			}
 			removeDescendantSelectedPaths(parent, false);
+
+			if (parent.getPathCount() == 1) {
+				rebuildRowsAdAPI();
+			} else {
+				refreshSubtreeRowsAdAPI(parent.getLastPathComponent());
+			}
 		}
 
 		public void treeNodesRemoved(TreeModelEvent e) {
@@ -1615,6 +1925,8 @@ public class JTree extends JComponent implements Scrollable, Accessible {
 				rPath = parent.pathByAddingChild(children[counter]);
 				if (expandedState.get((TreeNode) rPath.getLastPathComponent()) != null)
 					toRemove.addElement(rPath);
+				if (children[counter] == currSelectedTreeNode)
+					currSelectedTreeNode = null;
 			}
 			if (toRemove.size() > 0)
 				removeDescendantToggledPaths(toRemove.elements());
@@ -1625,6 +1937,7 @@ public class JTree extends JComponent implements Scrollable, Accessible {
 				expandedState.remove(parent);
 
 			removeDescendantSelectedPaths(e);
+			refreshSubtreeRowsAdAPI(parent.getLastPathComponent());
 		}
 	}
 
@@ -1723,14 +2036,9 @@ public class JTree extends JComponent implements Scrollable, Accessible {
 		currSelectedTreeNode = treeNode;
 
 		if (oldSelected != treeNode) {
-			if (oldSelected != null) {
-				TreeNodeView tnv = nodeAndView.get(oldSelected);
-				tnv.refreshSelected(oldSelected, false);
-			}
+			refreshNodeRowAdAPI(oldSelected);
 		}
-
-		TreeNodeView tnv = nodeAndView.get(treeNode);
-		tnv.refreshSelected(treeNode, true);
+		refreshNodeRowAdAPI(treeNode);
 
 		boolean[] isNew = { true };
 		TreePath newLeadSelectionPath = (treeNode != null) ? JTree.this.getTreePathAdAPI(treeNode)
@@ -1747,28 +2055,4 @@ public class JTree extends JComponent implements Scrollable, Accessible {
 				newLeadSelectionPath));
 	}
 
-	private void refreshRootNodeAdAPI(TreeNode treeNode, boolean isRoot) {
-		TreeModel model = getModel();
-		if (model == null) {
-			return;
-		}
-
-		TreeNodeView treeNodeView = nodeAndView.get(treeNode);
-		treeNodeView.updateExpandChildsUI(treeNode, true, true);
-
-		// int count = treeNode.getChildCount();
-		// for (int i = 0; i < count; i++) {
-		// refreshRootNodeAdAPI(treeNode.getChildAt(i), false);
-		// }
-
-		if (isRoot) {
-			LinearLayout nodeView = treeNodeView.nodeView;
-			if (rootVisible) {
-				nodeView.setVisibility(View.VISIBLE);
-			} else {
-				nodeView.setVisibility(View.GONE);
-			}
-		}
-	}
-
-}
\ No newline at end of file
+}
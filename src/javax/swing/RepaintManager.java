@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 1999, 2007, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package javax.swing;
+
+import hc.android.AndroidUIUtil;
+
+import java.awt.Component;
+import java.awt.Container;
+import java.util.ArrayList;
+
+/**
+ * This class manages the requests of revalidation of the Swing components.
+ * <p>
+ * The validate roots of the components passed to
+ * {@link #addInvalidComponent(JComponent)} are collected until the UI thread
+ * gets to the posted validation, so that all the revalidations requested
+ * between two frames are laid out once, see
+ * {@link #validateInvalidComponents()}.
+ * <p>
+ * Only the validation part of the JDK class is implemented, the painting is
+ * done by the peers.
+ *
+ * @author Arnaud Weber
+ */
+public class RepaintManager {
+	private static RepaintManager repaintManager = new RepaintManager();
+
+	/**
+	 * the validate roots to validate, guarded by this.
+	 */
+	private ArrayList<Container> invalidComponents;
+	private boolean isValidationPosted;
+
+	private final Runnable validationRunnable = new Runnable() {
+		@Override
+		public void run() {
+			validateInvalidComponents();
+		}
+	};
+
+	public RepaintManager() {
+	}
+
+	public static RepaintManager currentManager(final Component c) {
+		return repaintManager;
+	}
+
+	public static RepaintManager currentManager(final JComponent c) {
+		return currentManager((Component) c);
+	}
+
+	public static void setCurrentManager(final RepaintManager aRepaintManager) {
+		repaintManager = (aRepaintManager == null) ? new RepaintManager() : aRepaintManager;
+	}
+
+	/**
+	 * Mark the component as in need of layout and queue a runnable for the
+	 * event dispatching thread that will validate the components first
+	 * isValidateRoot() ancestor.
+	 *
+	 * @param invalidComponent
+	 *            a component
+	 * @see JComponent#isValidateRoot
+	 * @see #removeInvalidComponent
+	 */
+	public void addInvalidComponent(final JComponent invalidComponent) {
+		final Container validateRoot = getValidateRoot(invalidComponent);
+		if (validateRoot == null) {
+			return;
+		}
+
+		synchronized (this) {
+			if (invalidComponents == null) {
+				invalidComponents = new ArrayList<Container>();
+			} else {
+				for (int i = invalidComponents.size() - 1; i >= 0; i--) {
+					if (invalidComponents.get(i) == validateRoot) {
+						return;
+					}
+				}
+			}
+			invalidComponents.add(validateRoot);
+
+			if (isValidationPosted == false) {
+				isValidationPosted = true;
+				AndroidUIUtil.postOnUiThread(validationRunnable);
+			}
+		}
+	}
+
+	/**
+	 * Remove a component from the list of invalid components.
+	 *
+	 * @param component
+	 *            a component
+	 * @see #addInvalidComponent
+	 */
+	public synchronized void removeInvalidComponent(final JComponent component) {
+		if (invalidComponents != null) {
+			final int index = invalidComponents.indexOf(component);
+			if (index != -1) {
+				invalidComponents.remove(index);
+			}
+		}
+	}
+
+	/**
+	 * the first validate root ancestor of <code>c</code>, or the topmost
+	 * container if there is none.
+	 */
+	private static Container getValidateRoot(final Component c) {
+		Container root = null;
+		for (Component comp = c; comp != null; comp = comp.getParent()) {
+			if (comp instanceof Container) {
+				root = (Container) comp;
+				if (root.isValidateRoot()) {
+					break;
+				}
+			}
+		}
+		return root;
+	}
+
+	/**
+	 * Validate all of the components that have been marked invalid.
+	 *
+	 * @see #addInvalidComponent
+	 */
+	public void validateInvalidComponents() {
+		final ArrayList<Container> ic;
+		synchronized (this) {
+			isValidationPosted = false;
+			if (invalidComponents == null) {
+				return;
+			}
+			ic = invalidComponents;
+			invalidComponents = null;
+		}
+
+		final int n = ic.size();
+		for (int i = 0; i < n; i++) {
+			ic.get(i).validate();
+		}
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "RepaintManager[invalidComponents="
+				+ (invalidComponents == null ? 0 : invalidComponents.size()) + "]";
+	}
+}
@@ -0,0 +1,316 @@
+/*
+ * Copyright (c) 2005, 2006, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package javax.swing;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * <code>RowFilter</code> is used to filter out entries from the model so that
+ * they are not shown in the view. For example, a <code>RowFilter</code>
+ * associated with a <code>JTable</code> might only allow rows that contain a
+ * column with a specific string. The meaning of <em>entry</em> depends on the
+ * component type. For example, when a filter is associated with a
+ * <code>JTable</code>, an entry corresponds to a row; when associated with a
+ * <code>JTree</code>, an entry corresponds to a node.
+ * <p>
+ * Subclasses must override the <code>include</code> method to indicate
+ * whether the entry should be shown in the view. The <code>Entry</code>
+ * argument can be used to obtain the values in each of the columns in that
+ * entry.
+ *
+ * @param <M>
+ *            the type of the model; for example <code>PersonModel</code>
+ * @param <I>
+ *            the type of the identifier; when using
+ *            <code>TableRowSorter</code> this will be <code>Integer</code>
+ * @see javax.swing.table.TableRowSorter
+ * @since 1.6
+ */
+public abstract class RowFilter<M, I> {
+
+	public enum ComparisonType {
+		BEFORE, AFTER, EQUAL, NOT_EQUAL
+	}
+
+	private static void checkIndices(int[] columns) {
+		for (int i = columns.length - 1; i >= 0; i--) {
+			if (columns[i] < 0) {
+				throw new IllegalArgumentException("Index must be >= 0");
+			}
+		}
+	}
+
+	public static <M, I> RowFilter<M, I> regexFilter(String regex, int... indices) {
+		return (RowFilter<M, I>) new RegexFilter(Pattern.compile(regex), indices);
+	}
+
+	public static <M, I> RowFilter<M, I> dateFilter(ComparisonType type, Date date,
+			int... indices) {
+		return (RowFilter<M, I>) new DateFilter(type, date.getTime(), indices);
+	}
+
+	public static <M, I> RowFilter<M, I> numberFilter(ComparisonType type, Number number,
+			int... indices) {
+		return (RowFilter<M, I>) new NumberFilter(type, number, indices);
+	}
+
+	public static <M, I> RowFilter<M, I> orFilter(
+			Iterable<? extends RowFilter<? super M, ? super I>> filters) {
+		return new OrFilter<M, I>(filters);
+	}
+
+	public static <M, I> RowFilter<M, I> andFilter(
+			Iterable<? extends RowFilter<? super M, ? super I>> filters) {
+		return new AndFilter<M, I>(filters);
+	}
+
+	public static <M, I> RowFilter<M, I> notFilter(RowFilter<M, I> filter) {
+		return new NotFilter<M, I>(filter);
+	}
+
+	public abstract boolean include(Entry<? extends M, ? extends I> entry);
+
+	/**
+	 * An <code>Entry</code> object is passed to instances of
+	 * <code>RowFilter</code>, allowing the filter to get the value of the
+	 * entry's data, and thus to determine whether the entry should be shown.
+	 *
+	 * @since 1.6
+	 */
+	public static abstract class Entry<M, I> {
+		public Entry() {
+		}
+
+		public abstract M getModel();
+
+		public abstract int getValueCount();
+
+		public abstract Object getValue(int index);
+
+		public String getStringValue(int index) {
+			Object value = getValue(index);
+			return (value == null) ? "" : value.toString();
+		}
+
+		public abstract I getIdentifier();
+	}
+
+	private static abstract class GeneralFilter extends RowFilter<Object, Object> {
+		private int[] columns;
+
+		GeneralFilter(int[] columns) {
+			checkIndices(columns);
+			this.columns = columns;
+		}
+
+		public boolean include(Entry<? extends Object, ? extends Object> value) {
+			int count = value.getValueCount();
+			if (columns.length > 0) {
+				for (int i = columns.length - 1; i >= 0; i--) {
+					int index = columns[i];
+					if (index < count) {
+						if (include(value, index)) {
+							return true;
+						}
+					}
+				}
+			} else {
+				while (--count >= 0) {
+					if (include(value, count)) {
+						return true;
+					}
+				}
+			}
+			return false;
+		}
+
+		protected abstract boolean include(Entry<? extends Object, ? extends Object> value,
+				int index);
+	}
+
+	private static class RegexFilter extends GeneralFilter {
+		private Matcher matcher;
+
+		RegexFilter(Pattern regex, int[] columns) {
+			super(columns);
+			if (regex == null) {
+				throw new IllegalArgumentException("Pattern must be non-null");
+			}
+			matcher = regex.matcher("");
+		}
+
+		protected boolean include(Entry<? extends Object, ? extends Object> value, int index) {
+			matcher.reset(value.getStringValue(index));
+			return matcher.find();
+		}
+	}
+
+	private static class DateFilter extends GeneralFilter {
+		private long date;
+		private ComparisonType type;
+
+		DateFilter(ComparisonType type, long date, int[] columns) {
+			super(columns);
+			if (type == null) {
+				throw new IllegalArgumentException("type must be non-null");
+			}
+			this.type = type;
+			this.date = date;
+		}
+
+		protected boolean include(Entry<? extends Object, ? extends Object> value, int index) {
+			Object v = value.getValue(index);
+
+			if (v instanceof Date) {
+				long vDate = ((Date) v).getTime();
+				switch (type) {
+				case BEFORE:
+					return (vDate < date);
+				case AFTER:
+					return (vDate > date);
+				case EQUAL:
+					return (vDate == date);
+				case NOT_EQUAL:
+					return (vDate != date);
+				default:
+					break;
+				}
+			}
+			return false;
+		}
+	}
+
+	private static class NumberFilter extends GeneralFilter {
+		private boolean isComparable;
+		private Number number;
+		private ComparisonType type;
+
+		NumberFilter(ComparisonType type, Number number, int[] columns) {
+			super(columns);
+			if (type == null || number == null) {
+				throw new IllegalArgumentException("type and number must be non-null");
+			}
+			this.type = type;
+			this.number = number;
+			isComparable = (number instanceof Comparable);
+		}
+
+		protected boolean include(Entry<? extends Object, ? extends Object> value, int index) {
+			Object v = value.getValue(index);
+
+			if (v instanceof Number) {
+				boolean compared = true;
+				int compareResult;
+				Class vClass = v.getClass();
+				if (number.getClass() == vClass && isComparable) {
+					compareResult = ((Comparable) number).compareTo(v);
+				} else {
+					compareResult = longCompare((Number) v);
+				}
+				switch (type) {
+				case BEFORE:
+					return (compareResult > 0);
+				case AFTER:
+					return (compareResult < 0);
+				case EQUAL:
+					return (compareResult == 0);
+				case NOT_EQUAL:
+					return (compareResult != 0);
+				default:
+					break;
+				}
+			}
+			return false;
+		}
+
+		private int longCompare(Number o) {
+			long diff = number.longValue() - o.longValue();
+
+			if (diff < 0) {
+				return -1;
+			} else if (diff > 0) {
+				return 1;
+			}
+			return 0;
+		}
+	}
+
+	private static class OrFilter<M, I> extends RowFilter<M, I> {
+		List<RowFilter<? super M, ? super I>> filters;
+
+		OrFilter(Iterable<? extends RowFilter<? super M, ? super I>> filters) {
+			this.filters = new ArrayList<RowFilter<? super M, ? super I>>();
+			for (RowFilter<? super M, ? super I> filter : filters) {
+				if (filter == null) {
+					throw new IllegalArgumentException("Filter must be non-null");
+				}
+				this.filters.add(filter);
+			}
+		}
+
+		public boolean include(Entry<? extends M, ? extends I> value) {
+			for (RowFilter<? super M, ? super I> filter : filters) {
+				if (filter.include(value)) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	private static class AndFilter<M, I> extends OrFilter<M, I> {
+		AndFilter(Iterable<? extends RowFilter<? super M, ? super I>> filters) {
+			super(filters);
+		}
+
+		public boolean include(Entry<? extends M, ? extends I> value) {
+			for (RowFilter<? super M, ? super I> filter : filters) {
+				if (!filter.include(value)) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	private static class NotFilter<M, I> extends RowFilter<M, I> {
+		private RowFilter<M, I> filter;
+
+		NotFilter(RowFilter<M, I> filter) {
+			if (filter == null) {
+				throw new IllegalArgumentException("filter must be non-null");
+			}
+			this.filter = filter;
+		}
+
+		public boolean include(Entry<? extends M, ? extends I> value) {
+			return !filter.include(value);
+		}
+	}
+}
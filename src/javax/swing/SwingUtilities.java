@@ -346,7 +346,9 @@ public class SwingUtilities implements SwingConstants {
 	}
 
 	static boolean doesIconReferenceImage(Icon icon, Image image) {
-		return false;
+		Image iconImage = (icon != null && (icon instanceof ImageIcon)) ? ((ImageIcon) icon)
+				.getImage() : null;
+		return (iconImage == image);
 	}
 
 	static int findDisplayedMnemonicIndex(String text, int mnemonic) {
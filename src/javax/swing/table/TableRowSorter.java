@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2005, 2006, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package javax.swing.table;
+
+import java.text.Collator;
+import java.util.Comparator;
+
+import javax.swing.DefaultRowSorter;
+
+/**
+ * An implementation of <code>RowSorter</code> that provides sorting and
+ * filtering using a <code>TableModel</code>. The following example shows
+ * adding sorting to a <code>JTable</code>:
+ * 
+ * <pre>
+ * TableModel myModel = createMyTableModel();
+ * JTable table = new JTable(myModel);
+ * table.setRowSorter(new TableRowSorter(myModel));
+ * </pre>
+ * 
+ * This will do all the wiring such that when the user does the appropriate
+ * gesture, such as clicking on the column header, the table will visually
+ * sort.
+ * <p>
+ * <code>TableRowSorter</code> uses <code>Comparator</code>s for doing
+ * comparisons. The following defines how a <code>Comparator</code> is chosen
+ * for a column:
+ * <ol>
+ * <li>If a <code>Comparator</code> has been specified for the column by the
+ * <code>setComparator</code> method, use it.
+ * <li>If the column class as returned by <code>getColumnClass</code> is
+ * <code>String</code>, use the <code>Comparator</code> returned by
+ * <code>Collator.getInstance()</code>.
+ * <li>If the column class implements <code>Comparable</code>, use a
+ * <code>Comparator</code> that invokes the <code>compareTo</code> method.
+ * <li>If a <code>TableStringConverter</code> has been specified, use it to
+ * convert the values to <code>String</code>s and then use the
+ * <code>Comparator</code> returned by <code>Collator.getInstance()</code>.
+ * <li>Otherwise use the <code>Comparator</code> returned by
+ * <code>Collator.getInstance()</code> on the results from calling
+ * <code>toString</code> on the objects.
+ * </ol>
+ * The <code>Integer</code>, <code>Long</code>, <code>Short</code>,
+ * <code>Byte</code>, <code>Double</code> and <code>Float</code> columns
+ * without a <code>Comparator</code> of their own are compared as primitive
+ * values, see {@link DefaultRowSorter}.
+ *
+ * @param <M>
+ *            the type of the model, which must be an implementation of
+ *            <code>TableModel</code>
+ * @see javax.swing.JTable
+ * @see javax.swing.RowFilter
+ * @see javax.swing.table.DefaultTableModel
+ * @see java.text.Collator
+ * @see java.util.Comparator
+ * @since 1.6
+ */
+public class TableRowSorter<M extends TableModel> extends DefaultRowSorter<M, Integer> {
+	private static final Comparator COMPARABLE_COMPARATOR = new ComparableComparator();
+
+	private M tableModel;
+
+	private TableStringConverter stringConverter;
+
+	public TableRowSorter() {
+		this(null);
+	}
+
+	public TableRowSorter(M model) {
+		setModel(model);
+	}
+
+	public void setModel(M model) {
+		tableModel = model;
+		setModelWrapper(new TableRowSorterModelWrapper());
+	}
+
+	public void setStringConverter(TableStringConverter stringConverter) {
+		this.stringConverter = stringConverter;
+	}
+
+	public TableStringConverter getStringConverter() {
+		return stringConverter;
+	}
+
+	public Comparator<?> getComparator(int column) {
+		Comparator comparator = super.getComparator(column);
+		if (comparator != null) {
+			return comparator;
+		}
+		Class columnClass = getModel().getColumnClass(column);
+		if (columnClass == String.class) {
+			return Collator.getInstance();
+		}
+		if (Comparable.class.isAssignableFrom(columnClass)) {
+			return COMPARABLE_COMPARATOR;
+		}
+		return Collator.getInstance();
+	}
+
+	protected boolean useToString(int column) {
+		Comparator comparator = super.getComparator(column);
+		if (comparator != null) {
+			return false;
+		}
+		Class columnClass = getModel().getColumnClass(column);
+		if (columnClass == String.class) {
+			return false;
+		}
+		if (Comparable.class.isAssignableFrom(columnClass)) {
+			return false;
+		}
+		return true;
+	}
+
+	protected Class<?> getColumnClassAdAPI(int column) {
+		return getModel().getColumnClass(column);
+	}
+
+	private class TableRowSorterModelWrapper extends ModelWrapper<M, Integer> {
+		public M getModel() {
+			return tableModel;
+		}
+
+		public int getColumnCount() {
+			return (tableModel == null) ? 0 : tableModel.getColumnCount();
+		}
+
+		public int getRowCount() {
+			return (tableModel == null) ? 0 : tableModel.getRowCount();
+		}
+
+		public Object getValueAt(int row, int column) {
+			return tableModel.getValueAt(row, column);
+		}
+
+		public String getStringValueAt(int row, int column) {
+			TableStringConverter converter = getStringConverter();
+			if (converter != null) {
+				String value = converter.toString(tableModel, row, column);
+				if (value != null) {
+					return value;
+				}
+				return "";
+			}
+
+			Object o = getValueAt(row, column);
+			if (o == null) {
+				return "";
+			}
+			String string = o.toString();
+			if (string == null) {
+				return "";
+			}
+			return string;
+		}
+
+		public Integer getIdentifier(int index) {
+			return index;
+		}
+	}
+
+	private static class ComparableComparator implements Comparator {
+		public int compare(Object o1, Object o2) {
+			return ((Comparable) o1).compareTo(o2);
+		}
+	}
+}